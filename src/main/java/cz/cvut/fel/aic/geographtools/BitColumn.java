@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+/**
+ * {@link Column} of <code>boolean</code> values packed to 64 values per <code>long</code> word.
+ */
+public class BitColumn extends Column {
+
+	private static final long serialVersionUID = 8853419282700416013L;
+
+	private final long[] words;
+
+	private final int size;
+
+	/**
+	 * Creates a column of the given size filled with <code>false</code>.
+	 *
+	 * @param name name of the column
+	 * @param size number of elements
+	 */
+	public BitColumn(String name, int size) {
+		super(name);
+		this.size = size;
+		this.words = new long[(size + 63) >>> 6];
+	}
+
+	public boolean get(int index) {
+		checkIndex(index);
+		return (words[index >>> 6] & (1L << index)) != 0;
+	}
+
+	public void set(int index, boolean value) {
+		checkIndex(index);
+		if (value) {
+			words[index >>> 6] |= 1L << index;
+		} else {
+			words[index >>> 6] &= ~(1L << index);
+		}
+	}
+
+	/**
+	 * Returns the number of <code>true</code> values.
+	 *
+	 * @return number of set bits
+	 */
+	public int cardinality() {
+		int count = 0;
+		for (long word : words) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the backing words of the column, bit <code>i</code> is stored in
+	 * <code>words[i / 64] &amp; (1L &lt;&lt; (i % 64))</code>. Changes of the array are visible in the column.
+	 *
+	 * @return packed values
+	 */
+	public long[] getWords() {
+		return words;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	ColumnType getType() {
+		return ColumnType.BIT;
+	}
+
+	@Override
+	long getBits(int index) {
+		return get(index) ? 1 : 0;
+	}
+
+	@Override
+	void setBits(int index, long bits) {
+		set(index, bits != 0);
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+import java.io.Serializable;
+
+/**
+ * Named primitive attribute of graph nodes or edges, indexed by node id or edge id. Columns are attached to a
+ * {@link Graph} instead of subclassing {@link Node} or {@link Edge}, so the values of one attribute are stored in
+ * one compact array.
+ */
+public abstract class Column implements Serializable {
+
+	private static final long serialVersionUID = 3471262906335093187L;
+
+	private final String name;
+
+	protected Column(String name) {
+		if (name == null) {
+			throw new IllegalArgumentException("Column name must not be null");
+		}
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the number of elements in the column.
+	 *
+	 * @return size of the column
+	 */
+	public abstract int size();
+
+	abstract ColumnType getType();
+
+	/**
+	 * Returns the element as raw bits, floats are converted by {@link Float#floatToRawIntBits(float)} and booleans
+	 * to 0 or 1.
+	 */
+	abstract long getBits(int index);
+
+	/**
+	 * Sets the element from raw bits, the inverse of {@link #getBits(int)}.
+	 */
+	abstract void setBits(int index, long bits);
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [name=" + name + ", size=" + size() + "]";
+	}
+}
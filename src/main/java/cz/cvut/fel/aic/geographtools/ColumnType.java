@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+/**
+ * Element types of {@link Column}s, used by {@link GraphBuilder} and {@link GraphIO} to create columns. The ordinals
+ * are a part of the {@link GraphIO} format, new types have to be appended.
+ */
+enum ColumnType {
+	INT {
+		@Override
+		Column create(String name, int size) {
+			return new IntColumn(name, size);
+		}
+	},
+	FLOAT {
+		@Override
+		Column create(String name, int size) {
+			return new FloatColumn(name, size);
+		}
+	},
+	LONG {
+		@Override
+		Column create(String name, int size) {
+			return new LongColumn(name, size);
+		}
+	},
+	BIT {
+		@Override
+		Column create(String name, int size) {
+			return new BitColumn(name, size);
+		}
+	};
+
+	/**
+	 * Creates a column of this type filled with zeros.
+	 */
+	abstract Column create(String name, int size);
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+import cz.cvut.fel.aic.geographtools.util.LongIntHashMap;
+import java.util.Arrays;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Values of one column collected by {@link GraphBuilder} before the final node and edge ids are known. Elements are
+ * identified by a <code>long</code> key, the node id for node columns and the packed (fromNodeId, toNodeId) for edge
+ * columns. Values are stored as raw bits, see {@link Column#getBits(int)}.
+ */
+class ColumnValues {
+
+	final ColumnType type;
+
+	private final LongIntHashMap slotByKey = new LongIntHashMap();
+
+	private long[] keys = new long[16];
+
+	private long[] values = new long[16];
+
+	private int size;
+
+	ColumnValues(ColumnType type) {
+		this.type = type;
+	}
+
+	void set(long key, long bits) {
+		int slot = slotByKey.getOrDefault(key, -1);
+		if (slot < 0) {
+			slot = size++;
+			if (slot == keys.length) {
+				keys = Arrays.copyOf(keys, slot << 1);
+				values = Arrays.copyOf(values, slot << 1);
+			}
+			keys[slot] = key;
+			slotByKey.put(key, slot);
+		}
+		values[slot] = bits;
+	}
+
+	int size() {
+		return size;
+	}
+
+	long getKey(int slot) {
+		return keys[slot];
+	}
+
+	long getBits(int slot) {
+		return values[slot];
+	}
+
+	/**
+	 * Returns a copy with keys mapped by the given function, used when the nodes are renumbered.
+	 */
+	ColumnValues remapKeys(LongUnaryOperator keyMapping) {
+		ColumnValues remapped = new ColumnValues(type);
+		for (int slot = 0; slot < size; slot++) {
+			remapped.set(keyMapping.applyAsLong(keys[slot]), values[slot]);
+		}
+		return remapped;
+	}
+}
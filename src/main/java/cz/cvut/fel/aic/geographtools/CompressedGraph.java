@@ -0,0 +1,481 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-only adjacency with gap encoded neighbour lists, for graphs too large for the CSR arrays of {@link Graph}.
+ * <p>
+ * The neighbours of each node are sorted by node id and stored as a varint record: the degree, then for each edge
+ * the gap to the previous neighbour id (the first one relative to the node id itself, zigzag encoded) followed by
+ * the edge length. Road graphs numbered with a locality preserving order (see
+ * {@link GraphBuilder#reorderNodes}) have small gaps, so the topology takes 1 to 3 bytes per edge. The byte offset
+ * of every {@value #SAMPLE_RATE}th record is kept in a sampled index, the other records are located by a 16 bit
+ * offset relative to the sample, or skipped over if it does not fit. The records are stored in pages of at most
+ * 1 GB, a record never spans two pages.
+ * <p>
+ * The adjacency is decoded by {@link Cursor}s, which do not allocate and can be reused for any number of nodes. A
+ * cursor is not thread safe, the graph itself is immutable and can be shared.
+ */
+public class CompressedGraph implements PrimitiveGraphStructure {
+
+	/**
+	 * Number of node records per one sampled offset.
+	 */
+	public static final int SAMPLE_RATE = 8;
+
+	private static final int SAMPLE_SHIFT = 3;
+
+	private static final int PAGE_SHIFT = 30;
+
+	private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;
+
+	/**
+	 * Marks a record too far from the sampled offset, it is found by skipping the records in between.
+	 */
+	private static final char NO_RELATIVE_OFFSET = Character.MAX_VALUE;
+
+	/**
+	 * Maximal length of one varint.
+	 */
+	private static final int MAX_VARINT_BYTES = 5;
+
+	private final int numberOfNodes;
+
+	private final int numberOfEdges;
+
+	private final Adjacency outgoing;
+
+	private final Adjacency incoming;
+
+	private CompressedGraph(int numberOfNodes, int numberOfEdges, Adjacency outgoing, Adjacency incoming) {
+		this.numberOfNodes = numberOfNodes;
+		this.numberOfEdges = numberOfEdges;
+		this.outgoing = outgoing;
+		this.incoming = incoming;
+	}
+
+	/**
+	 * Compresses the adjacency of the graph, e.g. of a {@link Graph} or a {@link MappedGraph}.
+	 *
+	 * @param graph graph
+	 * @return compressed graph
+	 */
+	public static CompressedGraph compress(PrimitiveGraphStructure graph) {
+		int numberOfNodes = graph.numberOfNodes();
+		AdjacencyWriter out = new AdjacencyWriter(numberOfNodes);
+		AdjacencyWriter in = new AdjacencyWriter(numberOfNodes);
+		for (int k = 0; k < numberOfNodes; k++) {
+			out.startNode(graph.outDegree(k));
+			graph.forEachOutNeighbor(k, out::addNeighbor);
+			out.finishNode(k);
+			in.startNode(graph.inDegree(k));
+			graph.forEachInNeighbor(k, in::addNeighbor);
+			in.finishNode(k);
+		}
+		return new CompressedGraph(numberOfNodes, graph.numberOfEdges(), out.finish(), in.finish());
+	}
+
+	@Override
+	public int numberOfNodes() {
+		return numberOfNodes;
+	}
+
+	@Override
+	public int numberOfEdges() {
+		return numberOfEdges;
+	}
+
+	/**
+	 * Returns the size of the encoded adjacency including the sampled index, in bytes.
+	 *
+	 * @return size in bytes
+	 */
+	public long sizeInBytes() {
+		return outgoing.sizeInBytes() + incoming.sizeInBytes();
+	}
+
+	/**
+	 * Creates a cursor over outgoing edges.
+	 *
+	 * @return cursor, it has to be positioned by {@link Cursor#reset(int)}
+	 */
+	public Cursor outCursor() {
+		return new Cursor(outgoing);
+	}
+
+	/**
+	 * Creates a cursor over incoming edges.
+	 *
+	 * @return cursor, it has to be positioned by {@link Cursor#reset(int)}
+	 */
+	public Cursor inCursor() {
+		return new Cursor(incoming);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int outDegree(int nodeId) {
+		return outgoing.degree(nodeId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void forEachOutNeighbor(int nodeId, IntIntConsumer consumer) {
+		outgoing.forEach(nodeId, consumer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int inDegree(int nodeId) {
+		return incoming.degree(nodeId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The incoming edges are ordered by source node id.
+	 */
+	@Override
+	public void forEachInNeighbor(int nodeId, IntIntConsumer consumer) {
+		incoming.forEach(nodeId, consumer);
+	}
+
+	@Override
+	public String toString() {
+		return "CompressedGraph [#nodes=" + numberOfNodes + ", #edges=" + numberOfEdges + ", #bytes=" + sizeInBytes()
+				+ "]";
+	}
+
+	/**
+	 * Decoding iterator over the edges of one node:
+	 * <pre>
+	 * cursor.reset(nodeId);
+	 * while (cursor.next()) {
+	 *     relax(cursor.nodeId(), cursor.lengthCm());
+	 * }
+	 * </pre>
+	 */
+	public static final class Cursor {
+
+		private final Adjacency adjacency;
+
+		private byte[] page;
+
+		private int position;
+
+		private int remaining;
+
+		private boolean first;
+
+		private int nodeId;
+
+		private int lengthCm;
+
+		private Cursor(Adjacency adjacency) {
+			this.adjacency = adjacency;
+		}
+
+		/**
+		 * Positions the cursor before the first edge of the node.
+		 *
+		 * @param nodeId id of the node
+		 * @return degree of the node
+		 */
+		public int reset(int nodeId) {
+			long offset = adjacency.locate(nodeId);
+			page = adjacency.pages[(int) (offset >>> PAGE_SHIFT)];
+			position = (int) offset & PAGE_MASK;
+			remaining = readVarInt(page, position);
+			position = skipVarInt(page, position);
+			first = true;
+			// the first gap is relative to the node itself
+			this.nodeId = nodeId;
+			return remaining;
+		}
+
+		/**
+		 * Moves to the next edge.
+		 *
+		 * @return <code>false</code> if there are no more edges
+		 */
+		public boolean next() {
+			if (remaining == 0) {
+				return false;
+			}
+			int gap = readVarInt(page, position);
+			position = skipVarInt(page, position);
+			if (first) {
+				nodeId += (gap >>> 1) ^ -(gap & 1);
+				first = false;
+			} else {
+				nodeId += gap;
+			}
+			lengthCm = readVarInt(page, position);
+			position = skipVarInt(page, position);
+			remaining--;
+			return true;
+		}
+
+		/**
+		 * Id of the node on the other side of the current edge.
+		 *
+		 * @return node id
+		 */
+		public int nodeId() {
+			return nodeId;
+		}
+
+		/**
+		 * Length of the current edge in centimeters.
+		 *
+		 * @return length in cm
+		 */
+		public int lengthCm() {
+			return lengthCm;
+		}
+	}
+
+	private static int readVarInt(byte[] bytes, int position) {
+		int b = bytes[position];
+		if (b >= 0) {
+			return b;
+		}
+		int value = b & 0x7F;
+		for (int shift = 7; ; shift += 7) {
+			b = bytes[++position];
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * Returns the position after the varint starting at the position.
+	 */
+	private static int skipVarInt(byte[] bytes, int position) {
+		while (bytes[position++] < 0) {
+		}
+		return position;
+	}
+
+	/**
+	 * Encoded records of one direction.
+	 */
+	private static final class Adjacency {
+
+		private final byte[][] pages;
+
+		/**
+		 * Offset of every SAMPLE_RATE-th record, page index in the upper bits.
+		 */
+		private final long[] sampledOffsets;
+
+		/**
+		 * Offset of each record relative to the sampled offset, or NO_RELATIVE_OFFSET if it does not fit.
+		 */
+		private final char[] relativeOffsets;
+
+		Adjacency(byte[][] pages, long[] sampledOffsets, char[] relativeOffsets) {
+			this.pages = pages;
+			this.sampledOffsets = sampledOffsets;
+			this.relativeOffsets = relativeOffsets;
+		}
+
+		long sizeInBytes() {
+			long size = 8L * sampledOffsets.length + 2L * relativeOffsets.length;
+			for (byte[] page : pages) {
+				size += page.length;
+			}
+			return size;
+		}
+
+		/**
+		 * Returns the offset of the record of the node.
+		 */
+		long locate(int nodeId) {
+			long offset = sampledOffsets[nodeId >>> SAMPLE_SHIFT];
+			char relativeOffset = relativeOffsets[nodeId];
+			if (relativeOffset != NO_RELATIVE_OFFSET) {
+				return offset + relativeOffset;
+			}
+			int skip = nodeId & (SAMPLE_RATE - 1);
+			int pageIndex = (int) (offset >>> PAGE_SHIFT);
+			byte[] page = pages[pageIndex];
+			int position = (int) offset & PAGE_MASK;
+			for (int k = 0; k < skip; k++) {
+				if (position == page.length) {
+					// the next record starts a new page
+					page = pages[++pageIndex];
+					position = 0;
+				}
+				int varints = 2 * readVarInt(page, position);
+				position = skipVarInt(page, position);
+				for (; varints > 0; position++) {
+					if (page[position] >= 0) {
+						varints--;
+					}
+				}
+			}
+			if (position == page.length) {
+				pageIndex++;
+				position = 0;
+			}
+			return ((long) pageIndex << PAGE_SHIFT) | position;
+		}
+
+		int degree(int nodeId) {
+			long offset = locate(nodeId);
+			return readVarInt(pages[(int) (offset >>> PAGE_SHIFT)], (int) offset & PAGE_MASK);
+		}
+
+		void forEach(int nodeId, IntIntConsumer consumer) {
+			long offset = locate(nodeId);
+			byte[] page = pages[(int) (offset >>> PAGE_SHIFT)];
+			int position = (int) offset & PAGE_MASK;
+			int degree = readVarInt(page, position);
+			position = skipVarInt(page, position);
+			int neighbor = nodeId;
+			for (int i = 0; i < degree; i++) {
+				int gap = readVarInt(page, position);
+				position = skipVarInt(page, position);
+				neighbor += i == 0 ? (gap >>> 1) ^ -(gap & 1) : gap;
+				int lengthCm = readVarInt(page, position);
+				position = skipVarInt(page, position);
+				consumer.accept(neighbor, lengthCm);
+			}
+		}
+	}
+
+	/**
+	 * Encodes the records node by node. The neighbours of a node are collected first, sorted if needed and then
+	 * encoded, so the record can be moved to a new page as a whole.
+	 */
+	private static final class AdjacencyWriter {
+
+		private final long[] sampledOffsets;
+
+		private final char[] relativeOffsets;
+
+		private final List<byte[]> pages = new ArrayList<>();
+
+		private byte[] page = new byte[1 << 12];
+
+		private int pageLength;
+
+		private byte[] record = new byte[64];
+
+		private int recordLength;
+
+		private long[] neighbors = new long[16];
+
+		private int degree;
+
+		private boolean sorted;
+
+		AdjacencyWriter(int numberOfNodes) {
+			sampledOffsets = new long[(numberOfNodes + SAMPLE_RATE - 1) >>> SAMPLE_SHIFT];
+			relativeOffsets = new char[numberOfNodes];
+		}
+
+		void startNode(int expectedDegree) {
+			if (neighbors.length < expectedDegree) {
+				neighbors = new long[expectedDegree];
+			}
+			degree = 0;
+			sorted = true;
+		}
+
+		void addNeighbor(int nodeId, int lengthCm) {
+			if (degree == neighbors.length) {
+				neighbors = Arrays.copyOf(neighbors, 2 * degree);
+			}
+			// node ids are non-negative, so the packed values sort by node id
+			long neighbor = ((long) nodeId << 32) | (lengthCm & 0xFFFFFFFFL);
+			if (degree > 0 && neighbors[degree - 1] > neighbor) {
+				sorted = false;
+			}
+			neighbors[degree++] = neighbor;
+		}
+
+		void finishNode(int nodeId) {
+			if (!sorted) {
+				Arrays.sort(neighbors, 0, degree);
+			}
+			recordLength = 0;
+			ensureRecordCapacity(MAX_VARINT_BYTES * (1 + 2 * degree));
+			writeVarInt(degree);
+			int previous = nodeId;
+			for (int i = 0; i < degree; i++) {
+				int neighbor = (int) (neighbors[i] >>> 32);
+				int gap = neighbor - previous;
+				writeVarInt(i == 0 ? (gap << 1) ^ (gap >> 31) : gap);
+				writeVarInt((int) neighbors[i]);
+				previous = neighbor;
+			}
+
+			if (pageLength + recordLength > PAGE_MASK + 1) {
+				pages.add(Arrays.copyOf(page, pageLength));
+				page = new byte[Math.max(1 << 12, recordLength)];
+				pageLength = 0;
+			}
+			if (pageLength + recordLength > page.length) {
+				page = Arrays.copyOf(page, (int) Math.min(PAGE_MASK + 1L,
+						Math.max(pageLength + recordLength, 2L * page.length)));
+			}
+			long offset = ((long) pages.size() << PAGE_SHIFT) | pageLength;
+			if ((nodeId & (SAMPLE_RATE - 1)) == 0) {
+				sampledOffsets[nodeId >>> SAMPLE_SHIFT] = offset;
+			}
+			long relativeOffset = offset - sampledOffsets[nodeId >>> SAMPLE_SHIFT];
+			relativeOffsets[nodeId] = relativeOffset < NO_RELATIVE_OFFSET ? (char) relativeOffset : NO_RELATIVE_OFFSET;
+			System.arraycopy(record, 0, page, pageLength, recordLength);
+			pageLength += recordLength;
+		}
+
+		Adjacency finish() {
+			pages.add(Arrays.copyOf(page, pageLength));
+			return new Adjacency(pages.toArray(new byte[pages.size()][]), sampledOffsets, relativeOffsets);
+		}
+
+		private void ensureRecordCapacity(int capacity) {
+			if (record.length < capacity) {
+				record = new byte[Math.max(capacity, 2 * record.length)];
+			}
+		}
+
+		private void writeVarInt(int value) {
+			while ((value & ~0x7F) != 0) {
+				record[recordLength++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			record[recordLength++] = (byte) value;
+		}
+	}
+}
@@ -22,23 +22,40 @@ import java.util.*;
 
 /**
  * Structure for converting a sub-list of all edges in the graph to a single list. Does not uses own array,
- * instead marks the interval in the whole list of edges
+ * instead marks the interval in the whole list of edges, or in the array of edge ids pointing to the whole list
+ * of edges
  */
 public class EdgeList<TEdge> extends AbstractList<TEdge> implements RandomAccess, Serializable {
 
-	private static final long serialVersionUID = -4480102272064906541L;
+	private static final long serialVersionUID = -2603919458306129245L;
 
 	final int startPosition; // inclusive
 	final int endPosition; // exclusive
 	private final List<TEdge> edges;
+	private final int[] edgeIds; // null if the interval marks the edges directly
 
 	public EdgeList(int startPosition, int endPosition, List<TEdge> edges) {
+		this(startPosition, endPosition, null, edges);
+	}
+
+	/**
+	 * Creates list of edges whose ids (positions in the whole list of edges) are stored in the interval of the
+	 * edge id array.
+	 */
+	public EdgeList(int startPosition, int endPosition, int[] edgeIds, List<TEdge> edges) {
 		this.startPosition = startPosition;
 		this.endPosition = endPosition;
+		this.edgeIds = edgeIds;
 		this.edges = edges;
 	}
 
 	public TEdge get(int index) {
+		if (edgeIds != null) {
+			if (index < 0 || index >= size()) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+			}
+			return edges.get(edgeIds[startPosition + index]);
+		}
 		return edges.get(startPosition + index);
 	}
 
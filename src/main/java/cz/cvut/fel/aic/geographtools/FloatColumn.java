@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+/**
+ * {@link Column} of <code>float</code> values.
+ */
+public class FloatColumn extends Column {
+
+	private static final long serialVersionUID = 5218861530342208823L;
+
+	private final float[] values;
+
+	/**
+	 * Creates a column of the given size filled with zeros.
+	 *
+	 * @param name name of the column
+	 * @param size number of elements
+	 */
+	public FloatColumn(String name, int size) {
+		this(name, new float[size]);
+	}
+
+	/**
+	 * Creates a column backed by the given array, the array is not copied.
+	 *
+	 * @param name name of the column
+	 * @param values values indexed by node id or edge id
+	 */
+	public FloatColumn(String name, float[] values) {
+		super(name);
+		this.values = values;
+	}
+
+	public float get(int index) {
+		return values[index];
+	}
+
+	public void set(int index, float value) {
+		values[index] = value;
+	}
+
+	/**
+	 * Returns the backing array of the column, changes of the array are visible in the column.
+	 *
+	 * @return array of values indexed by node id or edge id
+	 */
+	public float[] getValues() {
+		return values;
+	}
+
+	@Override
+	public int size() {
+		return values.length;
+	}
+
+	@Override
+	ColumnType getType() {
+		return ColumnType.FLOAT;
+	}
+
+	@Override
+	long getBits(int index) {
+		return Float.floatToRawIntBits(values[index]);
+	}
+
+	@Override
+	void setBits(int index, long bits) {
+		values[index] = Float.intBitsToFloat((int) bits);
+	}
+}
@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+import java.io.Serializable;
+
+/**
+ * Read-only graph stored in primitive arrays only, without any {@link Node} or {@link Edge} objects. Nodes take 28
+ * bytes (source id, coordinates and elevation) plus 8 bytes of adjacency positions, edges take 16 bytes (source,
+ * target, length and the id in the incoming CSR), so graphs with hundreds of millions of nodes fit into the heap of a
+ * single server.
+ * <p>
+ * The layout is the same as in {@link Graph}: edge ids are positions in the outgoing CSR, outgoing edges of each
+ * node are sorted by target node id and the incoming CSR stores edge ids. Nodes and edges are accessed either by
+ * their ids or by reusable {@link NodeCursor}s and {@link EdgeCursor}s, which are views over the arrays and do not
+ * allocate while moving. The graph is created by {@link FlyweightGraphBuilder} or copied from a {@link Graph} by
+ * {@link #copyOf(Graph)}.
+ */
+public class FlyweightGraph implements PrimitiveGraphStructure, Serializable {
+
+	private static final long serialVersionUID = 4417310870396212458L;
+
+	private final int numberOfNodes;
+
+	private final int numberOfEdges;
+
+	private final long[] sourceIds;
+
+	private final int[] latE6;
+
+	private final int[] lonE6;
+
+	private final int[] latProjected;
+
+	private final int[] lonProjected;
+
+	private final int[] elevation;
+
+	/**
+	 * Starting positions of outgoing edges of each node (size = numberOfNodes + 1).
+	 */
+	private final int[] outgoingPositions;
+
+	/**
+	 * Target node ids by edge id, sorted for each node.
+	 */
+	private final int[] outgoingTargets;
+
+	/**
+	 * Lengths in cm by edge id.
+	 */
+	private final int[] outgoingLengths;
+
+	/**
+	 * Starting positions of incoming edge ids of each node (size = numberOfNodes + 1).
+	 */
+	private final int[] incomingPositions;
+
+	/**
+	 * Ids of incoming edges, ordered by source node id for each node.
+	 */
+	private final int[] incomingEdgeIds;
+
+	/**
+	 * Source node ids by edge id.
+	 */
+	private final int[] edgeSources;
+
+	FlyweightGraph(long[] sourceIds, int[] latE6, int[] lonE6, int[] latProjected, int[] lonProjected,
+			int[] elevation, int[] outgoingPositions, int[] outgoingTargets, int[] outgoingLengths,
+			int[] incomingPositions, int[] incomingEdgeIds) {
+		this.numberOfNodes = sourceIds.length;
+		this.numberOfEdges = outgoingTargets.length;
+		this.sourceIds = sourceIds;
+		this.latE6 = latE6;
+		this.lonE6 = lonE6;
+		this.latProjected = latProjected;
+		this.lonProjected = lonProjected;
+		this.elevation = elevation;
+		this.outgoingPositions = outgoingPositions;
+		this.outgoingTargets = outgoingTargets;
+		this.outgoingLengths = outgoingLengths;
+		this.incomingPositions = incomingPositions;
+		this.incomingEdgeIds = incomingEdgeIds;
+		this.edgeSources = new int[numberOfEdges];
+		for (int k = 0; k < numberOfNodes; k++) {
+			for (int j = outgoingPositions[k]; j < outgoingPositions[k + 1]; j++) {
+				edgeSources[j] = k;
+			}
+		}
+	}
+
+	/**
+	 * Copies the ids, coordinates and adjacency of the graph, edge ids are preserved.
+	 *
+	 * @param graph graph
+	 * @return flyweight graph
+	 */
+	public static FlyweightGraph copyOf(Graph<?, ?> graph) {
+		int numberOfNodes = graph.numberOfNodes();
+		int numberOfEdges = graph.numberOfEdges();
+		long[] sourceIds = new long[numberOfNodes];
+		int[][] coordinates = new int[NodeCoordinate.values().length][numberOfNodes];
+		int[] outgoingPositions = new int[numberOfNodes + 1];
+		int[] incomingPositions = new int[numberOfNodes + 1];
+		for (int k = 0; k < numberOfNodes; k++) {
+			sourceIds[k] = graph.sourceIdOf(k);
+			outgoingPositions[k + 1] = outgoingPositions[k] + graph.outDegree(k);
+			incomingPositions[k + 1] = incomingPositions[k] + graph.inDegree(k);
+		}
+		for (NodeCoordinate coordinate : NodeCoordinate.values()) {
+			graph.copyNodeCoordinates(coordinate, 0, coordinates[coordinate.ordinal()], 0, numberOfNodes);
+		}
+		int[] outgoingTargets = new int[numberOfEdges];
+		int[] outgoingLengths = new int[numberOfEdges];
+		int[] incomingEdgeIds = new int[numberOfEdges];
+		for (int edgeId = 0; edgeId < numberOfEdges; edgeId++) {
+			outgoingTargets[edgeId] = graph.edgeTarget(edgeId);
+			outgoingLengths[edgeId] = graph.edgeLengthCm(edgeId);
+		}
+		for (int k = 0; k < numberOfNodes; k++) {
+			for (int i = 0; i < graph.inDegree(k); i++) {
+				incomingEdgeIds[incomingPositions[k] + i] = graph.inEdgeId(k, i);
+			}
+		}
+		return new FlyweightGraph(sourceIds, coordinates[NodeCoordinate.LAT_E6.ordinal()],
+				coordinates[NodeCoordinate.LON_E6.ordinal()], coordinates[NodeCoordinate.LAT_PROJECTED.ordinal()],
+				coordinates[NodeCoordinate.LON_PROJECTED.ordinal()], coordinates[NodeCoordinate.ELEVATION.ordinal()],
+				outgoingPositions, outgoingTargets, outgoingLengths, incomingPositions, incomingEdgeIds);
+	}
+
+	@Override
+	public int numberOfNodes() {
+		return numberOfNodes;
+	}
+
+	@Override
+	public int numberOfEdges() {
+		return numberOfEdges;
+	}
+
+	/**
+	 * @see Graph#sourceIdOf(int)
+	 */
+	public long sourceIdOf(int nodeId) {
+		return sourceIds[nodeId];
+	}
+
+	/**
+	 * @see Graph#getNodeLatE6(int)
+	 */
+	public int getNodeLatE6(int nodeId) {
+		return latE6[nodeId];
+	}
+
+	/**
+	 * @see Graph#getNodeLonE6(int)
+	 */
+	public int getNodeLonE6(int nodeId) {
+		return lonE6[nodeId];
+	}
+
+	/**
+	 * @see Graph#getNodeLatitudeProjected1E2(int)
+	 */
+	public int getNodeLatitudeProjected1E2(int nodeId) {
+		return latProjected[nodeId];
+	}
+
+	/**
+	 * @see Graph#getNodeLongitudeProjected1E2(int)
+	 */
+	public int getNodeLongitudeProjected1E2(int nodeId) {
+		return lonProjected[nodeId];
+	}
+
+	/**
+	 * @see Graph#getNodeElevation(int)
+	 */
+	public int getNodeElevation(int nodeId) {
+		return elevation[nodeId];
+	}
+
+	/**
+	 * @see Graph#edgeSource(int)
+	 */
+	public int edgeSource(int edgeId) {
+		return edgeSources[edgeId];
+	}
+
+	/**
+	 * @see Graph#edgeTarget(int)
+	 */
+	public int edgeTarget(int edgeId) {
+		return outgoingTargets[edgeId];
+	}
+
+	/**
+	 * @see Graph#edgeLengthCm(int)
+	 */
+	public int edgeLengthCm(int edgeId) {
+		return outgoingLengths[edgeId];
+	}
+
+	/**
+	 * @see Graph#edgeIdOf(int, int)
+	 */
+	public int edgeIdOf(int fromNodeId, int toNodeId) {
+		int low = outgoingPositions[fromNodeId];
+		int high = outgoingPositions[fromNodeId + 1];
+		// lower bound, so the first of parallel edges is found
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (outgoingTargets[middle] < toNodeId) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low < outgoingPositions[fromNodeId + 1] && outgoingTargets[low] == toNodeId ? low : -1;
+	}
+
+	@Override
+	public int outDegree(int nodeId) {
+		return outgoingPositions[nodeId + 1] - outgoingPositions[nodeId];
+	}
+
+	@Override
+	public void forEachOutNeighbor(int nodeId, IntIntConsumer consumer) {
+		for (int j = outgoingPositions[nodeId]; j < outgoingPositions[nodeId + 1]; j++) {
+			consumer.accept(outgoingTargets[j], outgoingLengths[j]);
+		}
+	}
+
+	@Override
+	public int inDegree(int nodeId) {
+		return incomingPositions[nodeId + 1] - incomingPositions[nodeId];
+	}
+
+	@Override
+	public void forEachInNeighbor(int nodeId, IntIntConsumer consumer) {
+		for (int j = incomingPositions[nodeId]; j < incomingPositions[nodeId + 1]; j++) {
+			int edgeId = incomingEdgeIds[j];
+			consumer.accept(edgeSources[edgeId], outgoingLengths[edgeId]);
+		}
+	}
+
+	/**
+	 * Creates a cursor over nodes, positioned before the first node.
+	 *
+	 * @return node cursor
+	 */
+	public NodeCursor nodeCursor() {
+		return new NodeCursor();
+	}
+
+	/**
+	 * Creates a cursor over edges, positioned before the first edge of the graph.
+	 *
+	 * @return edge cursor
+	 */
+	public EdgeCursor edgeCursor() {
+		return new EdgeCursor();
+	}
+
+	@Override
+	public String toString() {
+		return "FlyweightGraph [#nodes=" + numberOfNodes + ", #edges=" + numberOfEdges + "]";
+	}
+
+	/**
+	 * View of one node, moved over the nodes by {@link #next()} or {@link #moveTo(int)}.
+	 */
+	public final class NodeCursor {
+
+		private int nodeId = -1;
+
+		private NodeCursor() {
+		}
+
+		/**
+		 * Moves to the next node in the order of node ids.
+		 *
+		 * @return <code>false</code> if there are no more nodes
+		 */
+		public boolean next() {
+			if (nodeId + 1 >= numberOfNodes) {
+				nodeId = numberOfNodes;
+				return false;
+			}
+			nodeId++;
+			return true;
+		}
+
+		/**
+		 * Moves to the node.
+		 *
+		 * @param nodeId id of the node
+		 * @return this cursor
+		 * @throws IndexOutOfBoundsException if there is no such node
+		 */
+		public NodeCursor moveTo(int nodeId) {
+			if (nodeId < 0 || nodeId >= numberOfNodes) {
+				throw new IndexOutOfBoundsException("Node id: " + nodeId + ", number of nodes: " + numberOfNodes);
+			}
+			this.nodeId = nodeId;
+			return this;
+		}
+
+		public int id() {
+			return nodeId;
+		}
+
+		public long sourceId() {
+			return sourceIds[nodeId];
+		}
+
+		public int latE6() {
+			return latE6[nodeId];
+		}
+
+		public int lonE6() {
+			return lonE6[nodeId];
+		}
+
+		public int latitudeProjected1E2() {
+			return latProjected[nodeId];
+		}
+
+		public int longitudeProjected1E2() {
+			return lonProjected[nodeId];
+		}
+
+		public int elevation() {
+			return elevation[nodeId];
+		}
+
+		public int outDegree() {
+			return FlyweightGraph.this.outDegree(nodeId);
+		}
+
+		public int inDegree() {
+			return FlyweightGraph.this.inDegree(nodeId);
+		}
+	}
+
+	/**
+	 * View of one edge, moved over a range of edges by {@link #next()}. The range is selected by
+	 * {@link #outEdges(int)}, {@link #inEdges(int)} or {@link #allEdges()}.
+	 */
+	public final class EdgeCursor {
+
+		private boolean incoming;
+
+		private int position;
+
+		private int end;
+
+		private int edgeId = -1;
+
+		private EdgeCursor() {
+			allEdges();
+		}
+
+		/**
+		 * Selects all edges of the graph in the order of edge ids.
+		 *
+		 * @return this cursor, positioned before the first edge
+		 */
+		public EdgeCursor allEdges() {
+			return select(false, 0, numberOfEdges);
+		}
+
+		/**
+		 * Selects the edges outgoing from the node, in the order of target node ids.
+		 *
+		 * @param nodeId id of the node
+		 * @return this cursor, positioned before the first edge
+		 */
+		public EdgeCursor outEdges(int nodeId) {
+			return select(false, outgoingPositions[nodeId], outgoingPositions[nodeId + 1]);
+		}
+
+		/**
+		 * Selects the edges incoming to the node.
+		 *
+		 * @param nodeId id of the node
+		 * @return this cursor, positioned before the first edge
+		 */
+		public EdgeCursor inEdges(int nodeId) {
+			return select(true, incomingPositions[nodeId], incomingPositions[nodeId + 1]);
+		}
+
+		private EdgeCursor select(boolean incoming, int start, int end) {
+			this.incoming = incoming;
+			this.position = start - 1;
+			this.end = end;
+			this.edgeId = -1;
+			return this;
+		}
+
+		/**
+		 * Moves to the next selected edge.
+		 *
+		 * @return <code>false</code> if there are no more edges
+		 */
+		public boolean next() {
+			if (position + 1 >= end) {
+				position = end;
+				return false;
+			}
+			position++;
+			edgeId = incoming ? incomingEdgeIds[position] : position;
+			return true;
+		}
+
+		public int id() {
+			return edgeId;
+		}
+
+		public int fromNodeId() {
+			return edgeSources[edgeId];
+		}
+
+		public int toNodeId() {
+			return outgoingTargets[edgeId];
+		}
+
+		public int lengthCm() {
+			return outgoingLengths[edgeId];
+		}
+	}
+}
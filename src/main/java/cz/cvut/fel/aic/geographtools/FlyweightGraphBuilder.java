@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+import java.util.Arrays;
+
+/**
+ * Builder of {@link FlyweightGraph} taking nodes and edges as primitive values. Node ids are assigned in the order
+ * of addition, edges are kept in three parallel arrays until the graph is built, so the builder takes 12 bytes per
+ * edge and 28 bytes per node. Parallel edges are allowed, duplicates are not checked.
+ */
+public class FlyweightGraphBuilder {
+
+	private long[] sourceIds;
+
+	private int[] latE6;
+
+	private int[] lonE6;
+
+	private int[] latProjected;
+
+	private int[] lonProjected;
+
+	private int[] elevation;
+
+	private int numberOfNodes;
+
+	private int[] edgeFromNodeIds;
+
+	private int[] edgeToNodeIds;
+
+	private int[] edgeLengths;
+
+	private int numberOfEdges;
+
+	public FlyweightGraphBuilder() {
+		this(16, 16);
+	}
+
+	/**
+	 * Creates the builder with capacity for the given number of nodes and edges without resizing.
+	 *
+	 * @param expectedNodes expected number of nodes
+	 * @param expectedEdges expected number of edges
+	 */
+	public FlyweightGraphBuilder(int expectedNodes, int expectedEdges) {
+		expectedNodes = Math.max(1, expectedNodes);
+		expectedEdges = Math.max(1, expectedEdges);
+		sourceIds = new long[expectedNodes];
+		latE6 = new int[expectedNodes];
+		lonE6 = new int[expectedNodes];
+		latProjected = new int[expectedNodes];
+		lonProjected = new int[expectedNodes];
+		elevation = new int[expectedNodes];
+		edgeFromNodeIds = new int[expectedEdges];
+		edgeToNodeIds = new int[expectedEdges];
+		edgeLengths = new int[expectedEdges];
+	}
+
+	/**
+	 * Adds node to graph.
+	 *
+	 * @param sourceId id of the node from the data source
+	 * @param latE6 latitude in WGS84 in E6 format
+	 * @param lonE6 longitude in WGS84 in E6 format
+	 * @param latProjected projected latitude scaled by 10^2
+	 * @param lonProjected projected longitude scaled by 10^2
+	 * @param elevation elevation above sea level
+	 * @return id of the node
+	 */
+	public int addNode(long sourceId, int latE6, int lonE6, int latProjected, int lonProjected, int elevation) {
+		if (numberOfNodes == sourceIds.length) {
+			int capacity = grownCapacity(numberOfNodes);
+			this.sourceIds = Arrays.copyOf(this.sourceIds, capacity);
+			this.latE6 = Arrays.copyOf(this.latE6, capacity);
+			this.lonE6 = Arrays.copyOf(this.lonE6, capacity);
+			this.latProjected = Arrays.copyOf(this.latProjected, capacity);
+			this.lonProjected = Arrays.copyOf(this.lonProjected, capacity);
+			this.elevation = Arrays.copyOf(this.elevation, capacity);
+		}
+		int nodeId = numberOfNodes++;
+		this.sourceIds[nodeId] = sourceId;
+		this.latE6[nodeId] = latE6;
+		this.lonE6[nodeId] = lonE6;
+		this.latProjected[nodeId] = latProjected;
+		this.lonProjected[nodeId] = lonProjected;
+		this.elevation[nodeId] = elevation;
+		return nodeId;
+	}
+
+	/**
+	 * Adds edge to graph.
+	 *
+	 * @param fromNodeId id of the source node
+	 * @param toNodeId id of the target node
+	 * @param lengthCm length of the edge in centimeters
+	 * @throws IllegalArgumentException if any of the edge nodes is not present
+	 */
+	public void addEdge(int fromNodeId, int toNodeId, int lengthCm) {
+		if (fromNodeId < 0 || fromNodeId >= numberOfNodes || toNodeId < 0 || toNodeId >= numberOfNodes) {
+			throw new IllegalArgumentException("Node has to be in graph builder before inserting edge: ("
+					+ fromNodeId + "," + toNodeId + ")");
+		}
+		if (numberOfEdges == edgeFromNodeIds.length) {
+			int capacity = grownCapacity(numberOfEdges);
+			edgeFromNodeIds = Arrays.copyOf(edgeFromNodeIds, capacity);
+			edgeToNodeIds = Arrays.copyOf(edgeToNodeIds, capacity);
+			edgeLengths = Arrays.copyOf(edgeLengths, capacity);
+		}
+		edgeFromNodeIds[numberOfEdges] = fromNodeId;
+		edgeToNodeIds[numberOfEdges] = toNodeId;
+		edgeLengths[numberOfEdges] = lengthCm;
+		numberOfEdges++;
+	}
+
+	public int numberOfNodes() {
+		return numberOfNodes;
+	}
+
+	public int numberOfEdges() {
+		return numberOfEdges;
+	}
+
+	/**
+	 * Creates the graph by counting sorts of the edges, O(N + E). The builder keeps its content.
+	 *
+	 * @return graph
+	 */
+	public FlyweightGraph build() {
+		int[] outgoingPositions = positions(edgeFromNodeIds);
+		int[] outgoingTargets = new int[numberOfEdges];
+		int[] outgoingLengths = new int[numberOfEdges];
+		int[] fill = Arrays.copyOf(outgoingPositions, numberOfNodes);
+		for (int i = 0; i < numberOfEdges; i++) {
+			int position = fill[edgeFromNodeIds[i]]++;
+			outgoingTargets[position] = edgeToNodeIds[i];
+			outgoingLengths[position] = edgeLengths[i];
+		}
+		sortByTarget(outgoingPositions, outgoingTargets, outgoingLengths);
+
+		// edge ids in the order of source nodes, so the incoming edges of each node are ordered by source node
+		int[] incomingPositions = positions(edgeToNodeIds);
+		int[] incomingEdgeIds = new int[numberOfEdges];
+		System.arraycopy(incomingPositions, 0, fill, 0, numberOfNodes);
+		for (int edgeId = 0; edgeId < numberOfEdges; edgeId++) {
+			incomingEdgeIds[fill[outgoingTargets[edgeId]]++] = edgeId;
+		}
+
+		return new FlyweightGraph(Arrays.copyOf(sourceIds, numberOfNodes), Arrays.copyOf(latE6, numberOfNodes),
+				Arrays.copyOf(lonE6, numberOfNodes), Arrays.copyOf(latProjected, numberOfNodes),
+				Arrays.copyOf(lonProjected, numberOfNodes), Arrays.copyOf(elevation, numberOfNodes),
+				outgoingPositions, outgoingTargets, outgoingLengths, incomingPositions, incomingEdgeIds);
+	}
+
+	private int[] positions(int[] nodeIds) {
+		int[] positions = new int[numberOfNodes + 1];
+		for (int i = 0; i < numberOfEdges; i++) {
+			positions[nodeIds[i] + 1]++;
+		}
+		for (int k = 0; k < numberOfNodes; k++) {
+			positions[k + 1] += positions[k];
+		}
+		return positions;
+	}
+
+	/**
+	 * Sorts the edges of each node by target, the ranges are usually already sorted.
+	 */
+	private void sortByTarget(int[] positions, int[] targets, int[] lengths) {
+		long[] packed = new long[0];
+		for (int k = 0; k < numberOfNodes; k++) {
+			int start = positions[k];
+			int end = positions[k + 1];
+			boolean sorted = true;
+			for (int j = start + 1; j < end && sorted; j++) {
+				sorted = targets[j - 1] <= targets[j];
+			}
+			if (sorted) {
+				continue;
+			}
+			if (packed.length < end - start) {
+				packed = new long[end - start];
+			}
+			// node ids are non-negative, so the packed values sort by target
+			for (int j = start; j < end; j++) {
+				packed[j - start] = ((long) targets[j] << 32) | (lengths[j] & 0xFFFFFFFFL);
+			}
+			Arrays.sort(packed, 0, end - start);
+			for (int j = start; j < end; j++) {
+				targets[j] = (int) (packed[j - start] >>> 32);
+				lengths[j] = (int) packed[j - start];
+			}
+		}
+	}
+
+	private static int grownCapacity(int capacity) {
+		return (int) Math.min(Integer.MAX_VALUE - 8, capacity + (capacity >> 1) + 1L);
+	}
+
+	@Override
+	public String toString() {
+		return "FlyweightGraphBuilder [#nodes=" + numberOfNodes + ", #edges=" + numberOfEdges + "]";
+	}
+}
@@ -17,12 +17,32 @@
 
 package cz.cvut.fel.aic.geographtools;
 
+import cz.cvut.fel.aic.geographtools.util.LongIntHashMap;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
-public class Graph<TNode extends Node, TEdge extends Edge> implements GraphStructure<TNode, TEdge>, Serializable {
+public class Graph<TNode extends Node, TEdge extends Edge> implements GraphStructure<TNode, TEdge>, PrimitiveGraphStructure,
+		Serializable {
 
-	private static final long serialVersionUID = -5165475941478397820L;
+	private static final long serialVersionUID = -6713508853287915316L;
+
+	/**
+	 * Seed of the fingerprint, to be changed with any change of the hashed content.
+	 */
+	private static final long FINGERPRINT_VERSION = 1;
+
+	private static final int FINGERPRINT_BLOCK_SIZE = 1 << 12;
+
+	/**
+	 * Out-degree up to which the edge lookup scans the outgoing edges sequentially, binary search is used for higher
+	 * degrees. See <code>GetEdgeBenchmark</code> in the test sources for the measurement of the crossover.
+	 */
+	static final int LINEAR_SEARCH_MAX_DEGREE = 64;
 
 	/**
 	 * Array of nodes indexed by node IDs (size = numberOfNodes).
@@ -35,19 +55,100 @@ public class Graph<TNode extends Node, TEdge extends Edge> implements GraphStruc
 	private final int[] outgoingPositions;
 
 	/**
-	 * Array of outgoing edges indexed by starting positions array (size = numberOfEdges).
+	 * Array of outgoing edges indexed by starting positions array (size = numberOfEdges). Edges of each node are
+	 * sorted by the id of their target node. The position of the edge in this array is its edge id.
 	 */
 	private final ArrayList<TEdge> outgoingEdges;
 
 	/**
-	 * Cache of edge lists for outgoing edges (size = numberOfNodes).
+	 * Starting positions of incoming edges in the incoming edge id array (size = numberOfNodes + 1).
+	 */
+	private final int[] incomingPositions;
+
+	/**
+	 * Ids of incoming edges indexed by starting positions array (size = numberOfEdges).
+	 */
+	private final int[] incomingEdgeIds;
+
+	/**
+	 * Source node ids of edges indexed by edge id (size = numberOfEdges).
+	 */
+	private transient int[] edgeSources;
+
+	/**
+	 * Target node ids of outgoing edges, parallel to outgoingEdges (size = numberOfEdges).
+	 */
+	private transient int[] outgoingTargets;
+
+	/**
+	 * Lengths in cm of outgoing edges, parallel to outgoingEdges (size = numberOfEdges).
+	 */
+	private transient int[] outgoingLengths;
+
+	/**
+	 * Source node ids of incoming edges, parallel to incomingEdgeIds (size = numberOfEdges).
 	 */
-	private final ArrayList<EdgeList<TEdge>> outgoingEdgesCache;
+	private transient int[] incomingSources;
 
 	/**
-	 * Cache of edge lists for incoming edges (size = numberOfNodes).
+	 * Lengths in cm of incoming edges, parallel to incomingEdgeIds (size = numberOfEdges).
 	 */
-	private final ArrayList<EdgeList<TEdge>> incomingEdgesCache;
+	private transient int[] incomingLengths;
+
+	/**
+	 * Latitudes in E6 format indexed by node IDs (size = numberOfNodes).
+	 */
+	private transient int[] nodeLatE6;
+
+	/**
+	 * Longitudes in E6 format indexed by node IDs (size = numberOfNodes).
+	 */
+	private transient int[] nodeLonE6;
+
+	/**
+	 * Projected latitudes scaled by 10^2 indexed by node IDs (size = numberOfNodes).
+	 */
+	private transient int[] nodeLatProjected;
+
+	/**
+	 * Projected longitudes scaled by 10^2 indexed by node IDs (size = numberOfNodes).
+	 */
+	private transient int[] nodeLonProjected;
+
+	/**
+	 * Elevations indexed by node IDs (size = numberOfNodes).
+	 */
+	private transient int[] nodeElevation;
+
+	/**
+	 * Source ids (e.g. OSM ids) of nodes indexed by node IDs (size = numberOfNodes).
+	 */
+	private final long[] sourceIds;
+
+	/**
+	 * Node ids by source id, for duplicate source ids the node with the highest id is stored.
+	 */
+	private final LongIntHashMap nodeIdsBySourceId;
+
+	/**
+	 * Optional index of outgoing edge positions by packed (fromNodeId, toNodeId), see {@link #buildEdgeIndex()}.
+	 */
+	private transient volatile LongIntHashMap edgeIndex;
+
+	/**
+	 * Fingerprint of the content, see {@link #fingerprint()}.
+	 */
+	private transient GraphFingerprint fingerprint;
+
+	/**
+	 * Attribute columns indexed by node id, by column name.
+	 */
+	private final LinkedHashMap<String, Column> nodeColumns;
+
+	/**
+	 * Attribute columns indexed by edge id, by column name.
+	 */
+	private final LinkedHashMap<String, Column> edgeColumns;
 
 	/**
 	 * Number of roadNodes.
@@ -58,60 +159,294 @@ public class Graph<TNode extends Node, TEdge extends Edge> implements GraphStruc
 	 */
 	private final int numberOfEdges;
 
+	/**
+	 * Creates the graph from the outgoing and incoming edge lists. The outgoing edges of each node are sorted by
+	 * target node id, the incoming edges are converted to edge ids keeping their order.
+	 */
 	protected Graph(ArrayList<TNode> allNodesByNodeId, int[] outgoingPositions, ArrayList<TEdge> outgoingEdges,
 			int[] incomingPositions, ArrayList<TEdge> incomingEdges) {
+		this(allNodesByNodeId, outgoingPositions, sortOutgoingEdges(outgoingPositions, outgoingEdges),
+				incomingPositions, toEdgeIds(outgoingPositions, outgoingEdges, incomingEdges));
+	}
+
+	/**
+	 * Creates the graph from the outgoing edge list, the incoming side is derived from it. The outgoing edges of
+	 * each node are sorted by target node id.
+	 */
+	protected Graph(ArrayList<TNode> allNodesByNodeId, int[] outgoingPositions, ArrayList<TEdge> outgoingEdges) {
+		this(allNodesByNodeId, outgoingPositions, sortOutgoingEdges(outgoingPositions, outgoingEdges),
+				transposePositions(allNodesByNodeId.size(), outgoingEdges),
+				transposeEdgeIds(allNodesByNodeId.size(), outgoingEdges));
+	}
+
+	/**
+	 * Creates the graph from the outgoing edge list and the ids of incoming edges.
+	 *
+	 * @param allNodesByNodeId nodes indexed by node id
+	 * @param outgoingPositions starting positions of outgoing edges of each node, (size = numberOfNodes + 1)
+	 * @param outgoingEdges outgoing edges, the edges of each node have to be sorted by target node id
+	 * @param incomingPositions starting positions of incoming edge ids of each node, (size = numberOfNodes + 1)
+	 * @param incomingEdgeIds ids (positions in outgoingEdges) of incoming edges
+	 * @throws IllegalArgumentException if outgoing edges are not sorted or incoming edge ids do not match the
+	 * outgoing edges
+	 */
+	protected Graph(ArrayList<TNode> allNodesByNodeId, int[] outgoingPositions, ArrayList<TEdge> outgoingEdges,
+			int[] incomingPositions, int[] incomingEdgeIds) {
 
 		this.allNodesByNodeId = allNodesByNodeId;
 
 		this.outgoingPositions = outgoingPositions;
 		this.outgoingEdges = outgoingEdges;
+		this.incomingPositions = incomingPositions;
+		this.incomingEdgeIds = incomingEdgeIds;
 
 		// just derived
 		this.numberOfNodes = allNodesByNodeId.size();
 		this.numberOfEdges = outgoingEdges.size();
 
-		// create outgoing edges cache
-		this.outgoingEdgesCache = new ArrayList<>(this.numberOfNodes);
-		for (Node node : allNodesByNodeId) {
-			outgoingEdgesCache
-					.add(new EdgeList<>(outgoingPositions[node.id], outgoingPositions[node.id + 1], outgoingEdges));
+		checkEdges();
+
+		this.sourceIds = new long[numberOfNodes];
+		this.nodeIdsBySourceId = new LongIntHashMap(numberOfNodes);
+		for (int i = 0; i < numberOfNodes; i++) {
+			sourceIds[i] = allNodesByNodeId.get(i).sourceId;
+			nodeIdsBySourceId.put(sourceIds[i], i);
 		}
 
-		// create incoming edges cache
-		this.incomingEdgesCache = new ArrayList<>(this.numberOfNodes);
-		for (Node node : allNodesByNodeId) {
-			incomingEdgesCache
-					.add(new EdgeList<>(incomingPositions[node.id], incomingPositions[node.id + 1], incomingEdges));
+		this.nodeColumns = new LinkedHashMap<>();
+		this.edgeColumns = new LinkedHashMap<>();
+
+		initAdjacencyArrays();
+		initNodeArrays();
+		fingerprint = computeFingerprint();
+	}
+
+	/**
+	 * Sorts the outgoing edges of each node by the id of their target node, which allows the binary search in
+	 * {@link #getEdge(Node, Node)}. The ranges are usually already sorted, only the unsorted ones are sorted, stably,
+	 * so high degree nodes do not take quadratic time.
+	 */
+	private static <TEdge extends Edge> ArrayList<TEdge> sortOutgoingEdges(int[] outgoingPositions,
+			ArrayList<TEdge> outgoingEdges) {
+		for (int k = 0; k < outgoingPositions.length - 1; k++) {
+			int start = outgoingPositions[k];
+			int end = outgoingPositions[k + 1];
+			boolean sorted = true;
+			for (int j = start + 1; j < end && sorted; j++) {
+				sorted = outgoingEdges.get(j - 1).toNode.getId() <= outgoingEdges.get(j).toNode.getId();
+			}
+			if (!sorted) {
+				outgoingEdges.subList(start, end).sort(Comparator.comparingInt(edge -> edge.toNode.getId()));
+			}
+		}
+		return outgoingEdges;
+	}
+
+	/**
+	 * Converts the incoming edges to their ids. The edges are matched by identity, so each of parallel edges gets
+	 * its own id.
+	 */
+	private static <TEdge extends Edge> int[] toEdgeIds(int[] outgoingPositions, ArrayList<TEdge> outgoingEdges,
+			ArrayList<TEdge> incomingEdges) {
+		int[] edgeIds = new int[incomingEdges.size()];
+		for (int j = 0; j < incomingEdges.size(); j++) {
+			TEdge edge = incomingEdges.get(j);
+			int edgeId = -1;
+			int from = edge.fromNode.getId();
+			for (int i = outgoingPositions[from]; i < outgoingPositions[from + 1]; i++) {
+				if (outgoingEdges.get(i) == edge) {
+					edgeId = i;
+					break;
+				}
+			}
+			if (edgeId < 0) {
+				throw new IllegalArgumentException("Incoming edge is not in outgoing edges: " + edge);
+			}
+			edgeIds[j] = edgeId;
+		}
+		return edgeIds;
+	}
+
+	private static int[] transposePositions(int numberOfNodes, ArrayList<? extends Edge> outgoingEdges) {
+		int[] incomingPositions = new int[numberOfNodes + 1];
+		for (Edge edge : outgoingEdges) {
+			incomingPositions[edge.toNode.getId() + 1]++;
+		}
+		for (int i = 0; i < numberOfNodes; i++) {
+			incomingPositions[i + 1] += incomingPositions[i];
 		}
+		return incomingPositions;
 	}
 
 	/**
-	 * Creates map from nodes' id to nodes' source id.
+	 * Counting sort of the edge ids according to their target node, the incoming edges of each node are ordered by
+	 * their id and so by their source node.
+	 */
+	private static int[] transposeEdgeIds(int numberOfNodes, ArrayList<? extends Edge> outgoingEdges) {
+		int[] fill = transposePositions(numberOfNodes, outgoingEdges);
+		int[] incomingEdgeIds = new int[outgoingEdges.size()];
+		for (int j = 0; j < outgoingEdges.size(); j++) {
+			incomingEdgeIds[fill[outgoingEdges.get(j).toNode.getId()]++] = j;
+		}
+		return incomingEdgeIds;
+	}
+
+	private void checkEdges() {
+		if (incomingEdgeIds.length != numberOfEdges) {
+			throw new IllegalArgumentException("Number of incoming edge ids (" + incomingEdgeIds.length
+					+ ") differs from number of edges (" + numberOfEdges + ")");
+		}
+		IntStream.range(0, numberOfNodes).parallel().forEach(k -> {
+			int previousTarget = -1;
+			for (int j = outgoingPositions[k]; j < outgoingPositions[k + 1]; j++) {
+				TEdge edge = outgoingEdges.get(j);
+				if (edge.fromNode.getId() != k || edge.toNode.getId() < previousTarget) {
+					throw new IllegalArgumentException("Outgoing edges of node " + k
+							+ " are not sorted by target node id or do not start in the node: " + edge);
+				}
+				previousTarget = edge.toNode.getId();
+			}
+			for (int j = incomingPositions[k]; j < incomingPositions[k + 1]; j++) {
+				int edgeId = incomingEdgeIds[j];
+				if (edgeId < 0 || edgeId >= numberOfEdges || outgoingEdges.get(edgeId).toNode.getId() != k) {
+					throw new IllegalArgumentException("Edge " + edgeId + " is not incoming to node " + k);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Fills the coordinate columns from the node objects, so the coordinate scans read sequential memory.
+	 */
+	private void initNodeArrays() {
+		nodeLatE6 = new int[numberOfNodes];
+		nodeLonE6 = new int[numberOfNodes];
+		nodeLatProjected = new int[numberOfNodes];
+		nodeLonProjected = new int[numberOfNodes];
+		nodeElevation = new int[numberOfNodes];
+		IntStream.range(0, numberOfNodes).parallel().forEach(i -> {
+			TNode node = allNodesByNodeId.get(i);
+			nodeLatE6[i] = node.latE6;
+			nodeLonE6[i] = node.lonE6;
+			nodeLatProjected[i] = node.getLatitudeProjected1E2();
+			nodeLonProjected[i] = node.getLongitudeProjected1E2();
+			nodeElevation[i] = node.elevation;
+		});
+	}
+
+	/**
+	 * Fills the primitive arrays parallel to the outgoing and incoming edge lists, so the adjacency can be traversed
+	 * without dereferencing the edge objects.
+	 */
+	private void initAdjacencyArrays() {
+		edgeSources = new int[numberOfEdges];
+		outgoingTargets = new int[numberOfEdges];
+		outgoingLengths = new int[numberOfEdges];
+		IntStream.range(0, numberOfNodes).parallel().forEach(k -> {
+			for (int j = outgoingPositions[k]; j < outgoingPositions[k + 1]; j++) {
+				TEdge edge = outgoingEdges.get(j);
+				edgeSources[j] = k;
+				outgoingTargets[j] = edge.toNode.getId();
+				outgoingLengths[j] = edge.getLengthCm();
+			}
+		});
+
+		incomingSources = new int[numberOfEdges];
+		incomingLengths = new int[numberOfEdges];
+		IntStream.range(0, numberOfEdges).parallel().forEach(j -> {
+			int edgeId = incomingEdgeIds[j];
+			incomingSources[j] = edgeSources[edgeId];
+			incomingLengths[j] = outgoingLengths[edgeId];
+		});
+	}
+
+	/**
+	 * Hashes blocks of nodes with their outgoing edges in parallel, then hashes the block hashes in order, so the
+	 * result does not depend on the parallelism.
+	 */
+	private GraphFingerprint computeFingerprint() {
+		int numberOfBlocks = (numberOfNodes + FINGERPRINT_BLOCK_SIZE - 1) / FINGERPRINT_BLOCK_SIZE;
+		GraphFingerprint[] blocks = new GraphFingerprint[numberOfBlocks];
+		IntStream.range(0, numberOfBlocks).parallel().forEach(block -> {
+			GraphFingerprint.Hasher hasher = new GraphFingerprint.Hasher(block);
+			int end = Math.min(numberOfNodes, (block + 1) * FINGERPRINT_BLOCK_SIZE);
+			for (int k = block * FINGERPRINT_BLOCK_SIZE; k < end; k++) {
+				hasher.put(sourceIds[k]);
+				hasher.put((long) nodeLatE6[k] << 32 | (nodeLonE6[k] & 0xFFFFFFFFL));
+				hasher.put((long) nodeLatProjected[k] << 32 | (nodeLonProjected[k] & 0xFFFFFFFFL));
+				hasher.put((long) nodeElevation[k] << 32 | outDegree(k));
+				for (int j = outgoingPositions[k]; j < outgoingPositions[k + 1]; j++) {
+					hasher.put((long) outgoingTargets[j] << 32 | (outgoingLengths[j] & 0xFFFFFFFFL));
+				}
+			}
+			blocks[block] = hasher.finish();
+		});
+
+		GraphFingerprint.Hasher hasher = new GraphFingerprint.Hasher(FINGERPRINT_VERSION);
+		hasher.put(numberOfNodes).put(numberOfEdges);
+		for (GraphFingerprint block : blocks) {
+			hasher.put(block.getHigh()).put(block.getLow());
+		}
+		return hasher.finish();
+	}
+
+	private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
+		ois.defaultReadObject();
+		initAdjacencyArrays();
+		initNodeArrays();
+		fingerprint = computeFingerprint();
+	}
+
+	/**
+	 * Returns the source id of the node, e.g. the OSM id.
+	 *
+	 * @param nodeId node id
+	 * @return source id
+	 */
+	public long sourceIdOf(int nodeId) {
+		return sourceIds[nodeId];
+	}
+
+	/**
+	 * Returns the id of the node with the given source id in constant time. If more nodes share the source id, the
+	 * highest node id is returned.
+	 *
+	 * @param sourceId source id, e.g. the OSM id
+	 * @return node id or -1 if there is no node with the source id
+	 */
+	public int nodeIdForSourceId(long sourceId) {
+		return nodeIdsBySourceId.getOrDefault(sourceId, -1);
+	}
+
+	/**
+	 * Creates map from nodes' id to nodes' source id. Use {@link #sourceIdOf(int)} for lookups, it does not create
+	 * any map.
 	 *
 	 * @return <code>HashMap</code>
 	 */
 	public Map<Integer, Long> createNodeIdToSourceIdMap() {
 
-		Map<Integer, Long> map = new HashMap<>();
+		Map<Integer, Long> map = new HashMap<>(numberOfNodes * 4 / 3 + 1);
 
-		for (TNode TNode : allNodesByNodeId) {
-			map.put(TNode.id, TNode.sourceId);
+		for (int i = 0; i < numberOfNodes; i++) {
+			map.put(i, sourceIds[i]);
 		}
 
 		return map;
 	}
 
 	/**
-	 * Creates map from nodes' source id to nodes' id.
+	 * Creates map from nodes' source id to nodes' id. Use {@link #nodeIdForSourceId(long)} for lookups, it does not
+	 * create any map.
 	 *
 	 * @return <code>HashMap</code>
 	 */
 	public Map<Long, Integer> createSourceIdToNodeIdMap() {
 
-		Map<Long, Integer> map = new HashMap<>();
+		Map<Long, Integer> map = new HashMap<>(numberOfNodes * 4 / 3 + 1);
 
-		for (TNode TNode : allNodesByNodeId) {
-			map.put(TNode.sourceId, TNode.id);
+		for (int i = 0; i < numberOfNodes; i++) {
+			map.put(sourceIds[i], i);
 		}
 
 		return map;
@@ -141,6 +476,206 @@ public class Graph<TNode extends Node, TEdge extends Edge> implements GraphStruc
 		return allNodesByNodeId.get(nodeId);
 	}
 
+	/**
+	 * Returns the latitude of the node specified by node id without touching the node object.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @return latitude in E6 format
+	 */
+	public int getNodeLatE6(int nodeId) {
+		return nodeLatE6[nodeId];
+	}
+
+	/**
+	 * Returns the longitude of the node specified by node id without touching the node object.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @return longitude in E6 format
+	 */
+	public int getNodeLonE6(int nodeId) {
+		return nodeLonE6[nodeId];
+	}
+
+	/**
+	 * Returns the projected latitude of the node specified by node id without touching the node object.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @return projected latitude as integer representing a fixed point real number with 2 decimal places
+	 */
+	public int getNodeLatitudeProjected1E2(int nodeId) {
+		return nodeLatProjected[nodeId];
+	}
+
+	/**
+	 * Returns the projected longitude of the node specified by node id without touching the node object.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @return projected longitude as integer representing a fixed point real number with 2 decimal places
+	 */
+	public int getNodeLongitudeProjected1E2(int nodeId) {
+		return nodeLonProjected[nodeId];
+	}
+
+	/**
+	 * Returns the elevation of the node specified by node id without touching the node object.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @return elevation above sea level
+	 */
+	public int getNodeElevation(int nodeId) {
+		return nodeElevation[nodeId];
+	}
+
+	/**
+	 * Returns a spliterator over the given coordinate of all nodes, ordered by node id.
+	 *
+	 * @param coordinate coordinate field
+	 * @return <code>Spliterator.OfInt</code> over the coordinate column
+	 */
+	public Spliterator.OfInt nodeCoordinateSpliterator(NodeCoordinate coordinate) {
+		return Arrays.spliterator(getCoordinateColumn(coordinate));
+	}
+
+	/**
+	 * Returns a stream of the given coordinate of all nodes, ordered by node id.
+	 *
+	 * @param coordinate coordinate field
+	 * @return <code>IntStream</code> over the coordinate column
+	 */
+	public IntStream nodeCoordinateStream(NodeCoordinate coordinate) {
+		return StreamSupport.intStream(nodeCoordinateSpliterator(coordinate), false);
+	}
+
+	/**
+	 * Copies the given coordinate of nodes [fromNodeId..(fromNodeId + length - 1)] to the destination array.
+	 *
+	 * @param coordinate coordinate field
+	 * @param fromNodeId id of the first copied node
+	 * @param destination destination array
+	 * @param destinationPosition starting position in the destination array
+	 * @param length number of copied nodes
+	 */
+	public void copyNodeCoordinates(NodeCoordinate coordinate, int fromNodeId, int[] destination,
+			int destinationPosition, int length) {
+		System.arraycopy(getCoordinateColumn(coordinate), fromNodeId, destination, destinationPosition, length);
+	}
+
+	private int[] getCoordinateColumn(NodeCoordinate coordinate) {
+		switch (coordinate) {
+			case LAT_E6:
+				return nodeLatE6;
+			case LON_E6:
+				return nodeLonE6;
+			case LAT_PROJECTED:
+				return nodeLatProjected;
+			case LON_PROJECTED:
+				return nodeLonProjected;
+			case ELEVATION:
+				return nodeElevation;
+			default:
+				throw new IllegalArgumentException("Unknown coordinate: " + coordinate);
+		}
+	}
+
+	/**
+	 * Attaches the column of node attributes to the graph. Columns are not synchronized, they should be added before
+	 * the graph is shared among threads.
+	 *
+	 * @param column column indexed by node id, (size = numberOfNodes)
+	 * @throws IllegalArgumentException if the size of the column differs from the number of nodes or there already
+	 * is a node column with the same name
+	 */
+	public void addNodeColumn(Column column) {
+		addColumn(nodeColumns, column, numberOfNodes);
+	}
+
+	/**
+	 * Returns the node column with the given name.
+	 *
+	 * @param name name of the column
+	 * @param type class of the column, e.g. <code>IntColumn.class</code>
+	 * @return column indexed by node id
+	 * @throws NoSuchElementException if there is no node column with the given name
+	 * @throws IllegalArgumentException if the column is not of the given type
+	 */
+	public <C extends Column> C getNodeColumn(String name, Class<C> type) {
+		return getColumn(nodeColumns, name, type);
+	}
+
+	public boolean hasNodeColumn(String name) {
+		return nodeColumns.containsKey(name);
+	}
+
+	/**
+	 * Returns all node columns in the order of their addition.
+	 *
+	 * @return unmodifiable collection of node columns
+	 */
+	public Collection<Column> getNodeColumns() {
+		return Collections.unmodifiableCollection(nodeColumns.values());
+	}
+
+	/**
+	 * Attaches the column of edge attributes to the graph. Columns are not synchronized, they should be added before
+	 * the graph is shared among threads.
+	 *
+	 * @param column column indexed by edge id, (size = numberOfEdges)
+	 * @throws IllegalArgumentException if the size of the column differs from the number of edges or there already
+	 * is an edge column with the same name
+	 */
+	public void addEdgeColumn(Column column) {
+		addColumn(edgeColumns, column, numberOfEdges);
+	}
+
+	/**
+	 * Returns the edge column with the given name.
+	 *
+	 * @param name name of the column
+	 * @param type class of the column, e.g. <code>FloatColumn.class</code>
+	 * @return column indexed by edge id
+	 * @throws NoSuchElementException if there is no edge column with the given name
+	 * @throws IllegalArgumentException if the column is not of the given type
+	 */
+	public <C extends Column> C getEdgeColumn(String name, Class<C> type) {
+		return getColumn(edgeColumns, name, type);
+	}
+
+	public boolean hasEdgeColumn(String name) {
+		return edgeColumns.containsKey(name);
+	}
+
+	/**
+	 * Returns all edge columns in the order of their addition.
+	 *
+	 * @return unmodifiable collection of edge columns
+	 */
+	public Collection<Column> getEdgeColumns() {
+		return Collections.unmodifiableCollection(edgeColumns.values());
+	}
+
+	private static void addColumn(Map<String, Column> columns, Column column, int size) {
+		if (column.size() != size) {
+			throw new IllegalArgumentException("Column " + column.getName() + " has " + column.size()
+					+ " elements, expected " + size);
+		}
+		if (columns.containsKey(column.getName())) {
+			throw new IllegalArgumentException("Column " + column.getName() + " already present");
+		}
+		columns.put(column.getName(), column);
+	}
+
+	private static <C extends Column> C getColumn(Map<String, Column> columns, String name, Class<C> type) {
+		Column column = columns.get(name);
+		if (column == null) {
+			throw new NoSuchElementException("Column " + name + " not present");
+		}
+		if (!type.isInstance(column)) {
+			throw new IllegalArgumentException("Column " + name + " is " + column.getClass().getSimpleName()
+					+ ", not " + type.getSimpleName());
+		}
+		return type.cast(column);
+	}
+
 	@Override
 	public boolean containsEdge(TEdge edge) {
 		return containsEdge(edge.fromNode, edge.toNode);
@@ -156,16 +691,136 @@ public class Graph<TNode extends Node, TEdge extends Edge> implements GraphStruc
 	 */
 	@Override
 	public TEdge getEdge(Node fromNode, Node toNode) {
+		int position = findOutgoingPosition(fromNode.getId(), toNode.getId());
+		return position < 0 ? null : outgoingEdges.get(position);
+	}
 
-		// scan edges from outgoingPositions[fromNodeId] to (outgoingPositions[fromNodeId+1]-1)
-		// sequential approach still faster than map, operation not used very often
+	/**
+	 * Returns the edge with the given id. Edge ids are dense, [0..(numberOfEdges-1)], and equal to the position of
+	 * the edge in {@link #getAllEdges()}, so per-edge data can be stored in plain arrays indexed by edge id.
+	 *
+	 * @param edgeId <code>int</code> id of the edge
+	 * @return <code>TEdge</code>
+	 */
+	public TEdge getEdgeById(int edgeId) {
+		return outgoingEdges.get(edgeId);
+	}
 
-		for (int j = outgoingPositions[fromNode.getId()]; j < (outgoingPositions[fromNode.getId() + 1]); j++) {
-			if (outgoingEdges.get(j).toNode.getId() == toNode.getId()) {
-				return outgoingEdges.get(j);
+	/**
+	 * Returns the id of the edge between the nodes specified by node ids. For parallel edges, the id of the first
+	 * one is returned.
+	 *
+	 * @param fromNodeId <code>int</code> id of the source node
+	 * @param toNodeId <code>int</code> id of the target node
+	 * @return id of the edge or -1 if there is no such edge
+	 */
+	public int edgeIdOf(int fromNodeId, int toNodeId) {
+		return findOutgoingPosition(fromNodeId, toNodeId);
+	}
+
+	/**
+	 * Returns the id of the given edge object.
+	 *
+	 * @param edge edge of this graph
+	 * @return id of the edge or -1 if the edge is not in this graph
+	 */
+	public int edgeIdOf(TEdge edge) {
+		int edgeId = findOutgoingPosition(edge.fromNode.getId(), edge.toNode.getId());
+		if (edgeId < 0) {
+			return -1;
+		}
+		// parallel edges are adjacent
+		int end = outgoingPositions[edge.fromNode.getId() + 1];
+		while (edgeId < end && outgoingTargets[edgeId] == edge.toNode.getId()) {
+			if (outgoingEdges.get(edgeId) == edge) {
+				return edgeId;
 			}
+			edgeId++;
 		}
-		return null;
+		return -1;
+	}
+
+	/**
+	 * Returns the id of the source node of the edge specified by edge id.
+	 *
+	 * @param edgeId <code>int</code> id of the edge
+	 * @return id of the source node
+	 */
+	public int edgeSource(int edgeId) {
+		return edgeSources[edgeId];
+	}
+
+	/**
+	 * Returns the id of the target node of the edge specified by edge id.
+	 *
+	 * @param edgeId <code>int</code> id of the edge
+	 * @return id of the target node
+	 */
+	public int edgeTarget(int edgeId) {
+		return outgoingTargets[edgeId];
+	}
+
+	/**
+	 * Returns the length in cm of the edge specified by edge id.
+	 *
+	 * @param edgeId <code>int</code> id of the edge
+	 * @return length of the edge in centimeters
+	 */
+	public int edgeLengthCm(int edgeId) {
+		return outgoingLengths[edgeId];
+	}
+
+	/**
+	 * Builds a hash index of all edges by their end nodes, after that {@link #getEdge(Node, Node)} takes constant
+	 * time regardless of the node degree. The index costs about 24 bytes per edge and is not serialized.
+	 */
+	public void buildEdgeIndex() {
+		LongIntHashMap index = new LongIntHashMap(numberOfEdges);
+		for (int k = 0; k < numberOfNodes; k++) {
+			for (int j = outgoingPositions[k]; j < outgoingPositions[k + 1]; j++) {
+				long key = LongIntHashMap.pack(k, outgoingTargets[j]);
+				if (!index.containsKey(key)) {
+					index.put(key, j);
+				}
+			}
+		}
+		edgeIndex = index;
+	}
+
+	/**
+	 * Returns the position of the edge in the outgoing edge list or -1 if there is no such edge. Uses the edge
+	 * index if it was built, otherwise the outgoing edges of the node are scanned sequentially for low degrees and
+	 * binary searched for high degrees.
+	 */
+	private int findOutgoingPosition(int fromNodeId, int toNodeId) {
+		LongIntHashMap index = edgeIndex;
+		if (index != null) {
+			return index.getOrDefault(LongIntHashMap.pack(fromNodeId, toNodeId), -1);
+		}
+
+		int start = outgoingPositions[fromNodeId];
+		int end = outgoingPositions[fromNodeId + 1];
+		if (end - start <= LINEAR_SEARCH_MAX_DEGREE) {
+			for (int j = start; j < end; j++) {
+				if (outgoingTargets[j] == toNodeId) {
+					return j;
+				}
+			}
+			return -1;
+		}
+
+		// lower bound, so the first of the parallel edges is found as in the sequential scan
+		int low = start;
+		int high = end;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (outgoingTargets[middle] < toNodeId) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low < end && outgoingTargets[low] == toNodeId ? low : -1;
 	}
 
 	@Override
@@ -175,10 +830,13 @@ public class Graph<TNode extends Node, TEdge extends Edge> implements GraphStruc
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * The returned list is a lightweight view created on each call, it is not cached per node.
 	 */
 	@Override
 	public List<TEdge> getInEdges(int nodeId) {
-		return incomingEdgesCache.get(nodeId);
+		return new EdgeList<>(incomingPositions[nodeId], incomingPositions[nodeId + 1], incomingEdgeIds,
+				outgoingEdges);
 	}
 
 	/**
@@ -191,10 +849,175 @@ public class Graph<TNode extends Node, TEdge extends Edge> implements GraphStruc
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * The returned list is a lightweight view created on each call, it is not cached per node.
 	 */
 	@Override
 	public List<TEdge> getOutEdges(int nodeId) {
-		return outgoingEdgesCache.get(nodeId);
+		return new EdgeList<>(outgoingPositions[nodeId], outgoingPositions[nodeId + 1], outgoingEdges);
+	}
+
+	/**
+	 * Returns the number of edges outgoing from node specified by node id.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @return out-degree of the node
+	 */
+	@Override
+	public int outDegree(int nodeId) {
+		return outgoingPositions[nodeId + 1] - outgoingPositions[nodeId];
+	}
+
+	/**
+	 * Returns the id of the target node of the i-th edge outgoing from node specified by node id. The order of the
+	 * edges is the same as in {@link #getOutEdges(int)}.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @param i index of the edge, [0..(outDegree-1)]
+	 * @return id of the target node
+	 */
+	public int outTarget(int nodeId, int i) {
+		assert i >= 0 && i < outDegree(nodeId) : "Edge index out of range";
+		return outgoingTargets[outgoingPositions[nodeId] + i];
+	}
+
+	/**
+	 * Returns the length in cm of the i-th edge outgoing from node specified by node id.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @param i index of the edge, [0..(outDegree-1)]
+	 * @return length of the edge in centimeters
+	 */
+	public int outLengthCm(int nodeId, int i) {
+		assert i >= 0 && i < outDegree(nodeId) : "Edge index out of range";
+		return outgoingLengths[outgoingPositions[nodeId] + i];
+	}
+
+	/**
+	 * Calls the consumer with the target node id and the length of every edge outgoing from node specified by node
+	 * id. No edge objects are touched.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @param consumer consumer of (target node id, length in cm)
+	 */
+	@Override
+	public void forEachOutNeighbor(int nodeId, IntIntConsumer consumer) {
+		int end = outgoingPositions[nodeId + 1];
+		for (int j = outgoingPositions[nodeId]; j < end; j++) {
+			consumer.accept(outgoingTargets[j], outgoingLengths[j]);
+		}
+	}
+
+	/**
+	 * Returns the id of the i-th edge outgoing from node specified by node id. Ids of the outgoing edges of a node
+	 * form the interval [outEdgeId(nodeId, 0)..(outEdgeId(nodeId, 0) + outDegree - 1)].
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @param i index of the edge, [0..(outDegree-1)]
+	 * @return id of the edge
+	 */
+	public int outEdgeId(int nodeId, int i) {
+		assert i >= 0 && i < outDegree(nodeId) : "Edge index out of range";
+		return outgoingPositions[nodeId] + i;
+	}
+
+	/**
+	 * Calls the consumer with the id of every edge outgoing from node specified by node id.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @param consumer consumer of edge ids
+	 */
+	public void forEachOutEdgeId(int nodeId, IntConsumer consumer) {
+		int end = outgoingPositions[nodeId + 1];
+		for (int j = outgoingPositions[nodeId]; j < end; j++) {
+			consumer.accept(j);
+		}
+	}
+
+	/**
+	 * Returns the number of edges incoming to node specified by node id.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @return in-degree of the node
+	 */
+	@Override
+	public int inDegree(int nodeId) {
+		return incomingPositions[nodeId + 1] - incomingPositions[nodeId];
+	}
+
+	/**
+	 * Returns the id of the source node of the i-th edge incoming to node specified by node id. The order of the
+	 * edges is the same as in {@link #getInEdges(int)}.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @param i index of the edge, [0..(inDegree-1)]
+	 * @return id of the source node
+	 */
+	public int inSource(int nodeId, int i) {
+		assert i >= 0 && i < inDegree(nodeId) : "Edge index out of range";
+		return incomingSources[incomingPositions[nodeId] + i];
+	}
+
+	/**
+	 * Returns the length in cm of the i-th edge incoming to node specified by node id.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @param i index of the edge, [0..(inDegree-1)]
+	 * @return length of the edge in centimeters
+	 */
+	public int inLengthCm(int nodeId, int i) {
+		assert i >= 0 && i < inDegree(nodeId) : "Edge index out of range";
+		return incomingLengths[incomingPositions[nodeId] + i];
+	}
+
+	/**
+	 * Returns the id of the i-th edge incoming to node specified by node id. The order of the edges is the same as
+	 * in {@link #getInEdges(int)}.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @param i index of the edge, [0..(inDegree-1)]
+	 * @return id of the edge
+	 */
+	public int inEdgeId(int nodeId, int i) {
+		assert i >= 0 && i < inDegree(nodeId) : "Edge index out of range";
+		return incomingEdgeIds[incomingPositions[nodeId] + i];
+	}
+
+	/**
+	 * Calls the consumer with the id of every edge incoming to node specified by node id.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @param consumer consumer of edge ids
+	 */
+	public void forEachInEdgeId(int nodeId, IntConsumer consumer) {
+		int end = incomingPositions[nodeId + 1];
+		for (int j = incomingPositions[nodeId]; j < end; j++) {
+			consumer.accept(incomingEdgeIds[j]);
+		}
+	}
+
+	/**
+	 * Calls the consumer with the source node id and the length of every edge incoming to node specified by node id.
+	 * No edge objects are touched.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @param consumer consumer of (source node id, length in cm)
+	 */
+	@Override
+	public void forEachInNeighbor(int nodeId, IntIntConsumer consumer) {
+		int end = incomingPositions[nodeId + 1];
+		for (int j = incomingPositions[nodeId]; j < end; j++) {
+			consumer.accept(incomingSources[j], incomingLengths[j]);
+		}
+	}
+
+	/**
+	 * Returns the transpose of this graph as a view, outgoing and incoming edges are swapped and nothing is copied.
+	 *
+	 * @return reversed view of this graph
+	 */
+	public ReversedGraph<TNode, TEdge> reversed() {
+		return new ReversedGraph<>(this);
 	}
 
 	/**
@@ -224,6 +1047,24 @@ public class Graph<TNode extends Node, TEdge extends Edge> implements GraphStruc
 		return numberOfEdges;
 	}
 
+	/**
+	 * Returns the 128 bit fingerprint of the content of the graph: source ids, coordinates and elevations of nodes
+	 * and targets and lengths of edges in the order of the outgoing CSR. It is computed once during the construction
+	 * and after deserialization. Graphs with different fingerprints are never equal, so the fingerprint can be used
+	 * as a key of cached artifacts derived from the graph, e.g. spatial indexes or routing preprocessing. Fields of
+	 * node and edge subclasses and attribute columns are not part of the fingerprint.
+	 *
+	 * @return fingerprint
+	 */
+	public GraphFingerprint fingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * Graphs are equal if they have equal nodes with the same source ids, coordinates and elevations and the same
+	 * edges including their lengths. Graphs with different fingerprints are rejected immediately, otherwise the
+	 * nodes and the primitive adjacency arrays are compared.
+	 */
 	@Override
 	public boolean equals(Object o) {
 		if (this == o)
@@ -233,9 +1074,17 @@ public class Graph<TNode extends Node, TEdge extends Edge> implements GraphStruc
 
 		Graph graph = (Graph) o;
 
+		if (!fingerprint.equals(graph.fingerprint))
+			return false;
 		if (!allNodesByNodeId.equals(graph.allNodesByNodeId))
 			return false;
-		if (!new HashSet<>(outgoingEdges).equals(new HashSet<TEdge>(graph.outgoingEdges)))
+		if (!Arrays.equals(sourceIds, graph.sourceIds))
+			return false;
+		if (!Arrays.equals(outgoingPositions, graph.outgoingPositions))
+			return false;
+		if (!Arrays.equals(outgoingTargets, graph.outgoingTargets))
+			return false;
+		if (!Arrays.equals(outgoingLengths, graph.outgoingLengths))
 			return false;
 
 		return true;
@@ -243,9 +1092,7 @@ public class Graph<TNode extends Node, TEdge extends Edge> implements GraphStruc
 
 	@Override
 	public int hashCode() {
-		int result = allNodesByNodeId.size();
-		result = 31 * result + outgoingEdges.size();
-		return result;
+		return fingerprint.hashCode();
 	}
 
 	@Override
@@ -17,16 +17,37 @@
 
 package cz.cvut.fel.aic.geographtools;
 
+import cz.cvut.fel.aic.geographtools.util.LongIntHashMap;
+import cz.cvut.fel.aic.geographtools.util.NodeOrdering;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 public class GraphBuilder<TNode extends Node, TEdge extends Edge> implements GraphStructure<TNode, TEdge> {
 
+	/**
+	 * Renumberer of plain {@link Node} objects.
+	 */
+	public static final NodeRenumberer<Node> NODE_RENUMBERER = (node, newId) -> new Node(newId, node.sourceId,
+			node.latE6, node.lonE6, node.getLatitudeProjected1E2(), node.getLongitudeProjected1E2(), node.elevation);
+
+	/**
+	 * Reconnector of plain {@link Edge} objects.
+	 */
+	public static final EdgeReconnector<Node, Edge> EDGE_RECONNECTOR = (edge, fromNode, toNode) -> new Edge<>(
+			fromNode, toNode, edge.getLengthCm());
+
+	private static final Comparator<Object> BY_TARGET_ID = Comparator.comparingInt(
+			edge -> ((Edge) edge).toNode.getId());
+
 	private Map<Long, Integer> longIdToIntId = new HashMap<>();
 
 	private Map<Integer, TNode> nodesByNodeId = new LinkedHashMap<>();
 	private Map<EdgeId, TEdge> edgeByFromToNodeIds = new LinkedHashMap<>();
 	private Map<Integer, List<TEdge>> nodeOutcomingEdges = new HashMap<>();
 	private Map<Integer, List<TEdge>> nodeIncomingEdges = new HashMap<>();
+	private Map<String, ColumnValues> nodeColumnValues = new LinkedHashMap<>();
+	private Map<String, ColumnValues> edgeColumnValues = new LinkedHashMap<>();
 
 	public GraphBuilder() {
 	}
@@ -206,6 +227,290 @@ public class GraphBuilder<TNode extends Node, TEdge extends Edge> implements Gra
 		return edgeByFromToNodeIds.values();
 	}
 
+	/**
+	 * Sets the value of the node attribute, the attribute becomes an {@link IntColumn} of the created graph. Nodes
+	 * without value get 0.
+	 *
+	 * @param column name of the column
+	 * @param nodeId id of the node present in the builder
+	 * @param value value of the attribute
+	 */
+	public void setNodeInt(String column, int nodeId, int value) {
+		setNodeValue(column, ColumnType.INT, nodeId, value);
+	}
+
+	/**
+	 * Sets the value of the node attribute, the attribute becomes a {@link FloatColumn} of the created graph.
+	 *
+	 * @param column name of the column
+	 * @param nodeId id of the node present in the builder
+	 * @param value value of the attribute
+	 */
+	public void setNodeFloat(String column, int nodeId, float value) {
+		setNodeValue(column, ColumnType.FLOAT, nodeId, Float.floatToRawIntBits(value));
+	}
+
+	/**
+	 * Sets the value of the node attribute, the attribute becomes a {@link LongColumn} of the created graph.
+	 *
+	 * @param column name of the column
+	 * @param nodeId id of the node present in the builder
+	 * @param value value of the attribute
+	 */
+	public void setNodeLong(String column, int nodeId, long value) {
+		setNodeValue(column, ColumnType.LONG, nodeId, value);
+	}
+
+	/**
+	 * Sets the value of the node attribute, the attribute becomes a {@link BitColumn} of the created graph.
+	 *
+	 * @param column name of the column
+	 * @param nodeId id of the node present in the builder
+	 * @param value value of the attribute
+	 */
+	public void setNodeBit(String column, int nodeId, boolean value) {
+		setNodeValue(column, ColumnType.BIT, nodeId, value ? 1 : 0);
+	}
+
+	/**
+	 * Sets the value of the edge attribute, the attribute becomes an {@link IntColumn} of the created graph. Edges
+	 * without value get 0.
+	 *
+	 * @param column name of the column
+	 * @param edge edge present in the builder
+	 * @param value value of the attribute
+	 */
+	public void setEdgeInt(String column, TEdge edge, int value) {
+		setEdgeValue(column, ColumnType.INT, edge, value);
+	}
+
+	/**
+	 * Sets the value of the edge attribute, the attribute becomes a {@link FloatColumn} of the created graph.
+	 *
+	 * @param column name of the column
+	 * @param edge edge present in the builder
+	 * @param value value of the attribute
+	 */
+	public void setEdgeFloat(String column, TEdge edge, float value) {
+		setEdgeValue(column, ColumnType.FLOAT, edge, Float.floatToRawIntBits(value));
+	}
+
+	/**
+	 * Sets the value of the edge attribute, the attribute becomes a {@link LongColumn} of the created graph.
+	 *
+	 * @param column name of the column
+	 * @param edge edge present in the builder
+	 * @param value value of the attribute
+	 */
+	public void setEdgeLong(String column, TEdge edge, long value) {
+		setEdgeValue(column, ColumnType.LONG, edge, value);
+	}
+
+	/**
+	 * Sets the value of the edge attribute, the attribute becomes a {@link BitColumn} of the created graph.
+	 *
+	 * @param column name of the column
+	 * @param edge edge present in the builder
+	 * @param value value of the attribute
+	 */
+	public void setEdgeBit(String column, TEdge edge, boolean value) {
+		setEdgeValue(column, ColumnType.BIT, edge, value ? 1 : 0);
+	}
+
+	private void setNodeValue(String column, ColumnType type, int nodeId, long bits) {
+		if (!containsNode(nodeId)) {
+			throw new IllegalArgumentException("Node with id " + nodeId + " not present");
+		}
+		getColumnValues(nodeColumnValues, column, type).set(nodeId, bits);
+	}
+
+	private void setEdgeValue(String column, ColumnType type, TEdge edge, long bits) {
+		if (!containsEdge(edge)) {
+			throw new IllegalArgumentException("Edge not present: " + edge);
+		}
+		getColumnValues(edgeColumnValues, column, type).set(
+				LongIntHashMap.pack(edge.fromNode.getId(), edge.toNode.getId()), bits);
+	}
+
+	private static ColumnValues getColumnValues(Map<String, ColumnValues> columns, String column, ColumnType type) {
+		ColumnValues values = columns.computeIfAbsent(column, name -> new ColumnValues(type));
+		if (values.type != type) {
+			throw new IllegalArgumentException("Column " + column + " has type " + values.type + ", not " + type);
+		}
+		return values;
+	}
+
+	/**
+	 * Creates the columns from the collected attribute values and attaches them to the graph.
+	 */
+	private void attachColumns(Graph<TNode, TEdge> graph) {
+		for (Map.Entry<String, ColumnValues> entry : nodeColumnValues.entrySet()) {
+			ColumnValues values = entry.getValue();
+			Column column = values.type.create(entry.getKey(), graph.numberOfNodes());
+			for (int slot = 0; slot < values.size(); slot++) {
+				column.setBits((int) values.getKey(slot), values.getBits(slot));
+			}
+			graph.addNodeColumn(column);
+		}
+		for (Map.Entry<String, ColumnValues> entry : edgeColumnValues.entrySet()) {
+			ColumnValues values = entry.getValue();
+			Column column = values.type.create(entry.getKey(), graph.numberOfEdges());
+			for (int slot = 0; slot < values.size(); slot++) {
+				long key = values.getKey(slot);
+				column.setBits(graph.edgeIdOf((int) (key >>> 32), (int) key), values.getBits(slot));
+			}
+			graph.addEdgeColumn(column);
+		}
+	}
+
+	/**
+	 * Renumbers the nodes by the given locality preserving ordering, so that the nodes close in the graph or in the
+	 * plane are close in the memory of the created graph. Source ids and attribute values set so far are kept.
+	 *
+	 * @param ordering node ordering
+	 * @param nodeRenumberer creates a copy of the node with the new id
+	 * @param edgeReconnector creates a copy of the edge between the renumbered nodes
+	 * @return new node id by old node id
+	 * @throws NoSuchElementException if node ids do not form the sequence 0..numOfNodes-1
+	 */
+	public int[] reorderNodes(NodeOrdering ordering, NodeRenumberer<TNode> nodeRenumberer,
+			EdgeReconnector<TNode, TEdge> edgeReconnector) {
+		checkNodeIds();
+		int numberOfNodes = nodesByNodeId.size();
+
+		int[] x = new int[numberOfNodes];
+		int[] y = new int[numberOfNodes];
+		int[] adjacencyPositions = new int[numberOfNodes + 1];
+		for (int i = 0; i < numberOfNodes; i++) {
+			TNode node = nodesByNodeId.get(i);
+			x[i] = node.getLongitudeProjected1E2();
+			y[i] = node.getLatitudeProjected1E2();
+			adjacencyPositions[i + 1] = adjacencyPositions[i] + nodeOutcomingEdges.get(i).size()
+					+ nodeIncomingEdges.get(i).size();
+		}
+		int[] adjacency = new int[adjacencyPositions[numberOfNodes]];
+		for (int i = 0; i < numberOfNodes; i++) {
+			int j = adjacencyPositions[i];
+			for (TEdge edge : nodeOutcomingEdges.get(i)) {
+				adjacency[j++] = edge.toNode.getId();
+			}
+			for (TEdge edge : nodeIncomingEdges.get(i)) {
+				adjacency[j++] = edge.fromNode.getId();
+			}
+		}
+
+		int[] newIdByOldId = ordering.computePermutation(x, y, adjacencyPositions, adjacency);
+		renumberNodes(newIdByOldId, nodeRenumberer, edgeReconnector);
+		return newIdByOldId;
+	}
+
+	/**
+	 * Renumbers the nodes by the given permutation. All nodes and edges are replaced by their copies created by the
+	 * renumberer and the reconnector, the order of edges of each node is kept. Source ids and attribute values set
+	 * so far are kept.
+	 *
+	 * @param newIdByOldId new node id by old node id, permutation of 0..numOfNodes-1
+	 * @param nodeRenumberer creates a copy of the node with the new id
+	 * @param edgeReconnector creates a copy of the edge between the renumbered nodes
+	 * @throws IllegalArgumentException if the array is not a permutation of node ids or the renumberer does not
+	 * assign the new id
+	 * @throws NoSuchElementException if node ids do not form the sequence 0..numOfNodes-1
+	 */
+	public void renumberNodes(int[] newIdByOldId, NodeRenumberer<TNode> nodeRenumberer,
+			EdgeReconnector<TNode, TEdge> edgeReconnector) {
+		checkNodeIds();
+		int numberOfNodes = nodesByNodeId.size();
+		if (newIdByOldId.length != numberOfNodes) {
+			throw new IllegalArgumentException("Permutation has " + newIdByOldId.length + " elements, expected "
+					+ numberOfNodes);
+		}
+
+		List<TNode> oldNodes = new ArrayList<>(numberOfNodes);
+		List<TNode> newNodesByNewId = new ArrayList<>(Collections.nCopies(numberOfNodes, null));
+		for (int oldId = 0; oldId < numberOfNodes; oldId++) {
+			int newId = newIdByOldId[oldId];
+			if (newId < 0 || newId >= numberOfNodes || newNodesByNewId.get(newId) != null) {
+				throw new IllegalArgumentException("Not a permutation, new id " + newId + " of node " + oldId);
+			}
+			TNode oldNode = nodesByNodeId.get(oldId);
+			TNode newNode = nodeRenumberer.renumber(oldNode, newId);
+			if (newNode.id != newId) {
+				throw new IllegalArgumentException("Renumbered node has id " + newNode.id + ", expected " + newId);
+			}
+			oldNodes.add(oldNode);
+			newNodesByNewId.set(newId, newNode);
+		}
+
+		Map<Integer, TNode> newNodesByNodeId = new LinkedHashMap<>();
+		Map<Long, Integer> newLongIdToIntId = new HashMap<>();
+		Map<Integer, List<TEdge>> newOutcomingEdges = new HashMap<>();
+		Map<Integer, List<TEdge>> newIncomingEdges = new HashMap<>();
+		for (TNode node : newNodesByNewId) {
+			newNodesByNodeId.put(node.id, node);
+			newLongIdToIntId.put(node.sourceId, node.id);
+			newOutcomingEdges.put(node.id, new ArrayList<>());
+			newIncomingEdges.put(node.id, new ArrayList<>());
+		}
+
+		Map<EdgeId, TEdge> newEdgeByFromToNodeIds = new LinkedHashMap<>();
+		for (TEdge edge : edgeByFromToNodeIds.values()) {
+			TNode fromNode = newNodesByNewId.get(newIdByOldId[edge.fromNode.getId()]);
+			TNode toNode = newNodesByNewId.get(newIdByOldId[edge.toNode.getId()]);
+			newEdgeByFromToNodeIds.put(new EdgeId(fromNode.id, toNode.id),
+					edgeReconnector.reconnect(edge, fromNode, toNode));
+		}
+		for (TNode oldNode : oldNodes) {
+			int newId = newIdByOldId[oldNode.id];
+			for (TEdge edge : nodeOutcomingEdges.get(oldNode.id)) {
+				newOutcomingEdges.get(newId).add(newEdgeByFromToNodeIds.get(
+						new EdgeId(newId, newIdByOldId[edge.toNode.getId()])));
+			}
+			for (TEdge edge : nodeIncomingEdges.get(oldNode.id)) {
+				newIncomingEdges.get(newId).add(newEdgeByFromToNodeIds.get(
+						new EdgeId(newIdByOldId[edge.fromNode.getId()], newId)));
+			}
+		}
+
+		Map<String, ColumnValues> newNodeColumnValues = new LinkedHashMap<>();
+		for (Map.Entry<String, ColumnValues> entry : nodeColumnValues.entrySet()) {
+			newNodeColumnValues.put(entry.getKey(), entry.getValue().remapKeys(key -> newIdByOldId[(int) key]));
+		}
+		Map<String, ColumnValues> newEdgeColumnValues = new LinkedHashMap<>();
+		for (Map.Entry<String, ColumnValues> entry : edgeColumnValues.entrySet()) {
+			newEdgeColumnValues.put(entry.getKey(), entry.getValue().remapKeys(key -> LongIntHashMap.pack(
+					newIdByOldId[(int) (key >>> 32)], newIdByOldId[(int) key])));
+		}
+
+		this.nodesByNodeId = newNodesByNodeId;
+		this.longIdToIntId = newLongIdToIntId;
+		this.edgeByFromToNodeIds = newEdgeByFromToNodeIds;
+		this.nodeOutcomingEdges = newOutcomingEdges;
+		this.nodeIncomingEdges = newIncomingEdges;
+		this.nodeColumnValues = newNodeColumnValues;
+		this.edgeColumnValues = newEdgeColumnValues;
+	}
+
+	/**
+	 * Returns the CSR positions of the lists, i.e. the prefix sums of their sizes.
+	 */
+	private static int[] positions(List<? extends List<?>> lists) {
+		int[] positions = new int[lists.size() + 1];
+		IntStream.range(0, lists.size()).parallel().forEach(k -> positions[k + 1] = lists.get(k).size());
+		Arrays.parallelPrefix(positions, Integer::sum);
+		return positions;
+	}
+
+	private void checkNodeIds() {
+		for (int i = 0; i < nodesByNodeId.keySet().size(); i++) {
+
+			TNode node = nodesByNodeId.get(i);
+			if (node == null) {
+				throw new NoSuchElementException(" Node with id " + i
+						+ " not present! The sequence of ndoe id must start with 0 and end with 'numOfNodes-1'");
+			}
+		}
+	}
+
 	/**
 	 * Creates a final graph and clears the builder structures.
 	 *
@@ -220,6 +525,8 @@ public class GraphBuilder<TNode extends Node, TEdge extends Edge> implements Gra
 		this.nodeOutcomingEdges = new HashMap<>();
 		this.nodeIncomingEdges = new HashMap<>();
 		this.longIdToIntId = new HashMap<>();
+		this.nodeColumnValues = new LinkedHashMap<>();
+		this.edgeColumnValues = new LinkedHashMap<>();
 
 		return graph;
 	}
@@ -232,65 +539,62 @@ public class GraphBuilder<TNode extends Node, TEdge extends Edge> implements Gra
 	public Graph<TNode, TEdge> dumpCurrentGraph() {
 
 		// check node ids sequence
-		for (int i = 0; i < nodesByNodeId.keySet().size(); i++) {
+		checkNodeIds();
 
-			TNode node = nodesByNodeId.get(i);
-			if (node == null) {
-				throw new NoSuchElementException(" Node with id " + i
-						+ " not present! The sequence of ndoe id must start with 0 and end with 'numOfNodes-1'");
-			}
-		}
+		int numberOfNodes = nodesByNodeId.size();
 
-		ArrayList<TNode> nodesByNodeIdList = new ArrayList<>(nodesByNodeId.keySet().size());
-		for (int i = 0; i < nodesByNodeId.keySet().size(); i++) {
-			nodesByNodeIdList.add(nodesByNodeId.get(i));
+		ArrayList<TNode> nodesByNodeIdList = new ArrayList<>(numberOfNodes);
+		List<List<TEdge>> outLists = new ArrayList<>(numberOfNodes);
+		List<List<TEdge>> inLists = new ArrayList<>(numberOfNodes);
+		for (int k = 0; k < numberOfNodes; k++) {
+			nodesByNodeIdList.add(nodesByNodeId.get(k));
+			outLists.add(nodeOutcomingEdges.get(k));
+			inLists.add(nodeIncomingEdges.get(k));
 		}
 
-		int[] outgoingPositions = new int[nodesByNodeId.keySet().size() + 1];
-		ArrayList<TEdge> outgoingEdges = new ArrayList<>(nodesByNodeId.keySet().size());
-		int[] incomingPositions = new int[nodesByNodeId.keySet().size() + 1];
-		ArrayList<TEdge> incomingEdges = new ArrayList<>(nodesByNodeId.keySet().size());
+		// the CSR is built by the counting sort: degrees and their prefix sums give the positions, then every node
+		// scatters its edges to its own interval, so the nodes are processed in parallel without synchronization;
+		// the incoming positions are computed concurrently with the outgoing side
+		CompletableFuture<int[]> incomingPositionsFuture = CompletableFuture.supplyAsync(() -> positions(inLists));
+		int[] outgoingPositions = positions(outLists);
+		int numberOfEdges = outgoingPositions[numberOfNodes];
 
 		// OUTGOING EDGES
-		// iterate over all roadNodes
-		int j = 0; // outgoing edges id
-		for (int k = 0; k < nodesByNodeIdList.size(); k++) {
-
-			// log.debug("---------");
-			// log.debug("NODE: " + allNodesByNodeId[k]);
-
-			// assign outgoing position
-			outgoingPositions[k] = j;
-
-			// iterate over outgoing edges
-			for (TEdge edge : nodeOutcomingEdges.get(k)) {
-
-				outgoingEdges.add(edge);
-				j++;
+		Object[] outgoing = new Object[numberOfEdges];
+		int[] outgoingTargets = new int[numberOfEdges];
+		IntStream.range(0, numberOfNodes).parallel().forEach(k -> {
+			int start = outgoingPositions[k];
+			int end = outgoingPositions[k + 1];
+			int j = start;
+			for (TEdge edge : outLists.get(k)) {
+				outgoing[j++] = edge;
 			}
-		}
-		// set numberOfNodes+1 of outgoing positions to current edge id as indentation
-		outgoingPositions[nodesByNodeId.keySet().size()] = j;
-
-		// INCOMING EDGES
-		// iterate over all roadNodes
-		int l = 0; // outgoing edges id
-		for (int k = 0; k < nodesByNodeIdList.size(); k++) {
-
-			// assign incoming position
-			incomingPositions[k] = l;
-
-			// iterate over incoming edges
-			for (TEdge edge : nodeIncomingEdges.get(k)) {
-
-				incomingEdges.add(edge);
-				l++;
+			Arrays.sort(outgoing, start, end, BY_TARGET_ID);
+			for (j = start; j < end; j++) {
+				outgoingTargets[j] = ((Edge) outgoing[j]).toNode.getId();
 			}
-		}
-		// set numberOfNodes+1 of incoming positions to current edge id as indentation
-		incomingPositions[nodesByNodeId.keySet().size()] = l;
+		});
+
+		// INCOMING EDGES, as ids of the outgoing edges, so this has to wait for the outgoing side
+		int[] incomingPositions = incomingPositionsFuture.join();
+		int[] incomingEdgeIds = new int[numberOfEdges];
+		IntStream.range(0, numberOfNodes).parallel().forEach(k -> {
+			int j = incomingPositions[k];
+			for (TEdge edge : inLists.get(k)) {
+				int from = edge.fromNode.getId();
+				incomingEdgeIds[j++] = Arrays.binarySearch(outgoingTargets, outgoingPositions[from],
+						outgoingPositions[from + 1], k);
+			}
+		});
 
-		return new Graph<>(nodesByNodeIdList, outgoingPositions, outgoingEdges, incomingPositions, incomingEdges);
+		@SuppressWarnings("unchecked")
+		List<TEdge> outgoingList = (List<TEdge>) (List<?>) Arrays.asList(outgoing);
+		ArrayList<TEdge> outgoingEdges = new ArrayList<>(outgoingList);
+
+		Graph<TNode, TEdge> graph = new Graph<>(nodesByNodeIdList, outgoingPositions, outgoingEdges,
+				incomingPositions, incomingEdgeIds);
+		attachColumns(graph);
+		return graph;
 
 	}
 		
@@ -339,4 +643,42 @@ public class GraphBuilder<TNode extends Node, TEdge extends Edge> implements Gra
 			return toNodeId;
 		}
 	}
+
+	/**
+	 * Creates a copy of a node with a new id, used for renumbering of nodes.
+	 *
+	 * @param <TNode> node type
+	 */
+	@FunctionalInterface
+	public interface NodeRenumberer<TNode extends Node> {
+
+		/**
+		 * Creates a copy of the node with the new id, all other fields have to be kept.
+		 *
+		 * @param node original node
+		 * @param newId new id
+		 * @return copy of the node
+		 */
+		public TNode renumber(TNode node, int newId);
+	}
+
+	/**
+	 * Creates a copy of an edge between the renumbered nodes, used for renumbering of nodes.
+	 *
+	 * @param <TNode> node type
+	 * @param <TEdge> edge type
+	 */
+	@FunctionalInterface
+	public interface EdgeReconnector<TNode extends Node, TEdge extends Edge> {
+
+		/**
+		 * Creates a copy of the edge between the given nodes, all other fields have to be kept.
+		 *
+		 * @param edge original edge
+		 * @param fromNode renumbered source node
+		 * @param toNode renumbered target node
+		 * @return copy of the edge
+		 */
+		public TEdge reconnect(TEdge edge, TNode fromNode, TNode toNode);
+	}
 }
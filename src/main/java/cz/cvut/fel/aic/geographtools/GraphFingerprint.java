@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+import java.io.Serializable;
+
+/**
+ * 128 bit fingerprint of the content of a {@link Graph}, see {@link Graph#fingerprint()}. Graphs with the same
+ * content have the same fingerprint in any JVM run, so the fingerprint can be used as a key of cached artifacts
+ * derived from the graph, e.g. as a file name by {@link #toHexString()}.
+ */
+public final class GraphFingerprint implements Serializable {
+
+	private static final long serialVersionUID = -1520986633734081322L;
+
+	private final long high;
+
+	private final long low;
+
+	public GraphFingerprint(long high, long low) {
+		this.high = high;
+		this.low = low;
+	}
+
+	/**
+	 * Parses the fingerprint from the output of {@link #toHexString()}.
+	 *
+	 * @param hex 32 hexadecimal digits
+	 * @return fingerprint
+	 * @throws NumberFormatException if the string is not a fingerprint
+	 */
+	public static GraphFingerprint fromHexString(String hex) {
+		if (hex.length() != 32) {
+			throw new NumberFormatException("Fingerprint has to have 32 hexadecimal digits: " + hex);
+		}
+		return new GraphFingerprint(Long.parseUnsignedLong(hex.substring(0, 16), 16),
+				Long.parseUnsignedLong(hex.substring(16), 16));
+	}
+
+	public long getHigh() {
+		return high;
+	}
+
+	public long getLow() {
+		return low;
+	}
+
+	/**
+	 * Returns the fingerprint as 32 hexadecimal digits.
+	 *
+	 * @return hexadecimal representation
+	 */
+	public String toHexString() {
+		return String.format("%016x%016x", high, low);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof GraphFingerprint))
+			return false;
+
+		GraphFingerprint that = (GraphFingerprint) o;
+
+		return high == that.high && low == that.low;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) low;
+	}
+
+	@Override
+	public String toString() {
+		return toHexString();
+	}
+
+	/**
+	 * Streaming 128 bit hash of <code>long</code> values with the mixing of MurmurHash3 x64_128. The values are
+	 * consumed in pairs, so the same sequence of values always gives the same hash.
+	 */
+	static final class Hasher {
+
+		private static final long C1 = 0x87c37b91114253d5L;
+
+		private static final long C2 = 0x4cf5ad432745937fL;
+
+		private long h1;
+
+		private long h2;
+
+		private long pending;
+
+		private boolean hasPending;
+
+		private long length;
+
+		Hasher(long seed) {
+			h1 = seed;
+			h2 = seed;
+		}
+
+		Hasher put(long value) {
+			if (!hasPending) {
+				pending = value;
+				hasPending = true;
+				return this;
+			}
+			long k1 = pending;
+			long k2 = value;
+			hasPending = false;
+			length += 16;
+
+			k1 *= C1;
+			k1 = Long.rotateLeft(k1, 31);
+			k1 *= C2;
+			h1 ^= k1;
+			h1 = Long.rotateLeft(h1, 27);
+			h1 += h2;
+			h1 = h1 * 5 + 0x52dce729;
+
+			k2 *= C2;
+			k2 = Long.rotateLeft(k2, 33);
+			k2 *= C1;
+			h2 ^= k2;
+			h2 = Long.rotateLeft(h2, 31);
+			h2 += h1;
+			h2 = h2 * 5 + 0x38495ab5;
+			return this;
+		}
+
+		GraphFingerprint finish() {
+			long h1 = this.h1;
+			long h2 = this.h2;
+			long length = this.length;
+			if (hasPending) {
+				long k1 = pending * C1;
+				k1 = Long.rotateLeft(k1, 31);
+				k1 *= C2;
+				h1 ^= k1;
+				length += 8;
+			}
+			h1 ^= length;
+			h2 ^= length;
+			h1 += h2;
+			h2 += h1;
+			h1 = fmix(h1);
+			h2 = fmix(h2);
+			h1 += h2;
+			h2 += h1;
+			return new GraphFingerprint(h1, h2);
+		}
+
+		private static long fmix(long k) {
+			k ^= k >>> 33;
+			k *= 0xff51afd7ed558ccdL;
+			k ^= k >>> 33;
+			k *= 0xc4ceb9fe1a85ec53L;
+			k ^= k >>> 33;
+			return k;
+		}
+	}
+}
@@ -0,0 +1,528 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact streaming serialization of {@link Graph}. Unlike the Java serialization, only the nodes and the outgoing
+ * CSR are written, the incoming CSR is rebuilt on reading. Ids, coordinates and edge targets are delta encoded as
+ * zigzag varints, so the road graphs with a good locality of node ids take only a few bytes per node and edge.
+ * <p>
+ * Fields of custom <code>Node</code> and <code>Edge</code> subclasses are handled by {@link NodeCodec} and
+ * {@link EdgeCodec}, the codecs write only the extra fields, the base fields are always written by this class.
+ * <p>
+ * Format (all varints are LEB128, signed values are zigzag encoded):
+ * <pre>
+ * int magic (0x47474F46), int version
+ * varint numberOfNodes, varint numberOfEdges
+ * for each node by id:  signed deltas of sourceId, latE6, lonE6, latProjected, lonProjected and elevation from the
+ *                       previous node, then the node codec fields
+ * for each node by id:  varint out-degree, then for each outgoing edge the signed delta of the target id from the
+ *                       previous target (the first from the node id itself), signed length in cm and the edge codec
+ *                       fields
+ * twice, for node columns and for edge columns (since version 2):
+ *                       varint column count, then for each column its UTF name, byte type ({@link Column} type
+ *                       ordinal: int, float, long, bit) and the values by node or edge id: signed varints for int
+ *                       and long, raw floats, raw long words for bit columns
+ * </pre>
+ * Streams of version 1, without the columns, are still readable.
+ */
+public final class GraphIO {
+
+	static final int MAGIC = 0x47474F46;
+
+	static final int VERSION = 2;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Codec for plain {@link Node} objects, it does not write any extra data.
+	 */
+	public static final NodeCodec<Node> NODE_CODEC = new NodeCodec<Node>() {
+		@Override
+		public void write(Node node, DataOutput out) {
+		}
+
+		@Override
+		public Node read(int id, long sourceId, int latE6, int lonE6, int latProjected, int lonProjected,
+				int elevation, DataInput in) {
+			return new Node(id, sourceId, latE6, lonE6, latProjected, lonProjected, elevation);
+		}
+	};
+
+	/**
+	 * Codec for plain {@link Edge} objects, it does not write any extra data.
+	 */
+	public static final EdgeCodec<Node, Edge> EDGE_CODEC = new EdgeCodec<Node, Edge>() {
+		@Override
+		public void write(Edge edge, DataOutput out) {
+		}
+
+		@Override
+		public Edge read(Node fromNode, Node toNode, int lengthCm, DataInput in) {
+			return new Edge<>(fromNode, toNode, lengthCm);
+		}
+	};
+
+	private GraphIO() {
+	}
+
+	/**
+	 * Writes the base fields of nodes and edges of the graph. Fields of node and edge subclasses are not written,
+	 * the graph is read back as a graph of plain {@link Node} and {@link Edge} objects.
+	 *
+	 * @param graph graph to write
+	 * @param outputStream target stream, it is not closed
+	 * @throws IOException if writing fails
+	 */
+	@SuppressWarnings("unchecked")
+	public static void write(Graph<? extends Node, ? extends Edge> graph, OutputStream outputStream)
+			throws IOException {
+		write((Graph<Node, Edge>) graph, outputStream, NODE_CODEC, EDGE_CODEC);
+	}
+
+	/**
+	 * Writes the graph, the extra fields of nodes and edges are written by the codecs.
+	 *
+	 * @param graph graph to write
+	 * @param outputStream target stream, it is not closed
+	 * @param nodeCodec codec writing the node subclass fields
+	 * @param edgeCodec codec writing the edge subclass fields
+	 * @param <TNode> node type
+	 * @param <TEdge> edge type
+	 * @throws IOException if writing fails
+	 */
+	public static <TNode extends Node, TEdge extends Edge> void write(Graph<TNode, TEdge> graph,
+			OutputStream outputStream, NodeCodec<? super TNode> nodeCodec,
+			EdgeCodec<?, ? super TEdge> edgeCodec) throws IOException {
+		DataOutputStream out = new DataOutputStream(new UnsynchronizedBufferedOutputStream(outputStream));
+
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		writeVarLong(out, graph.numberOfNodes());
+		writeVarLong(out, graph.numberOfEdges());
+
+		long previousSourceId = 0;
+		int previousLatE6 = 0;
+		int previousLonE6 = 0;
+		int previousLatProjected = 0;
+		int previousLonProjected = 0;
+		int previousElevation = 0;
+		for (int i = 0; i < graph.numberOfNodes(); i++) {
+			TNode node = graph.getNode(i);
+			writeSignedVarLong(out, node.sourceId - previousSourceId);
+			writeSignedVarLong(out, (long) node.latE6 - previousLatE6);
+			writeSignedVarLong(out, (long) node.lonE6 - previousLonE6);
+			writeSignedVarLong(out, (long) node.getLatitudeProjected1E2() - previousLatProjected);
+			writeSignedVarLong(out, (long) node.getLongitudeProjected1E2() - previousLonProjected);
+			writeSignedVarLong(out, (long) node.elevation - previousElevation);
+			nodeCodec.write(node, out);
+
+			previousSourceId = node.sourceId;
+			previousLatE6 = node.latE6;
+			previousLonE6 = node.lonE6;
+			previousLatProjected = node.getLatitudeProjected1E2();
+			previousLonProjected = node.getLongitudeProjected1E2();
+			previousElevation = node.elevation;
+		}
+
+		for (int i = 0; i < graph.numberOfNodes(); i++) {
+			List<TEdge> outEdges = graph.getOutEdges(i);
+			writeVarLong(out, outEdges.size());
+			int previousTarget = i;
+			for (TEdge edge : outEdges) {
+				int target = edge.toNode.getId();
+				writeSignedVarLong(out, (long) target - previousTarget);
+				writeSignedVarLong(out, edge.getLengthCm());
+				edgeCodec.write(edge, out);
+				previousTarget = target;
+			}
+		}
+
+		writeColumns(out, graph.getNodeColumns());
+		writeColumns(out, graph.getEdgeColumns());
+
+		out.flush();
+	}
+
+	private static void writeColumns(DataOutput out, Collection<Column> columns) throws IOException {
+		writeVarLong(out, columns.size());
+		for (Column column : columns) {
+			out.writeUTF(column.getName());
+			out.writeByte(column.getType().ordinal());
+			switch (column.getType()) {
+				case INT:
+				case LONG:
+					for (int i = 0; i < column.size(); i++) {
+						writeSignedVarLong(out, column.getBits(i));
+					}
+					break;
+				case FLOAT:
+					for (float value : ((FloatColumn) column).getValues()) {
+						out.writeFloat(value);
+					}
+					break;
+				case BIT:
+					for (long word : ((BitColumn) column).getWords()) {
+						out.writeLong(word);
+					}
+					break;
+			}
+		}
+	}
+
+	private static List<Column> readColumns(DataInput in, int size) throws IOException {
+		int count = readVarInt(in);
+		List<Column> columns = new ArrayList<>(count);
+		for (int c = 0; c < count; c++) {
+			String name = in.readUTF();
+			int typeOrdinal = in.readUnsignedByte();
+			if (typeOrdinal >= ColumnType.values().length) {
+				throw new IOException("Unknown type " + typeOrdinal + " of column " + name);
+			}
+			ColumnType type = ColumnType.values()[typeOrdinal];
+			Column column = type.create(name, size);
+			switch (type) {
+				case INT:
+				case LONG:
+					for (int i = 0; i < size; i++) {
+						column.setBits(i, readSignedVarLong(in));
+					}
+					break;
+				case FLOAT:
+					float[] values = ((FloatColumn) column).getValues();
+					for (int i = 0; i < size; i++) {
+						values[i] = in.readFloat();
+					}
+					break;
+				case BIT:
+					long[] words = ((BitColumn) column).getWords();
+					for (int i = 0; i < words.length; i++) {
+						words[i] = in.readLong();
+					}
+					break;
+			}
+			columns.add(column);
+		}
+		return columns;
+	}
+
+	/**
+	 * Reads a graph of plain {@link Node} and {@link Edge} objects written without codecs.
+	 *
+	 * @param inputStream source stream, it is not closed
+	 * @return graph
+	 * @throws IOException if reading fails or the stream has a wrong format
+	 */
+	public static Graph<Node, Edge> read(InputStream inputStream) throws IOException {
+		return read(inputStream, NODE_CODEC, EDGE_CODEC);
+	}
+
+	/**
+	 * Reads a graph, the nodes and edges are created by the codecs which also read their extra fields. The stream is
+	 * read ahead into a buffer, so any data following the graph in the stream are not available afterwards.
+	 *
+	 * @param inputStream source stream, it is not closed
+	 * @param nodeCodec codec creating the nodes
+	 * @param edgeCodec codec creating the edges
+	 * @param <TNode> node type
+	 * @param <TEdge> edge type
+	 * @return graph
+	 * @throws IOException if reading fails or the stream has a wrong format
+	 */
+	public static <TNode extends Node, TEdge extends Edge> Graph<TNode, TEdge> read(InputStream inputStream,
+			NodeCodec<TNode> nodeCodec, EdgeCodec<TNode, TEdge> edgeCodec) throws IOException {
+		DataInputStream in = new DataInputStream(new UnsynchronizedBufferedInputStream(inputStream));
+
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a graph stream");
+		}
+		int version = in.readInt();
+		if (version < 1 || version > VERSION) {
+			throw new IOException("Unsupported graph stream version: " + version);
+		}
+		int numberOfNodes = readVarInt(in);
+		int numberOfEdges = readVarInt(in);
+
+		ArrayList<TNode> nodes = new ArrayList<>(numberOfNodes);
+		long sourceId = 0;
+		int latE6 = 0;
+		int lonE6 = 0;
+		int latProjected = 0;
+		int lonProjected = 0;
+		int elevation = 0;
+		for (int i = 0; i < numberOfNodes; i++) {
+			sourceId += readSignedVarLong(in);
+			latE6 += (int) readSignedVarLong(in);
+			lonE6 += (int) readSignedVarLong(in);
+			latProjected += (int) readSignedVarLong(in);
+			lonProjected += (int) readSignedVarLong(in);
+			elevation += (int) readSignedVarLong(in);
+			nodes.add(nodeCodec.read(i, sourceId, latE6, lonE6, latProjected, lonProjected, elevation, in));
+		}
+
+		int[] outgoingPositions = new int[numberOfNodes + 1];
+		ArrayList<TEdge> outgoingEdges = new ArrayList<>(numberOfEdges);
+		for (int i = 0; i < numberOfNodes; i++) {
+			outgoingPositions[i] = outgoingEdges.size();
+			int outDegree = readVarInt(in);
+			int target = i;
+			for (int j = 0; j < outDegree; j++) {
+				target += (int) readSignedVarLong(in);
+				int lengthCm = (int) readSignedVarLong(in);
+				if (target < 0 || target >= numberOfNodes) {
+					throw new IOException("Edge target " + target + " out of range");
+				}
+				outgoingEdges.add(edgeCodec.read(nodes.get(i), nodes.get(target), lengthCm, in));
+			}
+		}
+		outgoingPositions[numberOfNodes] = outgoingEdges.size();
+		if (outgoingEdges.size() != numberOfEdges) {
+			throw new IOException("Expected " + numberOfEdges + " edges, found " + outgoingEdges.size());
+		}
+
+		Graph<TNode, TEdge> graph = new Graph<>(nodes, outgoingPositions, outgoingEdges);
+		if (version >= 2) {
+			for (Column column : readColumns(in, numberOfNodes)) {
+				graph.addNodeColumn(column);
+			}
+			for (Column column : readColumns(in, numberOfEdges)) {
+				graph.addEdgeColumn(column);
+			}
+		}
+		return graph;
+	}
+
+	static void writeVarLong(DataOutput out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	static void writeSignedVarLong(DataOutput out, long value) throws IOException {
+		writeVarLong(out, (value << 1) ^ (value >> 63));
+	}
+
+	static long readVarLong(DataInput in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = in.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	static long readSignedVarLong(DataInput in) throws IOException {
+		long value = readVarLong(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	static int readVarInt(DataInput in) throws IOException {
+		long value = readVarLong(in);
+		if (value < 0 || value > Integer.MAX_VALUE) {
+			throw new IOException("Count out of range: " + value);
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Writes and reads the fields of a node subclass. The base fields of {@link Node} are handled by
+	 * {@link GraphIO}.
+	 *
+	 * @param <TNode> node type
+	 */
+	public interface NodeCodec<TNode extends Node> {
+
+		/**
+		 * Writes the extra fields of the node.
+		 *
+		 * @param node node
+		 * @param out output
+		 * @throws IOException if writing fails
+		 */
+		public void write(TNode node, DataOutput out) throws IOException;
+
+		/**
+		 * Creates a node from its base fields, extra fields are read from the input in the order they were written.
+		 *
+		 * @param id node id
+		 * @param sourceId source id
+		 * @param latE6 latitude in E6 format
+		 * @param lonE6 longitude in E6 format
+		 * @param latProjected projected latitude scaled by 10^2
+		 * @param lonProjected projected longitude scaled by 10^2
+		 * @param elevation elevation
+		 * @param in input
+		 * @return node
+		 * @throws IOException if reading fails
+		 */
+		public TNode read(int id, long sourceId, int latE6, int lonE6, int latProjected, int lonProjected,
+				int elevation, DataInput in) throws IOException;
+	}
+
+	/**
+	 * Writes and reads the fields of an edge subclass. The base fields of {@link Edge} are handled by
+	 * {@link GraphIO}.
+	 *
+	 * @param <TNode> node type
+	 * @param <TEdge> edge type
+	 */
+	public interface EdgeCodec<TNode extends Node, TEdge extends Edge> {
+
+		/**
+		 * Writes the extra fields of the edge.
+		 *
+		 * @param edge edge
+		 * @param out output
+		 * @throws IOException if writing fails
+		 */
+		public void write(TEdge edge, DataOutput out) throws IOException;
+
+		/**
+		 * Creates an edge from its base fields, extra fields are read from the input in the order they were
+		 * written.
+		 *
+		 * @param fromNode tail node
+		 * @param toNode goal node
+		 * @param lengthCm length of the edge in centimeters
+		 * @param in input
+		 * @return edge
+		 * @throws IOException if reading fails
+		 */
+		public TEdge read(TNode fromNode, TNode toNode, int lengthCm, DataInput in) throws IOException;
+	}
+
+	/**
+	 * Buffered stream without the locking of {@link java.io.BufferedOutputStream}, the varints are written byte by
+	 * byte.
+	 */
+	static final class UnsynchronizedBufferedOutputStream extends OutputStream {
+
+		private final OutputStream out;
+
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+
+		private int count;
+
+		UnsynchronizedBufferedOutputStream(OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (count == buffer.length) {
+				flushBuffer();
+			}
+			buffer[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (len >= buffer.length) {
+				flushBuffer();
+				out.write(b, off, len);
+				return;
+			}
+			if (len > buffer.length - count) {
+				flushBuffer();
+			}
+			System.arraycopy(b, off, buffer, count, len);
+			count += len;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			flushBuffer();
+			out.flush();
+		}
+
+		private void flushBuffer() throws IOException {
+			if (count > 0) {
+				out.write(buffer, 0, count);
+				count = 0;
+			}
+		}
+	}
+
+	/**
+	 * Buffered stream without the locking of {@link java.io.BufferedInputStream}, the varints are read byte by
+	 * byte.
+	 */
+	static final class UnsynchronizedBufferedInputStream extends InputStream {
+
+		private final InputStream in;
+
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+
+		private int position;
+
+		private int count;
+
+		UnsynchronizedBufferedInputStream(InputStream in) {
+			this.in = in;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (position == count && !fill()) {
+				return -1;
+			}
+			return buffer[position++] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (position == count && !fill()) {
+				return -1;
+			}
+			int read = Math.min(len, count - position);
+			System.arraycopy(buffer, position, b, off, read);
+			position += read;
+			return read;
+		}
+
+		private boolean fill() throws IOException {
+			int read = in.read(buffer, 0, buffer.length);
+			if (read <= 0) {
+				return false;
+			}
+			position = 0;
+			count = read;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+/**
+ * Operation accepting two <code>int</code> values, used for iterating over the adjacency of a graph without
+ * touching the edge objects.
+ */
+@FunctionalInterface
+public interface IntIntConsumer {
+
+	/**
+	 * Performs the operation for one adjacent edge.
+	 *
+	 * @param nodeId id of the node on the other side of the edge
+	 * @param lengthCm length of the edge in centimeters
+	 */
+	public void accept(int nodeId, int lengthCm);
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only graph backed by a memory mapped file. Opening the file costs only the mapping of its sections, all reads
+ * go straight to the mapped buffers, so the startup time does not depend on the size of the graph and several
+ * processes opening the same file share its pages through the page cache.
+ * <p>
+ * The file is written from a {@link Graph} by {@link #write(Graph, Path)}. Only ids, coordinates and the adjacency
+ * are stored, node and edge objects (and their subclass fields) are not. All values are little endian, every
+ * section starts at an offset aligned to 8 bytes:
+ * <pre>
+ * header          int magic (0x47474D46), int version, int numberOfNodes (N), int numberOfEdges (E)
+ * sourceIds       long[N]
+ * latE6           int[N]
+ * lonE6           int[N]
+ * latProjected    int[N]   (scaled by 10^2)
+ * lonProjected    int[N]   (scaled by 10^2)
+ * elevation       int[N]
+ * outPositions    int[N + 1]
+ * outTargets      int[E]
+ * outLengths      int[E]   (cm)
+ * inPositions     int[N + 1]
+ * inSources       int[E]
+ * inLengths       int[E]   (cm)
+ * </pre>
+ * Each section is mapped as a separate buffer, so a single section has to be smaller than 2 GB.
+ */
+public class MappedGraph implements PrimitiveGraphStructure {
+
+	static final int MAGIC = 0x47474D46;
+
+	static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 16;
+
+	private static final int COPY_CHUNK_SIZE = 1 << 16;
+
+	private final int numberOfNodes;
+
+	private final int numberOfEdges;
+
+	private final LongBuffer sourceIds;
+
+	private final IntBuffer latE6;
+
+	private final IntBuffer lonE6;
+
+	private final IntBuffer latProjected;
+
+	private final IntBuffer lonProjected;
+
+	private final IntBuffer elevation;
+
+	private final IntBuffer outgoingPositions;
+
+	private final IntBuffer outgoingTargets;
+
+	private final IntBuffer outgoingLengths;
+
+	private final IntBuffer incomingPositions;
+
+	private final IntBuffer incomingSources;
+
+	private final IntBuffer incomingLengths;
+
+	private MappedGraph(FileChannel channel) throws IOException {
+		long fileSize = channel.size();
+		if (fileSize < HEADER_SIZE) {
+			throw new IOException("Truncated mapped graph file: " + fileSize + " bytes is shorter than the header");
+		}
+		ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		if (header.getInt(0) != MAGIC) {
+			throw new IOException("Not a mapped graph file");
+		}
+		if (header.getInt(4) != VERSION) {
+			throw new IOException("Unsupported mapped graph version: " + header.getInt(4));
+		}
+		numberOfNodes = header.getInt(8);
+		numberOfEdges = header.getInt(12);
+		if (numberOfNodes < 0 || numberOfEdges < 0) {
+			throw new IOException("Truncated mapped graph file: negative number of nodes (" + numberOfNodes
+					+ ") or edges (" + numberOfEdges + ") in the header");
+		}
+		long expectedSize = fileSize(numberOfNodes, numberOfEdges);
+		if (fileSize < expectedSize) {
+			throw new IOException("Truncated mapped graph file: " + fileSize + " bytes, " + expectedSize
+					+ " bytes expected for " + numberOfNodes + " nodes and " + numberOfEdges + " edges");
+		}
+
+		long offset = HEADER_SIZE;
+		sourceIds = mapSection(channel, offset, 8L * numberOfNodes).asLongBuffer();
+		offset = nextSection(offset, 8L * numberOfNodes);
+		latE6 = mapIntSection(channel, offset, numberOfNodes);
+		offset = nextSection(offset, 4L * numberOfNodes);
+		lonE6 = mapIntSection(channel, offset, numberOfNodes);
+		offset = nextSection(offset, 4L * numberOfNodes);
+		latProjected = mapIntSection(channel, offset, numberOfNodes);
+		offset = nextSection(offset, 4L * numberOfNodes);
+		lonProjected = mapIntSection(channel, offset, numberOfNodes);
+		offset = nextSection(offset, 4L * numberOfNodes);
+		elevation = mapIntSection(channel, offset, numberOfNodes);
+		offset = nextSection(offset, 4L * numberOfNodes);
+		outgoingPositions = mapIntSection(channel, offset, numberOfNodes + 1);
+		offset = nextSection(offset, 4L * (numberOfNodes + 1));
+		outgoingTargets = mapIntSection(channel, offset, numberOfEdges);
+		offset = nextSection(offset, 4L * numberOfEdges);
+		outgoingLengths = mapIntSection(channel, offset, numberOfEdges);
+		offset = nextSection(offset, 4L * numberOfEdges);
+		incomingPositions = mapIntSection(channel, offset, numberOfNodes + 1);
+		offset = nextSection(offset, 4L * (numberOfNodes + 1));
+		incomingSources = mapIntSection(channel, offset, numberOfEdges);
+		offset = nextSection(offset, 4L * numberOfEdges);
+		incomingLengths = mapIntSection(channel, offset, numberOfEdges);
+	}
+
+	/**
+	 * Maps the graph file. The file stays mapped until this object is garbage collected, the channel used for the
+	 * mapping is closed immediately.
+	 *
+	 * @param path file written by {@link #write(Graph, Path)}
+	 * @return mapped graph
+	 * @throws IOException if the file cannot be mapped or has a wrong format
+	 */
+	public static MappedGraph open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new MappedGraph(channel);
+		}
+	}
+
+	/**
+	 * Writes the ids, coordinates and adjacency of the graph in the mapped graph format.
+	 *
+	 * @param graph graph to write
+	 * @param path target file, it is overwritten if it exists
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Graph<?, ?> graph, Path path) throws IOException {
+		int nodes = graph.numberOfNodes();
+		int edges = graph.numberOfEdges();
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			SectionWriter writer = new SectionWriter(channel);
+			writer.putInt(MAGIC);
+			writer.putInt(VERSION);
+			writer.putInt(nodes);
+			writer.putInt(edges);
+
+			for (int i = 0; i < nodes; i++) {
+				writer.putLong(graph.getNode(i).sourceId);
+			}
+			writer.align();
+			int[] chunk = new int[Math.min(Math.max(nodes, 1), COPY_CHUNK_SIZE)];
+			for (NodeCoordinate coordinate : NodeCoordinate.values()) {
+				for (int from = 0; from < nodes; from += chunk.length) {
+					int length = Math.min(chunk.length, nodes - from);
+					graph.copyNodeCoordinates(coordinate, from, chunk, 0, length);
+					for (int i = 0; i < length; i++) {
+						writer.putInt(chunk[i]);
+					}
+				}
+				writer.align();
+			}
+
+			writePositions(writer, graph, true);
+			for (int i = 0; i < nodes; i++) {
+				for (int j = 0; j < graph.outDegree(i); j++) {
+					writer.putInt(graph.outTarget(i, j));
+				}
+			}
+			writer.align();
+			for (int i = 0; i < nodes; i++) {
+				for (int j = 0; j < graph.outDegree(i); j++) {
+					writer.putInt(graph.outLengthCm(i, j));
+				}
+			}
+			writer.align();
+
+			writePositions(writer, graph, false);
+			for (int i = 0; i < nodes; i++) {
+				for (int j = 0; j < graph.inDegree(i); j++) {
+					writer.putInt(graph.inSource(i, j));
+				}
+			}
+			writer.align();
+			for (int i = 0; i < nodes; i++) {
+				for (int j = 0; j < graph.inDegree(i); j++) {
+					writer.putInt(graph.inLengthCm(i, j));
+				}
+			}
+			writer.align();
+			writer.flush();
+		}
+	}
+
+	private static void writePositions(SectionWriter writer, Graph<?, ?> graph, boolean outgoing) throws IOException {
+		int position = 0;
+		for (int i = 0; i < graph.numberOfNodes(); i++) {
+			writer.putInt(position);
+			position += outgoing ? graph.outDegree(i) : graph.inDegree(i);
+		}
+		writer.putInt(position);
+		writer.align();
+	}
+
+	private static ByteBuffer mapSection(FileChannel channel, long offset, long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Section at offset " + offset + " is larger than 2 GB");
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, offset, size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static IntBuffer mapIntSection(FileChannel channel, long offset, int length) throws IOException {
+		return mapSection(channel, offset, 4L * length).asIntBuffer();
+	}
+
+	/**
+	 * Returns the size of the file with the given number of nodes and edges, the last section is not padded.
+	 */
+	private static long fileSize(int nodes, int edges) {
+		long offset = nextSection(HEADER_SIZE, 8L * nodes);
+		for (int i = 0; i < 5; i++) {
+			offset = nextSection(offset, 4L * nodes);
+		}
+		offset = nextSection(offset, 4L * (nodes + 1L));
+		offset = nextSection(offset, 4L * edges);
+		offset = nextSection(offset, 4L * edges);
+		offset = nextSection(offset, 4L * (nodes + 1L));
+		offset = nextSection(offset, 4L * edges);
+		return offset + 4L * edges;
+	}
+
+	private static long nextSection(long offset, long size) {
+		return align(offset + size);
+	}
+
+	private static long align(long offset) {
+		return (offset + 7) & ~7L;
+	}
+
+	@Override
+	public int numberOfNodes() {
+		return numberOfNodes;
+	}
+
+	@Override
+	public int numberOfEdges() {
+		return numberOfEdges;
+	}
+
+	/**
+	 * Get id of the node from the data source, mostly corresponds with osm maps id
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @return source id of the node
+	 */
+	public long sourceIdOf(int nodeId) {
+		return sourceIds.get(nodeId);
+	}
+
+	public int getNodeLatE6(int nodeId) {
+		return latE6.get(nodeId);
+	}
+
+	public int getNodeLonE6(int nodeId) {
+		return lonE6.get(nodeId);
+	}
+
+	public int getNodeLatitudeProjected1E2(int nodeId) {
+		return latProjected.get(nodeId);
+	}
+
+	public int getNodeLongitudeProjected1E2(int nodeId) {
+		return lonProjected.get(nodeId);
+	}
+
+	public int getNodeElevation(int nodeId) {
+		return elevation.get(nodeId);
+	}
+
+	/**
+	 * @see Graph#outDegree(int)
+	 */
+	@Override
+	public int outDegree(int nodeId) {
+		return outgoingPositions.get(nodeId + 1) - outgoingPositions.get(nodeId);
+	}
+
+	/**
+	 * @see Graph#outTarget(int, int)
+	 */
+	public int outTarget(int nodeId, int i) {
+		assert i >= 0 && i < outDegree(nodeId) : "Edge index out of range";
+		return outgoingTargets.get(outgoingPositions.get(nodeId) + i);
+	}
+
+	/**
+	 * @see Graph#outLengthCm(int, int)
+	 */
+	public int outLengthCm(int nodeId, int i) {
+		assert i >= 0 && i < outDegree(nodeId) : "Edge index out of range";
+		return outgoingLengths.get(outgoingPositions.get(nodeId) + i);
+	}
+
+	/**
+	 * @see Graph#forEachOutNeighbor(int, IntIntConsumer)
+	 */
+	@Override
+	public void forEachOutNeighbor(int nodeId, IntIntConsumer consumer) {
+		int end = outgoingPositions.get(nodeId + 1);
+		for (int j = outgoingPositions.get(nodeId); j < end; j++) {
+			consumer.accept(outgoingTargets.get(j), outgoingLengths.get(j));
+		}
+	}
+
+	/**
+	 * @see Graph#inDegree(int)
+	 */
+	@Override
+	public int inDegree(int nodeId) {
+		return incomingPositions.get(nodeId + 1) - incomingPositions.get(nodeId);
+	}
+
+	/**
+	 * @see Graph#inSource(int, int)
+	 */
+	public int inSource(int nodeId, int i) {
+		assert i >= 0 && i < inDegree(nodeId) : "Edge index out of range";
+		return incomingSources.get(incomingPositions.get(nodeId) + i);
+	}
+
+	/**
+	 * @see Graph#inLengthCm(int, int)
+	 */
+	public int inLengthCm(int nodeId, int i) {
+		assert i >= 0 && i < inDegree(nodeId) : "Edge index out of range";
+		return incomingLengths.get(incomingPositions.get(nodeId) + i);
+	}
+
+	/**
+	 * @see Graph#forEachInNeighbor(int, IntIntConsumer)
+	 */
+	@Override
+	public void forEachInNeighbor(int nodeId, IntIntConsumer consumer) {
+		int end = incomingPositions.get(nodeId + 1);
+		for (int j = incomingPositions.get(nodeId); j < end; j++) {
+			consumer.accept(incomingSources.get(j), incomingLengths.get(j));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "MappedGraph [#nodes=" + numberOfNodes + ", #edges=" + numberOfEdges + "]";
+	}
+
+	/**
+	 * Buffered little endian writer keeping track of the file offset for the section alignment.
+	 */
+	private static class SectionWriter {
+
+		private final FileChannel channel;
+
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+		private long offset = 0;
+
+		SectionWriter(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		void putInt(int value) throws IOException {
+			ensureRemaining(4);
+			buffer.putInt(value);
+			offset += 4;
+		}
+
+		void putLong(long value) throws IOException {
+			ensureRemaining(8);
+			buffer.putLong(value);
+			offset += 8;
+		}
+
+		void align() throws IOException {
+			while (offset % 8 != 0) {
+				ensureRemaining(1);
+				buffer.put((byte) 0);
+				offset++;
+			}
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		private void ensureRemaining(int bytes) throws IOException {
+			if (buffer.remaining() < bytes) {
+				flush();
+			}
+		}
+	}
+}
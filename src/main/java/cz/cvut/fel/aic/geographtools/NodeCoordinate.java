@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+/**
+ * Integer coordinate fields of a node, used for the bulk coordinate access in {@link Graph}. The fields have the same
+ * fixed point format as in {@link GPSLocation}.
+ */
+public enum NodeCoordinate {
+	/**
+	 * GPS latitude in E6 format
+	 */
+	LAT_E6,
+	/**
+	 * GPS longitude in E6 format
+	 */
+	LON_E6,
+	/**
+	 * projected latitude scaled by 10^2
+	 */
+	LAT_PROJECTED,
+	/**
+	 * projected longitude scaled by 10^2
+	 */
+	LON_PROJECTED,
+	/**
+	 * elevation above sea level
+	 */
+	ELEVATION
+}
@@ -0,0 +1,624 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+import cz.cvut.fel.aic.geographtools.util.LongIntHashMap;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Mutable graph layered over an immutable {@link Graph}. Added nodes, added edges and removed edges are kept in a
+ * small delta, the adjacency queries merge the base graph with the delta, so a topology change (a road closure, a new
+ * link) costs O(1) instead of rebuilding the whole graph.
+ * <p>
+ * All changes are also appended to an operation log. When the log reaches the compaction threshold, the changes are
+ * folded into a new {@link Graph} by a background task, without blocking the queries and further changes. The changes
+ * made during the compaction are then replayed over the new base graph. {@link #compact()} folds the delta
+ * synchronously.
+ * <p>
+ * Added node ids have to continue the sequence of node ids, nodes cannot be removed. Edges are identified by their
+ * end nodes, as in {@link GraphBuilder}. Edge ids and attribute columns of the base graph are not valid for the
+ * overlay, and the columns are not carried over to the compacted graph. The lists returned by
+ * {@link #getOutEdges(int)}, {@link #getInEdges(int)} and {@link #getAllEdges()} are created on each call, the base
+ * edges of a node come before its added edges.
+ * <p>
+ * The class is thread safe, all queries and changes are synchronized.
+ */
+public class OverlayGraph<TNode extends Node, TEdge extends Edge> implements GraphStructure<TNode, TEdge> {
+
+	/**
+	 * Default number of logged changes that triggers the background compaction.
+	 */
+	public static final int DEFAULT_COMPACTION_THRESHOLD = 1 << 16;
+
+	private static final int NONE = -1;
+
+	private static final byte ADD_NODE = 0;
+
+	private static final byte ADD_EDGE = 1;
+
+	private static final byte REMOVE_EDGE = 2;
+
+	private final int compactionThreshold;
+
+	private final Executor executor;
+
+	private Graph<TNode, TEdge> base;
+
+	private Delta<TNode, TEdge> delta;
+
+	/**
+	 * Changes not folded into the base graph yet.
+	 */
+	private ArrayList<Operation> log;
+
+	/**
+	 * Number of all logged and folded changes, used to wait for the compaction of a given change.
+	 */
+	private long loggedOperations;
+	private long compactedOperations;
+
+	/**
+	 * Running compaction or null.
+	 */
+	private CompletableFuture<Void> compaction;
+
+	/**
+	 * Creates the overlay with the default compaction threshold, compacting in the common fork join pool.
+	 *
+	 * @param base base graph
+	 */
+	public OverlayGraph(Graph<TNode, TEdge> base) {
+		this(base, DEFAULT_COMPACTION_THRESHOLD, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates the overlay.
+	 *
+	 * @param base base graph
+	 * @param compactionThreshold number of logged changes that triggers the background compaction
+	 * @param executor executor of the background compaction
+	 */
+	public OverlayGraph(Graph<TNode, TEdge> base, int compactionThreshold, Executor executor) {
+		if (compactionThreshold < 1) {
+			throw new IllegalArgumentException("Compaction threshold must be positive: " + compactionThreshold);
+		}
+		this.compactionThreshold = compactionThreshold;
+		this.executor = executor;
+		this.base = base;
+		this.delta = new Delta<>(base);
+		this.log = new ArrayList<>();
+	}
+
+	/**
+	 * Returns the current base graph. It contains all changes folded by the finished compactions.
+	 *
+	 * @return base graph
+	 */
+	public synchronized Graph<TNode, TEdge> getBase() {
+		return base;
+	}
+
+	/**
+	 * Returns the number of changes not folded into the base graph yet.
+	 *
+	 * @return size of the operation log
+	 */
+	public synchronized int pendingOperations() {
+		return log.size();
+	}
+
+	/**
+	 * Adds node to graph.
+	 *
+	 * @param node <code>TNode</code>
+	 * @throws IllegalArgumentException if the node id is not equal to the number of nodes
+	 */
+	public synchronized void addNode(TNode node) {
+		delta.addNode(node);
+		logOperation(new Operation(ADD_NODE, node));
+	}
+
+	/**
+	 * Adds edge to graph.
+	 *
+	 * @param edge <code>TEdge</code>
+	 * @throws IllegalArgumentException if any of the edge nodes is not present or the edge already exists
+	 */
+	public synchronized void addEdge(TEdge edge) {
+		delta.addEdge(edge);
+		logOperation(new Operation(ADD_EDGE, edge));
+	}
+
+	/**
+	 * Removes the edge between the nodes.
+	 *
+	 * @param fromNode source node
+	 * @param toNode goal node
+	 * @return <code>true</code> if the edge was present
+	 */
+	public synchronized boolean removeEdge(Node fromNode, Node toNode) {
+		Edge removed = delta.removeEdge(fromNode.getId(), toNode.getId());
+		if (removed != null) {
+			logOperation(new Operation(REMOVE_EDGE, removed));
+		}
+		return removed != null;
+	}
+
+	/**
+	 * Folds all changes made before the call into a new base graph, waiting for the running background compaction.
+	 *
+	 * @return new base graph
+	 */
+	public Graph<TNode, TEdge> compact() {
+		long target;
+		synchronized (this) {
+			target = loggedOperations;
+		}
+		while (true) {
+			CompletableFuture<Void> running;
+			synchronized (this) {
+				if (compactedOperations >= target) {
+					return base;
+				}
+				if (compaction == null) {
+					startCompaction();
+				}
+				running = compaction;
+			}
+			if (running != null) {
+				running.join();
+			}
+		}
+	}
+
+	private void logOperation(Operation operation) {
+		log.add(operation);
+		loggedOperations++;
+		if (log.size() >= compactionThreshold && compaction == null) {
+			startCompaction();
+		}
+	}
+
+	/**
+	 * Starts folding the current log into a new base graph, has to be called with the lock held.
+	 */
+	private void startCompaction() {
+		Graph<TNode, TEdge> compactedBase = base;
+		List<Operation> operations = new ArrayList<>(log);
+		CompletableFuture<Void> future = CompletableFuture
+				.supplyAsync(() -> fold(compactedBase, operations), executor)
+				.thenAccept(graph -> finishCompaction(graph, operations.size()))
+				.whenComplete((result, exception) -> {
+					synchronized (this) {
+						compaction = null;
+					}
+				});
+		// a direct executor finishes the compaction before returning
+		if (!future.isDone()) {
+			compaction = future;
+		}
+	}
+
+	/**
+	 * Replaces the base graph and replays the changes logged during the compaction over it.
+	 */
+	private synchronized void finishCompaction(Graph<TNode, TEdge> graph, int foldedOperations) {
+		base = graph;
+		log = new ArrayList<>(log.subList(foldedOperations, log.size()));
+		compactedOperations += foldedOperations;
+		delta = replay(graph, log);
+	}
+
+	private static <TNode extends Node, TEdge extends Edge> Graph<TNode, TEdge> fold(Graph<TNode, TEdge> base,
+			List<Operation> operations) {
+		return replay(base, operations).toGraph();
+	}
+
+	private static <TNode extends Node, TEdge extends Edge> Delta<TNode, TEdge> replay(Graph<TNode, TEdge> base,
+			List<Operation> operations) {
+		Delta<TNode, TEdge> delta = new Delta<>(base);
+		for (Operation operation : operations) {
+			delta.apply(operation);
+		}
+		return delta;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized boolean containsNode(TNode node) {
+		return delta.containsNode(node.id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized boolean containsNode(int nodeId) {
+		return delta.containsNode(nodeId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized TNode getNode(int nodeId) {
+		return delta.containsNode(nodeId) ? delta.getNode(nodeId) : null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean containsEdge(TEdge edge) {
+		return containsEdge(edge.fromNode, edge.toNode);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean containsEdge(Node fromNode, Node toNode) {
+		return getEdge(fromNode, toNode) != null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized TEdge getEdge(Node fromNode, Node toNode) {
+		return delta.getEdge(fromNode.getId(), toNode.getId());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<TEdge> getInEdges(TNode node) {
+		return getInEdges(node.id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Returns a copy of the incoming edges, <code>null</code> for unknown node.
+	 */
+	@Override
+	public synchronized List<TEdge> getInEdges(int nodeId) {
+		return delta.containsNode(nodeId) ? delta.getInEdges(nodeId) : null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<TEdge> getOutEdges(TNode node) {
+		return getOutEdges(node.id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Returns a copy of the outgoing edges, <code>null</code> for unknown node.
+	 */
+	@Override
+	public synchronized List<TEdge> getOutEdges(int nodeId) {
+		return delta.containsNode(nodeId) ? delta.getOutEdges(nodeId) : null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Returns an unmodifiable view of the nodes ordered by node id, it reflects the nodes added later.
+	 */
+	@Override
+	public Collection<TNode> getAllNodes() {
+		return new AbstractList<TNode>() {
+			@Override
+			public TNode get(int index) {
+				TNode node = getNode(index);
+				if (node == null) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+				}
+				return node;
+			}
+
+			@Override
+			public int size() {
+				return numberOfNodes();
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Returns a copy of the edges ordered by source node.
+	 */
+	@Override
+	public synchronized Collection<TEdge> getAllEdges() {
+		List<TEdge> edges = new ArrayList<>(delta.numberOfEdges());
+		for (int k = 0; k < delta.numberOfNodes(); k++) {
+			delta.appendOutEdges(k, edges);
+		}
+		return edges;
+	}
+
+	@Override
+	public synchronized int numberOfNodes() {
+		return delta.numberOfNodes();
+	}
+
+	@Override
+	public synchronized int numberOfEdges() {
+		return delta.numberOfEdges();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "OverlayGraph [#nodes=" + delta.numberOfNodes() + ", #edges=" + delta.numberOfEdges()
+				+ ", #pendingOperations=" + log.size() + "]";
+	}
+
+	/**
+	 * Logged change, the edge removal holds the removed edge.
+	 */
+	private static final class Operation {
+
+		final byte type;
+
+		final Object element;
+
+		Operation(byte type, Object element) {
+			this.type = type;
+			this.element = element;
+		}
+	}
+
+	/**
+	 * Changes over the base graph. Added edges are kept in forward star lists like in {@link PrimitiveGraphBuilder},
+	 * the list heads are stored in maps keyed by node id, so the delta size does not depend on the graph size.
+	 */
+	private static final class Delta<TNode extends Node, TEdge extends Edge> {
+
+		private final Graph<TNode, TEdge> base;
+
+		private final int baseNodes;
+
+		private final ArrayList<TNode> addedNodes = new ArrayList<>();
+
+		/**
+		 * Added edges, null for the removed ones.
+		 */
+		private Object[] addedEdges = new Object[16];
+
+		private int addedEdgeSlots;
+
+		private int numberOfAddedEdges;
+
+		private final LongIntHashMap addedEdgeIndexByFromToNodeIds = new LongIntHashMap();
+
+		private int[] nextOut = new int[16];
+		private int[] nextIn = new int[16];
+
+		private final LongIntHashMap firstOut = new LongIntHashMap();
+		private final LongIntHashMap lastOut = new LongIntHashMap();
+		private final LongIntHashMap firstIn = new LongIntHashMap();
+		private final LongIntHashMap lastIn = new LongIntHashMap();
+
+		/**
+		 * Removed edges of the base graph by edge id.
+		 */
+		private final BitSet removedBaseEdges = new BitSet();
+
+		Delta(Graph<TNode, TEdge> base) {
+			this.base = base;
+			this.baseNodes = base.numberOfNodes();
+		}
+
+		@SuppressWarnings("unchecked")
+		void apply(Operation operation) {
+			switch (operation.type) {
+				case ADD_NODE:
+					addNode((TNode) operation.element);
+					break;
+				case ADD_EDGE:
+					addEdge((TEdge) operation.element);
+					break;
+				case REMOVE_EDGE:
+					Edge edge = (Edge) operation.element;
+					removeEdge(edge.fromNode.getId(), edge.toNode.getId());
+					break;
+				default:
+					throw new IllegalStateException("Unknown operation: " + operation.type);
+			}
+		}
+
+		int numberOfNodes() {
+			return baseNodes + addedNodes.size();
+		}
+
+		int numberOfEdges() {
+			return base.numberOfEdges() - removedBaseEdges.cardinality() + numberOfAddedEdges;
+		}
+
+		boolean containsNode(int nodeId) {
+			return 0 <= nodeId && nodeId < numberOfNodes();
+		}
+
+		TNode getNode(int nodeId) {
+			return nodeId < baseNodes ? base.getNode(nodeId) : addedNodes.get(nodeId - baseNodes);
+		}
+
+		void addNode(TNode node) {
+			if (node.id != numberOfNodes()) {
+				throw new IllegalArgumentException("Node id has to be " + numberOfNodes() + ": " + node.id);
+			}
+			addedNodes.add(node);
+		}
+
+		void addEdge(TEdge edge) {
+			int from = edge.fromNode.getId();
+			int to = edge.toNode.getId();
+			if (!containsNode(from) || !containsNode(to)) {
+				throw new IllegalArgumentException("Node has to be in graph before inserting edge: " + edge);
+			}
+			if (baseEdgeId(from, to) != NONE || !addedEdgeIndexByFromToNodeIds.put(LongIntHashMap.pack(from, to),
+					addedEdgeSlots)) {
+				throw new IllegalArgumentException("Edge already present: " + edge);
+			}
+
+			if (addedEdgeSlots == addedEdges.length) {
+				int capacity = addedEdgeSlots * 2;
+				addedEdges = Arrays.copyOf(addedEdges, capacity);
+				nextOut = Arrays.copyOf(nextOut, capacity);
+				nextIn = Arrays.copyOf(nextIn, capacity);
+			}
+			int index = addedEdgeSlots++;
+			addedEdges[index] = edge;
+			numberOfAddedEdges++;
+			append(index, from, firstOut, lastOut, nextOut);
+			append(index, to, firstIn, lastIn, nextIn);
+		}
+
+		private static void append(int index, int nodeId, LongIntHashMap first, LongIntHashMap last, int[] next) {
+			next[index] = NONE;
+			int previous = last.getOrDefault(nodeId, NONE);
+			if (previous == NONE) {
+				first.put(nodeId, index);
+			} else {
+				next[previous] = index;
+			}
+			last.put(nodeId, index);
+		}
+
+		/**
+		 * Removes the edge, returns the removed edge or null. Slots of removed added edges stay in the lists and are
+		 * skipped.
+		 */
+		Edge removeEdge(int from, int to) {
+			int baseEdgeId = baseEdgeId(from, to);
+			if (baseEdgeId != NONE) {
+				removedBaseEdges.set(baseEdgeId);
+				return base.getEdgeById(baseEdgeId);
+			}
+			long key = LongIntHashMap.pack(from, to);
+			int index = addedEdgeIndexByFromToNodeIds.getOrDefault(key, NONE);
+			if (index == NONE) {
+				return null;
+			}
+			Edge edge = (Edge) addedEdges[index];
+			addedEdges[index] = null;
+			addedEdgeIndexByFromToNodeIds.remove(key);
+			numberOfAddedEdges--;
+			return edge;
+		}
+
+		/**
+		 * Returns the id of the not removed base edge or NONE.
+		 */
+		private int baseEdgeId(int from, int to) {
+			if (from < 0 || from >= baseNodes || to < 0 || to >= baseNodes) {
+				return NONE;
+			}
+			int edgeId = base.edgeIdOf(from, to);
+			return edgeId < 0 || removedBaseEdges.get(edgeId) ? NONE : edgeId;
+		}
+
+		@SuppressWarnings("unchecked")
+		TEdge getEdge(int from, int to) {
+			int baseEdgeId = baseEdgeId(from, to);
+			if (baseEdgeId != NONE) {
+				return base.getEdgeById(baseEdgeId);
+			}
+			int index = addedEdgeIndexByFromToNodeIds.getOrDefault(LongIntHashMap.pack(from, to), NONE);
+			return index == NONE ? null : (TEdge) addedEdges[index];
+		}
+
+		List<TEdge> getOutEdges(int nodeId) {
+			List<TEdge> edges = new ArrayList<>();
+			appendOutEdges(nodeId, edges);
+			return edges;
+		}
+
+		@SuppressWarnings("unchecked")
+		void appendOutEdges(int nodeId, List<TEdge> edges) {
+			if (nodeId < baseNodes) {
+				int degree = base.outDegree(nodeId);
+				for (int i = 0; i < degree; i++) {
+					int edgeId = base.outEdgeId(nodeId, i);
+					if (!removedBaseEdges.get(edgeId)) {
+						edges.add(base.getEdgeById(edgeId));
+					}
+				}
+			}
+			for (int index = firstOut.getOrDefault(nodeId, NONE); index != NONE; index = nextOut[index]) {
+				if (addedEdges[index] != null) {
+					edges.add((TEdge) addedEdges[index]);
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		List<TEdge> getInEdges(int nodeId) {
+			List<TEdge> edges = new ArrayList<>();
+			if (nodeId < baseNodes) {
+				int degree = base.inDegree(nodeId);
+				for (int i = 0; i < degree; i++) {
+					int edgeId = base.inEdgeId(nodeId, i);
+					if (!removedBaseEdges.get(edgeId)) {
+						edges.add(base.getEdgeById(edgeId));
+					}
+				}
+			}
+			for (int index = firstIn.getOrDefault(nodeId, NONE); index != NONE; index = nextIn[index]) {
+				if (addedEdges[index] != null) {
+					edges.add((TEdge) addedEdges[index]);
+				}
+			}
+			return edges;
+		}
+
+		/**
+		 * Builds the graph with the changes folded in, O(N + E).
+		 */
+		Graph<TNode, TEdge> toGraph() {
+			int numberOfNodes = numberOfNodes();
+			ArrayList<TNode> nodes = new ArrayList<>(numberOfNodes);
+			int[] outgoingPositions = new int[numberOfNodes + 1];
+			ArrayList<TEdge> outgoingEdges = new ArrayList<>(numberOfEdges());
+			for (int k = 0; k < numberOfNodes; k++) {
+				nodes.add(getNode(k));
+				outgoingPositions[k] = outgoingEdges.size();
+				appendOutEdges(k, outgoingEdges);
+			}
+			outgoingPositions[numberOfNodes] = outgoingEdges.size();
+			return new Graph<>(nodes, outgoingPositions, outgoingEdges);
+		}
+	}
+}
@@ -0,0 +1,450 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+import cz.cvut.fel.aic.geographtools.util.LongIntHashMap;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Graph builder with the same contract as {@link GraphBuilder}, backed by primitive arrays and open addressing maps
+ * instead of boxed hash maps. Nodes are stored in an array indexed by node id, edges in an array in the order of
+ * their addition, and the adjacency is kept in forward star linked lists of edge indices. Edges are looked up by
+ * the packed (fromNodeId, toNodeId) key. Besides the node and edge objects themselves, the builder takes roughly 40
+ * to 60 bytes per edge depending on the fill of the hash table, without any per-edge key or list objects.
+ * <p>
+ * Node ids have to be non-negative, and as in {@link GraphBuilder}, they have to form the sequence 0..numOfNodes-1
+ * when the graph is created. The lists returned by {@link #getOutEdges(int)} and {@link #getInEdges(int)} are
+ * created on each call. In the created graph, the incoming edges of each node are ordered by their source node.
+ */
+public class PrimitiveGraphBuilder<TNode extends Node, TEdge extends Edge> implements GraphStructure<TNode, TEdge> {
+
+	private static final int NONE = -1;
+
+	private final LongIntHashMap nodeIdBySourceId;
+
+	private final LongIntHashMap edgeIndexByFromToNodeIds;
+
+	private Object[] nodesByNodeId;
+
+	private int numberOfNodes;
+
+	/**
+	 * First and last outgoing and incoming edge index of each node, or NONE.
+	 */
+	private int[] firstOut;
+	private int[] lastOut;
+	private int[] firstIn;
+	private int[] lastIn;
+
+	private int[] outDegrees;
+
+	private Object[] edges;
+
+	private int numberOfEdges;
+
+	/**
+	 * Next outgoing edge of the source node and next incoming edge of the target node for each edge index, or NONE.
+	 */
+	private int[] nextOut;
+	private int[] nextIn;
+
+	public PrimitiveGraphBuilder() {
+		this(16, 16);
+	}
+
+	/**
+	 * Creates the builder with capacity for the given number of nodes and edges without resizing.
+	 *
+	 * @param expectedNodes expected number of nodes
+	 * @param expectedEdges expected number of edges
+	 */
+	public PrimitiveGraphBuilder(int expectedNodes, int expectedEdges) {
+		expectedNodes = Math.max(1, expectedNodes);
+		expectedEdges = Math.max(1, expectedEdges);
+		nodeIdBySourceId = new LongIntHashMap(expectedNodes);
+		edgeIndexByFromToNodeIds = new LongIntHashMap(expectedEdges);
+		nodesByNodeId = new Object[expectedNodes];
+		firstOut = newNoneArray(expectedNodes);
+		lastOut = newNoneArray(expectedNodes);
+		firstIn = newNoneArray(expectedNodes);
+		lastIn = newNoneArray(expectedNodes);
+		outDegrees = new int[expectedNodes];
+		edges = new Object[expectedEdges];
+		nextOut = new int[expectedEdges];
+		nextIn = new int[expectedEdges];
+	}
+
+	/**
+	 * Return internal <code>int</code> id for the node specified by source id
+	 *
+	 * @param sourceId <code>long</code>
+	 * @return <code>int</code> id for given node
+	 * @throws NoSuchElementException if there is no node with the source id
+	 */
+	public int getIntIdForSourceId(long sourceId) {
+		int nodeId = nodeIdBySourceId.getOrDefault(sourceId, NONE);
+		if (nodeId == NONE) {
+			throw new NoSuchElementException("Node with source id " + sourceId + " not present");
+		}
+		return nodeId;
+	}
+
+	/**
+	 * Add a collection of nodes to the graph
+	 *
+	 * @param nodes Nodes
+	 */
+	public void addNodes(Collection<TNode> nodes) {
+		for (TNode node : nodes) {
+			addNode(node);
+		}
+	}
+
+	/**
+	 * Adds node to graph.
+	 *
+	 * @param node <code>TNode</code>
+	 * @throws IllegalArgumentException if the node id is negative or already present
+	 */
+	public void addNode(TNode node) {
+		if (node.id < 0) {
+			throw new IllegalArgumentException("Node id must not be negative: " + node.id);
+		}
+		if (containsNode(node.id)) {
+			throw new IllegalArgumentException("Node with this int id already present! Can not import node");
+		}
+		if (node.id >= nodesByNodeId.length) {
+			growNodes(node.id + 1);
+		}
+		nodesByNodeId[node.id] = node;
+		numberOfNodes++;
+		nodeIdBySourceId.put(node.sourceId, node.id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean containsNode(TNode node) {
+		return containsNode(node.id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean containsNode(int nodeId) {
+		return getNode(nodeId) != null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public TNode getNode(int nodeId) {
+		if (nodeId < 0 || nodeId >= nodesByNodeId.length) {
+			return null;
+		}
+		return (TNode) nodesByNodeId[nodeId];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Returns a copy of the nodes ordered by node id.
+	 */
+	@Override
+	public Collection<TNode> getAllNodes() {
+		List<TNode> nodes = new ArrayList<>(numberOfNodes);
+		for (int i = 0; i < nodesByNodeId.length && nodes.size() < numberOfNodes; i++) {
+			TNode node = getNode(i);
+			if (node != null) {
+				nodes.add(node);
+			}
+		}
+		return nodes;
+	}
+
+	/**
+	 * Add a collection of edges to the graph, edges already present are skipped.
+	 *
+	 * @param edges Edges
+	 */
+	public void addEdges(Collection<TEdge> edges) {
+		for (TEdge edge : edges) {
+			if (!containsEdge(edge.fromNode, edge.toNode)) {
+				addEdge(edge);
+			}
+		}
+	}
+
+	/**
+	 * Adds edge to graph.
+	 *
+	 * @param edge <code>TEdge</code>
+	 * @throws IllegalArgumentException if any of the edge nodes is not present or the edge already exists
+	 */
+	public void addEdge(TEdge edge) {
+		int from = edge.fromNode.getId();
+		int to = edge.toNode.getId();
+		if (!containsNode(from) || !containsNode(to)) {
+			throw new IllegalArgumentException("Node has to be in graph builder before inserting edge: " + edge);
+		}
+		if (!edgeIndexByFromToNodeIds.put(LongIntHashMap.pack(from, to), numberOfEdges)) {
+			throw new IllegalArgumentException("Edge already present: " + edge);
+		}
+
+		if (numberOfEdges == edges.length) {
+			int capacity = grownCapacity(edges.length, numberOfEdges + 1);
+			edges = Arrays.copyOf(edges, capacity);
+			nextOut = Arrays.copyOf(nextOut, capacity);
+			nextIn = Arrays.copyOf(nextIn, capacity);
+		}
+		int index = numberOfEdges++;
+		edges[index] = edge;
+
+		// append to the outgoing list of the source node
+		nextOut[index] = NONE;
+		if (lastOut[from] == NONE) {
+			firstOut[from] = index;
+		} else {
+			nextOut[lastOut[from]] = index;
+		}
+		lastOut[from] = index;
+		outDegrees[from]++;
+
+		// append to the incoming list of the target node
+		nextIn[index] = NONE;
+		if (lastIn[to] == NONE) {
+			firstIn[to] = index;
+		} else {
+			nextIn[lastIn[to]] = index;
+		}
+		lastIn[to] = index;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean containsEdge(TEdge edge) {
+		return containsEdge(edge.fromNode, edge.toNode);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean containsEdge(Node fromNode, Node toNode) {
+		return edgeIndexByFromToNodeIds.containsKey(LongIntHashMap.pack(fromNode.getId(), toNode.getId()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public TEdge getEdge(Node fromNode, Node toNode) {
+		int index = edgeIndexByFromToNodeIds.getOrDefault(LongIntHashMap.pack(fromNode.getId(), toNode.getId()),
+				NONE);
+		return index == NONE ? null : edgeAt(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<TEdge> getInEdges(TNode node) {
+		return getInEdges(node.id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Returns a copy of the incoming edges in the order of their addition, <code>null</code> for unknown node.
+	 */
+	@Override
+	public List<TEdge> getInEdges(int nodeId) {
+		if (!containsNode(nodeId)) {
+			return null;
+		}
+		List<TEdge> inEdges = new ArrayList<>();
+		for (int index = firstIn[nodeId]; index != NONE; index = nextIn[index]) {
+			inEdges.add(edgeAt(index));
+		}
+		return inEdges;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<TEdge> getOutEdges(TNode node) {
+		return getOutEdges(node.id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Returns a copy of the outgoing edges in the order of their addition, <code>null</code> for unknown node.
+	 */
+	@Override
+	public List<TEdge> getOutEdges(int nodeId) {
+		if (!containsNode(nodeId)) {
+			return null;
+		}
+		List<TEdge> outEdges = new ArrayList<>(outDegrees[nodeId]);
+		for (int index = firstOut[nodeId]; index != NONE; index = nextOut[index]) {
+			outEdges.add(edgeAt(index));
+		}
+		return outEdges;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Returns an unmodifiable view of the edges in the order of their addition.
+	 */
+	@Override
+	public Collection<TEdge> getAllEdges() {
+		return new AbstractList<TEdge>() {
+			@Override
+			public TEdge get(int index) {
+				if (index < 0 || index >= numberOfEdges) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + numberOfEdges);
+				}
+				return edgeAt(index);
+			}
+
+			@Override
+			public int size() {
+				return numberOfEdges;
+			}
+		};
+	}
+
+	@Override
+	public int numberOfNodes() {
+		return numberOfNodes;
+	}
+
+	@Override
+	public int numberOfEdges() {
+		return numberOfEdges;
+	}
+
+	/**
+	 * Creates a final graph and clears the builder structures.
+	 *
+	 * @return Final <code>Graph</code>
+	 */
+	public Graph<TNode, TEdge> createGraph() {
+		Graph<TNode, TEdge> graph = dumpCurrentGraph();
+
+		nodeIdBySourceId.clear();
+		edgeIndexByFromToNodeIds.clear();
+		nodesByNodeId = new Object[1];
+		numberOfNodes = 0;
+		firstOut = newNoneArray(1);
+		lastOut = newNoneArray(1);
+		firstIn = newNoneArray(1);
+		lastIn = newNoneArray(1);
+		outDegrees = new int[1];
+		edges = new Object[1];
+		nextOut = new int[1];
+		nextIn = new int[1];
+		numberOfEdges = 0;
+
+		return graph;
+	}
+
+	/**
+	 * Creates a final graph and keeps the structures ready for further building of the graph.
+	 *
+	 * @return current state of the <code>Graph</code>
+	 * @throws NoSuchElementException if node ids do not form the sequence 0..numOfNodes-1
+	 */
+	public Graph<TNode, TEdge> dumpCurrentGraph() {
+		// check node ids sequence
+		for (int i = 0; i < numberOfNodes; i++) {
+			if (getNode(i) == null) {
+				throw new NoSuchElementException(" Node with id " + i
+						+ " not present! The sequence of node id must start with 0 and end with 'numOfNodes-1'");
+			}
+		}
+
+		ArrayList<TNode> nodes = new ArrayList<>(numberOfNodes);
+		int[] outgoingPositions = new int[numberOfNodes + 1];
+		ArrayList<TEdge> outgoingEdges = new ArrayList<>(numberOfEdges);
+		for (int k = 0; k < numberOfNodes; k++) {
+			nodes.add(getNode(k));
+			outgoingPositions[k] = outgoingEdges.size();
+			for (int index = firstOut[k]; index != NONE; index = nextOut[index]) {
+				outgoingEdges.add(edgeAt(index));
+			}
+		}
+		outgoingPositions[numberOfNodes] = outgoingEdges.size();
+
+		return new Graph<>(nodes, outgoingPositions, outgoingEdges);
+	}
+
+	@SuppressWarnings("unchecked")
+	private TEdge edgeAt(int index) {
+		return (TEdge) edges[index];
+	}
+
+	private void growNodes(int minCapacity) {
+		int oldCapacity = nodesByNodeId.length;
+		int capacity = grownCapacity(oldCapacity, minCapacity);
+		nodesByNodeId = Arrays.copyOf(nodesByNodeId, capacity);
+		firstOut = growNoneArray(firstOut, capacity);
+		lastOut = growNoneArray(lastOut, capacity);
+		firstIn = growNoneArray(firstIn, capacity);
+		lastIn = growNoneArray(lastIn, capacity);
+		outDegrees = Arrays.copyOf(outDegrees, capacity);
+	}
+
+	private static int grownCapacity(int capacity, int minCapacity) {
+		long grown = Math.max(minCapacity, capacity + (capacity >> 1) + 1L);
+		return (int) Math.min(Integer.MAX_VALUE - 8, grown);
+	}
+
+	private static int[] newNoneArray(int size) {
+		int[] array = new int[size];
+		Arrays.fill(array, NONE);
+		return array;
+	}
+
+	private static int[] growNoneArray(int[] array, int capacity) {
+		int oldLength = array.length;
+		int[] grown = Arrays.copyOf(array, capacity);
+		Arrays.fill(grown, oldLength, capacity, NONE);
+		return grown;
+	}
+
+	@Override
+	public String toString() {
+		return "PrimitiveGraphBuilder [#nodes=" + numberOfNodes + ", #edges=" + numberOfEdges + "]";
+	}
+}
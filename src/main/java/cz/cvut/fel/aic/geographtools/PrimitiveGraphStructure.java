@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+/**
+ * Adjacency of a graph accessed by node ids only, without node and edge objects. It is implemented by the object
+ * based {@link Graph} as well as by the {@link MappedGraph} and {@link CompressedGraph} representations, so graph
+ * algorithms written against this interface run on all of them.
+ */
+public interface PrimitiveGraphStructure {
+
+	/**
+	 * Returns the number of nodes, node ids are [0..(numberOfNodes-1)].
+	 *
+	 * @return number of nodes
+	 */
+	public int numberOfNodes();
+
+	/**
+	 * Returns the number of edges.
+	 *
+	 * @return number of edges
+	 */
+	public int numberOfEdges();
+
+	/**
+	 * Returns the number of edges outgoing from the node.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @return out-degree of the node
+	 */
+	public int outDegree(int nodeId);
+
+	/**
+	 * Calls the consumer with the target node id and the length of each edge outgoing from the node, in the order of
+	 * target node ids.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @param consumer consumer of (targetNodeId, lengthCm)
+	 */
+	public void forEachOutNeighbor(int nodeId, IntIntConsumer consumer);
+
+	/**
+	 * Returns the number of edges incoming to the node.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @return in-degree of the node
+	 */
+	public int inDegree(int nodeId);
+
+	/**
+	 * Calls the consumer with the source node id and the length of each edge incoming to the node.
+	 *
+	 * @param nodeId <code>int</code> id of the node
+	 * @param consumer consumer of (sourceNodeId, lengthCm)
+	 */
+	public void forEachInNeighbor(int nodeId, IntIntConsumer consumer);
+}
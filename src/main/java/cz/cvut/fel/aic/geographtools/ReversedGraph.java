@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Transpose of a {@link Graph}: a view with outgoing and incoming edges swapped, created by {@link Graph#reversed()}.
+ * Nothing is copied, all queries are answered from the CSR of the underlying graph, so a forward algorithm run on
+ * the view is a backward search on the graph, e.g. the backward half of a bidirectional search.
+ * <p>
+ * Edge objects and edge ids are shared with the underlying graph. The objects are not reversed, their
+ * <code>fromNode</code> is the target of the edge in this view, so algorithms should take the node on the other side
+ * of an edge from the primitive accessors or from the node they came from.
+ */
+public final class ReversedGraph<TNode extends Node, TEdge extends Edge> implements GraphStructure<TNode, TEdge>,
+		PrimitiveGraphStructure {
+
+	private final Graph<TNode, TEdge> graph;
+
+	ReversedGraph(Graph<TNode, TEdge> graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Returns the underlying graph, the transpose of this view.
+	 *
+	 * @return graph
+	 */
+	public Graph<TNode, TEdge> reversed() {
+		return graph;
+	}
+
+	@Override
+	public boolean containsNode(TNode node) {
+		return graph.containsNode(node);
+	}
+
+	@Override
+	public boolean containsNode(int nodeId) {
+		return graph.containsNode(nodeId);
+	}
+
+	@Override
+	public TNode getNode(int nodeId) {
+		return graph.getNode(nodeId);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The edge objects are shared with the underlying graph, so this is the same as in the underlying graph.
+	 */
+	@Override
+	public boolean containsEdge(TEdge edge) {
+		return graph.containsEdge(edge);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The edge from the fromNode to the toNode in this view is the edge from the toNode to the fromNode in the
+	 * underlying graph.
+	 */
+	@Override
+	public boolean containsEdge(Node fromNode, Node toNode) {
+		return graph.containsEdge(toNode, fromNode);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Returns the edge object of the underlying graph from the toNode to the fromNode.
+	 */
+	@Override
+	public TEdge getEdge(Node fromNode, Node toNode) {
+		return graph.getEdge(toNode, fromNode);
+	}
+
+	@Override
+	public List<TEdge> getInEdges(TNode node) {
+		return graph.getOutEdges(node);
+	}
+
+	@Override
+	public List<TEdge> getInEdges(int nodeId) {
+		return graph.getOutEdges(nodeId);
+	}
+
+	@Override
+	public List<TEdge> getOutEdges(TNode node) {
+		return graph.getInEdges(node);
+	}
+
+	@Override
+	public List<TEdge> getOutEdges(int nodeId) {
+		return graph.getInEdges(nodeId);
+	}
+
+	@Override
+	public Collection<TNode> getAllNodes() {
+		return graph.getAllNodes();
+	}
+
+	@Override
+	public Collection<TEdge> getAllEdges() {
+		return graph.getAllEdges();
+	}
+
+	@Override
+	public int numberOfNodes() {
+		return graph.numberOfNodes();
+	}
+
+	@Override
+	public int numberOfEdges() {
+		return graph.numberOfEdges();
+	}
+
+	/**
+	 * @see Graph#inDegree(int)
+	 */
+	@Override
+	public int outDegree(int nodeId) {
+		return graph.inDegree(nodeId);
+	}
+
+	/**
+	 * @see Graph#inSource(int, int)
+	 */
+	public int outTarget(int nodeId, int i) {
+		return graph.inSource(nodeId, i);
+	}
+
+	/**
+	 * @see Graph#inLengthCm(int, int)
+	 */
+	public int outLengthCm(int nodeId, int i) {
+		return graph.inLengthCm(nodeId, i);
+	}
+
+	/**
+	 * @see Graph#inEdgeId(int, int)
+	 */
+	public int outEdgeId(int nodeId, int i) {
+		return graph.inEdgeId(nodeId, i);
+	}
+
+	/**
+	 * @see Graph#forEachInEdgeId(int, IntConsumer)
+	 */
+	public void forEachOutEdgeId(int nodeId, IntConsumer consumer) {
+		graph.forEachInEdgeId(nodeId, consumer);
+	}
+
+	/**
+	 * @see Graph#forEachInNeighbor(int, IntIntConsumer)
+	 */
+	@Override
+	public void forEachOutNeighbor(int nodeId, IntIntConsumer consumer) {
+		graph.forEachInNeighbor(nodeId, consumer);
+	}
+
+	/**
+	 * @see Graph#outDegree(int)
+	 */
+	@Override
+	public int inDegree(int nodeId) {
+		return graph.outDegree(nodeId);
+	}
+
+	/**
+	 * @see Graph#outTarget(int, int)
+	 */
+	public int inSource(int nodeId, int i) {
+		return graph.outTarget(nodeId, i);
+	}
+
+	/**
+	 * @see Graph#outLengthCm(int, int)
+	 */
+	public int inLengthCm(int nodeId, int i) {
+		return graph.outLengthCm(nodeId, i);
+	}
+
+	/**
+	 * @see Graph#outEdgeId(int, int)
+	 */
+	public int inEdgeId(int nodeId, int i) {
+		return graph.outEdgeId(nodeId, i);
+	}
+
+	/**
+	 * @see Graph#forEachOutEdgeId(int, IntConsumer)
+	 */
+	public void forEachInEdgeId(int nodeId, IntConsumer consumer) {
+		graph.forEachOutEdgeId(nodeId, consumer);
+	}
+
+	/**
+	 * @see Graph#forEachOutNeighbor(int, IntIntConsumer)
+	 */
+	@Override
+	public void forEachInNeighbor(int nodeId, IntIntConsumer consumer) {
+		graph.forEachOutNeighbor(nodeId, consumer);
+	}
+
+	/**
+	 * Returns the source node of the edge in this view, the target node in the underlying graph.
+	 *
+	 * @param edgeId <code>int</code> id of the edge
+	 * @return id of the source node
+	 */
+	public int edgeSource(int edgeId) {
+		return graph.edgeTarget(edgeId);
+	}
+
+	/**
+	 * Returns the target node of the edge in this view, the source node in the underlying graph.
+	 *
+	 * @param edgeId <code>int</code> id of the edge
+	 * @return id of the target node
+	 */
+	public int edgeTarget(int edgeId) {
+		return graph.edgeSource(edgeId);
+	}
+
+	@Override
+	public String toString() {
+		return "ReversedGraph [" + graph + "]";
+	}
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.IntFunction;
+
+/**
+ * Construction of {@link Graph} directly from node and edge sources, without the maps of {@link GraphBuilder}.
+ * <p>
+ * {@link #build(Iterable, EdgeSource)} reads the edges twice: the first pass counts the out-degrees, the second one
+ * places each edge to its final position in the outgoing CSR. Only the final graph and one <code>int</code> per node
+ * are kept in memory.
+ * <p>
+ * {@link #buildExternal(Iterable, EdgeSource, GraphIO.EdgeCodec, Path, int)} reads the edges once, for sources that
+ * cannot be replayed or produce heavy edge objects. The edges are sorted in runs of limited size which are written
+ * to temporary files by the {@link GraphIO.EdgeCodec}, then the runs are merged into the outgoing CSR.
+ * <p>
+ * Node ids have to form the sequence 0..numOfNodes-1, the nodes may come in any order.
+ */
+public final class StreamingGraphBuilder {
+
+	private static final Comparator<Edge> BY_FROM_TO = Comparator.<Edge>comparingInt(edge -> edge.fromNode.getId())
+			.thenComparingInt(edge -> edge.toNode.getId());
+
+	private StreamingGraphBuilder() {
+	}
+
+	/**
+	 * Builds the graph in two passes over the edges.
+	 *
+	 * @param nodes nodes of the graph, iterated once
+	 * @param edgeSource source of edges, asked for the edges twice, both times the same edges have to be returned
+	 * @param <TNode> node type
+	 * @param <TEdge> edge type
+	 * @return graph
+	 * @throws NoSuchElementException if node ids do not form the sequence 0..numOfNodes-1
+	 * @throws IllegalArgumentException if a node id is duplicate or an edge refers to an unknown node
+	 * @throws IllegalStateException if the edge source returns different edges in the second pass
+	 */
+	public static <TNode extends Node, TEdge extends Edge> Graph<TNode, TEdge> build(Iterable<TNode> nodes,
+			EdgeSource<TNode, TEdge> edgeSource) {
+		ArrayList<TNode> nodesByNodeId = collectNodes(nodes);
+		int numberOfNodes = nodesByNodeId.size();
+		IntFunction<TNode> nodeById = nodesByNodeId::get;
+
+		// first pass: degrees
+		int[] outgoingPositions = new int[numberOfNodes + 1];
+		Iterator<TEdge> edges = edgeSource.edges(nodeById);
+		while (edges.hasNext()) {
+			TEdge edge = edges.next();
+			checkEdge(edge, numberOfNodes);
+			outgoingPositions[edge.fromNode.getId() + 1]++;
+		}
+		for (int k = 0; k < numberOfNodes; k++) {
+			outgoingPositions[k + 1] += outgoingPositions[k];
+		}
+		int numberOfEdges = outgoingPositions[numberOfNodes];
+
+		// second pass: counting sort scatter into the list of the graph
+		ArrayList<TEdge> outgoing = new ArrayList<>(numberOfEdges);
+		for (int i = 0; i < numberOfEdges; i++) {
+			outgoing.add(null);
+		}
+		int[] fill = Arrays.copyOf(outgoingPositions, numberOfNodes);
+		edges = edgeSource.edges(nodeById);
+		while (edges.hasNext()) {
+			TEdge edge = edges.next();
+			checkEdge(edge, numberOfNodes);
+			int from = edge.fromNode.getId();
+			if (fill[from] == outgoingPositions[from + 1]) {
+				throw new IllegalStateException("Edge source returned more edges of node " + from
+						+ " in the second pass");
+			}
+			outgoing.set(fill[from]++, edge);
+		}
+		for (int k = 0; k < numberOfNodes; k++) {
+			if (fill[k] != outgoingPositions[k + 1]) {
+				throw new IllegalStateException("Edge source returned less edges of node " + k
+						+ " in the second pass");
+			}
+		}
+
+		return new Graph<>(nodesByNodeId, outgoingPositions, outgoing);
+	}
+
+	/**
+	 * Builds the graph in one pass over the edges, the edges are sorted externally in temporary files.
+	 *
+	 * @param nodes nodes of the graph, iterated once
+	 * @param edgeSource source of edges, asked for the edges once
+	 * @param edgeCodec codec writing and reading the edges in the temporary files
+	 * @param temporaryDirectory directory for the temporary files, they are deleted before returning
+	 * @param runSize maximal number of edges kept in memory while sorting, if there are not more edges in total, no
+	 * temporary files are used
+	 * @param <TNode> node type
+	 * @param <TEdge> edge type
+	 * @return graph
+	 * @throws IOException if writing or reading of the temporary files fails
+	 * @throws NoSuchElementException if node ids do not form the sequence 0..numOfNodes-1
+	 * @throws IllegalArgumentException if a node id is duplicate or an edge refers to an unknown node
+	 */
+	public static <TNode extends Node, TEdge extends Edge> Graph<TNode, TEdge> buildExternal(Iterable<TNode> nodes,
+			EdgeSource<TNode, TEdge> edgeSource, GraphIO.EdgeCodec<TNode, TEdge> edgeCodec, Path temporaryDirectory,
+			int runSize) throws IOException {
+		if (runSize < 1) {
+			throw new IllegalArgumentException("Run size must be positive: " + runSize);
+		}
+		ArrayList<TNode> nodesByNodeId = collectNodes(nodes);
+		int numberOfNodes = nodesByNodeId.size();
+
+		int[] outgoingPositions = new int[numberOfNodes + 1];
+		Edge[] run = new Edge[Math.min(runSize, 1 << 16)];
+		int runLength = 0;
+		List<Path> runFiles = new ArrayList<>();
+		try {
+			Iterator<TEdge> edges = edgeSource.edges(nodesByNodeId::get);
+			while (edges.hasNext()) {
+				TEdge edge = edges.next();
+				checkEdge(edge, numberOfNodes);
+				outgoingPositions[edge.fromNode.getId() + 1]++;
+				if (runLength == runSize) {
+					runFiles.add(writeRun(run, runLength, edgeCodec, temporaryDirectory));
+					Arrays.fill(run, 0, runLength, null);
+					runLength = 0;
+				}
+				if (runLength == run.length) {
+					run = Arrays.copyOf(run, (int) Math.min(runSize, 2L * run.length));
+				}
+				run[runLength++] = edge;
+			}
+			for (int k = 0; k < numberOfNodes; k++) {
+				outgoingPositions[k + 1] += outgoingPositions[k];
+			}
+
+			ArrayList<TEdge> outgoingEdges;
+			if (runFiles.isEmpty()) {
+				Arrays.sort(run, 0, runLength, BY_FROM_TO);
+				outgoingEdges = toArrayList(run, runLength);
+				run = null;
+			} else {
+				runFiles.add(writeRun(run, runLength, edgeCodec, temporaryDirectory));
+				run = null;
+				outgoingEdges = mergeRuns(runFiles, nodesByNodeId, edgeCodec, outgoingPositions[numberOfNodes]);
+			}
+
+			return new Graph<>(nodesByNodeId, outgoingPositions, outgoingEdges);
+		} finally {
+			for (Path runFile : runFiles) {
+				Files.deleteIfExists(runFile);
+			}
+		}
+	}
+
+	private static <TNode extends Node> ArrayList<TNode> collectNodes(Iterable<TNode> nodes) {
+		ArrayList<TNode> nodesByNodeId = new ArrayList<>();
+		int numberOfNodes = 0;
+		for (TNode node : nodes) {
+			if (node.id < 0) {
+				throw new IllegalArgumentException("Node id must not be negative: " + node.id);
+			}
+			while (nodesByNodeId.size() <= node.id) {
+				nodesByNodeId.add(null);
+			}
+			if (nodesByNodeId.get(node.id) != null) {
+				throw new IllegalArgumentException("Node with id " + node.id + " already present");
+			}
+			nodesByNodeId.set(node.id, node);
+			numberOfNodes++;
+		}
+		if (numberOfNodes != nodesByNodeId.size()) {
+			throw new NoSuchElementException(" Node with id " + nodesByNodeId.indexOf(null)
+					+ " not present! The sequence of node id must start with 0 and end with 'numOfNodes-1'");
+		}
+		return nodesByNodeId;
+	}
+
+	private static void checkEdge(Edge edge, int numberOfNodes) {
+		int from = edge.fromNode.getId();
+		int to = edge.toNode.getId();
+		if (from < 0 || from >= numberOfNodes || to < 0 || to >= numberOfNodes) {
+			throw new IllegalArgumentException("Edge refers to an unknown node: " + edge);
+		}
+	}
+
+	/**
+	 * Copies the edges of the run to a list of the exact size.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <TEdge extends Edge> ArrayList<TEdge> toArrayList(Edge[] run, int runLength) {
+		ArrayList<TEdge> edges = new ArrayList<>(runLength);
+		for (int i = 0; i < runLength; i++) {
+			edges.add((TEdge) run[i]);
+		}
+		return edges;
+	}
+
+	/**
+	 * Sorts the run and writes it to a temporary file as: varint from, signed delta of to, signed length, codec
+	 * fields.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <TEdge extends Edge> Path writeRun(Edge[] run, int runLength, GraphIO.EdgeCodec<?, TEdge> edgeCodec,
+			Path temporaryDirectory) throws IOException {
+		Arrays.sort(run, 0, runLength, BY_FROM_TO);
+		Path runFile = Files.createTempFile(temporaryDirectory, "edges", ".run");
+		try (OutputStream file = Files.newOutputStream(runFile)) {
+			DataOutputStream out = new DataOutputStream(new GraphIO.UnsynchronizedBufferedOutputStream(file));
+			GraphIO.writeVarLong(out, runLength);
+			for (int i = 0; i < runLength; i++) {
+				Edge edge = run[i];
+				GraphIO.writeVarLong(out, edge.fromNode.getId());
+				GraphIO.writeSignedVarLong(out, (long) edge.toNode.getId() - edge.fromNode.getId());
+				GraphIO.writeSignedVarLong(out, edge.getLengthCm());
+				edgeCodec.write((TEdge) edge, out);
+			}
+			out.flush();
+		}
+		return runFile;
+	}
+
+	/**
+	 * K-way merge of the sorted runs, the edges are read back by the codec.
+	 */
+	private static <TNode extends Node, TEdge extends Edge> ArrayList<TEdge> mergeRuns(List<Path> runFiles,
+			List<TNode> nodesByNodeId, GraphIO.EdgeCodec<TNode, TEdge> edgeCodec, int numberOfEdges)
+			throws IOException {
+		ArrayList<TEdge> outgoingEdges = new ArrayList<>(numberOfEdges);
+		List<InputStream> files = new ArrayList<>(runFiles.size());
+		try {
+			PriorityQueue<RunReader<TNode, TEdge>> heads = new PriorityQueue<>(runFiles.size(),
+					(a, b) -> BY_FROM_TO.compare(a.head, b.head));
+			for (Path runFile : runFiles) {
+				InputStream file = Files.newInputStream(runFile);
+				files.add(file);
+				RunReader<TNode, TEdge> reader = new RunReader<>(new DataInputStream(
+						new GraphIO.UnsynchronizedBufferedInputStream(file)), nodesByNodeId, edgeCodec);
+				if (reader.advance()) {
+					heads.add(reader);
+				}
+			}
+			while (!heads.isEmpty()) {
+				RunReader<TNode, TEdge> reader = heads.poll();
+				outgoingEdges.add(reader.head);
+				if (reader.advance()) {
+					heads.add(reader);
+				}
+			}
+		} finally {
+			for (InputStream file : files) {
+				file.close();
+			}
+		}
+		return outgoingEdges;
+	}
+
+	/**
+	 * Source of edges. The nodes of the edges can be obtained by their id from the provided function, so the edges
+	 * may be created while reading the input.
+	 *
+	 * @param <TNode> node type
+	 * @param <TEdge> edge type
+	 */
+	@FunctionalInterface
+	public interface EdgeSource<TNode extends Node, TEdge extends Edge> {
+
+		/**
+		 * Returns an iterator over all edges of the graph, e.g. <code>stream.iterator()</code>.
+		 *
+		 * @param nodeById returns the node by its id
+		 * @return iterator over edges
+		 */
+		public Iterator<TEdge> edges(IntFunction<TNode> nodeById);
+	}
+
+	private static final class RunReader<TNode extends Node, TEdge extends Edge> {
+
+		private final DataInputStream in;
+
+		private final List<TNode> nodesByNodeId;
+
+		private final GraphIO.EdgeCodec<TNode, TEdge> edgeCodec;
+
+		private int remaining;
+
+		TEdge head;
+
+		RunReader(DataInputStream in, List<TNode> nodesByNodeId, GraphIO.EdgeCodec<TNode, TEdge> edgeCodec)
+				throws IOException {
+			this.in = in;
+			this.nodesByNodeId = nodesByNodeId;
+			this.edgeCodec = edgeCodec;
+			this.remaining = GraphIO.readVarInt(in);
+		}
+
+		boolean advance() throws IOException {
+			if (remaining == 0) {
+				head = null;
+				return false;
+			}
+			remaining--;
+			int from = GraphIO.readVarInt(in);
+			int to = (int) (from + GraphIO.readSignedVarLong(in));
+			int lengthCm = (int) GraphIO.readSignedVarLong(in);
+			head = edgeCodec.read(nodesByNodeId.get(from), nodesByNodeId.get(to), lengthCm, in);
+			return true;
+		}
+	}
+}
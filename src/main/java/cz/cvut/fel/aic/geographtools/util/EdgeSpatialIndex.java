@@ -0,0 +1,649 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import cz.cvut.fel.aic.geographtools.Graph;
+import java.util.Arrays;
+
+/**
+ * Spatial index of the edges of a {@link Graph} answering nearest edge queries, e.g. for snapping GPS pings to the
+ * road network. Each edge is indexed as a polyline of segments in projected coordinates, a straight segment between
+ * its end nodes unless an {@link EdgeGeometry} provides its shape. The segments are stored in an R-tree bulk loaded
+ * by the Sort-Tile-Recursive algorithm: the entries of each level are sorted into vertical slices by the x and
+ * within the slices by the y coordinate of their centers and packed into nodes of {@link #NODE_CAPACITY} entries.
+ * <p>
+ * Queries traverse the tree best first by the distance to the node bounding boxes. The query state is kept per
+ * thread and the matches are written to a reusable {@link Result}, so steady state queries do not allocate. A query
+ * whose search queue outgrows 4096 entries leaves a fresh queue to the thread,
+ * so the memory of one large query is not kept. The index is immutable and can be queried from multiple threads.
+ * <p>
+ * Coordinates are projected, x is the longitude and y the latitude, in the units of
+ * {@link cz.cvut.fel.aic.geographtools.GPSLocation#getLongitudeProjected()}. Both directions of a two way road are
+ * separate edges with identical geometry, so they are returned as two matches at the same distance.
+ */
+public final class EdgeSpatialIndex {
+
+	/**
+	 * Maximal number of entries of an R-tree node.
+	 */
+	public static final int NODE_CAPACITY = 16;
+
+	/**
+	 * Provides geometries of edges that are not straight.
+	 */
+	@FunctionalInterface
+	public interface EdgeGeometry {
+
+		/**
+		 * Returns the shape of the edge as interleaved projected longitude and latitude pairs, including both end
+		 * nodes, in the fixed point format of {@link Graph#getNodeLongitudeProjected1E2(int)}.
+		 *
+		 * @param edgeId id of the edge
+		 * @return interleaved coordinates or <code>null</code> for a straight edge
+		 */
+		int[] getGeometryProjected1E2(int edgeId);
+	}
+
+	private static final ThreadLocal<SearchQueue> QUERY_STATE = ThreadLocal.withInitial(SearchQueue::new);
+
+	private final int numberOfSegments;
+
+	/**
+	 * Edge of each segment, in the R-tree leaf order.
+	 */
+	private final int[] segmentEdges;
+
+	/**
+	 * Start and end point of each segment, 4 values per segment.
+	 */
+	private final double[] segmentCoordinates;
+
+	/**
+	 * Length of the edge geometry before the start of the segment.
+	 */
+	private final double[] segmentOffsets;
+
+	private final double[] edgeGeometryLengths;
+
+	private final int[] edgeLengthsCm;
+
+	/**
+	 * Bounding boxes of the R-tree nodes by level, level 0 being the parents of the segments. Four values
+	 * (min x, min y, max x, max y) per node.
+	 */
+	private final double[][] levelBoxes;
+
+	/**
+	 * First and last (exclusive) child of each R-tree node in the level below, two values per node.
+	 */
+	private final int[][] levelChildren;
+
+	private EdgeSpatialIndex(int numberOfSegments, int[] segmentEdges, double[] segmentCoordinates,
+							 double[] segmentOffsets, double[] edgeGeometryLengths, int[] edgeLengthsCm,
+							 double[][] levelBoxes, int[][] levelChildren) {
+		this.numberOfSegments = numberOfSegments;
+		this.segmentEdges = segmentEdges;
+		this.segmentCoordinates = segmentCoordinates;
+		this.segmentOffsets = segmentOffsets;
+		this.edgeGeometryLengths = edgeGeometryLengths;
+		this.edgeLengthsCm = edgeLengthsCm;
+		this.levelBoxes = levelBoxes;
+		this.levelChildren = levelChildren;
+	}
+
+	/**
+	 * Indexes the edges of the graph as straight segments between their end nodes.
+	 *
+	 * @param graph graph
+	 * @return index of the graph edges
+	 */
+	public static EdgeSpatialIndex build(Graph<?, ?> graph) {
+		return build(graph, edgeId -> null);
+	}
+
+	/**
+	 * Indexes the edges of the graph with their geometries.
+	 *
+	 * @param graph graph
+	 * @param geometry geometries of the edges
+	 * @return index of the graph edges
+	 */
+	public static EdgeSpatialIndex build(Graph<?, ?> graph, EdgeGeometry geometry) {
+		int numberOfEdges = graph.numberOfEdges();
+		int[][] geometries = new int[numberOfEdges][];
+		int numberOfSegments = 0;
+		for (int edgeId = 0; edgeId < numberOfEdges; edgeId++) {
+			int[] points = geometry.getGeometryProjected1E2(edgeId);
+			if (points == null) {
+				int from = graph.edgeSource(edgeId);
+				int to = graph.edgeTarget(edgeId);
+				points = new int[]{graph.getNodeLongitudeProjected1E2(from), graph.getNodeLatitudeProjected1E2(from),
+					graph.getNodeLongitudeProjected1E2(to), graph.getNodeLatitudeProjected1E2(to)};
+			} else if (points.length < 4 || points.length % 2 != 0) {
+				throw new IllegalArgumentException("Geometry of edge " + edgeId + " has to contain at least two "
+						+ "points as coordinate pairs, got " + points.length + " values");
+			}
+			geometries[edgeId] = points;
+			numberOfSegments += points.length / 2 - 1;
+		}
+
+		int[] edges = new int[numberOfSegments];
+		double[] coordinates = new double[4 * numberOfSegments];
+		double[] offsets = new double[numberOfSegments];
+		double[] edgeGeometryLengths = new double[numberOfEdges];
+		int[] edgeLengthsCm = new int[numberOfEdges];
+		int segment = 0;
+		for (int edgeId = 0; edgeId < numberOfEdges; edgeId++) {
+			int[] points = geometries[edgeId];
+			double length = 0;
+			for (int i = 2; i < points.length; i += 2) {
+				double x1 = points[i - 2] / 1E2;
+				double y1 = points[i - 1] / 1E2;
+				double x2 = points[i] / 1E2;
+				double y2 = points[i + 1] / 1E2;
+				edges[segment] = edgeId;
+				coordinates[4 * segment] = x1;
+				coordinates[4 * segment + 1] = y1;
+				coordinates[4 * segment + 2] = x2;
+				coordinates[4 * segment + 3] = y2;
+				offsets[segment] = length;
+				length += Math.hypot(x2 - x1, y2 - y1);
+				segment++;
+			}
+			edgeGeometryLengths[edgeId] = length;
+			edgeLengthsCm[edgeId] = graph.edgeLengthCm(edgeId);
+		}
+
+		// leaves: sort the segments and reorder their arrays
+		double[] boxes = new double[4 * numberOfSegments];
+		for (int i = 0; i < numberOfSegments; i++) {
+			boxes[4 * i] = Math.min(coordinates[4 * i], coordinates[4 * i + 2]);
+			boxes[4 * i + 1] = Math.min(coordinates[4 * i + 1], coordinates[4 * i + 3]);
+			boxes[4 * i + 2] = Math.max(coordinates[4 * i], coordinates[4 * i + 2]);
+			boxes[4 * i + 3] = Math.max(coordinates[4 * i + 1], coordinates[4 * i + 3]);
+		}
+		int[] order = sortTileRecursive(boxes, numberOfSegments);
+		int[] sortedEdges = new int[numberOfSegments];
+		double[] sortedCoordinates = new double[4 * numberOfSegments];
+		double[] sortedOffsets = new double[numberOfSegments];
+		double[] sortedBoxes = new double[4 * numberOfSegments];
+		for (int i = 0; i < numberOfSegments; i++) {
+			int from = order[i];
+			sortedEdges[i] = edges[from];
+			sortedOffsets[i] = offsets[from];
+			System.arraycopy(coordinates, 4 * from, sortedCoordinates, 4 * i, 4);
+			System.arraycopy(boxes, 4 * from, sortedBoxes, 4 * i, 4);
+		}
+
+		// inner levels: group consecutive runs of the level below, then sort the groups for the next level
+		int levels = 0;
+		double[][] levelBoxes = new double[32][];
+		int[][] levelChildren = new int[32][];
+		double[] childBoxes = sortedBoxes;
+		int count = numberOfSegments;
+		while (count > 0 && (levels == 0 || count > 1)) {
+			int groups = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+			double[] groupBoxes = new double[4 * groups];
+			int[] groupChildren = new int[2 * groups];
+			for (int group = 0; group < groups; group++) {
+				int first = group * NODE_CAPACITY;
+				int last = Math.min(first + NODE_CAPACITY, count);
+				groupChildren[2 * group] = first;
+				groupChildren[2 * group + 1] = last;
+				double minX = Double.POSITIVE_INFINITY;
+				double minY = Double.POSITIVE_INFINITY;
+				double maxX = Double.NEGATIVE_INFINITY;
+				double maxY = Double.NEGATIVE_INFINITY;
+				for (int child = first; child < last; child++) {
+					minX = Math.min(minX, childBoxes[4 * child]);
+					minY = Math.min(minY, childBoxes[4 * child + 1]);
+					maxX = Math.max(maxX, childBoxes[4 * child + 2]);
+					maxY = Math.max(maxY, childBoxes[4 * child + 3]);
+				}
+				groupBoxes[4 * group] = minX;
+				groupBoxes[4 * group + 1] = minY;
+				groupBoxes[4 * group + 2] = maxX;
+				groupBoxes[4 * group + 3] = maxY;
+			}
+			if (groups > 1) {
+				int[] groupOrder = sortTileRecursive(groupBoxes, groups);
+				double[] orderedBoxes = new double[4 * groups];
+				int[] orderedChildren = new int[2 * groups];
+				for (int i = 0; i < groups; i++) {
+					System.arraycopy(groupBoxes, 4 * groupOrder[i], orderedBoxes, 4 * i, 4);
+					System.arraycopy(groupChildren, 2 * groupOrder[i], orderedChildren, 2 * i, 2);
+				}
+				groupBoxes = orderedBoxes;
+				groupChildren = orderedChildren;
+			}
+			levelBoxes[levels] = groupBoxes;
+			levelChildren[levels] = groupChildren;
+			levels++;
+			childBoxes = groupBoxes;
+			count = groups;
+		}
+
+		double[][] boxesByLevel = new double[levels][];
+		int[][] childrenByLevel = new int[levels][];
+		System.arraycopy(levelBoxes, 0, boxesByLevel, 0, levels);
+		System.arraycopy(levelChildren, 0, childrenByLevel, 0, levels);
+		return new EdgeSpatialIndex(numberOfSegments, sortedEdges, sortedCoordinates, sortedOffsets,
+				edgeGeometryLengths, edgeLengthsCm, boxesByLevel, childrenByLevel);
+	}
+
+	/**
+	 * Returns the order of the boxes in which each consecutive run of {@link #NODE_CAPACITY} boxes forms a tile.
+	 */
+	private static int[] sortTileRecursive(double[] boxes, int count) {
+		int[] order = new int[count];
+		double[] centerX = new double[count];
+		double[] centerY = new double[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+			centerX[i] = boxes[4 * i] + boxes[4 * i + 2];
+			centerY[i] = boxes[4 * i + 1] + boxes[4 * i + 3];
+		}
+		int nodes = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+		int sliceSize = (int) Math.ceil(Math.sqrt(nodes)) * NODE_CAPACITY;
+		sort(order, 0, count - 1, centerX);
+		for (int slice = 0; slice < count; slice += sliceSize) {
+			sort(order, slice, Math.min(slice + sliceSize, count) - 1, centerY);
+		}
+		return order;
+	}
+
+	/**
+	 * Sorts the indices in the inclusive range by their keys, quicksort with a three way partition.
+	 */
+	private static void sort(int[] indices, int lo, int hi, double[] keys) {
+		while (hi > lo) {
+			if (hi - lo < 16) {
+				for (int i = lo + 1; i <= hi; i++) {
+					int index = indices[i];
+					int j = i - 1;
+					while (j >= lo && keys[indices[j]] > keys[index]) {
+						indices[j + 1] = indices[j];
+						j--;
+					}
+					indices[j + 1] = index;
+				}
+				return;
+			}
+			double pivot = keys[indices[(lo + hi) >>> 1]];
+			int less = lo;
+			int greater = hi;
+			int i = lo;
+			while (i <= greater) {
+				double key = keys[indices[i]];
+				if (key < pivot) {
+					swap(indices, less++, i++);
+				} else if (key > pivot) {
+					swap(indices, i, greater--);
+				} else {
+					i++;
+				}
+			}
+			// recurse into the smaller part to bound the stack depth
+			if (less - lo < hi - greater) {
+				sort(indices, lo, less - 1, keys);
+				lo = greater + 1;
+			} else {
+				sort(indices, greater + 1, hi, keys);
+				hi = less - 1;
+			}
+		}
+	}
+
+	private static void swap(int[] array, int i, int j) {
+		int value = array[i];
+		array[i] = array[j];
+		array[j] = value;
+	}
+
+	public int numberOfSegments() {
+		return numberOfSegments;
+	}
+
+	/**
+	 * Finds the edge nearest to the point.
+	 *
+	 * @param longitudeProjected projected longitude (x) of the point
+	 * @param latitudeProjected projected latitude (y) of the point
+	 * @param result holder receiving the match
+	 * @return <code>true</code> if an edge was found, i.e. the graph has edges
+	 */
+	public boolean nearest(double longitudeProjected, double latitudeProjected, Result result) {
+		return nearest(longitudeProjected, latitudeProjected, 1, Double.POSITIVE_INFINITY, result) > 0;
+	}
+
+	/**
+	 * Finds up to <code>k</code> distinct edges nearest to the point in ascending order of distance.
+	 *
+	 * @param longitudeProjected projected longitude (x) of the point
+	 * @param latitudeProjected projected latitude (y) of the point
+	 * @param k maximal number of edges
+	 * @param result holder receiving the matches, with capacity at least <code>k</code>
+	 * @return number of edges found
+	 */
+	public int nearest(double longitudeProjected, double latitudeProjected, int k, Result result) {
+		return nearest(longitudeProjected, latitudeProjected, k, Double.POSITIVE_INFINITY, result);
+	}
+
+	/**
+	 * Finds up to <code>k</code> distinct edges nearest to the point not farther than the maximal distance, in
+	 * ascending order of distance.
+	 *
+	 * @param longitudeProjected projected longitude (x) of the point
+	 * @param latitudeProjected projected latitude (y) of the point
+	 * @param k maximal number of edges
+	 * @param maxDistance maximal distance of the edges in projected units
+	 * @param result holder receiving the matches, with capacity at least <code>k</code>
+	 * @return number of edges found
+	 */
+	public int nearest(double longitudeProjected, double latitudeProjected, int k, double maxDistance,
+					   Result result) {
+		if (k < 0 || k > result.capacity()) {
+			throw new IllegalArgumentException("Number of edges (" + k + ") cannot be negative or greater than the "
+					+ "result capacity (" + result.capacity() + ")");
+		}
+		result.size = 0;
+		if (k == 0 || levelBoxes.length == 0) {
+			return 0;
+		}
+		SearchQueue queue = QUERY_STATE.get();
+		queue.clear();
+		try {
+			search(longitudeProjected, latitudeProjected, k, maxDistance * maxDistance, queue, result);
+		} finally {
+			if (queue.capacity() > SearchQueue.MAX_RETAINED_CAPACITY) {
+				QUERY_STATE.remove();
+			}
+		}
+		return result.size;
+	}
+
+	/**
+	 * Pops the nearest entries of the queue, expanding the tree nodes, until <code>k</code> edges are found.
+	 */
+	private void search(double x, double y, int k, double maxDistanceSquared, SearchQueue queue, Result result) {
+		int root = levelBoxes.length - 1;
+		queue.push(boxDistance(levelBoxes[root], 0, x, y), root, 0);
+		while (queue.size > 0 && result.size < k) {
+			double distance = queue.peekDistance();
+			if (distance > maxDistanceSquared) {
+				break;
+			}
+			int level = queue.peekLevel();
+			int entry = queue.peekEntry();
+			queue.pop();
+			if (level < 0) {
+				addMatch(entry, x, y, distance, result);
+				continue;
+			}
+			int[] children = levelChildren[level];
+			int first = children[2 * entry];
+			int last = children[2 * entry + 1];
+			if (level == 0) {
+				for (int segment = first; segment < last; segment++) {
+					double segmentDistance = segmentDistance(segment, x, y);
+					if (segmentDistance <= maxDistanceSquared) {
+						queue.push(segmentDistance, -1, segment);
+					}
+				}
+			} else {
+				double[] boxes = levelBoxes[level - 1];
+				for (int child = first; child < last; child++) {
+					double childDistance = boxDistance(boxes, child, x, y);
+					if (childDistance <= maxDistanceSquared) {
+						queue.push(childDistance, level - 1, child);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the edge of the segment to the result unless it was already matched by a nearer segment.
+	 */
+	private void addMatch(int segment, double x, double y, double distanceSquared, Result result) {
+		int edgeId = segmentEdges[segment];
+		for (int i = 0; i < result.size; i++) {
+			if (result.edgeIds[i] == edgeId) {
+				return;
+			}
+		}
+		int offset = 4 * segment;
+		double x1 = segmentCoordinates[offset];
+		double y1 = segmentCoordinates[offset + 1];
+		double dx = segmentCoordinates[offset + 2] - x1;
+		double dy = segmentCoordinates[offset + 3] - y1;
+		double t = projection(x1, y1, dx, dy, x, y);
+		double geometryLength = edgeGeometryLengths[edgeId];
+		double along = segmentOffsets[segment] + t * Math.hypot(dx, dy);
+
+		int i = result.size++;
+		result.edgeIds[i] = edgeId;
+		result.distances[i] = Math.sqrt(distanceSquared);
+		result.footLongitudes[i] = x1 + t * dx;
+		result.footLatitudes[i] = y1 + t * dy;
+		result.offsetsCm[i] = geometryLength == 0 ? 0 : (int) Math.round(along / geometryLength
+				* edgeLengthsCm[edgeId]);
+	}
+
+	private double segmentDistance(int segment, double x, double y) {
+		int offset = 4 * segment;
+		double x1 = segmentCoordinates[offset];
+		double y1 = segmentCoordinates[offset + 1];
+		double dx = segmentCoordinates[offset + 2] - x1;
+		double dy = segmentCoordinates[offset + 3] - y1;
+		double t = projection(x1, y1, dx, dy, x, y);
+		double distanceX = x1 + t * dx - x;
+		double distanceY = y1 + t * dy - y;
+		return distanceX * distanceX + distanceY * distanceY;
+	}
+
+	/**
+	 * Returns the position of the point projected on the segment clamped to [0, 1].
+	 */
+	private static double projection(double x1, double y1, double dx, double dy, double x, double y) {
+		double lengthSquared = dx * dx + dy * dy;
+		if (lengthSquared == 0) {
+			return 0;
+		}
+		double t = ((x - x1) * dx + (y - y1) * dy) / lengthSquared;
+		return t < 0 ? 0 : (t > 1 ? 1 : t);
+	}
+
+	private static double boxDistance(double[] boxes, int box, double x, double y) {
+		int offset = 4 * box;
+		double dx = Math.max(Math.max(boxes[offset] - x, x - boxes[offset + 2]), 0);
+		double dy = Math.max(Math.max(boxes[offset + 1] - y, y - boxes[offset + 3]), 0);
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Reusable holder of nearest edge matches. A match consists of the edge id, the distance of the query point to
+	 * the edge, the foot point of the perpendicular on the edge (or the nearest end point) and the offset of the
+	 * foot point from the edge source along the edge. The offset is the position along the edge geometry scaled to
+	 * the edge length, so it lies between 0 and {@link Graph#edgeLengthCm(int)}.
+	 */
+	public static final class Result {
+
+		private final int[] edgeIds;
+
+		private final double[] distances;
+
+		private final double[] footLongitudes;
+
+		private final double[] footLatitudes;
+
+		private final int[] offsetsCm;
+
+		private int size;
+
+		/**
+		 * Creates the holder for up to the given number of matches.
+		 *
+		 * @param capacity maximal number of matches
+		 */
+		public Result(int capacity) {
+			edgeIds = new int[capacity];
+			distances = new double[capacity];
+			footLongitudes = new double[capacity];
+			footLatitudes = new double[capacity];
+			offsetsCm = new int[capacity];
+		}
+
+		public int capacity() {
+			return edgeIds.length;
+		}
+
+		/**
+		 * @return number of matches of the last query
+		 */
+		public int size() {
+			return size;
+		}
+
+		public int getEdgeId(int i) {
+			checkIndex(i);
+			return edgeIds[i];
+		}
+
+		/**
+		 * @param i index of the match
+		 * @return distance of the query point to the edge in projected units
+		 */
+		public double getDistance(int i) {
+			checkIndex(i);
+			return distances[i];
+		}
+
+		public double getFootLongitudeProjected(int i) {
+			checkIndex(i);
+			return footLongitudes[i];
+		}
+
+		public double getFootLatitudeProjected(int i) {
+			checkIndex(i);
+			return footLatitudes[i];
+		}
+
+		/**
+		 * @param i index of the match
+		 * @return offset of the foot point from the edge source in cm
+		 */
+		public int getOffsetCm(int i) {
+			checkIndex(i);
+			return offsetsCm[i];
+		}
+
+		private void checkIndex(int i) {
+			if (i < 0 || i >= size) {
+				throw new IndexOutOfBoundsException("Match " + i + " of " + size);
+			}
+		}
+	}
+
+	/**
+	 * Binary min-heap of R-tree nodes and segments ordered by their squared distance, segments have level -1.
+	 */
+	private static final class SearchQueue {
+
+		/**
+		 * Largest number of entries the queue of a thread keeps between queries.
+		 */
+		static final int MAX_RETAINED_CAPACITY = 1 << 12;
+
+		private double[] distances = new double[64];
+
+		private int[] levels = new int[64];
+
+		private int[] entries = new int[64];
+
+		private int size;
+
+		void clear() {
+			size = 0;
+		}
+
+		int capacity() {
+			return distances.length;
+		}
+
+		double peekDistance() {
+			return distances[0];
+		}
+
+		int peekLevel() {
+			return levels[0];
+		}
+
+		int peekEntry() {
+			return entries[0];
+		}
+
+		void push(double distance, int level, int entry) {
+			if (size == distances.length) {
+				distances = Arrays.copyOf(distances, 2 * size);
+				levels = Arrays.copyOf(levels, 2 * size);
+				entries = Arrays.copyOf(entries, 2 * size);
+			}
+			int i = size++;
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (distances[parent] <= distance) {
+					break;
+				}
+				set(i, distances[parent], levels[parent], entries[parent]);
+				i = parent;
+			}
+			set(i, distance, level, entry);
+		}
+
+		void pop() {
+			size--;
+			double distance = distances[size];
+			int level = levels[size];
+			int entry = entries[size];
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= size) {
+					break;
+				}
+				if (child + 1 < size && distances[child + 1] < distances[child]) {
+					child++;
+				}
+				if (distances[child] >= distance) {
+					break;
+				}
+				set(i, distances[child], levels[child], entries[child]);
+				i = child;
+			}
+			set(i, distance, level, entry);
+		}
+
+		private void set(int i, double distance, int level, int entry) {
+			distances[i] = distance;
+			levels[i] = level;
+			entries[i] = entry;
+		}
+	}
+}
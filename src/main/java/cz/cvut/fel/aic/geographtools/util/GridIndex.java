@@ -0,0 +1,460 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import cz.cvut.fel.aic.geographtools.Graph;
+import cz.cvut.fel.aic.geographtools.Node;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable uniform grid of buckets over points in the plane. The points are sorted by their cell and stored in flat
+ * arrays, the cells index them in CSR style: the points of cell <code>c</code> occupy positions
+ * <code>cellStarts[c]</code> to <code>cellStarts[c + 1]</code>. By default the cell size is chosen from the density
+ * of the points to give about {@link #DEFAULT_POINTS_PER_CELL} points per cell.
+ * <p>
+ * Nearest neighbour queries scan rings of cells around the cell of the query until the nearest boundary of the
+ * scanned block is farther than the <code>k</code>-th best candidate, radius and box queries scan the overlapped
+ * cells. For points of a fairly uniform density, such as the nodes of a city, a query touches a few cells only and
+ * is faster than a tree search. For very uneven densities prefer {@link StaticKDTree}.
+ * <p>
+ * Like {@link StaticKDTree}, all points with identical keys are kept and distance ties are resolved in favour of the
+ * point added first. The index can be queried from multiple threads.
+ *
+ * @param <V> type of the stored values
+ */
+public final class GridIndex<V> implements PointIndex<V> {
+
+	/**
+	 * Average number of points per cell targeted by the default cell size.
+	 */
+	public static final double DEFAULT_POINTS_PER_CELL = 2;
+
+	private final int size;
+
+	private final double minX;
+
+	private final double minY;
+
+	private final double cellSize;
+
+	private final int columns;
+
+	private final int rows;
+
+	/**
+	 * First position of each cell in the point arrays, one more entry marks the end of the last cell.
+	 */
+	private final int[] cellStarts;
+
+	private final double[] xs;
+
+	private final double[] ys;
+
+	/**
+	 * Index of the point in the input for each position.
+	 */
+	private final int[] inputIndices;
+
+	private final int[] positionsByInputIndex;
+
+	private final Object[] values;
+
+	private final IntFunction<V[]> arrayConstructor;
+
+	/**
+	 * Builds the grid with the default cell size.
+	 *
+	 * @param keys two dimensional keys of the points
+	 * @param values values of the points
+	 * @param arrayConstructor constructor of arrays returned by the queries
+	 */
+	public GridIndex(List<double[]> keys, List<? extends V> values, IntFunction<V[]> arrayConstructor) {
+		this(keys, values, arrayConstructor, Double.NaN);
+	}
+
+	/**
+	 * Builds the grid with the given cell size.
+	 *
+	 * @param keys two dimensional keys of the points
+	 * @param values values of the points
+	 * @param arrayConstructor constructor of arrays returned by the queries
+	 * @param cellSize side of the square cells, doubled while the grid would have more than about four cells per
+	 * point
+	 */
+	public GridIndex(List<double[]> keys, List<? extends V> values, IntFunction<V[]> arrayConstructor,
+					 double cellSize) {
+		this(coordinates(keys, 0), coordinates(keys, 1), toArray(keys, values), arrayConstructor, cellSize);
+	}
+
+	private GridIndex(double[] inputXs, double[] inputYs, Object[] inputValues, IntFunction<V[]> arrayConstructor,
+					  double cellSize) {
+		if (!Double.isNaN(cellSize) && !(cellSize > 0)) {
+			throw new IllegalArgumentException("Cell size has to be positive: " + cellSize);
+		}
+		this.size = inputXs.length;
+		this.arrayConstructor = arrayConstructor;
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < size; i++) {
+			minX = Math.min(minX, inputXs[i]);
+			minY = Math.min(minY, inputYs[i]);
+			maxX = Math.max(maxX, inputXs[i]);
+			maxY = Math.max(maxY, inputYs[i]);
+		}
+		if (size == 0) {
+			minX = minY = maxX = maxY = 0;
+		}
+		double width = maxX - minX;
+		double height = maxY - minY;
+		if (Double.isNaN(cellSize)) {
+			double area = width * height;
+			cellSize = area > 0 ? Math.sqrt(area * DEFAULT_POINTS_PER_CELL / size)
+					: Math.max(width, height) * DEFAULT_POINTS_PER_CELL / Math.max(size, 1);
+			if (!(cellSize > 0)) {
+				cellSize = 1;
+			}
+		}
+		// at most a few empty cells per point
+		while ((width / cellSize + 1) * (height / cellSize + 1) > 4.0 * size + 16) {
+			cellSize *= 2;
+		}
+		this.minX = minX;
+		this.minY = minY;
+		this.cellSize = cellSize;
+		this.columns = (int) (width / cellSize) + 1;
+		this.rows = (int) (height / cellSize) + 1;
+
+		// counting sort of the points by cell
+		int[] cells = new int[size];
+		cellStarts = new int[columns * rows + 1];
+		for (int i = 0; i < size; i++) {
+			cells[i] = row(inputYs[i]) * columns + column(inputXs[i]);
+			cellStarts[cells[i] + 1]++;
+		}
+		for (int cell = 0; cell < columns * rows; cell++) {
+			cellStarts[cell + 1] += cellStarts[cell];
+		}
+		int[] next = new int[columns * rows];
+		System.arraycopy(cellStarts, 0, next, 0, next.length);
+		xs = new double[size];
+		ys = new double[size];
+		inputIndices = new int[size];
+		positionsByInputIndex = new int[size];
+		values = new Object[size];
+		for (int i = 0; i < size; i++) {
+			int position = next[cells[i]]++;
+			xs[position] = inputXs[i];
+			ys[position] = inputYs[i];
+			inputIndices[position] = i;
+			positionsByInputIndex[i] = position;
+			values[position] = inputValues[i];
+		}
+	}
+
+	/**
+	 * Builds the grid with the default cell size from the elements located by the resolver.
+	 *
+	 * @param elements elements, their input indices are given by the iteration order
+	 * @param resolver provider of the two dimensional coordinates of the elements
+	 * @param arrayConstructor constructor of arrays returned by the queries
+	 * @param <V> type of the elements
+	 * @return the grid
+	 */
+	public static <V> GridIndex<V> of(Collection<? extends V> elements, KDTreeResolver<? super V> resolver,
+									  IntFunction<V[]> arrayConstructor) {
+		List<double[]> keys = new ArrayList<>(elements.size());
+		for (V element : elements) {
+			keys.add(resolver.getCoordinates(element));
+		}
+		return new GridIndex<>(keys, new ArrayList<>(elements), arrayConstructor);
+	}
+
+	/**
+	 * Builds the grid with the default cell size from the projected coordinates of the graph nodes, the input index
+	 * of a node is its id.
+	 *
+	 * @param graph graph
+	 * @param arrayConstructor constructor of arrays of nodes
+	 * @param <N> type of the nodes
+	 * @return the grid
+	 */
+	public static <N extends Node> GridIndex<N> ofNodes(Graph<N, ?> graph, IntFunction<N[]> arrayConstructor) {
+		int n = graph.numberOfNodes();
+		double[] xs = new double[n];
+		double[] ys = new double[n];
+		Object[] nodes = new Object[n];
+		for (int nodeId = 0; nodeId < n; nodeId++) {
+			xs[nodeId] = graph.getNodeLongitudeProjected1E2(nodeId) / 1E2;
+			ys[nodeId] = graph.getNodeLatitudeProjected1E2(nodeId) / 1E2;
+			nodes[nodeId] = graph.getNode(nodeId);
+		}
+		return new GridIndex<>(xs, ys, nodes, arrayConstructor, Double.NaN);
+	}
+
+	private static double[] coordinates(List<double[]> keys, int dimension) {
+		double[] coordinates = new double[keys.size()];
+		int i = 0;
+		for (double[] key : keys) {
+			if (key.length != 2) {
+				throw new IllegalArgumentException("Key of dimension " + key.length + " in two dimensional grid");
+			}
+			coordinates[i++] = key[dimension];
+		}
+		return coordinates;
+	}
+
+	private static Object[] toArray(List<double[]> keys, List<?> values) {
+		if (keys.size() != values.size()) {
+			throw new IllegalArgumentException("Number of keys (" + keys.size() + ") differs from number of values ("
+					+ values.size() + ")");
+		}
+		return values.toArray();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V nearest(double x, double y) {
+		return (V) values[startQuery(x, y, 1).removeFarthest()];
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V[] nearest(double x, double y, int k) {
+		NeighbourHeap neighbours = startQuery(x, y, k);
+		V[] result = arrayConstructor.apply(k);
+		for (int i = k - 1; i >= 0; i--) {
+			result[i] = (V) values[neighbours.removeFarthest()];
+		}
+		return result;
+	}
+
+	@Override
+	public void nearest(double x, double y, int k, int[] outIndices, double[] outDistances) {
+		NeighbourHeap neighbours = startQuery(x, y, k);
+		for (int i = k - 1; i >= 0; i--) {
+			if (outDistances != null) {
+				outDistances[i] = neighbours.farthestDistance();
+			}
+			outIndices[i] = inputIndices[neighbours.removeFarthest()];
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V getValue(int inputIndex) {
+		return (V) values[positionsByInputIndex[inputIndex]];
+	}
+
+	/**
+	 * Passes the input indices of all points within the radius to the consumer, without allocating.
+	 *
+	 * @param x first coordinate of the center
+	 * @param y second coordinate of the center
+	 * @param radius radius, points at exactly this distance are included
+	 * @param consumer consumer of the input indices
+	 * @return number of the points
+	 */
+	public int forEachWithinRadius(double x, double y, double radius, IntConsumer consumer) {
+		double radiusSquared = radius * radius;
+		int count = 0;
+		int lastRow = row(y + radius);
+		int lastColumn = column(x + radius);
+		for (int row = row(y - radius); row <= lastRow; row++) {
+			int rowStart = row * columns;
+			int end = cellStarts[rowStart + lastColumn + 1];
+			for (int position = cellStarts[rowStart + column(x - radius)]; position < end; position++) {
+				double dx = xs[position] - x;
+				double dy = ys[position] - y;
+				if (dx * dx + dy * dy <= radiusSquared) {
+					count++;
+					if (consumer != null) {
+						consumer.accept(inputIndices[position]);
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the values of all points within the radius, in no particular order.
+	 *
+	 * @param x first coordinate of the center
+	 * @param y second coordinate of the center
+	 * @param radius radius, points at exactly this distance are included
+	 * @return values of the points
+	 */
+	public V[] withinRadius(double x, double y, double radius) {
+		V[] result = arrayConstructor.apply(forEachWithinRadius(x, y, radius, null));
+		int[] next = new int[1];
+		forEachWithinRadius(x, y, radius, inputIndex -> result[next[0]++] = getValue(inputIndex));
+		return result;
+	}
+
+	/**
+	 * Passes the input indices of all points in the box, including its border, to the consumer, without allocating.
+	 *
+	 * @param minX minimal first coordinate
+	 * @param minY minimal second coordinate
+	 * @param maxX maximal first coordinate
+	 * @param maxY maximal second coordinate
+	 * @param consumer consumer of the input indices
+	 * @return number of the points
+	 */
+	public int forEachInBox(double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+		if (minX > maxX || minY > maxY) {
+			return 0;
+		}
+		int count = 0;
+		int lastRow = row(maxY);
+		int lastColumn = column(maxX);
+		for (int row = row(minY); row <= lastRow; row++) {
+			int rowStart = row * columns;
+			int end = cellStarts[rowStart + lastColumn + 1];
+			for (int position = cellStarts[rowStart + column(minX)]; position < end; position++) {
+				double x = xs[position];
+				double y = ys[position];
+				if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+					count++;
+					if (consumer != null) {
+						consumer.accept(inputIndices[position]);
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the values of all points in the box, including its border, in no particular order.
+	 *
+	 * @param minX minimal first coordinate
+	 * @param minY minimal second coordinate
+	 * @param maxX maximal first coordinate
+	 * @param maxY maximal second coordinate
+	 * @return values of the points
+	 */
+	public V[] inBox(double minX, double minY, double maxX, double maxY) {
+		V[] result = arrayConstructor.apply(forEachInBox(minX, minY, maxX, maxY, null));
+		int[] next = new int[1];
+		forEachInBox(minX, minY, maxX, maxY, inputIndex -> result[next[0]++] = getValue(inputIndex));
+		return result;
+	}
+
+	/**
+	 * Collects the <code>k</code> nearest points into the neighbour heap of the current thread by scanning rings of
+	 * cells around the cell of the query.
+	 */
+	private NeighbourHeap startQuery(double x, double y, int k) {
+		if (k < 0 || k > size) {
+			throw new IllegalArgumentException("Number of neighbors (" + k + ") cannot be negative or greater than "
+					+ "number of nodes (" + size + ").");
+		}
+		NeighbourHeap neighbours = NeighbourHeap.forQuery(k);
+		if (k == 0) {
+			return neighbours;
+		}
+		int centerColumn = column(x);
+		int centerRow = row(y);
+		for (int ring = 0; ; ring++) {
+			int firstColumn = centerColumn - ring;
+			int lastColumn = centerColumn + ring;
+			int firstRow = centerRow - ring;
+			int lastRow = centerRow + ring;
+			if (firstRow >= 0) {
+				scanRow(firstRow, firstColumn, lastColumn, x, y, neighbours);
+			}
+			if (lastRow < rows && ring > 0) {
+				scanRow(lastRow, firstColumn, lastColumn, x, y, neighbours);
+			}
+			for (int row = Math.max(firstRow + 1, 0); row < Math.min(lastRow, rows); row++) {
+				if (firstColumn >= 0) {
+					scanCell(row * columns + firstColumn, x, y, neighbours);
+				}
+				if (lastColumn < columns) {
+					scanCell(row * columns + lastColumn, x, y, neighbours);
+				}
+			}
+
+			// distance to the nearest side of the scanned block beyond which there are more cells
+			double bound = Double.POSITIVE_INFINITY;
+			if (firstColumn > 0) {
+				bound = Math.min(bound, x - (minX + firstColumn * cellSize));
+			}
+			if (lastColumn < columns - 1) {
+				bound = Math.min(bound, minX + (lastColumn + 1) * cellSize - x);
+			}
+			if (firstRow > 0) {
+				bound = Math.min(bound, y - (minY + firstRow * cellSize));
+			}
+			if (lastRow < rows - 1) {
+				bound = Math.min(bound, minY + (lastRow + 1) * cellSize - y);
+			}
+			if (bound == Double.POSITIVE_INFINITY || (bound > 0 && bound * bound > neighbours.bound())) {
+				return neighbours;
+			}
+		}
+	}
+
+	private void scanRow(int row, int firstColumn, int lastColumn, double x, double y, NeighbourHeap neighbours) {
+		int rowStart = row * columns;
+		int end = cellStarts[rowStart + Math.min(lastColumn, columns - 1) + 1];
+		for (int position = cellStarts[rowStart + Math.max(firstColumn, 0)]; position < end; position++) {
+			offer(position, x, y, neighbours);
+		}
+	}
+
+	private void scanCell(int cell, double x, double y, NeighbourHeap neighbours) {
+		int end = cellStarts[cell + 1];
+		for (int position = cellStarts[cell]; position < end; position++) {
+			offer(position, x, y, neighbours);
+		}
+	}
+
+	private void offer(int position, double x, double y, NeighbourHeap neighbours) {
+		double dx = xs[position] - x;
+		double dy = ys[position] - y;
+		neighbours.offer(dx * dx + dy * dy, inputIndices[position], position);
+	}
+
+	private int column(double x) {
+		int column = (int) ((x - minX) / cellSize);
+		return column < 0 ? 0 : (column >= columns ? columns - 1 : column);
+	}
+
+	private int row(double y) {
+		int row = (int) ((y - minY) / cellSize);
+		return row < 0 ? 0 : (row >= rows ? rows - 1 : row);
+	}
+}
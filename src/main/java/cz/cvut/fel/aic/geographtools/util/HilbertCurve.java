@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+/**
+ * Hilbert space filling curve, points close on the curve are close in the plane. Used to order nodes or queries so
+ * that the consecutive ones are spatially close.
+ */
+public final class HilbertCurve {
+
+	/**
+	 * Maximal supported order, the curve index of this order fits in a non-negative <code>long</code>.
+	 */
+	public static final int MAX_ORDER = 31;
+
+	private HilbertCurve() {
+	}
+
+	/**
+	 * Returns the position of the point on the Hilbert curve filling the square of side 2^order.
+	 *
+	 * @param order order of the curve, [1..MAX_ORDER]
+	 * @param x x coordinate, [0..(2^order - 1)]
+	 * @param y y coordinate, [0..(2^order - 1)]
+	 * @return index of the point on the curve, [0..(4^order - 1)]
+	 */
+	public static long index(int order, int x, int y) {
+		assert order >= 1 && order <= MAX_ORDER : "Order out of range";
+		int last = (1 << order) - 1;
+		long index = 0;
+		for (int s = 1 << (order - 1); s > 0; s >>>= 1) {
+			int rx = (x & s) != 0 ? 1 : 0;
+			int ry = (y & s) != 0 ? 1 : 0;
+			index += (long) s * s * ((3 * rx) ^ ry);
+
+			// rotate the quadrant
+			if (ry == 0) {
+				if (rx == 1) {
+					x = last - x;
+					y = last - y;
+				}
+				int t = x;
+				x = y;
+				y = t;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Scales the value from [min..max] to the coordinate range [0..(2^order - 1)] of the curve.
+	 *
+	 * @param order order of the curve, [1..MAX_ORDER]
+	 * @param value scaled value
+	 * @param min minimal value
+	 * @param max maximal value
+	 * @return coordinate on the curve
+	 */
+	public static int scale(int order, double value, double min, double max) {
+		if (max <= min) {
+			return 0;
+		}
+		long last = (1L << order) - 1;
+		long scaled = (long) ((value - min) / (max - min) * last);
+		return (int) Math.max(0, Math.min(last, scaled));
+	}
+}
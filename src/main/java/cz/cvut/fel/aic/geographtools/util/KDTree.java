@@ -2,12 +2,16 @@
 package cz.cvut.fel.aic.geographtools.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.function.IntFunction;
 
 /**
  * Wrapper class, which allows to use <code>net.sf.javaml.core.kdtree</code> with any object.
+ * <p>
+ * The tree is not thread safe. Queries do not modify it and may run concurrently, but no query may run while an
+ * object is inserted or deleted. Trees shared by threads that update them should use {@link SnapshotKDTree}.
  */
 public class KDTree<V> {
 
@@ -57,37 +61,19 @@ public class KDTree<V> {
 	}
 
 	/**
-	 * Returns all objects in the tree that are closer then specified distance from the specified coordinates
+	 * Returns all objects in the tree that are closer then specified distance from the specified coordinates, in
+	 * ascending order of distance. The distance of the resolver has to be the Euclidean distance of the coordinates.
 	 */
 	public ArrayList<V> getNearestNodesCloserThan(double[] coordinates, double desiredDistance) {
+		return new ArrayList<>(Arrays.asList(kdTree.ball(coordinates, desiredDistance, true)));
+	}
 
-		int numOfNeighbors = Math.min(10, size());
-		V[] nearestNodes = kdTree.nearest(coordinates, numOfNeighbors);
-
-		while (numOfNeighbors < size() &&
-			   treeResolver.computeDistance(nearestNodes[nearestNodes.length - 1], coordinates) < desiredDistance) {
-			//while the most distant element is still too close, or i got all the neighbors
-			//increasing the number of neighbors, to reach desired distance (the coeficient can be estimated better
-			// using distance of the furthest and the amount of ndoes
-			numOfNeighbors = Math.min(numOfNeighbors * 4, size());
-			nearestNodes = kdTree.nearest(coordinates, Math.min(numOfNeighbors, size()));
-		}
-
-		int upperBoundForNodes = nearestNodes.length;
-
-		//larger because the roadNodes really close to each other, and we want to merge them, so we add at least
-		// NUM_OF_POINTS_IN_CLUSTER to cluster, but we also add the ones realy close
-		while (upperBoundForNodes > 0 &&
-			   treeResolver.computeDistance(nearestNodes[upperBoundForNodes - 1], coordinates) > desiredDistance)
-			upperBoundForNodes--;
-
-		ArrayList<V> prunnedConvertedList = new ArrayList<>();
-		for (int i = 0; i < upperBoundForNodes; i++) {
-			prunnedConvertedList.add((V) nearestNodes[i]);
-		}
-
-		return prunnedConvertedList;
-
+	/**
+	 * Returns the number of objects in the tree that are closer then specified distance from the specified
+	 * coordinates, without collecting them.
+	 */
+	public int countNodesCloserThan(double[] coordinates, double desiredDistance) {
+		return kdTree.countBall(coordinates, desiredDistance);
 	}
 
 	/**
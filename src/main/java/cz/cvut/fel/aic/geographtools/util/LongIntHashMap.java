@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from <code>long</code> to <code>int</code> with linear probing. Keys and values are stored
+ * in two primitive arrays, so there is no boxing and no per-entry object.
+ */
+public class LongIntHashMap implements Serializable {
+
+	private static final long serialVersionUID = 6251733081925493613L;
+
+	private static final float LOAD_FACTOR = 0.5f;
+
+	/**
+	 * Largest number of slots of the table, it holds at most half as many entries.
+	 */
+	static final int MAX_CAPACITY = 1 << 30;
+
+	/**
+	 * Key marking an empty slot, the entry with this key is stored separately.
+	 */
+	private static final long FREE_KEY = 0;
+
+	private long[] keys;
+
+	private int[] values;
+
+	private int mask;
+
+	private int size;
+
+	private boolean hasFreeKey;
+
+	private int freeKeyValue;
+
+	/**
+	 * Creates the map with capacity for the given number of entries without rehashing.
+	 *
+	 * @param expectedSize expected number of entries
+	 */
+	public LongIntHashMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(2, (int) Math.min(MAX_CAPACITY, expectedSize / LOAD_FACTOR)) - 1)
+				<< 1;
+		keys = new long[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	public LongIntHashMap() {
+		this(16);
+	}
+
+	/**
+	 * Packs two non-negative ints, e.g. ids of edge end nodes, to one key.
+	 *
+	 * @param high value stored in the upper 32 bits
+	 * @param low value stored in the lower 32 bits
+	 * @return packed key
+	 */
+	public static long pack(int high, int low) {
+		return ((long) high << 32) | (low & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Returns the value for the key or the default value if the key is not present.
+	 *
+	 * @param key key
+	 * @param defaultValue value returned for missing keys
+	 * @return value for the key
+	 */
+	public int getOrDefault(long key, int defaultValue) {
+		if (key == FREE_KEY) {
+			return hasFreeKey ? freeKeyValue : defaultValue;
+		}
+		int slot = slot(key);
+		while (true) {
+			long k = keys[slot];
+			if (k == key) {
+				return values[slot];
+			}
+			if (k == FREE_KEY) {
+				return defaultValue;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	public boolean containsKey(long key) {
+		if (key == FREE_KEY) {
+			return hasFreeKey;
+		}
+		int slot = slot(key);
+		while (true) {
+			long k = keys[slot];
+			if (k == key) {
+				return true;
+			}
+			if (k == FREE_KEY) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Associates the value with the key.
+	 *
+	 * @param key key
+	 * @param value value
+	 * @return <code>true</code> if the key was not present before
+	 * @throws IllegalStateException if the key is not present and the map is full
+	 */
+	public boolean put(long key, int value) {
+		if (key == FREE_KEY) {
+			boolean added = !hasFreeKey;
+			if (added) {
+				size++;
+			}
+			hasFreeKey = true;
+			freeKeyValue = value;
+			return added;
+		}
+		int slot = slot(key);
+		while (true) {
+			long k = keys[slot];
+			if (k == key) {
+				values[slot] = value;
+				return false;
+			}
+			if (k == FREE_KEY) {
+				if (size + 1 > keys.length * LOAD_FACTOR && keys.length >= maxCapacity()) {
+					throw new IllegalStateException("LongIntHashMap cannot hold more than "
+							+ (int) (maxCapacity() * LOAD_FACTOR) + " entries in " + maxCapacity() + " slots");
+				}
+				keys[slot] = key;
+				values[slot] = value;
+				if (++size > keys.length * LOAD_FACTOR) {
+					rehash(keys.length << 1);
+				}
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Removes the key from the map.
+	 *
+	 * @param key key
+	 * @return <code>true</code> if the key was present
+	 */
+	public boolean remove(long key) {
+		if (key == FREE_KEY) {
+			boolean removed = hasFreeKey;
+			if (removed) {
+				size--;
+			}
+			hasFreeKey = false;
+			return removed;
+		}
+		int slot = slot(key);
+		while (true) {
+			long k = keys[slot];
+			if (k == key) {
+				shiftKeys(slot);
+				size--;
+				return true;
+			}
+			if (k == FREE_KEY) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, FREE_KEY);
+		hasFreeKey = false;
+		size = 0;
+	}
+
+	/**
+	 * Closes the gap after a removed entry by moving the following entries of the probe sequence back.
+	 */
+	private void shiftKeys(int slot) {
+		while (true) {
+			int last = slot;
+			slot = (slot + 1) & mask;
+			long k;
+			while (true) {
+				k = keys[slot];
+				if (k == FREE_KEY) {
+					keys[last] = FREE_KEY;
+					return;
+				}
+				int ideal = slot(k);
+				// move the entry if its ideal slot is not in the cyclic interval (last, slot]
+				if (last <= slot ? (last >= ideal || ideal > slot) : (last >= ideal && ideal > slot)) {
+					break;
+				}
+				slot = (slot + 1) & mask;
+			}
+			keys[last] = k;
+			values[last] = values[slot];
+		}
+	}
+
+	/**
+	 * Returns the largest number of slots the table can grow to, the tests lower it.
+	 */
+	int maxCapacity() {
+		return MAX_CAPACITY;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			long k = oldKeys[i];
+			if (k != FREE_KEY) {
+				int slot = slot(k);
+				while (keys[slot] != FREE_KEY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = k;
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	private int slot(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+}
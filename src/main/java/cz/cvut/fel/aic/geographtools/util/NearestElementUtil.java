@@ -5,20 +5,43 @@ import cz.cvut.fel.aic.geographtools.GPSLocation;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.IntFunction;
 import java.util.stream.Collectors;
-import net.sf.javaml.core.kdtree.KDTree;
 import org.locationtech.jts.geom.Coordinate;
 
 /**
+ * Util returning elements nearest to a location. It is immutable after the construction and all queries are thread
+ * safe, so one instance can be shared by any number of threads once it is safely published, e.g. by a final field.
+ * The queries of the spatial index do not lock and keep their state per thread.
+ *
  * @author Marek Cuchy
  */
 public class NearestElementUtil<TElement> implements Serializable {
 
 	private static final long serialVersionUID = 8310413576935699214L;
 
-	private transient KDTree<TElement> kdTree;
+	/**
+	 * Order of the Hilbert curve sorting the queries of the batch methods.
+	 */
+	private static final int BATCH_HILBERT_ORDER = 16;
+
+	/**
+	 * Number of queries of the batch methods answered sequentially by one task.
+	 */
+	private static final int BATCH_TASK_SIZE = 1024;
+
+	private transient PointIndex<TElement> pointIndex;
+
+	/**
+	 * Type of the index, {@code null} in utils serialized before the type could be chosen.
+	 */
+	private final PointIndex.Type indexType;
+
 	private final Transformer transformer;
 
 	private final SerializableIntFunction<TElement[]> arrayConstructor;
@@ -60,15 +83,42 @@ public class NearestElementUtil<TElement> implements Serializable {
 	 */
 	public NearestElementUtil(List<NearestElementUtilPair<Coordinate, TElement>> elements, Transformer transformer, boolean converted,
 							  SerializableIntFunction<TElement[]> arrayConstructor) {
+		this(elements, transformer, converted, arrayConstructor, PointIndex.Type.STATIC_KD_TREE);
+	}
+
+	/**
+	 * It builds util for returning of nearest element from {@code elements} with the given type of the spatial
+	 * index, see {@link #NearestElementUtil(List, Transformer, boolean, SerializableIntFunction)}.
+	 *
+	 * @param elements
+	 * @param transformer
+	 * @param converted
+	 * 		if {@code converted} is {@code true} it supposes that coordinates in {@code elements} have already been
+	 * 		converted to the target reference system of {@code transformer}.
+	 * @param arrayConstructor
+	 * 		Function generating arrays containing multiple nearest elements.
+	 * @param indexType
+	 * 		type of the index, {@link PointIndex.Type#GRID} is faster for elements of a fairly uniform density.
+	 */
+	public NearestElementUtil(List<NearestElementUtilPair<Coordinate, TElement>> elements, Transformer transformer,
+							  boolean converted, SerializableIntFunction<TElement[]> arrayConstructor,
+							  PointIndex.Type indexType) {
 		this.transformer = transformer;
 		this.arrayConstructor = arrayConstructor;
-		initKDTree(elements, converted);
+		this.indexType = indexType;
+		initIndex(elements, converted);
 	}
 
-	private void initKDTree(List<NearestElementUtilPair<Coordinate, TElement>> elements, boolean converted) {
-		this.kdTree = new KDTree<>(2, arrayConstructor);
+	private void initIndex(List<NearestElementUtilPair<Coordinate, TElement>> elements, boolean converted) {
 		elements = convertIfNeeded(elements, converted);
-		elements.forEach(pair -> kdTree.insert(convertCoordinateToDoubleArray(pair.getValue0()), pair.getValue1()));
+		List<double[]> keys = new ArrayList<>(elements.size());
+		List<TElement> values = new ArrayList<>(elements.size());
+		for (NearestElementUtilPair<Coordinate, TElement> pair : elements) {
+			keys.add(convertCoordinateToDoubleArray(pair.getValue0()));
+			values.add(pair.getValue1());
+		}
+		this.pointIndex = (indexType == null ? PointIndex.Type.STATIC_KD_TREE : indexType).build(keys, values,
+				arrayConstructor);
 		this.elements = elements;
 	}
 
@@ -128,7 +178,7 @@ public class NearestElementUtil<TElement> implements Serializable {
 	 */
 	@SuppressWarnings("unchecked")
 	public TElement getNearestElementFromConvertedCoordinates(Coordinate convertedCoordinates) {
-		return kdTree.nearest(convertCoordinateToDoubleArray(convertedCoordinates));
+		return pointIndex.nearest(convertedCoordinates.x, convertedCoordinates.y);
 	}
 
 	/**
@@ -142,7 +192,7 @@ public class NearestElementUtil<TElement> implements Serializable {
 	 */
 	@SuppressWarnings("unchecked")
 	public TElement getNearestElementProjected(Coordinate coordinate) {
-		return kdTree.nearest(convertCoordinateToDoubleArray(coordinate));
+		return pointIndex.nearest(coordinate.x, coordinate.y);
 	}
 
 	/**
@@ -157,7 +207,7 @@ public class NearestElementUtil<TElement> implements Serializable {
 	 * @return
 	 */
 	public TElement[] getKNearestElementProjected(Coordinate coordinate, int k) {
-		return kdTree.nearest(convertCoordinateToDoubleArray(coordinate), k);
+		return pointIndex.nearest(coordinate.x, coordinate.y, k);
 	}
 
 	/**
@@ -170,7 +220,7 @@ public class NearestElementUtil<TElement> implements Serializable {
 	@SuppressWarnings("unchecked")
 	public TElement getNearestElement(Coordinate coordinate) {
 		Coordinate converted = transformer.toProjected(coordinate);
-		return kdTree.nearest(convertCoordinateToDoubleArray(converted));
+		return pointIndex.nearest(converted.x, converted.y);
 	}
 
 	/**
@@ -185,7 +235,239 @@ public class NearestElementUtil<TElement> implements Serializable {
 	 */
 	public TElement[] getKNearestElement(Coordinate coordinate, int k) {
 		Coordinate converted = transformer.toProjected(coordinate);
-		return kdTree.nearest(convertCoordinateToDoubleArray(converted), k);
+		return pointIndex.nearest(converted.x, converted.y, k);
+	}
+
+	/**
+	 * Finds {@code k} elements nearest to the projected coordinates without allocating, for callers snapping many
+	 * locations. The indices of the elements in the list the util was built from and their squared distances are
+	 * written to the output arrays in ascending order of distance, {@link #getElement(int)} returns the elements.
+	 *
+	 * @param x
+	 * 		projected x coordinate (longitude)
+	 * @param y
+	 * 		projected y coordinate (latitude)
+	 * @param k
+	 * 		number of elements to search for.
+	 * @param outIndices
+	 * 		array receiving the indices of the elements, at least {@code k} long
+	 * @param outDistances
+	 * 		array receiving the squared distances, at least {@code k} long, or {@code null}
+	 */
+	public void getKNearestElementIndicesProjected(double x, double y, int k, int[] outIndices, double[] outDistances) {
+		pointIndex.nearest(x, y, k, outIndices, outDistances);
+	}
+
+	/**
+	 * Returns the element at the index in the list the util was built from.
+	 *
+	 * @param index
+	 *
+	 * @return
+	 */
+	public TElement getElement(int index) {
+		return elements.get(index).getValue1();
+	}
+
+	/**
+	 * Finds {@code k} nearest elements for each of many WGS84 points, the points are projected by one call of the
+	 * transformer. See {@link #getNearestElementsProjected(double[], double[], int, int[], double[])}.
+	 *
+	 * @param longitudes
+	 * 		longitudes of the query points
+	 * @param latitudes
+	 * 		latitudes of the query points
+	 * @param k
+	 * 		number of elements to search for each point.
+	 *
+	 * @return indices of the elements, the {@code j}-th nearest element of the point {@code i} at
+	 * {@code i * k + j}
+	 */
+	public int[] getNearestElements(double[] longitudes, double[] latitudes, int k) {
+		checkBatch(longitudes, latitudes, k);
+		double[] coordinates = new double[2 * longitudes.length];
+		for (int i = 0; i < longitudes.length; i++) {
+			coordinates[2 * i] = longitudes[i];
+			coordinates[2 * i + 1] = latitudes[i];
+		}
+		double[] projected = transformer.toProjected(coordinates);
+		if (projected == null) {
+			throw new IllegalStateException("Projection of the query points failed");
+		}
+		double[] xs = new double[longitudes.length];
+		double[] ys = new double[longitudes.length];
+		for (int i = 0; i < xs.length; i++) {
+			xs[i] = projected[2 * i];
+			ys[i] = projected[2 * i + 1];
+		}
+		return getNearestElementsProjected(xs, ys, k);
+	}
+
+	/**
+	 * Finds {@code k} nearest elements for each of many projected points, see
+	 * {@link #getNearestElementsProjected(double[], double[], int, int[], double[])}.
+	 *
+	 * @param xs
+	 * 		projected x coordinates (longitudes) of the query points
+	 * @param ys
+	 * 		projected y coordinates (latitudes) of the query points
+	 * @param k
+	 * 		number of elements to search for each point.
+	 *
+	 * @return indices of the elements, the {@code j}-th nearest element of the point {@code i} at
+	 * {@code i * k + j}
+	 */
+	public int[] getNearestElementsProjected(double[] xs, double[] ys, int k) {
+		int[] indices = new int[checkBatch(xs, ys, k)];
+		getNearestElementsProjected(xs, ys, k, indices, null);
+		return indices;
+	}
+
+	/**
+	 * Finds {@code k} nearest elements for each of many projected points in parallel. The queries are sorted along
+	 * a Hilbert curve, so consecutive queries visit the same part of the index, and split into tasks of the common
+	 * {@link ForkJoinPool}. Each worker thread reuses its search state. The results are packed, the index of the
+	 * {@code j}-th nearest element of the point {@code i} in the list the util was built from is written to
+	 * {@code outIndices[i * k + j]} and its squared distance to {@code outDistances[i * k + j]}.
+	 *
+	 * @param xs
+	 * 		projected x coordinates (longitudes) of the query points
+	 * @param ys
+	 * 		projected y coordinates (latitudes) of the query points
+	 * @param k
+	 * 		number of elements to search for each point.
+	 * @param outIndices
+	 * 		array receiving the indices of the elements, at least {@code xs.length * k} long
+	 * @param outDistances
+	 * 		array receiving the squared distances, at least {@code xs.length * k} long, or {@code null}
+	 */
+	public void getNearestElementsProjected(double[] xs, double[] ys, int k, int[] outIndices,
+											double[] outDistances) {
+		int length = checkBatch(xs, ys, k);
+		if (outIndices.length < length) {
+			throw new IllegalArgumentException("Output array of indices (" + outIndices.length + ") is shorter than "
+					+ "number of results (" + length + ")");
+		}
+		if (outDistances != null && outDistances.length < length) {
+			throw new IllegalArgumentException("Output array of distances (" + outDistances.length + ") is shorter "
+					+ "than number of results (" + length + ")");
+		}
+		if (xs.length == 0 || k == 0) {
+			return;
+		}
+		int[] order = hilbertOrder(xs, ys);
+		BatchTask task = new BatchTask(xs, ys, k, order, 0, order.length, outIndices, outDistances);
+		if (order.length <= BATCH_TASK_SIZE) {
+			task.compute();
+		} else {
+			ForkJoinPool.commonPool().invoke(task);
+		}
+	}
+
+	/**
+	 * Validates the arguments of a batch query and returns the number of its results.
+	 */
+	private int checkBatch(double[] xs, double[] ys, int k) {
+		if (xs.length != ys.length) {
+			throw new IllegalArgumentException("Number of x coordinates (" + xs.length + ") differs from number of y "
+					+ "coordinates (" + ys.length + ")");
+		}
+		if (k < 0 || k > pointIndex.size()) {
+			throw new IllegalArgumentException("Number of neighbors (" + k + ") cannot be negative or greater than "
+					+ "number of elements (" + pointIndex.size() + ").");
+		}
+		long length = (long) xs.length * k;
+		if (length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Number of results (" + length + ") of " + xs.length + " queries for "
+					+ k + " neighbors does not fit into an array");
+		}
+		return (int) length;
+	}
+
+	/**
+	 * Returns the query indices sorted by the position of the queries on a Hilbert curve over their bounding box.
+	 */
+	private static int[] hilbertOrder(double[] xs, double[] ys) {
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < xs.length; i++) {
+			minX = Math.min(minX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxX = Math.max(maxX, xs[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		// curve index in the upper bits, query index in the lower 31 bits
+		long[] keys = new long[xs.length];
+		for (int i = 0; i < xs.length; i++) {
+			long index = HilbertCurve.index(BATCH_HILBERT_ORDER, HilbertCurve.scale(BATCH_HILBERT_ORDER, xs[i], minX,
+					maxX), HilbertCurve.scale(BATCH_HILBERT_ORDER, ys[i], minY, maxY));
+			keys[i] = index << 31 | i;
+		}
+		Arrays.parallelSort(keys);
+		int[] order = new int[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			order[i] = (int) (keys[i] & Integer.MAX_VALUE);
+		}
+		return order;
+	}
+
+	/**
+	 * Answers the queries of a range of the Hilbert order, splitting it in halves down to
+	 * {@link #BATCH_TASK_SIZE} queries.
+	 */
+	private final class BatchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final double[] xs;
+
+		private final double[] ys;
+
+		private final int k;
+
+		private final int[] order;
+
+		private final int from;
+
+		private final int to;
+
+		private final int[] outIndices;
+
+		private final double[] outDistances;
+
+		BatchTask(double[] xs, double[] ys, int k, int[] order, int from, int to, int[] outIndices,
+				  double[] outDistances) {
+			this.xs = xs;
+			this.ys = ys;
+			this.k = k;
+			this.order = order;
+			this.from = from;
+			this.to = to;
+			this.outIndices = outIndices;
+			this.outDistances = outDistances;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > BATCH_TASK_SIZE) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new BatchTask(xs, ys, k, order, from, mid, outIndices, outDistances),
+						new BatchTask(xs, ys, k, order, mid, to, outIndices, outDistances));
+				return;
+			}
+			int[] indices = new int[k];
+			double[] distances = outDistances == null ? null : new double[k];
+			for (int i = from; i < to; i++) {
+				int query = order[i];
+				pointIndex.nearest(xs[query], ys[query], k, indices, distances);
+				System.arraycopy(indices, 0, outIndices, query * k, k);
+				if (distances != null) {
+					System.arraycopy(distances, 0, outDistances, query * k, k);
+				}
+			}
+		}
 	}
 
 	private static double[] convertCoordinateToDoubleArray(Coordinate c) {
@@ -206,7 +488,7 @@ public class NearestElementUtil<TElement> implements Serializable {
 
 	private void readObject(ObjectInputStream ois) throws ClassNotFoundException, IOException {
 		ois.defaultReadObject();
-		this.initKDTree(elements, true);
+		this.initIndex(elements, true);
 	}
 
 	public static interface SerializableIntFunction<T> extends IntFunction<T>, Serializable {
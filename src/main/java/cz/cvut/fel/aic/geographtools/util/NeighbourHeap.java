@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+/**
+ * Bounded max-heap of the best nearest neighbour candidates ordered by the squared distance and the input index, so
+ * distance ties are resolved in favour of the point added first. Each candidate also carries its position in the
+ * index storage. Point indices take the heap from {@link #forQuery(int)}, which reuses the heap of the current
+ * thread, so steady state queries do not allocate. The reused heap never keeps more than
+ * {@link #MAX_RETAINED_CAPACITY} candidates, queries for more neighbours get a temporary heap instead.
+ */
+final class NeighbourHeap {
+
+	/**
+	 * Largest number of candidates the heap of a thread keeps between queries.
+	 */
+	static final int MAX_RETAINED_CAPACITY = 1024;
+
+	private static final ThreadLocal<NeighbourHeap> INSTANCES = ThreadLocal.withInitial(() -> new NeighbourHeap(16));
+
+	private double[] distances;
+
+	private int[] inputIndices;
+
+	private int[] positions;
+
+	private double[] key = new double[2];
+
+	private int capacity;
+
+	private int size;
+
+	NeighbourHeap(int capacity) {
+		distances = new double[capacity];
+		inputIndices = new int[capacity];
+		positions = new int[capacity];
+	}
+
+	/**
+	 * Returns the heap reused by all queries of the current thread. A query has to drain it before another one
+	 * starts.
+	 */
+	static NeighbourHeap forCurrentThread() {
+		return INSTANCES.get();
+	}
+
+	/**
+	 * Returns an empty heap for a query of the <code>k</code> nearest neighbours. Up to
+	 * {@link #MAX_RETAINED_CAPACITY} neighbours it is the heap of the current thread, larger queries get a new heap,
+	 * so a single large query does not pin its buffers in the thread.
+	 */
+	static NeighbourHeap forQuery(int k) {
+		NeighbourHeap neighbours = k <= MAX_RETAINED_CAPACITY ? INSTANCES.get() : new NeighbourHeap(k);
+		neighbours.reset(k);
+		return neighbours;
+	}
+
+	/**
+	 * Empties the heap and limits it to the given number of candidates.
+	 */
+	void reset(int capacity) {
+		if (capacity > distances.length) {
+			int length = Math.max(capacity, 2 * distances.length);
+			distances = new double[length];
+			inputIndices = new int[length];
+			positions = new int[length];
+		}
+		this.capacity = capacity;
+		size = 0;
+	}
+
+	/**
+	 * Returns a key buffer of the thread for the two dimensional queries of trees searching by key arrays.
+	 */
+	double[] key(int dimension) {
+		if (key.length != dimension) {
+			key = new double[dimension];
+		}
+		return key;
+	}
+
+	/**
+	 * Squared distance a candidate has to beat or tie to be accepted.
+	 */
+	double bound() {
+		return size < capacity ? Double.POSITIVE_INFINITY : distances[0];
+	}
+
+	double farthestDistance() {
+		return distances[0];
+	}
+
+	void offer(double distance, int inputIndex, int position) {
+		if (size < capacity) {
+			int i = size++;
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (!farther(distance, inputIndex, distances[parent], inputIndices[parent])) {
+					break;
+				}
+				set(i, parent);
+				i = parent;
+			}
+			set(i, distance, inputIndex, position);
+		} else if (farther(distances[0], inputIndices[0], distance, inputIndex)) {
+			siftDown(distance, inputIndex, position);
+		}
+	}
+
+	/**
+	 * Removes the farthest candidate and returns its position in the tree.
+	 */
+	int removeFarthest() {
+		int position = positions[0];
+		size--;
+		if (size > 0) {
+			siftDown(distances[size], inputIndices[size], positions[size]);
+		}
+		return position;
+	}
+
+	private void siftDown(double distance, int inputIndex, int position) {
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && farther(distances[child + 1], inputIndices[child + 1], distances[child],
+					inputIndices[child])) {
+				child++;
+			}
+			if (!farther(distances[child], inputIndices[child], distance, inputIndex)) {
+				break;
+			}
+			set(i, child);
+			i = child;
+		}
+		set(i, distance, inputIndex, position);
+	}
+
+	private static boolean farther(double distanceA, int inputIndexA, double distanceB, int inputIndexB) {
+		return distanceA > distanceB || (distanceA == distanceB && inputIndexA > inputIndexB);
+	}
+
+	private void set(int i, int from) {
+		set(i, distances[from], inputIndices[from], positions[from]);
+	}
+
+	private void set(int i, double distance, int inputIndex, int position) {
+		distances[i] = distance;
+		inputIndices[i] = inputIndex;
+		positions[i] = position;
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import java.util.Arrays;
+
+/**
+ * Orderings of graph nodes preserving locality, nodes close in the ordering are close in the graph or in the plane.
+ * Renumbering the nodes by such an ordering places neighbouring nodes close in memory.
+ */
+public enum NodeOrdering {
+	/**
+	 * Order by the position of the node on the Hilbert curve over the projected coordinates.
+	 */
+	HILBERT {
+		@Override
+		int[] computeOrder(int[] x, int[] y, int[] adjacencyPositions, int[] adjacency) {
+			int numberOfNodes = x.length;
+			int minX = Integer.MAX_VALUE;
+			int maxX = Integer.MIN_VALUE;
+			int minY = Integer.MAX_VALUE;
+			int maxY = Integer.MIN_VALUE;
+			for (int i = 0; i < numberOfNodes; i++) {
+				minX = Math.min(minX, x[i]);
+				maxX = Math.max(maxX, x[i]);
+				minY = Math.min(minY, y[i]);
+				maxY = Math.max(maxY, y[i]);
+			}
+
+			// curve index in the upper bits, node id in the lower 31 bits, so the sort is stable
+			long[] keys = new long[numberOfNodes];
+			for (int i = 0; i < numberOfNodes; i++) {
+				long index = HilbertCurve.index(HILBERT_ORDER, HilbertCurve.scale(HILBERT_ORDER, x[i], minX, maxX),
+						HilbertCurve.scale(HILBERT_ORDER, y[i], minY, maxY));
+				keys[i] = (index << 31) | i;
+			}
+			Arrays.parallelSort(keys);
+
+			int[] order = new int[numberOfNodes];
+			for (int i = 0; i < numberOfNodes; i++) {
+				order[i] = (int) (keys[i] & Integer.MAX_VALUE);
+			}
+			return order;
+		}
+	},
+	/**
+	 * Breadth first search order over the edges regardless of their direction. Each component is searched from
+	 * its node with the lowest id.
+	 */
+	BREADTH_FIRST {
+		@Override
+		int[] computeOrder(int[] x, int[] y, int[] adjacencyPositions, int[] adjacency) {
+			int numberOfNodes = adjacencyPositions.length - 1;
+			int[] starts = new int[numberOfNodes];
+			for (int i = 0; i < numberOfNodes; i++) {
+				starts[i] = i;
+			}
+			return breadthFirstOrder(starts, adjacencyPositions, adjacency, false);
+		}
+	},
+	/**
+	 * Cuthill-McKee order, the breadth first search over the edges regardless of their direction that starts each
+	 * component in a node of minimal degree and visits the neighbours by increasing degree. It keeps the neighbours
+	 * close in the ordering, i.e. it reduces the bandwidth of the adjacency matrix.
+	 */
+	CUTHILL_MCKEE {
+		@Override
+		int[] computeOrder(int[] x, int[] y, int[] adjacencyPositions, int[] adjacency) {
+			int numberOfNodes = adjacencyPositions.length - 1;
+			return breadthFirstOrder(sortByDegree(adjacencyPositions, numberOfNodes), adjacencyPositions, adjacency,
+					true);
+		}
+	};
+
+	private static final int HILBERT_ORDER = 16;
+
+	/**
+	 * Computes the permutation of nodes for renumbering.
+	 *
+	 * @param x projected x (longitude) coordinates of nodes by node id
+	 * @param y projected y (latitude) coordinates of nodes by node id
+	 * @param adjacencyPositions starting positions of neighbours of each node in the adjacency array, (size =
+	 * numberOfNodes + 1)
+	 * @param adjacency ids of neighbouring nodes regardless of the edge direction
+	 * @return new node id by old node id
+	 */
+	public int[] computePermutation(int[] x, int[] y, int[] adjacencyPositions, int[] adjacency) {
+		int[] order = computeOrder(x, y, adjacencyPositions, adjacency);
+		int[] newIdByOldId = new int[order.length];
+		for (int newId = 0; newId < order.length; newId++) {
+			newIdByOldId[order[newId]] = newId;
+		}
+		return newIdByOldId;
+	}
+
+	/**
+	 * Returns the old node ids in the new order.
+	 */
+	abstract int[] computeOrder(int[] x, int[] y, int[] adjacencyPositions, int[] adjacency);
+
+	/**
+	 * Breadth first search started from the unvisited nodes in the given order.
+	 */
+	private static int[] breadthFirstOrder(int[] starts, int[] adjacencyPositions, int[] adjacency,
+			boolean byDegree) {
+		int numberOfNodes = adjacencyPositions.length - 1;
+		boolean[] visited = new boolean[numberOfNodes];
+		// the order itself is the queue of the search
+		int[] order = new int[numberOfNodes];
+		int head = 0;
+		int tail = 0;
+		long[] neighbours = new long[16];
+		for (int start : starts) {
+			if (visited[start]) {
+				continue;
+			}
+			visited[start] = true;
+			order[tail++] = start;
+			while (head < tail) {
+				int node = order[head++];
+				int count = 0;
+				for (int j = adjacencyPositions[node]; j < adjacencyPositions[node + 1]; j++) {
+					int neighbour = adjacency[j];
+					if (!visited[neighbour]) {
+						visited[neighbour] = true;
+						if (count == neighbours.length) {
+							neighbours = Arrays.copyOf(neighbours, count << 1);
+						}
+						// degree in the upper bits, node id in the lower 31 bits
+						long degree = byDegree ? adjacencyPositions[neighbour + 1] - adjacencyPositions[neighbour] : 0;
+						neighbours[count++] = (degree << 31) | neighbour;
+					}
+				}
+				if (byDegree) {
+					Arrays.sort(neighbours, 0, count);
+				}
+				for (int i = 0; i < count; i++) {
+					order[tail++] = (int) (neighbours[i] & Integer.MAX_VALUE);
+				}
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Counting sort of nodes by their degree.
+	 */
+	private static int[] sortByDegree(int[] adjacencyPositions, int numberOfNodes) {
+		int maxDegree = 0;
+		for (int i = 0; i < numberOfNodes; i++) {
+			maxDegree = Math.max(maxDegree, adjacencyPositions[i + 1] - adjacencyPositions[i]);
+		}
+		int[] degreePositions = new int[maxDegree + 2];
+		for (int i = 0; i < numberOfNodes; i++) {
+			degreePositions[adjacencyPositions[i + 1] - adjacencyPositions[i] + 1]++;
+		}
+		for (int d = 0; d <= maxDegree; d++) {
+			degreePositions[d + 1] += degreePositions[d];
+		}
+		int[] sorted = new int[numberOfNodes];
+		for (int i = 0; i < numberOfNodes; i++) {
+			sorted[degreePositions[adjacencyPositions[i + 1] - adjacencyPositions[i]]++] = i;
+		}
+		return sorted;
+	}
+}
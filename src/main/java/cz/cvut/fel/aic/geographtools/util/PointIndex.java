@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable index of points in the plane answering nearest neighbour queries. The points are identified by their
+ * index in the input the index was built from. Distances reported by the primitive queries are squared Euclidean.
+ *
+ * @param <V> type of the values of the points
+ */
+public interface PointIndex<V> {
+
+	/**
+	 * @return number of indexed points
+	 */
+	int size();
+
+	/**
+	 * Finds the value of the point nearest to the query.
+	 *
+	 * @param x first coordinate of the query
+	 * @param y second coordinate of the query
+	 * @return value of the nearest point
+	 * @throws IllegalArgumentException if the index is empty
+	 */
+	V nearest(double x, double y);
+
+	/**
+	 * Finds the values of <code>k</code> points nearest to the query in ascending order of distance.
+	 *
+	 * @param x first coordinate of the query
+	 * @param y second coordinate of the query
+	 * @param k number of neighbours
+	 * @return values of the nearest points
+	 * @throws IllegalArgumentException if <code>k</code> is negative or exceeds the index size
+	 */
+	V[] nearest(double x, double y, int k);
+
+	/**
+	 * Finds <code>k</code> points nearest to the query without allocating, see
+	 * {@link StaticKDTree#nearest(double, double, int, int[], double[])}.
+	 *
+	 * @param x first coordinate of the query
+	 * @param y second coordinate of the query
+	 * @param k number of neighbours
+	 * @param outIndices array receiving the input indices of the neighbours, at least <code>k</code> long
+	 * @param outDistances array receiving the squared distances of the neighbours, at least <code>k</code> long or
+	 * <code>null</code> if the distances are not needed
+	 * @throws IllegalArgumentException if <code>k</code> is negative or exceeds the index size
+	 */
+	void nearest(double x, double y, int k, int[] outIndices, double[] outDistances);
+
+	/**
+	 * Returns the value of the point at the index in the input the index was built from.
+	 *
+	 * @param inputIndex index of the point in the input
+	 * @return value of the point
+	 */
+	V getValue(int inputIndex);
+
+	/**
+	 * Available implementations.
+	 */
+	enum Type {
+
+		/**
+		 * {@link StaticKDTree}, suitable for any distribution of the points.
+		 */
+		STATIC_KD_TREE {
+			@Override
+			public <V> PointIndex<V> build(List<double[]> keys, List<? extends V> values,
+										   IntFunction<V[]> arrayConstructor) {
+				return new StaticKDTree<>(2, keys, values, arrayConstructor);
+			}
+		},
+
+		/**
+		 * {@link GridIndex}, faster for points of a fairly uniform density, e.g. nodes of a city.
+		 */
+		GRID {
+			@Override
+			public <V> PointIndex<V> build(List<double[]> keys, List<? extends V> values,
+										   IntFunction<V[]> arrayConstructor) {
+				return new GridIndex<>(keys, values, arrayConstructor);
+			}
+		};
+
+		/**
+		 * Builds the index of this type.
+		 *
+		 * @param keys two dimensional keys of the points
+		 * @param values values of the points
+		 * @param arrayConstructor constructor of arrays of the values
+		 * @param <V> type of the values
+		 * @return the index
+		 */
+		public abstract <V> PointIndex<V> build(List<double[]> keys, List<? extends V> values,
+												IntFunction<V[]> arrayConstructor);
+	}
+}
@@ -88,6 +88,23 @@ public class ProjectionTransformer implements Serializable {
 
 	}
 
+	/**
+	 * Converts many points by one call of the underlying transform.
+	 *
+	 * @param coordinates interleaved x and y coordinates of the points
+	 * @return new array of the interleaved converted coordinates or {@code null} if the conversion failed
+	 */
+	public double[] transform(double[] coordinates) {
+		double[] converted = new double[coordinates.length];
+		try {
+			transform.transform(coordinates, 0, converted, 0, coordinates.length / 2);
+		} catch (TransformException e) {
+			e.printStackTrace();
+			return null;
+		}
+		return converted;
+	}
+
 	/**
 	 * Converts coordinates.
 	 */
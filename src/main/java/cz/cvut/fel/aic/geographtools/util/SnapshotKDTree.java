@@ -0,0 +1,311 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import cz.cvut.fel.aic.geographtools.util.KDTree.ConflictResolverMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Variant of {@link KDTree} safe for concurrent use. Queries run on an immutable {@link Snapshot} holding a
+ * {@link StaticKDTree}, read from a volatile field without any locking, so they scale with the number of reading
+ * threads. Writers stage insertions and deletions under a lock and {@link #publish()} builds a new snapshot from
+ * all elements and replaces the current one atomically. Readers see either the old or the new snapshot, never a
+ * partially updated one, and staged changes are not visible until published.
+ * <p>
+ * Rebuilding the snapshot costs <code>O(n log n)</code>, so the updates should be staged in batches. Queries that
+ * have to agree with each other should be run on one snapshot obtained by {@link #getSnapshot()}.
+ *
+ * @param <V> type of the stored objects
+ */
+public class SnapshotKDTree<V> {
+
+	private final int dimension;
+
+	private final KDTreeResolver<? super V> treeResolver;
+
+	private final ConflictResolverMode conflictResolverMode;
+
+	private final IntFunction<V[]> arrayConstructor;
+
+	/**
+	 * Current elements of the writers by their keys, in insertion order. Guarded by <code>this</code>.
+	 */
+	private final Map<Key, V> elements = new LinkedHashMap<>();
+
+	/**
+	 * Number of changes staged since the last publication. Guarded by <code>this</code>.
+	 */
+	private int stagedChanges;
+
+	private volatile Snapshot<V> snapshot;
+
+	/**
+	 * Constructs an empty tree.
+	 *
+	 * @param kdTreeDim
+	 * 		Dimension of the tree
+	 * @param treeResolver
+	 * 		Implementation of the interface for objects to be stored in the tree, which computes necessary data. Its
+	 * 		distance has to be the Euclidean distance of the coordinates.
+	 * @param conflictResolverMode
+	 * 		if element with key, which already exists in tree, is entered, what to do
+	 * @param arrayConstructor
+	 * 		Constructor of arrays of given type
+	 */
+	public SnapshotKDTree(int kdTreeDim, KDTreeResolver<? super V> treeResolver,
+						  ConflictResolverMode conflictResolverMode, IntFunction<V[]> arrayConstructor) {
+		this.dimension = kdTreeDim;
+		this.treeResolver = treeResolver;
+		this.conflictResolverMode = conflictResolverMode;
+		this.arrayConstructor = arrayConstructor;
+		this.snapshot = new Snapshot<>(0, new StaticKDTree<>(kdTreeDim, new ArrayList<>(), new ArrayList<V>(),
+				arrayConstructor), treeResolver);
+	}
+
+	/**
+	 * Stages insertion of the object, it becomes visible to queries after {@link #publish()}.
+	 */
+	public synchronized void insert(V object) throws IllegalArgumentException {
+		Key key = new Key(treeResolver.getCoordinates(object));
+		if (key.coordinates.length != dimension) {
+			throw new IllegalArgumentException("Key of dimension " + key.coordinates.length + " in tree of dimension "
+					+ dimension);
+		}
+		if (elements.containsKey(key)) {
+			switch (conflictResolverMode) {
+				case THROW_EXCEPTION:
+					throw new IllegalArgumentException(
+							"KDTree already contains element with this key : " + key);
+				case USE_OLD:
+					return;
+				case USE_NEW:
+					// keep the position of the key in the insertion order
+					break;
+			}
+		}
+		elements.put(key, object);
+		stagedChanges++;
+	}
+
+	/**
+	 * Stages insertion of all objects, see {@link #insert(Object)}.
+	 */
+	public synchronized void insertAll(Iterable<? extends V> objects) {
+		for (V object : objects) {
+			insert(object);
+		}
+	}
+
+	/**
+	 * Stages deletion of the object, it disappears from queries after {@link #publish()}.
+	 */
+	public void delete(V object) {
+		delete(treeResolver.getCoordinates(object));
+	}
+
+	/**
+	 * Stages deletion of object specified by coordinates.
+	 */
+	public synchronized void delete(double[] coords) {
+		if (elements.remove(new Key(coords)) == null) {
+			throw new IllegalArgumentException("Element not in KDTree!");
+		}
+		stagedChanges++;
+	}
+
+	/**
+	 * Returns the number of staged changes not visible to queries yet.
+	 */
+	public synchronized int getStagedChanges() {
+		return stagedChanges;
+	}
+
+	/**
+	 * Builds a snapshot of all elements and makes it visible to queries. Does nothing if no change was staged.
+	 *
+	 * @return the published snapshot
+	 */
+	public synchronized Snapshot<V> publish() {
+		if (stagedChanges == 0) {
+			return snapshot;
+		}
+		List<double[]> keys = new ArrayList<>(elements.size());
+		List<V> values = new ArrayList<>(elements.size());
+		for (Map.Entry<Key, V> entry : elements.entrySet()) {
+			keys.add(entry.getKey().coordinates);
+			values.add(entry.getValue());
+		}
+		Snapshot<V> published = new Snapshot<>(snapshot.version + 1, new StaticKDTree<>(dimension, keys, values,
+				arrayConstructor), treeResolver);
+		stagedChanges = 0;
+		snapshot = published;
+		return published;
+	}
+
+	/**
+	 * Returns the current snapshot, it does not change when a new one is published.
+	 */
+	public Snapshot<V> getSnapshot() {
+		return snapshot;
+	}
+
+	public KDTreeResolver<? super V> getTreeResolver() {
+		return treeResolver;
+	}
+
+	/**
+	 * Returns num of elements in the current snapshot.
+	 */
+	public int size() {
+		return snapshot.size();
+	}
+
+	/**
+	 * Return nearest node in the current snapshot from specified coordinates, see
+	 * {@link Snapshot#getNearestNode(double[])}.
+	 */
+	public V getNearestNode(double[] coords) {
+		return snapshot.getNearestNode(coords);
+	}
+
+	/**
+	 * Returns nearest N nodes of the current snapshot from specified coordinates.
+	 */
+	public ArrayList<V> getNNearestNodes(double[] coords, int n) {
+		return snapshot.getNNearestNodes(coords, n);
+	}
+
+	/**
+	 * Returns maximum N closest objects of the current snapshot closer than specified distance.
+	 */
+	public ArrayList<V> getNNearestNodesWithMaxDistance(double[] coords, int n, double maxDistance) {
+		return snapshot.getNNearestNodesWithMaxDistance(coords, n, maxDistance);
+	}
+
+	/**
+	 * Returns all objects of the current snapshot that are closer then specified distance from the specified
+	 * coordinates, in ascending order of distance.
+	 */
+	public ArrayList<V> getNearestNodesCloserThan(double[] coordinates, double desiredDistance) {
+		return snapshot.getNearestNodesCloserThan(coordinates, desiredDistance);
+	}
+
+	/**
+	 * Immutable state of the tree at one publication.
+	 *
+	 * @param <V> type of the stored objects
+	 */
+	public static final class Snapshot<V> {
+
+		private final long version;
+
+		private final StaticKDTree<V> tree;
+
+		private final KDTreeResolver<? super V> treeResolver;
+
+		private Snapshot(long version, StaticKDTree<V> tree, KDTreeResolver<? super V> treeResolver) {
+			this.version = version;
+			this.tree = tree;
+			this.treeResolver = treeResolver;
+		}
+
+		/**
+		 * @return number of publications before this snapshot
+		 */
+		public long getVersion() {
+			return version;
+		}
+
+		public int size() {
+			return tree.size();
+		}
+
+		/**
+		 * Return nearest node from specified coordinates or <code>null</code> if the snapshot is empty.
+		 */
+		public V getNearestNode(double[] coords) {
+			return tree.size() == 0 ? null : tree.nearest(coords);
+		}
+
+		/**
+		 * Returns nearest N nodes from specified coordinates, all nodes if there are less than N.
+		 */
+		public ArrayList<V> getNNearestNodes(double[] coords, int n) {
+			return new ArrayList<>(Arrays.asList(tree.nearest(coords, Math.min(n, tree.size()))));
+		}
+
+		/**
+		 * Returns maximum N closest objects from the specified coordinates. Returns only objects closer than
+		 * specified distance.
+		 */
+		public ArrayList<V> getNNearestNodesWithMaxDistance(double[] coords, int n, double maxDistance) {
+			ArrayList<V> nodes = getNNearestNodes(coords, n);
+			while (!nodes.isEmpty() && treeResolver.computeDistance(nodes.get(nodes.size() - 1), coords)
+					> maxDistance) {
+				nodes.remove(nodes.size() - 1);
+			}
+			return nodes;
+		}
+
+		/**
+		 * Returns all objects that are closer then specified distance from the specified coordinates, in ascending
+		 * order of distance.
+		 */
+		public ArrayList<V> getNearestNodesCloserThan(double[] coordinates, double desiredDistance) {
+			ArrayList<V> nodes = new ArrayList<>();
+			tree.forEachWithinRadius(coordinates, desiredDistance, inputIndex -> nodes.add(tree.getValue(
+					inputIndex)));
+			nodes.sort(Comparator.comparingDouble(node -> treeResolver.computeDistance(node, coordinates)));
+			return nodes;
+		}
+	}
+
+	/**
+	 * Coordinates compared by value.
+	 */
+	private static final class Key {
+
+		private final double[] coordinates;
+
+		Key(double[] coordinates) {
+			this.coordinates = coordinates.clone();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key && Arrays.equals(coordinates, ((Key) o).coordinates);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(coordinates);
+		}
+
+		@Override
+		public String toString() {
+			return Arrays.toString(coordinates);
+		}
+	}
+}
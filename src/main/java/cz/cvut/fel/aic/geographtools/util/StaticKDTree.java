@@ -0,0 +1,460 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Immutable KD-tree built from all points at once. The points are stored in flat arrays in an implicit balanced
+ * order: the root of a subtree covering the range <code>[lo, hi)</code> is the median at
+ * <code>(lo + hi) / 2</code>, its left subtree is <code>[lo, mid)</code> and its right subtree is
+ * <code>(mid, hi)</code>. The splitting dimension alternates with the depth, so no node objects, pointers or split
+ * values are stored and the depth is always logarithmic regardless of the input order. Small ranges are scanned
+ * linearly.
+ * <p>
+ * The tree is built by a median partitioning of each range, disjoint subtrees are partitioned in parallel in the
+ * common {@link ForkJoinPool}. Unlike {@link net.sf.javaml.core.kdtree.KDTree}, points with identical keys are all
+ * kept, ties in the distance are resolved in favour of the point added first. Distances are squared Euclidean.
+ * <p>
+ * The tree is not modified after the construction, so it can be queried from multiple threads. Queries keep their
+ * neighbour heap in a thread local buffer, the primitive {@link #nearest(double, double, int, int[], double[])}
+ * does not allocate at all for up to {@link NeighbourHeap#MAX_RETAINED_CAPACITY} neighbours.
+ *
+ * @param <V> type of the stored values
+ */
+public final class StaticKDTree<V> implements PointIndex<V> {
+
+	/**
+	 * Ranges of at most this size are not partitioned further and are scanned linearly by queries.
+	 */
+	static final int LEAF_SIZE = 8;
+
+	/**
+	 * Ranges larger than this are partitioned by a parallel task.
+	 */
+	private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+	private final int dimension;
+
+	private final int size;
+
+	/**
+	 * Keys in the tree order, the key of the point at position <code>i</code> starts at
+	 * <code>i * dimension</code>.
+	 */
+	private final double[] coordinates;
+
+	/**
+	 * Index of the point in the input for each position, used to resolve ties.
+	 */
+	private final int[] inputIndices;
+
+	/**
+	 * Position in the tree order for each input index.
+	 */
+	private final int[] positionsByInputIndex;
+
+	private final Object[] values;
+
+	private final IntFunction<V[]> arrayConstructor;
+
+	/**
+	 * Builds the tree from the keys and the values at the same positions.
+	 *
+	 * @param dimension dimension of the keys
+	 * @param keys keys of the points, each of length <code>dimension</code>
+	 * @param values values of the points
+	 * @param arrayConstructor constructor of arrays returned by {@link #nearest(double[], int)}
+	 */
+	public StaticKDTree(int dimension, List<double[]> keys, List<? extends V> values,
+						IntFunction<V[]> arrayConstructor) {
+		if (dimension < 1) {
+			throw new IllegalArgumentException("Dimension has to be positive: " + dimension);
+		}
+		if (keys.size() != values.size()) {
+			throw new IllegalArgumentException("Number of keys (" + keys.size() + ") differs from number of values ("
+					+ values.size() + ")");
+		}
+		this.dimension = dimension;
+		this.size = keys.size();
+		this.arrayConstructor = arrayConstructor;
+		this.coordinates = new double[size * dimension];
+		this.inputIndices = new int[size];
+		int i = 0;
+		for (double[] key : keys) {
+			checkKey(key);
+			System.arraycopy(key, 0, coordinates, i * dimension, dimension);
+			inputIndices[i] = i;
+			i++;
+		}
+		if (size > PARALLEL_THRESHOLD) {
+			ForkJoinPool.commonPool().invoke(new BuildTask(0, size, 0));
+		} else {
+			build(0, size, 0);
+		}
+		this.values = new Object[size];
+		this.positionsByInputIndex = new int[size];
+		Object[] input = values.toArray();
+		for (int j = 0; j < size; j++) {
+			this.values[j] = input[inputIndices[j]];
+			positionsByInputIndex[inputIndices[j]] = j;
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * Finds the value of the point nearest to the key.
+	 *
+	 * @param key key of the query
+	 * @return value of the nearest point
+	 * @throws IllegalArgumentException if the tree is empty
+	 */
+	@SuppressWarnings("unchecked")
+	public V nearest(double[] key) {
+		checkKey(key);
+		NeighbourHeap neighbours = startQuery(key, 1);
+		return (V) values[neighbours.removeFarthest()];
+	}
+
+	/**
+	 * Finds the values of <code>n</code> points nearest to the key in ascending order of distance.
+	 *
+	 * @param key key of the query
+	 * @param n number of neighbours
+	 * @return values of the nearest points
+	 * @throws IllegalArgumentException if <code>n</code> is negative or exceeds the tree size
+	 */
+	@SuppressWarnings("unchecked")
+	public V[] nearest(double[] key, int n) {
+		checkKey(key);
+		NeighbourHeap neighbours = startQuery(key, n);
+		V[] result = arrayConstructor.apply(n);
+		for (int i = n - 1; i >= 0; i--) {
+			result[i] = (V) values[neighbours.removeFarthest()];
+		}
+		return result;
+	}
+
+	/**
+	 * Finds <code>k</code> points nearest to the key without allocating. The indices of the points in the lists
+	 * the tree was built from and their squared distances are written to the output arrays in ascending order of
+	 * distance. The query state is kept per thread and reused, so concurrent queries do not interfere.
+	 *
+	 * @param key key of the query
+	 * @param k number of neighbours
+	 * @param outIndices array receiving the input indices of the neighbours, at least <code>k</code> long
+	 * @param outDistances array receiving the squared distances of the neighbours, at least <code>k</code> long or
+	 * <code>null</code> if the distances are not needed
+	 * @throws IllegalArgumentException if <code>k</code> is negative or exceeds the tree size
+	 */
+	public void nearest(double[] key, int k, int[] outIndices, double[] outDistances) {
+		checkKey(key);
+		drain(startQuery(key, k), k, outIndices, outDistances);
+	}
+
+	/**
+	 * Two dimensional variant of {@link #nearest(double[], int, int[], double[])} that needs no key array.
+	 *
+	 * @param x first coordinate of the query
+	 * @param y second coordinate of the query
+	 * @param k number of neighbours
+	 * @param outIndices array receiving the input indices of the neighbours, at least <code>k</code> long
+	 * @param outDistances array receiving the squared distances of the neighbours, at least <code>k</code> long or
+	 * <code>null</code> if the distances are not needed
+	 * @throws IllegalArgumentException if the tree is not two dimensional or <code>k</code> is negative or exceeds
+	 * the tree size
+	 */
+	@Override
+	public void nearest(double x, double y, int k, int[] outIndices, double[] outDistances) {
+		drain(startQuery(planarKey(x, y), k), k, outIndices, outDistances);
+	}
+
+	/**
+	 * Two dimensional variant of {@link #nearest(double[])} that needs no key array.
+	 *
+	 * @throws IllegalArgumentException if the tree is not two dimensional or is empty
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public V nearest(double x, double y) {
+		return (V) values[startQuery(planarKey(x, y), 1).removeFarthest()];
+	}
+
+	/**
+	 * Two dimensional variant of {@link #nearest(double[], int)} that needs no key array.
+	 *
+	 * @throws IllegalArgumentException if the tree is not two dimensional or <code>k</code> is negative or exceeds
+	 * the tree size
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public V[] nearest(double x, double y, int k) {
+		NeighbourHeap neighbours = startQuery(planarKey(x, y), k);
+		V[] result = arrayConstructor.apply(k);
+		for (int i = k - 1; i >= 0; i--) {
+			result[i] = (V) values[neighbours.removeFarthest()];
+		}
+		return result;
+	}
+
+	/**
+	 * Fills the key buffer of the current thread with the two dimensional query.
+	 */
+	private double[] planarKey(double x, double y) {
+		if (dimension != 2) {
+			throw new IllegalArgumentException("Two dimensional query in tree of dimension " + dimension);
+		}
+		double[] key = NeighbourHeap.forCurrentThread().key(2);
+		key[0] = x;
+		key[1] = y;
+		return key;
+	}
+
+	/**
+	 * Returns the value of the point at the index in the lists the tree was built from.
+	 *
+	 * @param inputIndex index of the point in the input
+	 * @return value of the point
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public V getValue(int inputIndex) {
+		return (V) values[positionsByInputIndex[inputIndex]];
+	}
+
+	/**
+	 * Searches the tree with the reused neighbour heap of the current thread.
+	 */
+	private NeighbourHeap startQuery(double[] key, int k) {
+		if (k < 0 || k > size) {
+			throw new IllegalArgumentException("Number of neighbors (" + k + ") cannot be negative or greater than "
+					+ "number of nodes (" + size + ").");
+		}
+		NeighbourHeap neighbours = NeighbourHeap.forQuery(k);
+		if (k > 0) {
+			search(0, size, 0, key, neighbours);
+		}
+		return neighbours;
+	}
+
+	private void drain(NeighbourHeap neighbours, int k, int[] outIndices, double[] outDistances) {
+		for (int i = k - 1; i >= 0; i--) {
+			if (outDistances != null) {
+				outDistances[i] = neighbours.farthestDistance();
+			}
+			outIndices[i] = inputIndices[neighbours.removeFarthest()];
+		}
+	}
+
+	private void checkKey(double[] key) {
+		if (key.length != dimension) {
+			throw new IllegalArgumentException("Key of dimension " + key.length + " in tree of dimension " + dimension);
+		}
+	}
+
+	private void search(int lo, int hi, int depth, double[] key, NeighbourHeap neighbours) {
+		while (hi - lo > LEAF_SIZE) {
+			int mid = (lo + hi) >>> 1;
+			neighbours.offer(distance(mid, key), inputIndices[mid], mid);
+			double diff = key[depth % dimension] - coordinates[mid * dimension + depth % dimension];
+			depth++;
+			if (diff < 0) {
+				search(lo, mid, depth, key, neighbours);
+				if (diff * diff > neighbours.bound()) {
+					return;
+				}
+				lo = mid + 1;
+			} else {
+				search(mid + 1, hi, depth, key, neighbours);
+				if (diff * diff > neighbours.bound()) {
+					return;
+				}
+				hi = mid;
+			}
+		}
+		for (int i = lo; i < hi; i++) {
+			neighbours.offer(distance(i, key), inputIndices[i], i);
+		}
+	}
+
+	/**
+	 * Passes the input indices of all points within the radius to the consumer, in no particular order.
+	 *
+	 * @param key center of the ball
+	 * @param radius Euclidean radius, points at exactly this distance are included
+	 * @param consumer consumer of the input indices or <code>null</code> to only count the points
+	 * @return number of the points
+	 */
+	public int forEachWithinRadius(double[] key, double radius, IntConsumer consumer) {
+		checkKey(key);
+		return searchBall(0, size, 0, key, radius * radius, consumer);
+	}
+
+	private int searchBall(int lo, int hi, int depth, double[] key, double radiusSquared, IntConsumer consumer) {
+		int count = 0;
+		while (hi - lo > LEAF_SIZE) {
+			int mid = (lo + hi) >>> 1;
+			if (distance(mid, key) <= radiusSquared) {
+				count++;
+				if (consumer != null) {
+					consumer.accept(inputIndices[mid]);
+				}
+			}
+			double diff = key[depth % dimension] - coordinates[mid * dimension + depth % dimension];
+			depth++;
+			if (diff < 0) {
+				count += searchBall(lo, mid, depth, key, radiusSquared, consumer);
+				if (diff * diff > radiusSquared) {
+					return count;
+				}
+				lo = mid + 1;
+			} else {
+				count += searchBall(mid + 1, hi, depth, key, radiusSquared, consumer);
+				if (diff * diff > radiusSquared) {
+					return count;
+				}
+				hi = mid;
+			}
+		}
+		for (int i = lo; i < hi; i++) {
+			if (distance(i, key) <= radiusSquared) {
+				count++;
+				if (consumer != null) {
+					consumer.accept(inputIndices[i]);
+				}
+			}
+		}
+		return count;
+	}
+
+	private double distance(int position, double[] key) {
+		double distance = 0;
+		int offset = position * dimension;
+		for (int d = 0; d < dimension; d++) {
+			double diff = coordinates[offset + d] - key[d];
+			distance += diff * diff;
+		}
+		return distance;
+	}
+
+	/**
+	 * Places the median of the range to its middle and builds both halves recursively.
+	 */
+	private void build(int lo, int hi, int depth) {
+		while (hi - lo > LEAF_SIZE) {
+			int mid = (lo + hi) >>> 1;
+			select(lo, hi - 1, mid, depth % dimension);
+			build(lo, mid, depth + 1);
+			lo = mid + 1;
+			depth++;
+		}
+	}
+
+	/**
+	 * Quickselect with a three way partition, so ranges with many equal coordinates, e.g. grid aligned points, are
+	 * partitioned in linear time. Afterwards no position in <code>[lo, k)</code> has a greater and no position in
+	 * <code>(k, hi]</code> has a smaller coordinate than <code>k</code>.
+	 */
+	private void select(int lo, int hi, int k, int d) {
+		while (hi > lo) {
+			double pivot = medianOfThree(coordinate(lo, d), coordinate((lo + hi) >>> 1, d), coordinate(hi, d));
+			int less = lo;
+			int greater = hi;
+			int i = lo;
+			while (i <= greater) {
+				double c = coordinate(i, d);
+				if (c < pivot) {
+					swap(less++, i++);
+				} else if (c > pivot) {
+					swap(i, greater--);
+				} else {
+					i++;
+				}
+			}
+			if (k < less) {
+				hi = less - 1;
+			} else if (k > greater) {
+				lo = greater + 1;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private static double medianOfThree(double a, double b, double c) {
+		return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+	}
+
+	private double coordinate(int position, int d) {
+		return coordinates[position * dimension + d];
+	}
+
+	private void swap(int i, int j) {
+		int offsetI = i * dimension;
+		int offsetJ = j * dimension;
+		for (int d = 0; d < dimension; d++) {
+			double c = coordinates[offsetI + d];
+			coordinates[offsetI + d] = coordinates[offsetJ + d];
+			coordinates[offsetJ + d] = c;
+		}
+		int index = inputIndices[i];
+		inputIndices[i] = inputIndices[j];
+		inputIndices[j] = index;
+	}
+
+	private final class BuildTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int lo;
+
+		private final int hi;
+
+		private final int depth;
+
+		BuildTask(int lo, int hi, int depth) {
+			this.lo = lo;
+			this.hi = hi;
+			this.depth = depth;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= PARALLEL_THRESHOLD) {
+				build(lo, hi, depth);
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			select(lo, hi - 1, mid, depth % dimension);
+			invokeAll(new BuildTask(lo, mid, depth + 1), new BuildTask(mid + 1, hi, depth + 1));
+		}
+	}
+}
@@ -4,6 +4,7 @@ package cz.cvut.fel.aic.geographtools.util;
 import cz.cvut.fel.aic.geographtools.Edge;
 import cz.cvut.fel.aic.geographtools.GraphStructure;
 import cz.cvut.fel.aic.geographtools.Node;
+import cz.cvut.fel.aic.geographtools.PrimitiveGraphStructure;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -98,6 +99,121 @@ public class StronglyConnectedComponentsFinder {
 		return new KosarajuSCCComputer(nodeIds, outgoing).getAllStronglyConnectedComponentsSortedBySize();
 	}
 
+	/**
+	 * Computes strongly connected components of the graph accessed by node ids only, using primitive arrays instead
+	 * of the collections of boxed ids, so it scales to graphs with hundreds of millions of nodes.
+	 *
+	 * @param graph
+	 * 		Graph, e.g. <code>Graph</code>, <code>FlyweightGraph</code> or <code>CompressedGraph</code>
+	 *
+	 * @return Index of the component of each node, indexed by node id. Components are numbered by decreasing size,
+	 * the largest component has index 0
+	 */
+	public static int[] getStronglyConnectedComponentIds(PrimitiveGraphStructure graph) {
+		int numberOfNodes = graph.numberOfNodes();
+		IntStack stack = new IntStack();
+
+		// first pass: finishing order of the DFS over outgoing edges, a finished node is pushed as ~nodeId
+		boolean[] visited = new boolean[numberOfNodes];
+		int[] finishingOrder = new int[numberOfNodes];
+		int finished = 0;
+		for (int root = 0; root < numberOfNodes; root++) {
+			if (visited[root]) {
+				continue;
+			}
+			stack.push(root);
+			while (!stack.isEmpty()) {
+				int current = stack.pop();
+				if (current < 0) {
+					finishingOrder[finished++] = ~current;
+				} else if (!visited[current]) {
+					visited[current] = true;
+					stack.push(~current);
+					graph.forEachOutNeighbor(current, (next, lengthCm) -> {
+						if (!visited[next]) {
+							stack.push(next);
+						}
+					});
+				}
+			}
+		}
+
+		// second pass: components by search over incoming edges in the reverse finishing order
+		int[] componentIds = new int[numberOfNodes];
+		Arrays.fill(componentIds, -1);
+		IntStack componentSizes = new IntStack();
+		for (int i = numberOfNodes - 1; i >= 0; i--) {
+			int root = finishingOrder[i];
+			if (componentIds[root] != -1) {
+				continue;
+			}
+			int component = componentSizes.size();
+			int size = 0;
+			componentIds[root] = component;
+			stack.push(root);
+			while (!stack.isEmpty()) {
+				int current = stack.pop();
+				size++;
+				graph.forEachInNeighbor(current, (previous, lengthCm) -> {
+					if (componentIds[previous] == -1) {
+						componentIds[previous] = component;
+						stack.push(previous);
+					}
+				});
+			}
+			componentSizes.push(size);
+		}
+
+		// renumbering by decreasing size, the order of discovery decides between components of the same size
+		int numberOfComponents = componentSizes.size();
+		long[] bySize = new long[numberOfComponents];
+		for (int component = 0; component < numberOfComponents; component++) {
+			bySize[component] = ((long) (Integer.MAX_VALUE - componentSizes.get(component)) << 32) | component;
+		}
+		Arrays.sort(bySize);
+		int[] newIds = new int[numberOfComponents];
+		for (int i = 0; i < numberOfComponents; i++) {
+			newIds[(int) bySize[i]] = i;
+		}
+		for (int k = 0; k < numberOfNodes; k++) {
+			componentIds[k] = newIds[componentIds[k]];
+		}
+		return componentIds;
+	}
+
+	/**
+	 * Growable stack of ints.
+	 */
+	private static final class IntStack {
+
+		private int[] elements = new int[64];
+
+		private int size;
+
+		void push(int element) {
+			if (size == elements.length) {
+				elements = Arrays.copyOf(elements, 2 * size);
+			}
+			elements[size++] = element;
+		}
+
+		int pop() {
+			return elements[--size];
+		}
+
+		int get(int index) {
+			return elements[index];
+		}
+
+		int size() {
+			return size;
+		}
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+	}
+
 	private static <K, V> void addElementToSetInMapValue(Map<K, Set<V>> map, K key, V element) {
 
 		if (!map.containsKey(key)) {
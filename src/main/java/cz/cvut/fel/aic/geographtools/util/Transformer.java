@@ -56,4 +56,14 @@ public class Transformer implements Serializable {
 	public <T extends Geometry> T toProjected(T g) {
 		return fromRealToProjected.transform(g);
 	}
+
+	/**
+	 * Converts many WGS84 points to the projected system at once.
+	 *
+	 * @param coordinates interleaved longitudes and latitudes
+	 * @return interleaved projected x and y coordinates or {@code null} if the conversion failed
+	 */
+	public double[] toProjected(double[] coordinates) {
+		return fromRealToProjected.transform(coordinates);
+	}
 }
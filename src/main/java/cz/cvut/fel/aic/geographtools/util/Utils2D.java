@@ -33,13 +33,13 @@ public class Utils2D {
 		long latProjectedSum = 0;
 		long lonProjectedSum = 0;
 		
-		for(N node : graph.getAllNodes()){
-			latProjectedSum += node.getLatitudeProjected1E2();
-			lonProjectedSum += node.getLongitudeProjected1E2();
+		for(int i = 0; i < graph.numberOfNodes(); i++){
+			latProjectedSum += graph.getNodeLatitudeProjected1E2(i);
+			lonProjectedSum += graph.getNodeLongitudeProjected1E2(i);
 		}
 		
-		int averageLatProjected = (int) Math.round((double) latProjectedSum / graph.getAllNodes().size());	 
-		int averageLonProjected = (int) Math.round((double) lonProjectedSum / graph.getAllNodes().size());
+		int averageLatProjected = (int) Math.round((double) latProjectedSum / graph.numberOfNodes());	 
+		int averageLonProjected = (int) Math.round((double) lonProjectedSum / graph.numberOfNodes());
 		
 		return new GPSLocation(0, 0, averageLatProjected, averageLonProjected);
 	}
@@ -48,12 +48,13 @@ public class Utils2D {
 		int minLon = Integer.MAX_VALUE;
 		int maxLon = Integer.MIN_VALUE;
 		
-		for(N node : graph.getAllNodes()){
-			if(node.getLongitudeProjected1E2() < minLon){
-				minLon = node.getLongitudeProjected1E2();
+		for(int i = 0; i < graph.numberOfNodes(); i++){
+			int lonProjected = graph.getNodeLongitudeProjected1E2(i);
+			if(lonProjected < minLon){
+				minLon = lonProjected;
 			}
-			if(node.getLongitudeProjected1E2() > maxLon){
-				maxLon = node.getLongitudeProjected1E2();
+			if(lonProjected > maxLon){
+				maxLon = lonProjected;
 			}
 		}
 		
@@ -69,26 +70,28 @@ public class Utils2D {
 		int minLat = Integer.MAX_VALUE;
 		int maxLat = Integer.MIN_VALUE;
 		
-		for(N node : graph.getAllNodes()){
-			latProjectedSum += node.getLatitudeProjected1E2();
-			lonProjectedSum += node.getLongitudeProjected1E2();
+		for(int i = 0; i < graph.numberOfNodes(); i++){
+			int latProjected = graph.getNodeLatitudeProjected1E2(i);
+			int lonProjected = graph.getNodeLongitudeProjected1E2(i);
+			latProjectedSum += latProjected;
+			lonProjectedSum += lonProjected;
 			
-			if(node.getLongitudeProjected1E2() < minLon){
-				minLon = node.getLongitudeProjected1E2();
+			if(lonProjected < minLon){
+				minLon = lonProjected;
 			}
-			if(node.getLongitudeProjected1E2() > maxLon){
-				maxLon = node.getLongitudeProjected1E2();
+			if(lonProjected > maxLon){
+				maxLon = lonProjected;
 			}
-			if(node.getLatitudeProjected1E2() < minLat){
-				minLat = node.getLatitudeProjected1E2();
+			if(latProjected < minLat){
+				minLat = latProjected;
 			}
-			if(node.getLatitudeProjected1E2() > maxLat){
-				maxLat = node.getLatitudeProjected1E2();
+			if(latProjected > maxLat){
+				maxLat = latProjected;
 			}
 		}
 		
-		int averageLatProjected = (int) Math.round((double) latProjectedSum / graph.getAllNodes().size());	 
-		int averageLonProjected = (int) Math.round((double) lonProjectedSum / graph.getAllNodes().size());
+		int averageLatProjected = (int) Math.round((double) latProjectedSum / graph.numberOfNodes());	 
+		int averageLonProjected = (int) Math.round((double) lonProjectedSum / graph.numberOfNodes());
 		
 		GPSLocation centroid = new GPSLocation(0, 0, averageLatProjected, averageLonProjected);
 		
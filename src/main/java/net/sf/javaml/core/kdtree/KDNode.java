@@ -21,6 +21,7 @@
  */
 package net.sf.javaml.core.kdtree;
 
+import java.util.List;
 import java.util.Vector;
 
 // K-D Tree node class
@@ -94,6 +95,51 @@ class KDNode<V> {
 		}
 	}
 
+	// Ball search, returns the number of nodes within the radius and adds them to v if it is not null. A subtree is
+	// pruned if the squared distance of its hyper-rectangle to the target exceeds the squared radius. The distance is
+	// updated incrementally: offsets holds the per dimension distance of the current hyper-rectangle to the target
+	// and rect_dist_sqd their squared sum. The nearer child is visited in the loop, the further one recursively.
+	protected static <V> int bsearch(KDNode<V> t, double[] target, double radius_sqd, int lev, int K,
+									 double[] offsets, double rect_dist_sqd, List<KDNode<V>> v) {
+
+		int count = 0;
+		while (t != null) {
+			if (!t.deleted) {
+				double dist_sqd = 0;
+				for (int i = 0; i < K; ++i) {
+					double diff = t.k.coord[i] - target[i];
+					dist_sqd += diff * diff;
+				}
+				if (dist_sqd <= radius_sqd) {
+					count++;
+					if (v != null) {
+						v.add(t);
+					}
+				}
+			}
+
+			// the left subtree holds keys lower or equal to the pivot, the right one greater keys
+			double diff = target[lev] - t.k.coord[lev];
+			KDNode<V> nearer = diff <= 0 ? t.left : t.right;
+			KDNode<V> further = diff <= 0 ? t.right : t.left;
+			int next = (lev + 1) % K;
+
+			if (further != null) {
+				double old_offset = offsets[lev];
+				double further_dist_sqd = rect_dist_sqd - old_offset * old_offset + diff * diff;
+				if (further_dist_sqd <= radius_sqd) {
+					offsets[lev] = diff;
+					count += bsearch(further, target, radius_sqd, next, K, offsets, further_dist_sqd, v);
+					offsets[lev] = old_offset;
+				}
+			}
+
+			t = nearer;
+			lev = next;
+		}
+		return count;
+	}
+
 	// Method Nearest Neighbor from Andrew Moore's thesis. Numbered
 	// comments are direct quotes from there. Step "SDL" is added to
 	// make the algorithm work correctly. NearestNeighborList solution
@@ -21,6 +21,9 @@
  */
 package net.sf.javaml.core.kdtree;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Vector;
 import java.util.function.IntFunction;
 
@@ -219,6 +222,71 @@ public class KDTree<V> {
 		}
 	}
 
+	/**
+	 * Ball search in a KD-tree. Subtrees whose hyper-rectangle lies farther than the radius from the center are
+	 * pruned, so only the points inside the ball and the paths leading to them are visited.
+	 *
+	 * @param center
+	 * 		center of the ball
+	 * @param radius
+	 * 		Euclidean radius of the ball, keys at exactly this distance are included
+	 *
+	 * @return objects whose keys lie in the ball, in no particular order
+	 */
+	public V[] ball(double[] center, double radius) {
+		return ball(center, radius, false);
+	}
+
+	/**
+	 * Ball search in a KD-tree, see {@link #ball(double[], double)}.
+	 *
+	 * @param center
+	 * 		center of the ball
+	 * @param radius
+	 * 		Euclidean radius of the ball, keys at exactly this distance are included
+	 * @param sorted
+	 * 		if the objects should be returned in ascending order of distance to the center
+	 *
+	 * @return objects whose keys lie in the ball
+	 */
+	public V[] ball(double[] center, double radius, boolean sorted) {
+
+		if (center.length != m_K) {
+			throw new RuntimeException("KDTree: wrong key size!");
+		}
+
+		List<KDNode<V>> v = new ArrayList<>();
+		KDNode.bsearch(m_root, center, radius * radius, 0, m_K, new double[m_K], 0, v);
+		if (sorted) {
+			HPoint target = new HPoint(center);
+			v.sort(Comparator.comparingDouble(n -> HPoint.sqrdist(n.k, target)));
+		}
+		V[] o = arrayConstructor.apply(v.size());
+		for (int i = 0; i < v.size(); ++i) {
+			o[i] = v.get(i).v;
+		}
+		return o;
+	}
+
+	/**
+	 * Counts the keys in a ball without collecting them, see {@link #ball(double[], double)}.
+	 *
+	 * @param center
+	 * 		center of the ball
+	 * @param radius
+	 * 		Euclidean radius of the ball, keys at exactly this distance are included
+	 *
+	 * @return number of keys in the ball
+	 */
+	public int countBall(double[] center, double radius) {
+
+		if (center.length != m_K) {
+			throw new RuntimeException("KDTree: wrong key size!");
+		}
+
+		return KDNode.bsearch(m_root, center, radius * radius, 0, m_K, new double[m_K], 0, null);
+	}
+
 	public String toString() {
 		return m_root.toString(0);
 	}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic;
+
+import cz.cvut.fel.aic.geographtools.CompressedGraph;
+import cz.cvut.fel.aic.geographtools.Edge;
+import cz.cvut.fel.aic.geographtools.Graph;
+import cz.cvut.fel.aic.geographtools.GraphBuilder;
+import cz.cvut.fel.aic.geographtools.Node;
+import cz.cvut.fel.aic.geographtools.PrimitiveGraphStructure;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompressedGraphTest {
+
+	private static final int NUM_OF_NODES = 1000;
+
+	Graph<Node, Edge> graph;
+
+	CompressedGraph compressed;
+
+	@Before
+	public void setUp() throws Exception {
+		// some lengths are negative
+		GraphBuilder<Node, Edge> builder = TestGraphs.randomGraphBuilder(5L, NUM_OF_NODES, 3,
+				(from, to, lengthCm, random) -> new Edge(from, to, lengthCm - 10));
+		// a hub with a high degree
+		for (int i = 0; i < NUM_OF_NODES; i++) {
+			if (i != 17 && i % 3 == 0 && !builder.containsEdge(builder.getNode(17), builder.getNode(i))) {
+				builder.addEdge(new Edge(builder.getNode(17), builder.getNode(i), i));
+			}
+		}
+		graph = builder.createGraph();
+		compressed = CompressedGraph.compress(graph);
+	}
+
+	@Test
+	public void testAdjacency() throws Exception {
+		Assert.assertEquals(graph.numberOfNodes(), compressed.numberOfNodes());
+		Assert.assertEquals(graph.numberOfEdges(), compressed.numberOfEdges());
+		for (int k = 0; k < NUM_OF_NODES; k++) {
+			Assert.assertEquals(graph.outDegree(k), compressed.outDegree(k));
+			Assert.assertEquals(graph.inDegree(k), compressed.inDegree(k));
+			Assert.assertEquals(neighbors(graph, k, true), neighbors(compressed, k, true));
+			Assert.assertEquals(neighbors(graph, k, false), neighbors(compressed, k, false));
+		}
+	}
+
+	@Test
+	public void testCursor() throws Exception {
+		CompressedGraph.Cursor out = compressed.outCursor();
+		CompressedGraph.Cursor in = compressed.inCursor();
+		// visit the nodes in a random order to check the positioning
+		List<Integer> nodeIds = new ArrayList<>();
+		for (int k = 0; k < NUM_OF_NODES; k++) {
+			nodeIds.add(k);
+		}
+		Collections.shuffle(nodeIds, new Random(1L));
+		for (int k : nodeIds) {
+			Assert.assertEquals(graph.outDegree(k), out.reset(k));
+			for (int i = 0; i < graph.outDegree(k); i++) {
+				Assert.assertTrue(out.next());
+				Assert.assertEquals(graph.outTarget(k, i), out.nodeId());
+				Assert.assertEquals(graph.outLengthCm(k, i), out.lengthCm());
+			}
+			Assert.assertFalse(out.next());
+
+			List<Long> incoming = new ArrayList<>();
+			Assert.assertEquals(graph.inDegree(k), in.reset(k));
+			while (in.next()) {
+				incoming.add(pack(in.nodeId(), in.lengthCm()));
+			}
+			Assert.assertEquals(neighbors(graph, k, false), incoming);
+		}
+	}
+
+	/**
+	 * Records longer than 64 KB do not fit into the relative offsets, the records following them in the same sample
+	 * group are located by skipping the preceding records.
+	 */
+	@Test
+	public void testLongRecords() throws Exception {
+		int numberOfNodes = 30000;
+		int outHub = 9;
+		int inHub = 11;
+		Random random = new Random(7L);
+		GraphBuilder<Node, Edge> builder = TestGraphs.randomGraphBuilder(7L, numberOfNodes, 1,
+				(from, to, lengthCm, edgeRandom) -> new Edge(from, to, lengthCm));
+		for (int i = 0; i < numberOfNodes; i++) {
+			if (i != outHub && !builder.containsEdge(builder.getNode(outHub), builder.getNode(i))) {
+				builder.addEdge(new Edge(builder.getNode(outHub), builder.getNode(i), 100000000 + random.nextInt(
+						100000000)));
+			}
+			if (i != inHub && i != outHub && !builder.containsEdge(builder.getNode(i), builder.getNode(inHub))) {
+				builder.addEdge(new Edge(builder.getNode(i), builder.getNode(inHub), 100000000 + random.nextInt(
+						100000000)));
+			}
+		}
+		Graph<Node, Edge> longGraph = builder.createGraph();
+		CompressedGraph longCompressed = CompressedGraph.compress(longGraph);
+		Assert.assertEquals(numberOfNodes - 1, longCompressed.outDegree(outHub));
+		Assert.assertTrue(longCompressed.inDegree(inHub) >= numberOfNodes - 2);
+
+		CompressedGraph.Cursor out = longCompressed.outCursor();
+		CompressedGraph.Cursor in = longCompressed.inCursor();
+		for (int k = 0; k < 4 * CompressedGraph.SAMPLE_RATE; k++) {
+			Assert.assertEquals(longGraph.outDegree(k), longCompressed.outDegree(k));
+			Assert.assertEquals(longGraph.inDegree(k), longCompressed.inDegree(k));
+			Assert.assertEquals(neighbors(longGraph, k, true), neighbors(longCompressed, k, true));
+			Assert.assertEquals(neighbors(longGraph, k, false), neighbors(longCompressed, k, false));
+
+			Assert.assertEquals(longGraph.outDegree(k), out.reset(k));
+			for (int i = 0; i < longGraph.outDegree(k); i++) {
+				Assert.assertTrue(out.next());
+				Assert.assertEquals(longGraph.outTarget(k, i), out.nodeId());
+				Assert.assertEquals(longGraph.outLengthCm(k, i), out.lengthCm());
+			}
+			Assert.assertFalse(out.next());
+
+			List<Long> incoming = new ArrayList<>();
+			Assert.assertEquals(longGraph.inDegree(k), in.reset(k));
+			while (in.next()) {
+				incoming.add(pack(in.nodeId(), in.lengthCm()));
+			}
+			Assert.assertEquals(neighbors(longGraph, k, false), incoming);
+		}
+	}
+
+	@Test
+	public void testSize() throws Exception {
+		Assert.assertTrue(compressed.sizeInBytes() < 16L * graph.numberOfEdges());
+	}
+
+	private static List<Long> neighbors(PrimitiveGraphStructure graph, int nodeId, boolean outgoing) {
+		List<Long> neighbors = new ArrayList<>();
+		if (outgoing) {
+			graph.forEachOutNeighbor(nodeId, (neighbor, lengthCm) -> neighbors.add(pack(neighbor, lengthCm)));
+		} else {
+			graph.forEachInNeighbor(nodeId, (neighbor, lengthCm) -> neighbors.add(pack(neighbor, lengthCm)));
+		}
+		Collections.sort(neighbors);
+		return neighbors;
+	}
+
+	private static long pack(int nodeId, int lengthCm) {
+		return ((long) nodeId << 32) | (lengthCm & 0xFFFFFFFFL);
+	}
+}
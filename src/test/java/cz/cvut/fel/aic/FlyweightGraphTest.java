@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic;
+
+import cz.cvut.fel.aic.geographtools.Edge;
+import cz.cvut.fel.aic.geographtools.FlyweightGraph;
+import cz.cvut.fel.aic.geographtools.FlyweightGraphBuilder;
+import cz.cvut.fel.aic.geographtools.Graph;
+import cz.cvut.fel.aic.geographtools.Node;
+import cz.cvut.fel.aic.geographtools.util.StronglyConnectedComponentsFinder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FlyweightGraphTest {
+
+	private static final int NUM_OF_NODES = 500;
+
+	Graph<Node, Edge> graph;
+
+	FlyweightGraph flyweight;
+
+	@Before
+	public void setUp() throws Exception {
+		// sparse edges, so there are more strongly connected components
+		graph = TestGraphs.randomGraph(9L, NUM_OF_NODES, 1);
+		FlyweightGraphBuilder flyweightBuilder = new FlyweightGraphBuilder();
+		for (Node node : graph.getAllNodes()) {
+			Assert.assertEquals(node.id, flyweightBuilder.addNode(node.sourceId, node.latE6, node.lonE6,
+					node.getLatitudeProjected1E2(), node.getLongitudeProjected1E2(), node.elevation));
+		}
+		for (Edge edge : graph.getAllEdges()) {
+			flyweightBuilder.addEdge(edge.fromNode.id, edge.toNode.id, edge.getLengthCm());
+		}
+		flyweight = flyweightBuilder.build();
+	}
+
+	@Test
+	public void testBuilder() throws Exception {
+		assertSameGraph(flyweight);
+	}
+
+	@Test
+	public void testCopyOf() throws Exception {
+		assertSameGraph(FlyweightGraph.copyOf(graph));
+	}
+
+	@Test
+	public void testCursors() throws Exception {
+		FlyweightGraph.NodeCursor node = flyweight.nodeCursor();
+		FlyweightGraph.EdgeCursor edge = flyweight.edgeCursor();
+		int nodes = 0;
+		while (node.next()) {
+			Node expected = graph.getNode(node.id());
+			Assert.assertEquals(expected.sourceId, node.sourceId());
+			Assert.assertEquals(expected.lonE6, node.lonE6());
+			Assert.assertEquals(expected.getLongitudeProjected1E2(), node.longitudeProjected1E2());
+
+			List<Edge> outEdges = graph.getOutEdges(expected);
+			edge.outEdges(node.id());
+			for (Edge outEdge : outEdges) {
+				Assert.assertTrue(edge.next());
+				Assert.assertEquals(node.id(), edge.fromNodeId());
+				Assert.assertEquals(outEdge.toNode.id, edge.toNodeId());
+				Assert.assertEquals(outEdge.getLengthCm(), edge.lengthCm());
+			}
+			Assert.assertFalse(edge.next());
+
+			HashSet<Integer> inEdgeIds = new HashSet<>();
+			for (Edge inEdge : graph.getInEdges(expected)) {
+				inEdgeIds.add(graph.edgeIdOf(inEdge));
+			}
+			edge.inEdges(node.id());
+			while (edge.next()) {
+				Assert.assertTrue(inEdgeIds.remove(edge.id()));
+				Assert.assertEquals(node.id(), edge.toNodeId());
+			}
+			Assert.assertTrue(inEdgeIds.isEmpty());
+			nodes++;
+		}
+		Assert.assertEquals(NUM_OF_NODES, nodes);
+
+		int edges = 0;
+		edge.allEdges();
+		while (edge.next()) {
+			Assert.assertEquals(edges++, edge.id());
+		}
+		Assert.assertEquals(graph.numberOfEdges(), edges);
+		Assert.assertEquals(7, node.moveTo(7).id());
+	}
+
+	@Test
+	public void testStronglyConnectedComponents() throws Exception {
+		List<HashSet<Integer>> expected = StronglyConnectedComponentsFinder
+				.getStronglyConnectedComponentsSortedBySize(graph);
+		int[] componentIds = StronglyConnectedComponentsFinder.getStronglyConnectedComponentIds(flyweight);
+
+		List<HashSet<Integer>> components = new ArrayList<>();
+		for (int nodeId = 0; nodeId < NUM_OF_NODES; nodeId++) {
+			while (components.size() <= componentIds[nodeId]) {
+				components.add(new HashSet<>());
+			}
+			components.get(componentIds[nodeId]).add(nodeId);
+		}
+		Assert.assertEquals(expected.size(), components.size());
+		Assert.assertEquals(new HashSet<>(expected), new HashSet<>(components));
+		for (int i = 1; i < components.size(); i++) {
+			Assert.assertTrue(components.get(i - 1).size() >= components.get(i).size());
+		}
+		Assert.assertTrue(components.get(0).size() > 1);
+	}
+
+	private void assertSameGraph(FlyweightGraph flyweight) {
+		Assert.assertEquals(graph.numberOfNodes(), flyweight.numberOfNodes());
+		Assert.assertEquals(graph.numberOfEdges(), flyweight.numberOfEdges());
+		for (int k = 0; k < NUM_OF_NODES; k++) {
+			Assert.assertEquals(graph.sourceIdOf(k), flyweight.sourceIdOf(k));
+			Assert.assertEquals(graph.getNodeLatE6(k), flyweight.getNodeLatE6(k));
+			Assert.assertEquals(graph.getNodeLatitudeProjected1E2(k), flyweight.getNodeLatitudeProjected1E2(k));
+			Assert.assertEquals(graph.getNodeElevation(k), flyweight.getNodeElevation(k));
+			Assert.assertEquals(graph.outDegree(k), flyweight.outDegree(k));
+			Assert.assertEquals(graph.inDegree(k), flyweight.inDegree(k));
+			for (int i = 0; i < graph.inDegree(k); i++) {
+				Assert.assertEquals(graph.inEdgeId(k, i), flyweight.edgeIdOf(graph.inSource(k, i), k));
+			}
+		}
+		for (int edgeId = 0; edgeId < graph.numberOfEdges(); edgeId++) {
+			Assert.assertEquals(graph.edgeSource(edgeId), flyweight.edgeSource(edgeId));
+			Assert.assertEquals(graph.edgeTarget(edgeId), flyweight.edgeTarget(edgeId));
+			Assert.assertEquals(graph.edgeLengthCm(edgeId), flyweight.edgeLengthCm(edgeId));
+			Assert.assertEquals(edgeId, flyweight.edgeIdOf(graph.edgeSource(edgeId), graph.edgeTarget(edgeId)));
+		}
+	}
+}
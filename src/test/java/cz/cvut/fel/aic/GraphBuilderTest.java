@@ -17,12 +17,19 @@
 
 package cz.cvut.fel.aic;
 
+import cz.cvut.fel.aic.geographtools.BitColumn;
 import cz.cvut.fel.aic.geographtools.Edge;
+import cz.cvut.fel.aic.geographtools.FloatColumn;
 import cz.cvut.fel.aic.geographtools.Graph;
 import cz.cvut.fel.aic.geographtools.GraphBuilder;
+import cz.cvut.fel.aic.geographtools.IntColumn;
+import cz.cvut.fel.aic.geographtools.LongColumn;
 import cz.cvut.fel.aic.geographtools.Node;
+import cz.cvut.fel.aic.geographtools.util.NodeOrdering;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -148,4 +155,119 @@ public class GraphBuilderTest {
 		Assert.assertEquals(edges.size(), graph.getAllEdges().size());
 		Assert.assertEquals(edges.size(), graph.getAllEdges().size());
 	}
+	@Test
+	public void testColumns() throws Exception {
+		GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+		builder.addNodes(nodes);
+		builder.addEdges(edges);
+		for (Edge edge : edges) {
+			builder.setEdgeFloat("speed", edge, edge.fromNode.id * 10f);
+		}
+		builder.setEdgeBit("toll", edges.get(3), true);
+		builder.setNodeInt("level", 5, 42);
+
+		Graph<Node, Edge> graph = builder.createGraph();
+
+		FloatColumn speed = graph.getEdgeColumn("speed", FloatColumn.class);
+		BitColumn toll = graph.getEdgeColumn("toll", BitColumn.class);
+		for (int edgeId = 0; edgeId < graph.numberOfEdges(); edgeId++) {
+			Edge edge = graph.getEdgeById(edgeId);
+			Assert.assertEquals(edge.fromNode.id * 10f, speed.get(edgeId), 0);
+			Assert.assertEquals(edge == edges.get(3), toll.get(edgeId));
+		}
+		IntColumn level = graph.getNodeColumn("level", IntColumn.class);
+		Assert.assertEquals(42, level.get(5));
+		Assert.assertEquals(0, level.get(4));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testColumnTypeMismatch() throws Exception {
+		GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+		builder.addNodes(nodes);
+		builder.setNodeInt("level", 1, 1);
+		builder.setNodeFloat("level", 2, 1f);
+	}
+
+	@Test
+	public void testReorderNodes() throws Exception {
+		for (NodeOrdering ordering : NodeOrdering.values()) {
+			GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+			builder.addNodes(nodes);
+			builder.addEdges(edges);
+			builder.setNodeLong("osmId", 3, 1003);
+			builder.setEdgeInt("lanes", edges.get(4), 2);
+
+			int[] newIdByOldId = builder.reorderNodes(ordering, GraphBuilder.NODE_RENUMBERER,
+					GraphBuilder.EDGE_RECONNECTOR);
+			Graph<Node, Edge> graph = builder.createGraph();
+
+			Assert.assertEquals(nodes.size(), graph.numberOfNodes());
+			Assert.assertEquals(edges.size(), graph.numberOfEdges());
+			for (Node node : nodes) {
+				Node renumbered = graph.getNode(newIdByOldId[node.id]);
+				Assert.assertEquals(node.sourceId, renumbered.sourceId);
+				Assert.assertEquals(node.latE6, renumbered.latE6);
+			}
+			for (Edge edge : edges) {
+				Edge renumbered = graph.getEdge(graph.getNode(newIdByOldId[edge.fromNode.id]),
+						graph.getNode(newIdByOldId[edge.toNode.id]));
+				Assert.assertNotNull(renumbered);
+				Assert.assertEquals(edge.getLengthCm(), renumbered.getLengthCm());
+			}
+			Assert.assertEquals(1003, graph.getNodeColumn("osmId", LongColumn.class).get(newIdByOldId[3]));
+			Assert.assertEquals(2, graph.getEdgeColumn("lanes", IntColumn.class).get(graph.edgeIdOf(
+					newIdByOldId[edges.get(4).fromNode.id], newIdByOldId[edges.get(4).toNode.id])));
+		}
+	}
+
+	@Test
+	public void testCuthillMcKeeOrder() throws Exception {
+		GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+		builder.addNodes(nodes);
+		builder.addEdges(edges);
+
+		int[] newIdByOldId = builder.reorderNodes(NodeOrdering.CUTHILL_MCKEE, GraphBuilder.NODE_RENUMBERER,
+				GraphBuilder.EDGE_RECONNECTOR);
+
+		// isolated nodes 0 and 7 have the minimal degree and start their components
+		Assert.assertEquals(0, newIdByOldId[0]);
+		Assert.assertEquals(1, newIdByOldId[7]);
+		// node 6 has the minimal degree in the remaining component, the neighbours follow by increasing degree
+		Assert.assertEquals(2, newIdByOldId[6]);
+		Assert.assertEquals(3, newIdByOldId[5]);
+		Assert.assertEquals(4, newIdByOldId[4]);
+		Assert.assertEquals(5, newIdByOldId[3]);
+		Assert.assertEquals(6, newIdByOldId[1]);
+		Assert.assertEquals(7, newIdByOldId[2]);
+	}
+
+	@Test
+	public void testDumpLargeGraph() throws Exception {
+		Random random = new Random(7);
+		int numberOfNodes = 20000;
+		GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+		for (int i = 0; i < numberOfNodes; i++) {
+			builder.addNode(new Node(i, i, 0, 0, 0, 0, 0));
+		}
+		for (int i = 0; i < numberOfNodes * 4; i++) {
+			Node from = builder.getNode(random.nextInt(numberOfNodes));
+			Node to = builder.getNode(random.nextInt(numberOfNodes));
+			if (!builder.containsEdge(from, to)) {
+				builder.addEdge(new Edge(from, to, random.nextInt(1000)));
+			}
+		}
+
+		Graph<Node, Edge> graph = builder.dumpCurrentGraph();
+
+		Assert.assertEquals(builder.getAllEdges().size(), graph.numberOfEdges());
+		for (int k = 0; k < numberOfNodes; k++) {
+			// incoming edges keep the order of addition
+			Assert.assertEquals(builder.getInEdges(k), graph.getInEdges(k));
+			Assert.assertEquals(new HashSet<>(builder.getOutEdges(k)), new HashSet<>(graph.getOutEdges(k)));
+			for (int i = 1; i < graph.outDegree(k); i++) {
+				Assert.assertTrue(graph.outTarget(k, i - 1) < graph.outTarget(k, i));
+			}
+		}
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic;
+
+import cz.cvut.fel.aic.geographtools.BitColumn;
+import cz.cvut.fel.aic.geographtools.Edge;
+import cz.cvut.fel.aic.geographtools.FloatColumn;
+import cz.cvut.fel.aic.geographtools.Graph;
+import cz.cvut.fel.aic.geographtools.GraphIO;
+import cz.cvut.fel.aic.geographtools.IntColumn;
+import cz.cvut.fel.aic.geographtools.LongColumn;
+import cz.cvut.fel.aic.geographtools.Node;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GraphIOTest {
+
+	private static final int NUM_OF_NODES = 1000;
+
+	Graph<Node, SpeedEdge> graph;
+
+	@Before
+	public void setUp() throws Exception {
+		graph = TestGraphs.randomGraph(42L, NUM_OF_NODES, 3,
+				(from, to, lengthCm, random) -> new SpeedEdge(from, to, lengthCm, random.nextInt(130)));
+	}
+
+	@Test
+	public void testPlainRoundTrip() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GraphIO.write(graph, bytes);
+
+		Graph<Node, Edge> read = GraphIO.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+		Assert.assertEquals(graph.numberOfNodes(), read.numberOfNodes());
+		Assert.assertEquals(graph.numberOfEdges(), read.numberOfEdges());
+		for (Node node : graph.getAllNodes()) {
+			Node readNode = read.getNode(node.id);
+			Assert.assertEquals(node, readNode);
+			Assert.assertEquals(node.sourceId, readNode.sourceId);
+			Assert.assertEquals(node.getLatitudeProjected1E2(), readNode.getLatitudeProjected1E2());
+			Assert.assertEquals(node.getLongitudeProjected1E2(), readNode.getLongitudeProjected1E2());
+			Assert.assertEquals(node.elevation, readNode.elevation);
+			Assert.assertEquals(new HashSet<>(graph.getInEdges(node.id)), new HashSet<>(read.getInEdges(node.id)));
+			for (int i = 0; i < graph.outDegree(node.id); i++) {
+				Assert.assertEquals(graph.outTarget(node.id, i), read.outTarget(node.id, i));
+				Assert.assertEquals(graph.outLengthCm(node.id, i), read.outLengthCm(node.id, i));
+			}
+		}
+	}
+
+	@Test
+	public void testCodecRoundTrip() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GraphIO.write(graph, bytes, GraphIO.NODE_CODEC, new SpeedEdgeCodec());
+
+		Graph<Node, SpeedEdge> read = GraphIO.read(new ByteArrayInputStream(bytes.toByteArray()),
+				GraphIO.NODE_CODEC, new SpeedEdgeCodec());
+
+		Assert.assertEquals(graph, read);
+		for (SpeedEdge edge : graph.getAllEdges()) {
+			Assert.assertEquals(edge.speed, read.getEdge(edge.fromNode, edge.toNode).speed);
+		}
+	}
+
+	@Test
+	public void testSmallerThanJavaSerialization() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GraphIO.write(graph, bytes, GraphIO.NODE_CODEC, new SpeedEdgeCodec());
+
+		ByteArrayOutputStream javaBytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(javaBytes)) {
+			out.writeObject(graph);
+		}
+
+		Assert.assertTrue(bytes.size() * 4 < javaBytes.size());
+	}
+
+	@Test
+	public void testColumnRoundTrip() throws Exception {
+		IntColumn travelTime = new IntColumn("travelTime", graph.numberOfEdges());
+		BitColumn oneWay = new BitColumn("oneWay", graph.numberOfEdges());
+		for (int edgeId = 0; edgeId < graph.numberOfEdges(); edgeId++) {
+			travelTime.set(edgeId, graph.edgeLengthCm(edgeId) / (graph.getEdgeById(edgeId).speed + 1));
+			oneWay.set(edgeId, edgeId % 3 == 0);
+		}
+		FloatColumn weight = new FloatColumn("weight", graph.numberOfNodes());
+		LongColumn osmId = new LongColumn("osmId", graph.numberOfNodes());
+		for (int nodeId = 0; nodeId < graph.numberOfNodes(); nodeId++) {
+			weight.set(nodeId, nodeId * 0.5f - 100);
+			osmId.set(nodeId, Long.MAX_VALUE - nodeId);
+		}
+		graph.addEdgeColumn(travelTime);
+		graph.addEdgeColumn(oneWay);
+		graph.addNodeColumn(weight);
+		graph.addNodeColumn(osmId);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GraphIO.write(graph, bytes);
+		Graph<Node, Edge> read = GraphIO.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+		Assert.assertArrayEquals(travelTime.getValues(), read.getEdgeColumn("travelTime", IntColumn.class)
+				.getValues());
+		Assert.assertArrayEquals(oneWay.getWords(), read.getEdgeColumn("oneWay", BitColumn.class).getWords());
+		Assert.assertArrayEquals(weight.getValues(), read.getNodeColumn("weight", FloatColumn.class).getValues(),
+				0);
+		Assert.assertArrayEquals(osmId.getValues(), read.getNodeColumn("osmId", LongColumn.class).getValues());
+	}
+
+	@Test
+	public void testReadVersion1() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GraphIO.write(graph, bytes);
+		byte[] data = bytes.toByteArray();
+		// a version 1 stream is the same without the trailing empty column sections
+		data = Arrays.copyOf(data, data.length - 2);
+		data[7] = 1;
+
+		Graph<Node, Edge> read = GraphIO.read(new ByteArrayInputStream(data));
+
+		Assert.assertEquals(graph.numberOfEdges(), read.numberOfEdges());
+		Assert.assertTrue(read.getEdgeColumns().isEmpty());
+	}
+
+	@Test(expected = IOException.class)
+	public void testWrongHeader() throws Exception {
+		GraphIO.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+	}
+
+	static class SpeedEdge extends Edge<Node> {
+
+		final int speed;
+
+		SpeedEdge(Node fromNode, Node toNode, int lengthInCm, int speed) {
+			super(fromNode, toNode, lengthInCm);
+			this.speed = speed;
+		}
+	}
+
+	static class SpeedEdgeCodec implements GraphIO.EdgeCodec<Node, SpeedEdge> {
+
+		@Override
+		public void write(SpeedEdge edge, DataOutput out) throws IOException {
+			out.writeByte(edge.speed);
+		}
+
+		@Override
+		public SpeedEdge read(Node fromNode, Node toNode, int lengthCm, DataInput in) throws IOException {
+			return new SpeedEdge(fromNode, toNode, lengthCm, in.readUnsignedByte());
+		}
+	}
+}
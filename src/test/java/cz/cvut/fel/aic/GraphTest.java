@@ -20,7 +20,14 @@ package cz.cvut.fel.aic;
 import cz.cvut.fel.aic.geographtools.Edge;
 import cz.cvut.fel.aic.geographtools.Graph;
 import cz.cvut.fel.aic.geographtools.GraphBuilder;
+import cz.cvut.fel.aic.geographtools.GraphFingerprint;
 import cz.cvut.fel.aic.geographtools.Node;
+import cz.cvut.fel.aic.geographtools.NodeCoordinate;
+import cz.cvut.fel.aic.geographtools.ReversedGraph;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -124,6 +131,200 @@ public class GraphTest {
 		}
 	}
 
+	@Test
+	public void testPrimitiveOutAdjacency() throws Exception {
+		for (Node node : graph.getAllNodes()) {
+			List<Edge> outEdges = graph.getOutEdges(node);
+			Assert.assertEquals(outEdges.size(), graph.outDegree(node.id));
+
+			List<Integer> visited = new ArrayList<>();
+			graph.forEachOutNeighbor(node.id, (targetId, lengthCm) -> visited.add(targetId));
+
+			for (int i = 0; i < outEdges.size(); i++) {
+				Assert.assertEquals(outEdges.get(i).toNode.id, graph.outTarget(node.id, i));
+				Assert.assertEquals(outEdges.get(i).getLengthCm(), graph.outLengthCm(node.id, i));
+				Assert.assertEquals(outEdges.get(i).toNode.id, (int) visited.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void testPrimitiveInAdjacency() throws Exception {
+		for (Node node : graph.getAllNodes()) {
+			List<Edge> inEdges = graph.getInEdges(node);
+			Assert.assertEquals(inEdges.size(), graph.inDegree(node.id));
+
+			List<Integer> visited = new ArrayList<>();
+			graph.forEachInNeighbor(node.id, (sourceId, lengthCm) -> visited.add(sourceId));
+
+			for (int i = 0; i < inEdges.size(); i++) {
+				Assert.assertEquals(inEdges.get(i).fromNode.id, graph.inSource(node.id, i));
+				Assert.assertEquals(inEdges.get(i).getLengthCm(), graph.inLengthCm(node.id, i));
+				Assert.assertEquals(inEdges.get(i).fromNode.id, (int) visited.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void testNodeCoordinateColumns() throws Exception {
+		int[] latitudes = graph.nodeCoordinateStream(NodeCoordinate.LAT_E6).toArray();
+		int[] longitudes = new int[graph.numberOfNodes()];
+		graph.copyNodeCoordinates(NodeCoordinate.LON_E6, 0, longitudes, 0, graph.numberOfNodes());
+
+		Assert.assertEquals(graph.numberOfNodes(), latitudes.length);
+		for (Node node : graph.getAllNodes()) {
+			Assert.assertEquals(node.latE6, graph.getNodeLatE6(node.id));
+			Assert.assertEquals(node.lonE6, graph.getNodeLonE6(node.id));
+			Assert.assertEquals(node.getLatitudeProjected1E2(), graph.getNodeLatitudeProjected1E2(node.id));
+			Assert.assertEquals(node.getLongitudeProjected1E2(), graph.getNodeLongitudeProjected1E2(node.id));
+			Assert.assertEquals(node.elevation, graph.getNodeElevation(node.id));
+			Assert.assertEquals(node.latE6, latitudes[node.id]);
+			Assert.assertEquals(node.lonE6, longitudes[node.id]);
+		}
+	}
+
+	@Test
+	public void testSerialization() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(graph);
+		}
+
+		Graph<Node, Edge> deserialized;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			deserialized = (Graph<Node, Edge>) in.readObject();
+		}
+
+		Assert.assertEquals(graph, deserialized);
+		Assert.assertEquals(graph.fingerprint(), deserialized.fingerprint());
+		for (Node node : graph.getAllNodes()) {
+			Assert.assertEquals(graph.outDegree(node.id), deserialized.outDegree(node.id));
+			Assert.assertEquals(graph.inDegree(node.id), deserialized.inDegree(node.id));
+			for (int i = 0; i < graph.outDegree(node.id); i++) {
+				Assert.assertEquals(graph.outTarget(node.id, i), deserialized.outTarget(node.id, i));
+			}
+			Assert.assertEquals(node.id, deserialized.nodeIdForSourceId(node.sourceId));
+			Assert.assertEquals(graph.getNodeLatE6(node.id), deserialized.getNodeLatE6(node.id));
+		}
+	}
+
+	@Test
+	public void testEdgeIds() throws Exception {
+		for (int edgeId = 0; edgeId < graph.numberOfEdges(); edgeId++) {
+			Edge edge = graph.getEdgeById(edgeId);
+			Assert.assertEquals(edgeId, graph.edgeIdOf(edge));
+			Assert.assertEquals(edgeId, graph.edgeIdOf(edge.fromNode.id, edge.toNode.id));
+			Assert.assertEquals(edge.fromNode.id, graph.edgeSource(edgeId));
+			Assert.assertEquals(edge.toNode.id, graph.edgeTarget(edgeId));
+			Assert.assertEquals(edge.getLengthCm(), graph.edgeLengthCm(edgeId));
+		}
+		Assert.assertEquals(-1, graph.edgeIdOf(0, 1));
+
+		for (Node node : graph.getAllNodes()) {
+			List<Integer> outIds = new ArrayList<>();
+			graph.forEachOutEdgeId(node.id, outIds::add);
+			List<Integer> inIds = new ArrayList<>();
+			graph.forEachInEdgeId(node.id, inIds::add);
+			Assert.assertEquals(graph.outDegree(node.id), outIds.size());
+			Assert.assertEquals(graph.inDegree(node.id), inIds.size());
+			for (int i = 0; i < outIds.size(); i++) {
+				Assert.assertEquals(graph.outEdgeId(node.id, i), (int) outIds.get(i));
+				Assert.assertEquals(graph.getOutEdges(node).get(i), graph.getEdgeById(outIds.get(i)));
+			}
+			for (int i = 0; i < inIds.size(); i++) {
+				Assert.assertEquals(graph.inEdgeId(node.id, i), (int) inIds.get(i));
+				Assert.assertEquals(graph.getInEdges(node).get(i), graph.getEdgeById(inIds.get(i)));
+			}
+		}
+	}
+
+	@Test
+	public void testSourceIds() throws Exception {
+		for (Node node : graph.getAllNodes()) {
+			Assert.assertEquals(node.sourceId, graph.sourceIdOf(node.id));
+			Assert.assertEquals(node.id, graph.nodeIdForSourceId(node.sourceId));
+			Assert.assertEquals(node.id, (int) graph.createSourceIdToNodeIdMap().get(node.sourceId));
+			Assert.assertEquals(node.sourceId, (long) graph.createNodeIdToSourceIdMap().get(node.id));
+		}
+		Assert.assertEquals(-1, graph.nodeIdForSourceId(0));
+		Assert.assertEquals(-1, graph.nodeIdForSourceId(18));
+	}
+
+	@Test
+	public void testReversed() throws Exception {
+		ReversedGraph<Node, Edge> reversed = graph.reversed();
+
+		Assert.assertSame(graph, reversed.reversed());
+		Assert.assertEquals(graph.numberOfEdges(), reversed.numberOfEdges());
+		for (Node node : graph.getAllNodes()) {
+			Assert.assertEquals(graph.getInEdges(node), reversed.getOutEdges(node));
+			Assert.assertEquals(graph.getOutEdges(node), reversed.getInEdges(node));
+			Assert.assertEquals(graph.inDegree(node.id), reversed.outDegree(node.id));
+			for (int i = 0; i < reversed.outDegree(node.id); i++) {
+				int edgeId = reversed.outEdgeId(node.id, i);
+				Assert.assertEquals(node.id, reversed.edgeSource(edgeId));
+				Assert.assertEquals(reversed.outTarget(node.id, i), reversed.edgeTarget(edgeId));
+				Assert.assertEquals(graph.edgeLengthCm(edgeId), reversed.outLengthCm(node.id, i));
+			}
+			for (Edge edge : graph.getOutEdges(node)) {
+				Assert.assertSame(edge, reversed.getEdge(edge.toNode, edge.fromNode));
+				Assert.assertTrue(reversed.containsEdge(edge.toNode, edge.fromNode));
+			}
+		}
+		Assert.assertFalse(reversed.containsEdge(graph.getNode(1), graph.getNode(2)));
+	}
+
+	@Test
+	public void testFingerprint() throws Exception {
+		Graph<Node, Edge> same = builder.dumpCurrentGraph();
+		Assert.assertNotSame(graph, same);
+		Assert.assertEquals(graph.fingerprint(), same.fingerprint());
+		Assert.assertEquals(graph.hashCode(), same.hashCode());
+		Assert.assertEquals(graph.fingerprint(), GraphFingerprint.fromHexString(graph.fingerprint().toHexString()));
+
+		GraphBuilder<Node, Edge> changedBuilder = new GraphBuilder<>();
+		changedBuilder.addNodes(graph.getAllNodes());
+		for (Edge edge : graph.getAllEdges()) {
+			changedBuilder.addEdge(edge.toNode.id == 6 ? new Edge(edge.fromNode, edge.toNode, 101) : edge);
+		}
+		Graph<Node, Edge> changed = changedBuilder.dumpCurrentGraph();
+		Assert.assertNotEquals(graph.fingerprint(), changed.fingerprint());
+		Assert.assertNotEquals(graph, changed);
+	}
+
+	@Test
+	public void testGetEdgeHighDegree() throws Exception {
+		GraphBuilder<Node, Edge> hubBuilder = new GraphBuilder<>();
+		int numberOfNodes = 300;
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < numberOfNodes; i++) {
+			Node node = new Node(i, i, 50000000 + i, 14000000 + i, 0, 0, 0);
+			nodes.add(node);
+			hubBuilder.addNode(node);
+		}
+		// insert the edges in descending order to check that they get sorted
+		for (int i = numberOfNodes - 1; i > 0; i -= 2) {
+			hubBuilder.addEdge(new Edge(nodes.get(0), nodes.get(i), i));
+		}
+		Graph<Node, Edge> hub = hubBuilder.dumpCurrentGraph();
+
+		for (int i = 1; i < hub.outDegree(0); i++) {
+			Assert.assertTrue(hub.outTarget(0, i - 1) < hub.outTarget(0, i));
+		}
+		for (int round = 0; round < 2; round++) {
+			for (int i = 1; i < numberOfNodes; i++) {
+				Edge edge = hub.getEdge(nodes.get(0), nodes.get(i));
+				if (i % 2 == 1) {
+					Assert.assertEquals(i, edge.toNode.getId());
+				} else {
+					Assert.assertNull(edge);
+				}
+			}
+			Assert.assertNull(hub.getEdge(nodes.get(1), nodes.get(0)));
+			hub.buildEdgeIndex();
+		}
+	}
+
 	@Test
 	public void testGraphEquals() throws Exception {
 		Assert.assertTrue(graph.equals(builder.dumpCurrentGraph()));
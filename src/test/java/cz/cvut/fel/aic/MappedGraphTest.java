@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic;
+
+import cz.cvut.fel.aic.geographtools.Edge;
+import cz.cvut.fel.aic.geographtools.Graph;
+import cz.cvut.fel.aic.geographtools.GraphBuilder;
+import cz.cvut.fel.aic.geographtools.MappedGraph;
+import cz.cvut.fel.aic.geographtools.Node;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedGraphTest {
+
+	Graph<Node, Edge> graph;
+
+	@Before
+	public void setUp() throws Exception {
+		Node n0 = new Node(0, 10, 50352188, 14412064, 101, 201, 1);
+		Node n1 = new Node(1, 11, 50595995, 14536064, 102, 202, 2);
+		Node n2 = new Node(2, 12, 50998324, 14382655, 103, 203, 3);
+		Node n3 = new Node(3, 13, 49995863, 14063664, 104, 204, 4);
+		Node n4 = new Node(4, 14, 49775462, 14732555, 105, 205, 5);
+
+		GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+		builder.addNode(n0);
+		builder.addNode(n1);
+		builder.addNode(n2);
+		builder.addNode(n3);
+		builder.addNode(n4);
+		builder.addEdge(new Edge(n0, n1, 100));
+		builder.addEdge(new Edge(n1, n2, 200));
+		builder.addEdge(new Edge(n2, n0, 300));
+		builder.addEdge(new Edge(n2, n3, 400));
+		builder.addEdge(new Edge(n3, n2, 500));
+
+		graph = builder.createGraph();
+	}
+
+	@Test
+	public void testWriteAndOpen() throws Exception {
+		File file = File.createTempFile("graph", ".mapped");
+		file.deleteOnExit();
+
+		MappedGraph.write(graph, file.toPath());
+		MappedGraph mapped = MappedGraph.open(file.toPath());
+
+		Assert.assertEquals(graph.numberOfNodes(), mapped.numberOfNodes());
+		Assert.assertEquals(graph.numberOfEdges(), mapped.numberOfEdges());
+
+		for (Node node : graph.getAllNodes()) {
+			Assert.assertEquals(node.sourceId, mapped.sourceIdOf(node.id));
+			Assert.assertEquals(node.latE6, mapped.getNodeLatE6(node.id));
+			Assert.assertEquals(node.lonE6, mapped.getNodeLonE6(node.id));
+			Assert.assertEquals(node.getLatitudeProjected1E2(), mapped.getNodeLatitudeProjected1E2(node.id));
+			Assert.assertEquals(node.getLongitudeProjected1E2(), mapped.getNodeLongitudeProjected1E2(node.id));
+			Assert.assertEquals(node.elevation, mapped.getNodeElevation(node.id));
+
+			Assert.assertEquals(graph.outDegree(node.id), mapped.outDegree(node.id));
+			for (int i = 0; i < graph.outDegree(node.id); i++) {
+				Assert.assertEquals(graph.outTarget(node.id, i), mapped.outTarget(node.id, i));
+				Assert.assertEquals(graph.outLengthCm(node.id, i), mapped.outLengthCm(node.id, i));
+			}
+
+			Assert.assertEquals(graph.inDegree(node.id), mapped.inDegree(node.id));
+			for (int i = 0; i < graph.inDegree(node.id); i++) {
+				Assert.assertEquals(graph.inSource(node.id, i), mapped.inSource(node.id, i));
+				Assert.assertEquals(graph.inLengthCm(node.id, i), mapped.inLengthCm(node.id, i));
+			}
+		}
+	}
+
+	@Test
+	public void testTruncatedFile() throws Exception {
+		File file = File.createTempFile("graph", ".mapped");
+		file.deleteOnExit();
+		MappedGraph.write(graph, file.toPath());
+		long length = file.length();
+
+		for (long truncatedLength : new long[]{length - 8, 20, 10, 0}) {
+			try (RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+				truncated.setLength(truncatedLength);
+			}
+			try {
+				MappedGraph.open(file.toPath());
+				Assert.fail();
+			} catch (IOException expected) {
+				Assert.assertTrue(expected.getMessage().startsWith("Truncated mapped graph file"));
+			}
+		}
+
+		MappedGraph.write(graph, file.toPath());
+		try (RandomAccessFile corrupted = new RandomAccessFile(file, "rw")) {
+			corrupted.seek(12);
+			corrupted.writeInt(-1);
+		}
+		try {
+			MappedGraph.open(file.toPath());
+			Assert.fail();
+		} catch (IOException expected) {
+			Assert.assertTrue(expected.getMessage().startsWith("Truncated mapped graph file"));
+		}
+	}
+}
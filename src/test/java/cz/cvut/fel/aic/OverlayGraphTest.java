@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic;
+
+import cz.cvut.fel.aic.geographtools.Edge;
+import cz.cvut.fel.aic.geographtools.Graph;
+import cz.cvut.fel.aic.geographtools.GraphBuilder;
+import cz.cvut.fel.aic.geographtools.Node;
+import cz.cvut.fel.aic.geographtools.OverlayGraph;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OverlayGraphTest {
+
+	private static final int NUM_OF_NODES = 200;
+
+	List<Node> nodes;
+
+	Graph<Node, Edge> base;
+
+	@Before
+	public void setUp() throws Exception {
+		Random random = new Random(3L);
+		// the last nodes are added by the tests
+		nodes = TestGraphs.randomNodes(random, NUM_OF_NODES + 10);
+		GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+		builder.addNodes(nodes.subList(0, NUM_OF_NODES));
+		builder.addEdges(TestGraphs.randomEdges(random, nodes.subList(0, NUM_OF_NODES), 3,
+				(from, to, lengthCm, edgeRandom) -> new Edge(from, to, lengthCm)));
+		base = builder.dumpCurrentGraph();
+	}
+
+	@Test
+	public void testChanges() throws Exception {
+		OverlayGraph<Node, Edge> overlay = new OverlayGraph<>(base);
+		Node newNode = nodes.get(NUM_OF_NODES);
+		overlay.addNode(newNode);
+		Edge added = new Edge(nodes.get(5), newNode, 50);
+		overlay.addEdge(added);
+		overlay.addEdge(new Edge(newNode, nodes.get(0), 50));
+		List<Edge> outEdges = base.getOutEdges(1);
+		Node removedTarget = outEdges.get(0).toNode;
+		Assert.assertTrue(overlay.removeEdge(nodes.get(1), removedTarget));
+		Assert.assertFalse(overlay.removeEdge(nodes.get(1), removedTarget));
+
+		Assert.assertEquals(NUM_OF_NODES + 1, overlay.numberOfNodes());
+		Assert.assertEquals(base.numberOfEdges() + 1, overlay.numberOfEdges());
+		Assert.assertEquals(overlay.numberOfEdges(), overlay.getAllEdges().size());
+		Assert.assertSame(newNode, overlay.getNode(NUM_OF_NODES));
+		Assert.assertNull(overlay.getNode(NUM_OF_NODES + 1));
+		Assert.assertSame(added, overlay.getEdge(nodes.get(5), newNode));
+		Assert.assertNull(overlay.getEdge(nodes.get(1), removedTarget));
+		for (Edge edge : outEdges.subList(1, outEdges.size())) {
+			Assert.assertTrue(overlay.containsEdge(nodes.get(1), edge.toNode));
+		}
+		Assert.assertEquals(outEdges.size() - 1, overlay.getOutEdges(1).size());
+		Assert.assertEquals(base.getOutEdges(5).size() + 1, overlay.getOutEdges(5).size());
+		Assert.assertEquals(added, overlay.getInEdges(newNode).get(0));
+		Assert.assertEquals(base.getInEdges(0).size() + (removedTarget.id == 0 ? 0 : 1),
+				overlay.getInEdges(0).size());
+		Assert.assertEquals(4, overlay.pendingOperations());
+
+		// the base graph is not changed
+		Assert.assertNotNull(base.getEdge(nodes.get(1), removedTarget));
+		Assert.assertEquals(NUM_OF_NODES, base.numberOfNodes());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateEdge() throws Exception {
+		OverlayGraph<Node, Edge> overlay = new OverlayGraph<>(base);
+		Edge existing = base.getOutEdges(0).get(0);
+		overlay.addEdge(new Edge(existing.fromNode, existing.toNode, 1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNodeIdGap() throws Exception {
+		OverlayGraph<Node, Edge> overlay = new OverlayGraph<>(base);
+		overlay.addNode(nodes.get(NUM_OF_NODES + 1));
+	}
+
+	@Test
+	public void testCompaction() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			OverlayGraph<Node, Edge> overlay = new OverlayGraph<>(base, 8, executor);
+			Graph<Node, Edge> expected = applyChanges(overlay);
+
+			Graph<Node, Edge> compacted = overlay.compact();
+
+			Assert.assertEquals(0, overlay.pendingOperations());
+			Assert.assertSame(compacted, overlay.getBase());
+			Assert.assertEquals(expected, compacted);
+			Assert.assertEquals(new HashSet<>(expected.getAllEdges()), new HashSet<>(overlay.getAllEdges()));
+			for (Node node : expected.getAllNodes()) {
+				Assert.assertEquals(new HashSet<>(expected.getInEdges(node)), new HashSet<>(overlay.getInEdges(node)));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testDirectCompaction() throws Exception {
+		OverlayGraph<Node, Edge> overlay = new OverlayGraph<>(base, 5, Runnable::run);
+		Graph<Node, Edge> expected = applyChanges(overlay);
+
+		Assert.assertTrue(overlay.pendingOperations() < 5);
+		Assert.assertEquals(new HashSet<>(expected.getAllEdges()), new HashSet<>(overlay.getAllEdges()));
+		Assert.assertEquals(expected, overlay.compact());
+	}
+
+	/**
+	 * Applies random changes to the overlay and returns the expected graph.
+	 */
+	private Graph<Node, Edge> applyChanges(OverlayGraph<Node, Edge> overlay) {
+		Map<Long, Edge> edges = new LinkedHashMap<>();
+		for (Edge edge : base.getAllEdges()) {
+			edges.put(key(edge.fromNode, edge.toNode), edge);
+		}
+		Random random = new Random(11L);
+		for (int i = NUM_OF_NODES; i < nodes.size(); i++) {
+			overlay.addNode(nodes.get(i));
+		}
+		for (int i = 0; i < 100; i++) {
+			Node from = nodes.get(random.nextInt(nodes.size()));
+			Node to = nodes.get(random.nextInt(nodes.size()));
+			if (overlay.containsEdge(from, to)) {
+				overlay.removeEdge(from, to);
+				edges.remove(key(from, to));
+			} else if (from != to) {
+				Edge edge = new Edge(from, to, random.nextInt(1000));
+				overlay.addEdge(edge);
+				edges.put(key(from, to), edge);
+			}
+		}
+
+		GraphBuilder<Node, Edge> expected = new GraphBuilder<>();
+		expected.addNodes(nodes);
+		expected.addEdges(edges.values());
+		return expected.createGraph();
+	}
+
+	private static long key(Node from, Node to) {
+		return (long) from.id << 32 | to.id;
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ *  Copyright (C) 2016-2017 Umotional s.r.o. (IN: 03974618)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cz.cvut.fel.aic;
+
+import cz.cvut.fel.aic.geographtools.Edge;
+import cz.cvut.fel.aic.geographtools.Graph;
+import cz.cvut.fel.aic.geographtools.GraphBuilder;
+import cz.cvut.fel.aic.geographtools.Node;
+import cz.cvut.fel.aic.geographtools.PrimitiveGraphBuilder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrimitiveGraphBuilderTest {
+
+	List<Node> nodes;
+	List<Edge> edges;
+
+	@Before
+	public void setUp() throws Exception {
+		nodes = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			nodes.add(new Node(i, 10 + i, 50000000 + i, 14000000 + i, 0, 0, 0));
+		}
+
+		edges = new ArrayList<>();
+		edges.add(new Edge(nodes.get(1), nodes.get(2), 100));
+		edges.add(new Edge(nodes.get(2), nodes.get(3), 100));
+		edges.add(new Edge(nodes.get(3), nodes.get(1), 100));
+		edges.add(new Edge(nodes.get(3), nodes.get(5), 100));
+		edges.add(new Edge(nodes.get(3), nodes.get(4), 100));
+		edges.add(new Edge(nodes.get(4), nodes.get(5), 100));
+		edges.add(new Edge(nodes.get(5), nodes.get(4), 100));
+		edges.add(new Edge(nodes.get(5), nodes.get(6), 100));
+	}
+
+	@Test
+	public void testSameGraphAsGraphBuilder() throws Exception {
+		GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+		builder.addNodes(nodes);
+		builder.addEdges(edges);
+
+		// initial capacity too small to check the growth
+		PrimitiveGraphBuilder<Node, Edge> primitiveBuilder = new PrimitiveGraphBuilder<>(1, 1);
+		// the nodes do not have to be added in the order of their ids
+		for (int i = nodes.size() - 1; i >= 0; i--) {
+			primitiveBuilder.addNode(nodes.get(i));
+		}
+		primitiveBuilder.addEdges(edges);
+		primitiveBuilder.addEdges(edges);
+
+		Assert.assertEquals(nodes.size(), primitiveBuilder.numberOfNodes());
+		Assert.assertEquals(edges.size(), primitiveBuilder.numberOfEdges());
+		Assert.assertEquals(builder.dumpCurrentGraph(), primitiveBuilder.dumpCurrentGraph());
+	}
+
+	@Test
+	public void testGraphStructure() throws Exception {
+		PrimitiveGraphBuilder<Node, Edge> builder = new PrimitiveGraphBuilder<>();
+		builder.addNodes(nodes);
+		builder.addEdges(edges);
+
+		Assert.assertEquals(3, builder.getIntIdForSourceId(13));
+		Assert.assertEquals(nodes, new ArrayList<>(builder.getAllNodes()));
+		Assert.assertEquals(edges, new ArrayList<>(builder.getAllEdges()));
+		Assert.assertSame(edges.get(3), builder.getEdge(nodes.get(3), nodes.get(5)));
+		Assert.assertNull(builder.getEdge(nodes.get(5), nodes.get(3)));
+		Assert.assertTrue(builder.containsEdge(edges.get(0)));
+		Assert.assertFalse(builder.containsNode(8));
+
+		// insertion order is kept
+		Assert.assertEquals(edges.subList(2, 5), builder.getOutEdges(3));
+		List<Edge> inEdges = builder.getInEdges(nodes.get(4));
+		Assert.assertEquals(2, inEdges.size());
+		Assert.assertSame(edges.get(4), inEdges.get(0));
+		Assert.assertSame(edges.get(6), inEdges.get(1));
+
+		Graph<Node, Edge> graph = builder.createGraph();
+		for (Node node : nodes) {
+			HashSet<Edge> expectedInEdges = new HashSet<>();
+			for (Edge edge : edges) {
+				if (edge.toNode == node) {
+					expectedInEdges.add(edge);
+				}
+			}
+			Assert.assertEquals(expectedInEdges, new HashSet<>(graph.getInEdges(node)));
+		}
+		Assert.assertEquals(0, builder.numberOfEdges());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEdgeWithoutNode() throws Exception {
+		PrimitiveGraphBuilder<Node, Edge> builder = new PrimitiveGraphBuilder<>();
+		builder.addNode(nodes.get(1));
+		builder.addEdge(edges.get(0));
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testMissingNodeId() throws Exception {
+		PrimitiveGraphBuilder<Node, Edge> builder = new PrimitiveGraphBuilder<>();
+		builder.addNode(nodes.get(0));
+		builder.addNode(nodes.get(2));
+		builder.dumpCurrentGraph();
+	}
+}
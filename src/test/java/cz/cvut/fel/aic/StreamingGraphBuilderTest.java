@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic;
+
+import cz.cvut.fel.aic.GraphIOTest.SpeedEdge;
+import cz.cvut.fel.aic.GraphIOTest.SpeedEdgeCodec;
+import cz.cvut.fel.aic.geographtools.Graph;
+import cz.cvut.fel.aic.geographtools.GraphBuilder;
+import cz.cvut.fel.aic.geographtools.Node;
+import cz.cvut.fel.aic.geographtools.StreamingGraphBuilder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamingGraphBuilderTest {
+
+	private static final int NUM_OF_NODES = 500;
+
+	List<Node> nodes;
+
+	List<SpeedEdge> edges;
+
+	Graph<Node, SpeedEdge> expected;
+
+	@Before
+	public void setUp() throws Exception {
+		Random random = new Random(7L);
+		nodes = TestGraphs.randomNodes(random, NUM_OF_NODES);
+		edges = TestGraphs.randomEdges(random, nodes, 4,
+				(from, to, lengthCm, edgeRandom) -> new SpeedEdge(from, to, lengthCm, edgeRandom.nextInt(130)));
+		GraphBuilder<Node, SpeedEdge> builder = new GraphBuilder<>();
+		builder.addNodes(nodes);
+		builder.addEdges(edges);
+		expected = builder.dumpCurrentGraph();
+		// the streaming builders must not depend on the input order
+		Collections.shuffle(nodes, random);
+		Collections.shuffle(edges, random);
+	}
+
+	@Test
+	public void testBuild() throws Exception {
+		Graph<Node, SpeedEdge> graph = StreamingGraphBuilder.build(nodes, nodeById -> edges.iterator());
+
+		Assert.assertEquals(expected, graph);
+		for (int edgeId = 0; edgeId < graph.numberOfEdges(); edgeId++) {
+			Assert.assertEquals(expected.getEdgeById(edgeId).speed, graph.getEdgeById(edgeId).speed);
+		}
+	}
+
+	@Test
+	public void testBuildFromStream() throws Exception {
+		Graph<Node, SpeedEdge> graph = StreamingGraphBuilder.build(nodes, nodeById -> Stream.of(
+				new SpeedEdge(nodeById.apply(0), nodeById.apply(1), 10, 50),
+				new SpeedEdge(nodeById.apply(1), nodeById.apply(0), 10, 50)).iterator());
+
+		Assert.assertEquals(NUM_OF_NODES, graph.numberOfNodes());
+		Assert.assertEquals(2, graph.numberOfEdges());
+		Assert.assertEquals(1, graph.getEdge(graph.getNode(0), graph.getNode(1)).toNode.id);
+	}
+
+	@Test
+	public void testBuildExternal() throws Exception {
+		Path directory = Files.createTempDirectory("streaming");
+		try {
+			for (int runSize : new int[]{7, 100, Integer.MAX_VALUE}) {
+				Graph<Node, SpeedEdge> graph = StreamingGraphBuilder.buildExternal(nodes,
+						nodeById -> edges.iterator(), new SpeedEdgeCodec(), directory, runSize);
+
+				Assert.assertEquals(expected, graph);
+				for (int edgeId = 0; edgeId < graph.numberOfEdges(); edgeId++) {
+					Assert.assertEquals(expected.getEdgeById(edgeId).speed, graph.getEdgeById(edgeId).speed);
+				}
+				try (Stream<Path> files = Files.list(directory)) {
+					Assert.assertEquals(0, files.count());
+				}
+			}
+		} finally {
+			Files.delete(directory);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testChangedSource() throws Exception {
+		int[] pass = new int[1];
+		StreamingGraphBuilder.build(nodes, nodeById -> pass[0]++ == 0 ? edges.iterator()
+				: edges.subList(1, edges.size()).iterator());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownNode() throws Exception {
+		Node unknown = new Node(NUM_OF_NODES, 0, 0, 0, 0, 0, 0);
+		StreamingGraphBuilder.build(nodes, nodeById -> Collections.singletonList(
+				new SpeedEdge(nodeById.apply(0), unknown, 1, 1)).iterator());
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic;
+
+import cz.cvut.fel.aic.geographtools.Edge;
+import cz.cvut.fel.aic.geographtools.Graph;
+import cz.cvut.fel.aic.geographtools.GraphBuilder;
+import cz.cvut.fel.aic.geographtools.Node;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Random graphs shared by the tests. The nodes are scattered over a small area, the edges of a node mostly lead to
+ * the nodes with slightly higher ids and sometimes to a random node, there are no loops or parallel edges.
+ */
+final class TestGraphs {
+
+	private TestGraphs() {
+	}
+
+	static Graph<Node, Edge> randomGraph(long seed, int numberOfNodes, int degree) {
+		return randomGraph(seed, numberOfNodes, degree, (from, to, lengthCm, random) -> new Edge(from, to, lengthCm));
+	}
+
+	static <TEdge extends Edge> Graph<Node, TEdge> randomGraph(long seed, int numberOfNodes, int degree,
+			EdgeFactory<TEdge> edgeFactory) {
+		return randomGraphBuilder(seed, numberOfNodes, degree, edgeFactory).createGraph();
+	}
+
+	/**
+	 * Returns the builder of the random graph, so the test can add more edges.
+	 */
+	static <TEdge extends Edge> GraphBuilder<Node, TEdge> randomGraphBuilder(long seed, int numberOfNodes, int degree,
+			EdgeFactory<TEdge> edgeFactory) {
+		Random random = new Random(seed);
+		List<Node> nodes = randomNodes(random, numberOfNodes);
+		GraphBuilder<Node, TEdge> builder = new GraphBuilder<>();
+		builder.addNodes(nodes);
+		builder.addEdges(randomEdges(random, nodes, degree, edgeFactory));
+		return builder;
+	}
+
+	/**
+	 * Creates nodes with ids 0..numberOfNodes-1 and random coordinates and elevations.
+	 */
+	static List<Node> randomNodes(Random random, int numberOfNodes) {
+		List<Node> nodes = new ArrayList<>(numberOfNodes);
+		for (int i = 0; i < numberOfNodes; i++) {
+			nodes.add(new Node(i, 1000L + i, 50000000 + random.nextInt(100000), 14000000 + random.nextInt(100000),
+					random.nextInt(1000000), random.nextInt(1000000), random.nextInt(300)));
+		}
+		return nodes;
+	}
+
+	/**
+	 * Creates up to <code>degree</code> edges from each of the nodes, the <code>j</code>-th one to the node
+	 * <code>j * j</code> ids further or, with the probability of 1/4, to a random node.
+	 */
+	static <TEdge extends Edge> List<TEdge> randomEdges(Random random, List<Node> nodes, int degree,
+			EdgeFactory<TEdge> edgeFactory) {
+		int numberOfNodes = nodes.size();
+		List<TEdge> edges = new ArrayList<>();
+		Set<Long> pairs = new HashSet<>();
+		for (int i = 0; i < numberOfNodes; i++) {
+			for (int j = 1; j <= degree; j++) {
+				int to = random.nextInt(4) == 0 ? random.nextInt(numberOfNodes) : (i + j * j) % numberOfNodes;
+				if (to != i && pairs.add((long) i * numberOfNodes + to)) {
+					edges.add(edgeFactory.create(nodes.get(i), nodes.get(to), random.nextInt(100000), random));
+				}
+			}
+		}
+		return edges;
+	}
+
+	@FunctionalInterface
+	interface EdgeFactory<TEdge extends Edge> {
+
+		TEdge create(Node from, Node to, int lengthCm, Random random);
+	}
+}
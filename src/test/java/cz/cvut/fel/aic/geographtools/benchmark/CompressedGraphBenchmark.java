@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.benchmark;
+
+import cz.cvut.fel.aic.geographtools.CompressedGraph;
+import cz.cvut.fel.aic.geographtools.Edge;
+import cz.cvut.fel.aic.geographtools.Graph;
+import cz.cvut.fel.aic.geographtools.GraphBuilder;
+import cz.cvut.fel.aic.geographtools.Node;
+import cz.cvut.fel.aic.geographtools.PrimitiveGraphStructure;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Compares the size and the BFS and Dijkstra throughput of {@link CompressedGraph} with the CSR of {@link Graph} on
+ * a grid road network with random lengths. The grid side can be given as the first argument. Run as a plain main
+ * class, it is not a part of the test suite.
+ */
+public class CompressedGraphBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		int side = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		Random random = new Random(1);
+		GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+		for (int i = 0; i < side * side; i++) {
+			builder.addNode(new Node(i, i, 50000000 + i / side * 100, 14000000 + i % side * 100, 0, 0, 0));
+		}
+		for (int i = 0; i < side * side; i++) {
+			int row = i / side;
+			int column = i % side;
+			int[] neighbors = {column > 0 ? i - 1 : -1, column < side - 1 ? i + 1 : -1, row > 0 ? i - side : -1,
+				row < side - 1 ? i + side : -1};
+			for (int neighbor : neighbors) {
+				if (neighbor >= 0) {
+					builder.addEdge(new Edge(builder.getNode(i), builder.getNode(neighbor), 1000 + random.nextInt(20000)));
+				}
+			}
+		}
+		Graph<Node, Edge> graph = builder.createGraph();
+		CompressedGraph compressed = CompressedGraph.compress(graph);
+		System.out.printf("%s, %.2f bytes per edge in both directions, %.2f bytes per edge and direction%n",
+				compressed, (double) compressed.sizeInBytes() / graph.numberOfEdges(),
+				compressed.sizeInBytes() / 2.0 / graph.numberOfEdges());
+
+		for (int round = 0; round < ROUNDS; round++) {
+			measure("Graph BFS", () -> bfs(graph));
+			measure("CompressedGraph BFS", () -> bfs(compressed));
+			measure("CompressedGraph cursor BFS", () -> bfsCursor(compressed));
+			measure("Graph Dijkstra", () -> dijkstra(graph));
+			measure("CompressedGraph Dijkstra", () -> dijkstra(compressed));
+		}
+	}
+
+	private static void measure(String name, LongSupplier run) {
+		long start = System.nanoTime();
+		long result = run.getAsLong();
+		System.out.printf("%-28s %6d ms (%d)%n", name, (System.nanoTime() - start) / 1_000_000, result);
+	}
+
+	private static long bfs(PrimitiveGraphStructure graph) {
+		int[] queue = new int[graph.numberOfNodes()];
+		boolean[] visited = new boolean[graph.numberOfNodes()];
+		int[] tail = new int[1];
+		queue[tail[0]++] = 0;
+		visited[0] = true;
+		for (int head = 0; head < tail[0]; head++) {
+			graph.forEachOutNeighbor(queue[head], (neighbor, lengthCm) -> {
+				if (!visited[neighbor]) {
+					visited[neighbor] = true;
+					queue[tail[0]++] = neighbor;
+				}
+			});
+		}
+		return tail[0];
+	}
+
+	private static long bfsCursor(CompressedGraph graph) {
+		int[] queue = new int[graph.numberOfNodes()];
+		boolean[] visited = new boolean[graph.numberOfNodes()];
+		CompressedGraph.Cursor cursor = graph.outCursor();
+		int tail = 0;
+		queue[tail++] = 0;
+		visited[0] = true;
+		for (int head = 0; head < tail; head++) {
+			cursor.reset(queue[head]);
+			while (cursor.next()) {
+				if (!visited[cursor.nodeId()]) {
+					visited[cursor.nodeId()] = true;
+					queue[tail++] = cursor.nodeId();
+				}
+			}
+		}
+		return tail;
+	}
+
+	/**
+	 * Dijkstra from node 0 with a binary heap of packed (distance, node id) values and lazy deletion.
+	 */
+	private static long dijkstra(PrimitiveGraphStructure graph) {
+		long[] distances = new long[graph.numberOfNodes()];
+		Arrays.fill(distances, Long.MAX_VALUE);
+		long[][] heap = {new long[1024]};
+		int[] size = new int[1];
+		distances[0] = 0;
+		push(heap, size, 0);
+		long settled = 0;
+		while (size[0] > 0) {
+			long top = pop(heap[0], size);
+			int nodeId = (int) top;
+			long distance = top >>> 32;
+			if (distance > distances[nodeId]) {
+				continue;
+			}
+			settled++;
+			graph.forEachOutNeighbor(nodeId, (neighbor, lengthCm) -> {
+				long candidate = distance + lengthCm;
+				if (candidate < distances[neighbor]) {
+					distances[neighbor] = candidate;
+					push(heap, size, candidate << 32 | neighbor);
+				}
+			});
+		}
+		return settled;
+	}
+
+	private static void push(long[][] heap, int[] size, long value) {
+		if (size[0] == heap[0].length) {
+			heap[0] = Arrays.copyOf(heap[0], 2 * size[0]);
+		}
+		long[] array = heap[0];
+		int i = size[0]++;
+		while (i > 0 && array[(i - 1) >>> 1] > value) {
+			array[i] = array[(i - 1) >>> 1];
+			i = (i - 1) >>> 1;
+		}
+		array[i] = value;
+	}
+
+	private static long pop(long[] array, int[] size) {
+		long top = array[0];
+		long last = array[--size[0]];
+		int i = 0;
+		while (2 * i + 1 < size[0]) {
+			int child = 2 * i + 1;
+			if (child + 1 < size[0] && array[child + 1] < array[child]) {
+				child++;
+			}
+			if (array[child] >= last) {
+				break;
+			}
+			array[i] = array[child];
+			i = child;
+		}
+		array[i] = last;
+		return top;
+	}
+}
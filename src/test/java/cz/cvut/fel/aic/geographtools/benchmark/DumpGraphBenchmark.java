@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.benchmark;
+
+import cz.cvut.fel.aic.geographtools.Edge;
+import cz.cvut.fel.aic.geographtools.Graph;
+import cz.cvut.fel.aic.geographtools.GraphBuilder;
+import cz.cvut.fel.aic.geographtools.Node;
+import java.util.Random;
+
+/**
+ * Measures <code>GraphBuilder.dumpCurrentGraph</code> on a random graph with locally connected nodes. The number of
+ * nodes can be given as the first argument. Run as a plain main class, it is not a part of the test suite.
+ */
+public class DumpGraphBenchmark {
+
+	private static final int EDGES_PER_NODE = 3;
+
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		int numberOfNodes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		Random random = new Random(1);
+		GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+		for (int i = 0; i < numberOfNodes; i++) {
+			builder.addNode(new Node(i, i, 50000000 + random.nextInt(100000), 14000000 + random.nextInt(100000), 0,
+					0, 0));
+		}
+		for (int i = 0; i < numberOfNodes; i++) {
+			for (int j = 1; j <= EDGES_PER_NODE; j++) {
+				builder.addEdge(new Edge(builder.getNode(i), builder.getNode((i + j * 17) % numberOfNodes), 100));
+			}
+		}
+
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			Graph<Node, Edge> graph = builder.dumpCurrentGraph();
+			System.out.printf("%s dumped in %d ms%n", graph, (System.nanoTime() - start) / 1_000_000);
+		}
+	}
+}
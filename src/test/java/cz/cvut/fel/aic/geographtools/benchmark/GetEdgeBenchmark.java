@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.benchmark;
+
+import cz.cvut.fel.aic.geographtools.util.LongIntHashMap;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares the sequential scan, the binary search and the hash lookup of an edge among the outgoing edges of nodes
+ * of various degrees. The crossover between the sequential scan and the binary search is used for
+ * <code>Graph.LINEAR_SEARCH_MAX_DEGREE</code>. Run as a plain main class, it is not a part of the test suite.
+ */
+public class GetEdgeBenchmark {
+
+	private static final int[] DEGREES = {2, 4, 8, 12, 16, 24, 32, 64, 256, 1024};
+
+	private static final int LOOKUPS = 10_000_000;
+
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		Random random = new Random(1);
+		System.out.println("degree\tlinear ns\tbinary ns\thash ns");
+		for (int degree : DEGREES) {
+			int[] targets = new int[degree];
+			for (int i = 0; i < degree; i++) {
+				targets[i] = random.nextInt(1_000_000);
+			}
+			Arrays.sort(targets);
+
+			LongIntHashMap index = new LongIntHashMap(degree);
+			for (int i = 0; i < degree; i++) {
+				index.put(LongIntHashMap.pack(0, targets[i]), i);
+			}
+
+			// queries hit an existing edge, as in the usual getEdge use
+			int[] queries = new int[1 << 12];
+			for (int i = 0; i < queries.length; i++) {
+				queries[i] = targets[random.nextInt(degree)];
+			}
+
+			double linear = Double.MAX_VALUE;
+			double binary = Double.MAX_VALUE;
+			double hash = Double.MAX_VALUE;
+			long checksum = 0;
+			for (int round = 0; round < ROUNDS; round++) {
+				long start = System.nanoTime();
+				for (int i = 0; i < LOOKUPS; i++) {
+					checksum += linear(targets, queries[i & (queries.length - 1)]);
+				}
+				linear = Math.min(linear, (System.nanoTime() - start) / (double) LOOKUPS);
+
+				start = System.nanoTime();
+				for (int i = 0; i < LOOKUPS; i++) {
+					checksum += binary(targets, queries[i & (queries.length - 1)]);
+				}
+				binary = Math.min(binary, (System.nanoTime() - start) / (double) LOOKUPS);
+
+				start = System.nanoTime();
+				for (int i = 0; i < LOOKUPS; i++) {
+					checksum += index.getOrDefault(LongIntHashMap.pack(0, queries[i & (queries.length - 1)]), -1);
+				}
+				hash = Math.min(hash, (System.nanoTime() - start) / (double) LOOKUPS);
+			}
+			System.out.printf("%d\t%.2f\t%.2f\t%.2f\t(%d)%n", degree, linear, binary, hash, checksum);
+		}
+	}
+
+	private static int linear(int[] targets, int target) {
+		for (int j = 0; j < targets.length; j++) {
+			if (targets[j] == target) {
+				return j;
+			}
+		}
+		return -1;
+	}
+
+	private static int binary(int[] targets, int target) {
+		int low = 0;
+		int high = targets.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (targets[middle] < target) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low < targets.length && targets[low] == target ? low : -1;
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.benchmark;
+
+import cz.cvut.fel.aic.geographtools.util.GridIndex;
+import cz.cvut.fel.aic.geographtools.util.PointIndex;
+import cz.cvut.fel.aic.geographtools.util.StaticKDTree;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import net.sf.javaml.core.kdtree.KDTree;
+
+/**
+ * Compares the build, nearest and k-nearest query time of {@link GridIndex}, {@link StaticKDTree} and the javaml
+ * {@link KDTree} on points of a uniform density in a 20 km square, like the nodes of a city. The points are inserted
+ * to the javaml tree in random order, so it stays reasonably balanced. The number of points can be given as the first
+ * argument. Run as a plain main class, it is not a part of the test suite.
+ */
+public class GridIndexBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	private static final int QUERIES = 200_000;
+
+	private static final int K = 8;
+
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+		Random random = new Random(1);
+		List<double[]> keys = new ArrayList<>(size);
+		List<Integer> values = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			keys.add(new double[]{random.nextDouble() * 20000, random.nextDouble() * 20000});
+			values.add(i);
+		}
+		double[] queries = new double[2 * QUERIES];
+		for (int i = 0; i < queries.length; i++) {
+			queries[i] = random.nextDouble() * 20000;
+		}
+		int[] indices = new int[K];
+
+		for (int round = 0; round < ROUNDS; round++) {
+			for (PointIndex.Type type : PointIndex.Type.values()) {
+				PointIndex<Integer> index = measure(type + " build", () -> type.build(keys, values, Integer[]::new));
+				measure(type + " nearest", () -> {
+					long sum = 0;
+					for (int i = 0; i < queries.length; i += 2) {
+						sum += index.nearest(queries[i], queries[i + 1]);
+					}
+					return sum;
+				});
+				measure(type + " " + K + "-NN", () -> {
+					long sum = 0;
+					for (int i = 0; i < queries.length; i += 2) {
+						index.nearest(queries[i], queries[i + 1], K, indices, null);
+						sum += indices[K - 1];
+					}
+					return sum;
+				});
+			}
+			KDTree<Integer> tree = measure("javaml KDTree build", () -> {
+				KDTree<Integer> kdTree = new KDTree<>(2, Integer[]::new);
+				for (int i = 0; i < size; i++) {
+					kdTree.insert(keys.get(i), values.get(i));
+				}
+				return kdTree;
+			});
+			measure("javaml KDTree nearest", () -> {
+				long sum = 0;
+				double[] key = new double[2];
+				for (int i = 0; i < queries.length; i += 2) {
+					key[0] = queries[i];
+					key[1] = queries[i + 1];
+					sum += tree.nearest(key);
+				}
+				return sum;
+			});
+			measure("javaml KDTree " + K + "-NN", () -> {
+				long sum = 0;
+				double[] key = new double[2];
+				for (int i = 0; i < queries.length; i += 2) {
+					key[0] = queries[i];
+					key[1] = queries[i + 1];
+					sum += tree.nearest(key, K)[K - 1];
+				}
+				return sum;
+			});
+		}
+	}
+
+	private static <T> T measure(String name, Supplier<T> run) {
+		long start = System.nanoTime();
+		T result = run.get();
+		System.out.printf("%-26s %6d ms%n", name, (System.nanoTime() - start) / 1_000_000);
+		return result;
+	}
+
+	private static void measure(String name, LongSupplier run) {
+		long start = System.nanoTime();
+		long result = run.getAsLong();
+		System.out.printf("%-26s %6d ms (%d)%n", name, (System.nanoTime() - start) / 1_000_000, result);
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.benchmark;
+
+import com.sun.management.ThreadMXBean;
+import cz.cvut.fel.aic.geographtools.util.StaticKDTree;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import net.sf.javaml.core.kdtree.KDTree;
+
+/**
+ * Compares the build and the nearest neighbour query time of {@link StaticKDTree} with the insertion built
+ * {@link KDTree} on grid aligned points inserted row by row, as road nodes often are, and the allocations of the
+object and the primitive query paths. The grid side can be given as
+ * the first argument. Run as a plain main class, it is not a part of the test suite.
+ */
+public class StaticKDTreeBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	private static final int QUERIES = 100_000;
+
+	private static final int K = 8;
+
+	public static void main(String[] args) {
+		int side = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+		List<double[]> keys = new ArrayList<>(side * side);
+		List<Integer> values = new ArrayList<>(side * side);
+		for (int x = 0; x < side; x++) {
+			for (int y = 0; y < side; y++) {
+				keys.add(new double[]{x * 100, y * 100});
+				values.add(values.size());
+			}
+		}
+		Random random = new Random(1);
+		double[][] queries = new double[QUERIES][];
+		for (int i = 0; i < QUERIES; i++) {
+			queries[i] = new double[]{random.nextDouble() * side * 100, random.nextDouble() * side * 100};
+		}
+
+		for (int round = 0; round < ROUNDS; round++) {
+			StaticKDTree<Integer> staticTree = measure("StaticKDTree build", () -> new StaticKDTree<>(2, keys,
+					values, Integer[]::new));
+			measure("StaticKDTree queries", () -> {
+				long sum = 0;
+				for (double[] query : queries) {
+					sum += staticTree.nearest(query);
+				}
+				return sum;
+			});
+			int[] indices = new int[K];
+			double[] distances = new double[K];
+			measure("StaticKDTree " + K + "-NN", () -> {
+				long sum = 0;
+				for (double[] query : queries) {
+					sum += staticTree.nearest(query, K)[K - 1];
+				}
+				return sum;
+			});
+			measure("StaticKDTree primitive " + K + "-NN", () -> {
+				long sum = 0;
+				for (double[] query : queries) {
+					staticTree.nearest(query[0], query[1], K, indices, distances);
+					sum += indices[K - 1];
+				}
+				return sum;
+			});
+			KDTree<Integer> insertionTree = measure("javaml KDTree build", () -> {
+				KDTree<Integer> tree = new KDTree<>(2, Integer[]::new);
+				for (int i = 0; i < keys.size(); i++) {
+					tree.insert(keys.get(i), values.get(i));
+				}
+				return tree;
+			});
+			if (insertionTree != null) {
+				measure("javaml KDTree queries", () -> {
+					long sum = 0;
+					for (double[] query : queries) {
+						sum += insertionTree.nearest(query);
+					}
+					return sum;
+				});
+			}
+		}
+	}
+
+	private static <T> T measure(String name, Supplier<T> run) {
+		long start = System.nanoTime();
+		try {
+			T result = run.get();
+			System.out.printf("%-30s %6d ms%n", name, (System.nanoTime() - start) / 1_000_000);
+			return result;
+		} catch (StackOverflowError e) {
+			System.out.printf("%-30s stack overflow after %d ms%n", name, (System.nanoTime() - start) / 1_000_000);
+			return null;
+		}
+	}
+
+	/**
+	 * Runs the queries and reports the time and the bytes allocated by the thread per query.
+	 */
+	private static void measure(String name, LongSupplier run) {
+		ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+		long start = System.nanoTime();
+		long result = run.getAsLong();
+		long time = System.nanoTime() - start;
+		allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocated;
+		System.out.printf("%-30s %6d ms, %6.1f B per query (%d)%n", name, time / 1_000_000,
+				(double) allocated / QUERIES, result);
+	}
+}
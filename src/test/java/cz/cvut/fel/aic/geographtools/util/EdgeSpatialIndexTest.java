@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import cz.cvut.fel.aic.geographtools.Edge;
+import cz.cvut.fel.aic.geographtools.Graph;
+import cz.cvut.fel.aic.geographtools.GraphBuilder;
+import cz.cvut.fel.aic.geographtools.Node;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EdgeSpatialIndexTest {
+
+	@Test
+	public void testMatchesBruteForce() {
+		Random random = new Random(1);
+		GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+		for (int i = 0; i < 2000; i++) {
+			builder.addNode(new Node(i, i, 0, 0, random.nextInt(1000000), random.nextInt(1000000), 0));
+		}
+		for (int i = 0; i < 5000; i++) {
+			int from = random.nextInt(2000);
+			int to = random.nextInt(2000);
+			if (from != to && !builder.containsEdge(builder.getNode(from), builder.getNode(to))) {
+				builder.addEdge(new Edge(builder.getNode(from), builder.getNode(to), 1000 + random.nextInt(100000)));
+			}
+		}
+		Graph<Node, Edge> graph = builder.createGraph();
+		EdgeSpatialIndex index = EdgeSpatialIndex.build(graph);
+		Assert.assertEquals(graph.numberOfEdges(), index.numberOfSegments());
+
+		EdgeSpatialIndex.Result result = new EdgeSpatialIndex.Result(5);
+		for (int query = 0; query < 300; query++) {
+			double x = random.nextDouble() * 10000;
+			double y = random.nextDouble() * 10000;
+			double[] distances = new double[graph.numberOfEdges()];
+			for (int edgeId = 0; edgeId < distances.length; edgeId++) {
+				distances[edgeId] = distance(graph, edgeId, x, y);
+			}
+			Arrays.sort(distances);
+
+			Assert.assertEquals(5, index.nearest(x, y, 5, result));
+			for (int i = 0; i < 5; i++) {
+				Assert.assertEquals(distances[i], result.getDistance(i), 1e-6);
+				Assert.assertEquals(distance(graph, result.getEdgeId(i), x, y), result.getDistance(i), 1e-6);
+				Assert.assertEquals(result.getDistance(i), Math.hypot(result.getFootLongitudeProjected(i) - x,
+						result.getFootLatitudeProjected(i) - y), 1e-6);
+			}
+
+			int found = index.nearest(x, y, 5, distances[2] + 1e-6, result);
+			Assert.assertTrue(found >= 3 && found <= 5);
+			Assert.assertTrue(result.getDistance(found - 1) <= distances[2] + 1e-6);
+		}
+
+		// a query for all edges outgrows the search queue kept by the thread
+		double[] distances = new double[graph.numberOfEdges()];
+		for (int edgeId = 0; edgeId < distances.length; edgeId++) {
+			distances[edgeId] = distance(graph, edgeId, 5000, 5000);
+		}
+		Arrays.sort(distances);
+		EdgeSpatialIndex.Result all = new EdgeSpatialIndex.Result(distances.length);
+		Assert.assertEquals(distances.length, index.nearest(5000, 5000, distances.length, all));
+		for (int i = 0; i < distances.length; i++) {
+			Assert.assertEquals(distances[i], all.getDistance(i), 1e-6);
+		}
+		Assert.assertEquals(5, index.nearest(5000, 5000, 5, result));
+		Assert.assertEquals(distances[4], result.getDistance(4), 1e-6);
+	}
+
+	@Test
+	public void testFootPointAndOffset() {
+		GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+		builder.addNode(new Node(0, 0, 0, 0, 0, 0, 0));
+		builder.addNode(new Node(1, 1, 0, 0, 0, 10000, 0));
+		builder.addNode(new Node(2, 2, 0, 0, 5000, 0, 0));
+		builder.addEdge(new Edge(builder.getNode(0), builder.getNode(1), 20000));
+		builder.addEdge(new Edge(builder.getNode(1), builder.getNode(0), 20000));
+		builder.addEdge(new Edge(builder.getNode(0), builder.getNode(2), 5000));
+		Graph<Node, Edge> graph = builder.createGraph();
+		int edgeId = graph.edgeIdOf(0, 1);
+		int reverseEdgeId = graph.edgeIdOf(1, 0);
+
+		// the edge from 0 to 1 runs along the x axis from 0 to 100, its length is twice its geometry
+		EdgeSpatialIndex index = EdgeSpatialIndex.build(graph);
+		EdgeSpatialIndex.Result result = new EdgeSpatialIndex.Result(2);
+		Assert.assertTrue(index.nearest(25, -10, result));
+		Assert.assertEquals(1, result.size());
+		Assert.assertEquals(10, result.getDistance(0), 1e-9);
+		Assert.assertEquals(25, result.getFootLongitudeProjected(0), 1e-9);
+		Assert.assertEquals(0, result.getFootLatitudeProjected(0), 1e-9);
+		int offset = result.getEdgeId(0) == edgeId ? 5000 : 15000;
+		Assert.assertEquals(offset, result.getOffsetCm(0));
+
+		Assert.assertEquals(2, index.nearest(25, -10, 2, result));
+		Assert.assertEquals(10, result.getDistance(1), 1e-9);
+		Assert.assertTrue(result.getEdgeId(0) != result.getEdgeId(1));
+
+		// an L shaped geometry of the edge from 0 to 1 through (0, -100)
+		EdgeSpatialIndex shaped = EdgeSpatialIndex.build(graph, id -> id == edgeId ? new int[]{0, 0, 0, -10000,
+			10000, -10000, 10000, 0} : null);
+		Assert.assertEquals(graph.numberOfEdges() + 2, shaped.numberOfSegments());
+		Assert.assertEquals(1, shaped.nearest(25, -90, 1, result));
+		Assert.assertEquals(edgeId, result.getEdgeId(0));
+		Assert.assertEquals(10, result.getDistance(0), 1e-9);
+		Assert.assertEquals(-100, result.getFootLatitudeProjected(0), 1e-9);
+		Assert.assertEquals(Math.round(125 / 300.0 * 20000), result.getOffsetCm(0));
+
+		Assert.assertEquals(0, shaped.nearest(25, -90, 1, 5, result));
+		Assert.assertEquals(1, shaped.nearest(-3, 30, 2, 5, result));
+		Assert.assertEquals(graph.edgeIdOf(0, 2), result.getEdgeId(0));
+		Assert.assertEquals(3000, result.getOffsetCm(0));
+	}
+
+	@Test
+	public void testEmptyGraph() {
+		GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+		builder.addNode(new Node(0, 0, 0, 0, 0, 0, 0));
+		EdgeSpatialIndex index = EdgeSpatialIndex.build(builder.createGraph());
+		EdgeSpatialIndex.Result result = new EdgeSpatialIndex.Result(1);
+		Assert.assertFalse(index.nearest(0, 0, result));
+		Assert.assertEquals(0, result.size());
+	}
+
+	private static double distance(Graph<Node, Edge> graph, int edgeId, double x, double y) {
+		double x1 = graph.getNodeLongitudeProjected1E2(graph.edgeSource(edgeId)) / 1E2;
+		double y1 = graph.getNodeLatitudeProjected1E2(graph.edgeSource(edgeId)) / 1E2;
+		double x2 = graph.getNodeLongitudeProjected1E2(graph.edgeTarget(edgeId)) / 1E2;
+		double y2 = graph.getNodeLatitudeProjected1E2(graph.edgeTarget(edgeId)) / 1E2;
+		double dx = x2 - x1;
+		double dy = y2 - y1;
+		double t = dx == 0 && dy == 0 ? 0 : ((x - x1) * dx + (y - y1) * dy) / (dx * dx + dy * dy);
+		t = Math.max(0, Math.min(1, t));
+		return Math.hypot(x1 + t * dx - x, y1 + t * dy - y);
+	}
+}
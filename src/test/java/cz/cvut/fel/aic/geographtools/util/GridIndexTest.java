@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import cz.cvut.fel.aic.geographtools.Edge;
+import cz.cvut.fel.aic.geographtools.Graph;
+import cz.cvut.fel.aic.geographtools.GraphBuilder;
+import cz.cvut.fel.aic.geographtools.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GridIndexTest {
+
+	@Test
+	public void testMatchesBruteForce() {
+		Random random = new Random(1);
+		List<double[]> keys = new ArrayList<>();
+		for (int i = 0; i < 4000; i++) {
+			// denser cluster in one corner
+			double scale = i % 4 == 0 ? 100 : 1000;
+			keys.add(new double[]{random.nextInt((int) scale), random.nextDouble() * scale});
+		}
+		for (PointIndex.Type type : PointIndex.Type.values()) {
+			PointIndex<Integer> index = type.build(keys, values(keys.size()), Integer[]::new);
+			int[] indices = new int[10];
+			double[] distances = new double[10];
+			for (int i = 0; i < 300; i++) {
+				double x = random.nextDouble() * 1400 - 200;
+				double y = random.nextDouble() * 1400 - 200;
+				Integer[] expected = bruteForce(keys, x, y);
+				Assert.assertEquals(expected[0], index.nearest(x, y));
+				Assert.assertArrayEquals(Arrays.copyOf(expected, 10), index.nearest(x, y, 10));
+				index.nearest(x, y, 10, indices, distances);
+				for (int j = 0; j < 10; j++) {
+					Assert.assertEquals((int) expected[j], indices[j]);
+					Assert.assertEquals(distance(keys.get(indices[j]), x, y), distances[j], 0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRadiusAndBox() {
+		Random random = new Random(2);
+		List<double[]> keys = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			keys.add(new double[]{random.nextInt(500), random.nextInt(500)});
+		}
+		GridIndex<Integer> index = new GridIndex<>(keys, values(keys.size()), Integer[]::new, 7);
+		for (int i = 0; i < 100; i++) {
+			double x = random.nextDouble() * 600 - 50;
+			double y = random.nextDouble() * 600 - 50;
+			double radius = random.nextDouble() * 60;
+			Set<Integer> expected = new HashSet<>();
+			Set<Integer> expectedInBox = new HashSet<>();
+			for (int j = 0; j < keys.size(); j++) {
+				double[] key = keys.get(j);
+				if (distance(key, x, y) <= radius * radius) {
+					expected.add(j);
+				}
+				if (key[0] >= x - radius && key[0] <= x && key[1] >= y && key[1] <= y + 2 * radius) {
+					expectedInBox.add(j);
+				}
+			}
+			Assert.assertEquals(expected, new HashSet<>(Arrays.asList(index.withinRadius(x, y, radius))));
+			Assert.assertEquals(expected.size(), index.forEachWithinRadius(x, y, radius, null));
+			Assert.assertEquals(expectedInBox, new HashSet<>(Arrays.asList(index.inBox(x - radius, y, x, y + 2
+					* radius))));
+		}
+		Assert.assertEquals(0, index.forEachInBox(10, 10, 0, 0, null));
+	}
+
+	@Test
+	public void testDegenerateInputs() {
+		List<double[]> keys = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			keys.add(new double[]{5, i % 10});
+		}
+		GridIndex<Integer> index = new GridIndex<>(keys, values(keys.size()), Integer[]::new);
+		Assert.assertEquals(3, (int) index.nearest(100, 3.2));
+		Assert.assertArrayEquals(new Integer[]{3, 13, 23}, index.nearest(5, 3, 3));
+
+		GridIndex<Integer> single = new GridIndex<>(Arrays.asList(new double[]{1, 1}), values(1), Integer[]::new);
+		Assert.assertEquals(0, (int) single.nearest(-1e9, 1e9));
+
+		GridIndex<Integer> empty = new GridIndex<>(new ArrayList<>(), values(0), Integer[]::new);
+		Assert.assertEquals(0, empty.nearest(0, 0, 0).length);
+		Assert.assertEquals(0, empty.withinRadius(0, 0, 10).length);
+		try {
+			empty.nearest(0, 0);
+			Assert.fail();
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	@Test
+	public void testGraphNodesAndResolver() {
+		GraphBuilder<Node, Edge> builder = new GraphBuilder<>();
+		for (int i = 0; i < 100; i++) {
+			builder.addNode(new Node(i, i, 0, 0, i / 10 * 1000, i % 10 * 1000, 0));
+		}
+		Graph<Node, Edge> graph = builder.createGraph();
+		GridIndex<Node> nodes = GridIndex.ofNodes(graph, Node[]::new);
+		Assert.assertEquals(graph.getNode(34), nodes.nearest(41, 29));
+		int[] ids = new int[1];
+		nodes.nearest(41, 29, 1, ids, null);
+		Assert.assertEquals(34, ids[0]);
+
+		GridIndex<Node> resolved = GridIndex.of(graph.getAllNodes(), new GPSLocationKDTreeResolver<>(), Node[]::new);
+		Assert.assertEquals(nodes.nearest(55, 71), resolved.nearest(55, 71));
+		Assert.assertEquals(5, resolved.withinRadius(50, 50, 10).length);
+	}
+
+	private static List<Integer> values(int size) {
+		List<Integer> values = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			values.add(i);
+		}
+		return values;
+	}
+
+	private static Integer[] bruteForce(List<double[]> keys, double x, double y) {
+		Integer[] indices = values(keys.size()).toArray(new Integer[0]);
+		Arrays.sort(indices, Comparator.<Integer>comparingDouble(i -> distance(keys.get(i), x, y))
+				.thenComparingInt(i -> i));
+		return indices;
+	}
+
+	private static double distance(double[] key, double x, double y) {
+		return (key[0] - x) * (key[0] - x) + (key[1] - y) * (key[1] - y);
+	}
+}
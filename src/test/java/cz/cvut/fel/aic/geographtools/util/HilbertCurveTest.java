@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HilbertCurveTest {
+
+	@Test
+	public void testFirstOrder() {
+		Assert.assertEquals(0, HilbertCurve.index(1, 0, 0));
+		Assert.assertEquals(1, HilbertCurve.index(1, 0, 1));
+		Assert.assertEquals(2, HilbertCurve.index(1, 1, 1));
+		Assert.assertEquals(3, HilbertCurve.index(1, 1, 0));
+	}
+
+	@Test
+	public void testConsecutiveIndicesAreAdjacent() {
+		int order = 5;
+		int side = 1 << order;
+		int[] xByIndex = new int[side * side];
+		int[] yByIndex = new int[side * side];
+		boolean[] used = new boolean[side * side];
+		for (int x = 0; x < side; x++) {
+			for (int y = 0; y < side; y++) {
+				int index = (int) HilbertCurve.index(order, x, y);
+				Assert.assertFalse(used[index]);
+				used[index] = true;
+				xByIndex[index] = x;
+				yByIndex[index] = y;
+			}
+		}
+		for (int i = 1; i < side * side; i++) {
+			Assert.assertEquals(1, Math.abs(xByIndex[i] - xByIndex[i - 1]) + Math.abs(yByIndex[i] - yByIndex[i - 1]));
+		}
+	}
+}
@@ -44,6 +44,43 @@ public class KDTreeTest {
 
 	}
 
+	@Test
+	public void testNearestNodesCloserThan() {
+		GPSLocationKDTreeResolver<GPSLocation> resolver = new GPSLocationKDTreeResolver<>();
+		KDTree<GPSLocation> tree = new KDTree<>(2, resolver, ConflictResolverMode.USE_OLD, GPSLocation[]::new);
+		List<GPSLocation> points = new ArrayList<>();
+		for (int x = 0; x < 60; x++) {
+			for (int y = 0; y < 60; y++) {
+				GPSLocation location = new GPSLocation(0, 0, y * 1000, x * 1000, 0);
+				points.add(location);
+				tree.insert(location);
+			}
+		}
+
+		for (int i = 0; i < NUM_OF_TRIALS; i++) {
+			double[] center = {rng.nextInt(600), rng.nextInt(600)};
+			double radius = 5 + rng.nextInt(100);
+			List<GPSLocation> expected = new ArrayList<>();
+			for (GPSLocation point : points) {
+				if (resolver.computeDistance(point, center) <= radius) {
+					expected.add(point);
+				}
+			}
+
+			List<GPSLocation> found = tree.getNearestNodesCloserThan(center, radius);
+			Assert.assertEquals(expected.size(), found.size());
+			Assert.assertTrue(found.containsAll(expected));
+			for (int j = 1; j < found.size(); j++) {
+				Assert.assertTrue(resolver.computeDistance(found.get(j - 1), center) <= resolver.computeDistance(found
+						.get(j), center));
+			}
+			Assert.assertEquals(expected.size(), tree.countNodesCloserThan(center, radius));
+		}
+
+		Assert.assertEquals(5, tree.countNodesCloserThan(new double[]{100, 100}, 10));
+		Assert.assertEquals(0, tree.countNodesCloserThan(new double[]{-100, 100}, 10));
+	}
+
 	public GPSLocation generateLocationWithRandomProjected() {
 
 		int projLat = rng.nextInt((int) (10000 * 1E6));
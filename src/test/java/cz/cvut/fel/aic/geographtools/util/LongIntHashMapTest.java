@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LongIntHashMapTest {
+
+	@Test
+	public void testPutGetRemove() {
+		LongIntHashMap map = new LongIntHashMap(4);
+		for (int i = -1000; i < 1000; i++) {
+			Assert.assertTrue(map.put(i * 31L, i));
+		}
+		Assert.assertFalse(map.put(0, 7));
+		Assert.assertEquals(2000, map.size());
+		for (int i = -1000; i < 1000; i += 2) {
+			Assert.assertTrue(map.remove(i * 31L));
+		}
+		Assert.assertEquals(1000, map.size());
+		for (int i = -1000; i < 1000; i++) {
+			int expected = i == 0 ? 7 : i;
+			Assert.assertEquals(i % 2 == 0 ? -1 : expected, map.getOrDefault(i * 31L, -1));
+		}
+	}
+
+	/**
+	 * A map whose table cannot grow any more rejects new keys and keeps its entries.
+	 */
+	@Test
+	public void testFullTable() {
+		LongIntHashMap map = new LongIntHashMap(4) {
+			@Override
+			int maxCapacity() {
+				return 16;
+			}
+		};
+		for (int i = 1; i <= 8; i++) {
+			Assert.assertTrue(map.put(i, i));
+		}
+		try {
+			map.put(9, 9);
+			Assert.fail();
+		} catch (IllegalStateException expected) {
+		}
+		Assert.assertEquals(8, map.size());
+		Assert.assertFalse(map.containsKey(9));
+		Assert.assertFalse(map.put(8, 80));
+		Assert.assertTrue(map.put(0, 0));
+		for (int i = 1; i <= 8; i++) {
+			Assert.assertEquals(i == 8 ? 80 : i, map.getOrDefault(i, -1));
+		}
+		Assert.assertTrue(map.remove(0));
+		Assert.assertTrue(map.remove(1));
+		Assert.assertTrue(map.put(9, 9));
+		Assert.assertEquals(9, map.getOrDefault(9, -1));
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+
+public class NearestElementUtilTest {
+
+	@Test
+	public void testBatchMatchesSingleQueries() {
+		Random random = new Random(1);
+		List<NearestElementUtilPair<Coordinate, Integer>> elements = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			elements.add(new NearestElementUtilPair<>(new Coordinate(random.nextInt(10000), random.nextInt(10000)), i));
+		}
+		int queries = 5000;
+		double[] xs = new double[queries];
+		double[] ys = new double[queries];
+		for (int i = 0; i < queries; i++) {
+			xs[i] = random.nextDouble() * 11000 - 500;
+			ys[i] = random.nextDouble() * 11000 - 500;
+		}
+		int k = 3;
+		for (PointIndex.Type type : PointIndex.Type.values()) {
+			NearestElementUtil<Integer> util = new NearestElementUtil<>(elements, null, true, Integer[]::new, type);
+			int[] indices = new int[queries * k];
+			double[] distances = new double[queries * k];
+			util.getNearestElementsProjected(xs, ys, k, indices, distances);
+			Assert.assertArrayEquals(indices, util.getNearestElementsProjected(xs, ys, k));
+			for (int i = 0; i < queries; i++) {
+				Integer[] expected = util.getKNearestElementProjected(new Coordinate(xs[i], ys[i]), k);
+				for (int j = 0; j < k; j++) {
+					Assert.assertEquals((int) expected[j], (int) util.getElement(indices[i * k + j]));
+					Coordinate coordinate = elements.get(indices[i * k + j]).getValue0();
+					Assert.assertEquals((coordinate.x - xs[i]) * (coordinate.x - xs[i]) + (coordinate.y - ys[i])
+							* (coordinate.y - ys[i]), distances[i * k + j], 0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBatchArguments() {
+		List<NearestElementUtilPair<Coordinate, Integer>> elements = new ArrayList<>();
+		elements.add(new NearestElementUtilPair<>(new Coordinate(0, 0), 0));
+		elements.add(new NearestElementUtilPair<>(new Coordinate(10, 0), 1));
+		NearestElementUtil<Integer> util = new NearestElementUtil<>(elements, null, true, Integer[]::new);
+		Assert.assertArrayEquals(new int[]{1, 0, 0, 1}, util.getNearestElementsProjected(new double[]{9, 1},
+				new double[]{0, 0}, 2));
+		Assert.assertEquals(0, util.getNearestElementsProjected(new double[0], new double[0], 1).length);
+		try {
+			util.getNearestElementsProjected(new double[]{0}, new double[]{0}, 3);
+			Assert.fail();
+		} catch (IllegalArgumentException expected) {
+		}
+		try {
+			util.getNearestElementsProjected(new double[]{0}, new double[0], 1);
+			Assert.fail();
+		} catch (IllegalArgumentException expected) {
+		}
+		try {
+			util.getNearestElementsProjected(new double[]{9, 1}, new double[]{0, 0}, 2, new int[3], null);
+			Assert.fail();
+		} catch (IllegalArgumentException expected) {
+		}
+		try {
+			util.getNearestElementsProjected(new double[]{9, 1}, new double[]{0, 0}, 2, new int[4], new double[3]);
+			Assert.fail();
+		} catch (IllegalArgumentException expected) {
+		}
+
+		int k = 1 << 12;
+		for (int i = elements.size(); i < k; i++) {
+			elements.add(new NearestElementUtilPair<>(new Coordinate(i, 0), i));
+		}
+		util = new NearestElementUtil<>(elements, null, true, Integer[]::new);
+		double[] coordinates = new double[1 << 19];
+		try {
+			util.getNearestElementsProjected(coordinates, coordinates, k);
+			Assert.fail();
+		} catch (IllegalArgumentException expected) {
+		}
+		try {
+			util.getNearestElementsProjected(coordinates, coordinates, k, new int[0], null);
+			Assert.fail();
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+}
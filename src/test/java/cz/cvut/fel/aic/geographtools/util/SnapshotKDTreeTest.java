@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import cz.cvut.fel.aic.geographtools.GPSLocation;
+import cz.cvut.fel.aic.geographtools.util.KDTree.ConflictResolverMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SnapshotKDTreeTest {
+
+	@Test
+	public void testUpdatesVisibleAfterPublish() {
+		SnapshotKDTree<GPSLocation> tree = createTree(ConflictResolverMode.THROW_EXCEPTION);
+		Assert.assertNull(tree.getNearestNode(new double[]{0, 0}));
+		Assert.assertTrue(tree.getNNearestNodes(new double[]{0, 0}, 3).isEmpty());
+
+		GPSLocation first = location(0, 0);
+		GPSLocation second = location(10, 0);
+		GPSLocation third = location(30, 0);
+		tree.insert(first);
+		tree.insertAll(Arrays.asList(second, third));
+		Assert.assertEquals(3, tree.getStagedChanges());
+		Assert.assertEquals(0, tree.size());
+
+		SnapshotKDTree.Snapshot<GPSLocation> old = tree.getSnapshot();
+		SnapshotKDTree.Snapshot<GPSLocation> published = tree.publish();
+		Assert.assertSame(published, tree.getSnapshot());
+		Assert.assertSame(published, tree.publish());
+		Assert.assertEquals(1, published.getVersion());
+		Assert.assertEquals(0, old.size());
+		Assert.assertEquals(3, tree.size());
+		Assert.assertEquals(second, tree.getNearestNode(new double[]{12, 1}));
+		Assert.assertEquals(Arrays.asList(second, first), tree.getNearestNodesCloserThan(new double[]{8, 0},
+				10));
+		Assert.assertEquals(Arrays.asList(second), tree.getNNearestNodesWithMaxDistance(new double[]{12, 0},
+				3, 5));
+
+		tree.delete(second);
+		Assert.assertEquals(second, tree.getNearestNode(new double[]{12, 1}));
+		tree.publish();
+		Assert.assertEquals(first, tree.getNearestNode(new double[]{12, 1}));
+		Assert.assertEquals(3, published.size());
+
+		try {
+			tree.insert(location(0, 0));
+			Assert.fail();
+		} catch (IllegalArgumentException expected) {
+		}
+		try {
+			tree.delete(second);
+			Assert.fail();
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	@Test
+	public void testConflictModes() {
+		SnapshotKDTree<GPSLocation> useOld = createTree(ConflictResolverMode.USE_OLD);
+		SnapshotKDTree<GPSLocation> useNew = createTree(ConflictResolverMode.USE_NEW);
+		GPSLocation a = location(5, 5);
+		GPSLocation b = new GPSLocation(1, 1, 500, 500, 0);
+		for (SnapshotKDTree<GPSLocation> tree : Arrays.asList(useOld, useNew)) {
+			tree.insert(a);
+			tree.insert(b);
+			tree.publish();
+			Assert.assertEquals(1, tree.size());
+		}
+		Assert.assertSame(a, useOld.getNearestNode(new double[]{5, 5}));
+		Assert.assertSame(b, useNew.getNearestNode(new double[]{5, 5}));
+	}
+
+	@Test
+	public void testConcurrentReadersSeeWholeSnapshots() throws InterruptedException {
+		SnapshotKDTree<GPSLocation> tree = createTree(ConflictResolverMode.USE_OLD);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		List<Thread> readers = new ArrayList<>();
+		int batches = 50;
+		int batchSize = 100;
+		for (int r = 0; r < 4; r++) {
+			Thread reader = new Thread(() -> {
+				Random random = new Random();
+				try {
+					while (tree.size() < batches * batchSize) {
+						SnapshotKDTree.Snapshot<GPSLocation> snapshot = tree.getSnapshot();
+						// every published snapshot consists of whole batches along the x axis
+						Assert.assertEquals(0, snapshot.size() % batchSize);
+						if (snapshot.size() > 0) {
+							double x = random.nextDouble() * 2 * snapshot.size();
+							GPSLocation nearest = snapshot.getNearestNode(new double[]{x, 0});
+							Assert.assertTrue(nearest.getLongitudeProjected() < snapshot.size());
+							Assert.assertEquals(snapshot.size(), snapshot.getNNearestNodes(new double[]{x, 0},
+									snapshot.size() + 1).size());
+						}
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+			});
+			readers.add(reader);
+			reader.start();
+		}
+		for (int batch = 0; batch < batches; batch++) {
+			for (int i = 0; i < batchSize; i++) {
+				tree.insert(location(batch * batchSize + i, 0));
+			}
+			tree.publish();
+		}
+		for (Thread reader : readers) {
+			reader.join(60000);
+		}
+		Assert.assertNull(failure.get());
+		Assert.assertEquals(batches, tree.getSnapshot().getVersion());
+	}
+
+	private static SnapshotKDTree<GPSLocation> createTree(ConflictResolverMode mode) {
+		return new SnapshotKDTree<>(2, new GPSLocationKDTreeResolver<>(), mode, GPSLocation[]::new);
+	}
+
+	private static GPSLocation location(int x, int y) {
+		return new GPSLocation(0, 0, y * 100, x * 100, 0);
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2026 Czech Technical University in Prague
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package cz.cvut.fel.aic.geographtools.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StaticKDTreeTest {
+
+	@Test
+	public void testRandomPointsMatchBruteForce() {
+		Random random = new Random(1);
+		List<double[]> keys = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			keys.add(new double[]{random.nextDouble() * 1000, random.nextDouble() * 1000});
+		}
+		StaticKDTree<Integer> tree = createTree(keys);
+		for (int i = 0; i < 200; i++) {
+			double[] query = {random.nextDouble() * 1100 - 50, random.nextDouble() * 1100 - 50};
+			assertNearest(keys, tree, query, 1);
+			assertNearest(keys, tree, query, 7);
+		}
+	}
+
+	/**
+	 * Points inserted in a sorted order along a line or a grid made the tree built by insertion degenerate to a
+	 * list.
+	 */
+	@Test
+	public void testSortedGridPoints() {
+		int side = 400;
+		List<double[]> keys = new ArrayList<>();
+		for (int x = 0; x < side; x++) {
+			for (int y = 0; y < side; y++) {
+				keys.add(new double[]{x * 10, y * 10});
+			}
+		}
+		for (int i = 0; i < 50000; i++) {
+			keys.add(new double[]{i, 0});
+		}
+		StaticKDTree<Integer> tree = createTree(keys);
+		Assert.assertEquals(keys.size(), tree.size());
+		Random random = new Random(2);
+		for (int i = 0; i < 100; i++) {
+			double[] query = {random.nextDouble() * side * 10, random.nextDouble() * side * 10};
+			assertNearest(keys, tree, query, 5);
+		}
+		Assert.assertEquals(side * side + 49999, (int) tree.nearest(new double[]{1e6, -1}));
+	}
+
+	@Test
+	public void testDuplicateKeysPreferFirst() {
+		List<double[]> keys = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			keys.add(new double[]{i % 10, 0});
+		}
+		StaticKDTree<Integer> tree = createTree(keys);
+		Assert.assertEquals(3, (int) tree.nearest(new double[]{3, 0.1}));
+		Assert.assertArrayEquals(new Integer[]{3, 13, 23}, tree.nearest(new double[]{3, 0}, 3));
+	}
+
+	@Test
+	public void testPrimitiveQueries() {
+		Random random = new Random(3);
+		List<double[]> keys = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			keys.add(new double[]{random.nextInt(500), random.nextInt(500)});
+		}
+		StaticKDTree<Integer> tree = createTree(keys);
+		int[] indices = new int[40];
+		double[] distances = new double[40];
+		for (int i = 0; i < 200; i++) {
+			double[] query = {random.nextDouble() * 500, random.nextDouble() * 500};
+			int k = 1 + random.nextInt(40);
+			tree.nearest(query[0], query[1], k, indices, distances);
+			Integer[] expected = tree.nearest(query, k);
+			for (int j = 0; j < k; j++) {
+				Assert.assertEquals((int) expected[j], indices[j]);
+				Assert.assertEquals(distance(keys.get(indices[j]), query), distances[j], 0);
+				Assert.assertEquals(indices[j], (int) tree.getValue(indices[j]));
+			}
+			tree.nearest(query, 1, indices, null);
+			Assert.assertEquals((int) expected[0], indices[0]);
+		}
+	}
+
+	/**
+	 * Queries for more neighbours than the heap of a thread retains use a temporary heap.
+	 */
+	@Test
+	public void testLargeK() {
+		Random random = new Random(4);
+		List<double[]> keys = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			keys.add(new double[]{random.nextDouble() * 1000, random.nextDouble() * 1000});
+		}
+		StaticKDTree<Integer> tree = createTree(keys);
+		for (int i = 0; i < 5; i++) {
+			double[] query = {random.nextDouble() * 1000, random.nextDouble() * 1000};
+			assertNearest(keys, tree, query, NeighbourHeap.MAX_RETAINED_CAPACITY + 1 + random.nextInt(1000));
+			assertNearest(keys, tree, query, 3);
+		}
+		assertNearest(keys, tree, new double[]{500, 500}, keys.size());
+		Assert.assertNotSame(NeighbourHeap.forCurrentThread(),
+				NeighbourHeap.forQuery(NeighbourHeap.MAX_RETAINED_CAPACITY + 1));
+		Assert.assertSame(NeighbourHeap.forCurrentThread(), NeighbourHeap.forQuery(NeighbourHeap.MAX_RETAINED_CAPACITY));
+	}
+
+	@Test
+	public void testEdgeCases() {
+		StaticKDTree<Integer> empty = createTree(new ArrayList<>());
+		Assert.assertEquals(0, empty.nearest(new double[]{0, 0}, 0).length);
+		try {
+			empty.nearest(new double[]{0, 0});
+			Assert.fail();
+		} catch (IllegalArgumentException expected) {
+		}
+		StaticKDTree<Integer> single = createTree(Arrays.asList(new double[]{1, 2}));
+		Assert.assertEquals(0, (int) single.nearest(new double[]{5, 5}));
+		try {
+			single.nearest(new double[]{0, 0}, 2);
+			Assert.fail();
+		} catch (IllegalArgumentException expected) {
+		}
+		try {
+			single.nearest(new double[]{0, 0, 0});
+			Assert.fail();
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	private static StaticKDTree<Integer> createTree(List<double[]> keys) {
+		List<Integer> values = new ArrayList<>();
+		for (int i = 0; i < keys.size(); i++) {
+			values.add(i);
+		}
+		return new StaticKDTree<>(2, keys, values, Integer[]::new);
+	}
+
+	private static void assertNearest(List<double[]> keys, StaticKDTree<Integer> tree, double[] query, int k) {
+		Integer[] expected = new Integer[keys.size()];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = i;
+		}
+		Arrays.sort(expected, Comparator.<Integer>comparingDouble(i -> distance(keys.get(i), query))
+				.thenComparingInt(i -> i));
+		Assert.assertArrayEquals(Arrays.copyOf(expected, k), tree.nearest(query, k));
+	}
+
+	private static double distance(double[] a, double[] b) {
+		return (a[0] - b[0]) * (a[0] - b[0]) + (a[1] - b[1]) * (a[1] - b[1]);
+	}
+}